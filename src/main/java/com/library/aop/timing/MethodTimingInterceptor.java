@@ -0,0 +1,288 @@
+package com.library.aop.timing;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times the methods of the repositories, services and REST controllers, see {@link #POINTCUT}, with a Micrometer timer per
+ * method and outcome.
+ * <p>
+ * A method returning a {@link Mono} or a {@link Flux} only assembles the work, which is done once the result is subscribed to:
+ * each subscription is timed from the subscription to its terminal signal or its cancellation, and the number of elements it
+ * emitted is recorded. The other methods are timed from their call to their return.
+ * <p>
+ * Only a sample of the calls is timed, and the meters count the sampled calls only; a call left out costs the proxy and a
+ * random number. The timed calls are logged at debug level, by the logger of their class, and the errors they end with at
+ * error level, with their stack trace, when {@code logErrors} is set, as it is with the dev profile.
+ */
+public class MethodTimingInterceptor implements MethodInterceptor {
+
+    /**
+     * The repositories, services and REST controllers of the application's main packages, and the Spring Data repositories,
+     * whose beans are interface proxies that {@code within} does not match; their fragment implementations, which are only
+     * called through them, are left out.
+     */
+    public static final String POINTCUT =
+        "((within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *))" +
+        " && (within(com.library.repository..*) || within(com.library.service..*) || within(com.library.web.rest..*)))" +
+        " || (execution(* org.springframework.data.repository.Repository+.*(..)) && !within(com.library.repository..*))";
+
+    public static final String METER_NAME = "method.execution";
+    public static final String METER_DESCRIPTION = "Execution time of the methods, until the end of their Mono or Flux.";
+
+    public static final String ELEMENTS_METER_NAME = "method.execution.elements";
+    public static final String ELEMENTS_METER_DESCRIPTION = "Number of elements emitted by the Mono or Flux of the methods.";
+    public static final String ELEMENTS_METER_BASE_UNIT = "elements";
+
+    public static final String CLASS_DIMENSION = "class";
+    public static final String METHOD_DIMENSION = "method";
+    public static final String OUTCOME_DIMENSION = "outcome";
+    public static final String EXCEPTION_DIMENSION = "exception";
+
+    static final String SUCCESS = "success";
+    static final String ERROR = "error";
+    static final String CANCELLED = "cancelled";
+    static final String NO_EXCEPTION = "none";
+
+    private record Key(Class<?> targetClass, Method method) {}
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final DoubleSupplier sampleRateSupplier;
+    private volatile double sampleRate = Double.NaN;
+    private final boolean logErrors;
+    private final Map<Key, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry the registry of the meters, looked up on the first timed call.
+     * @param sampleRate the fraction of the calls timed, see {@code application.method-timing.sample-rate}, looked up on the
+     * first call.
+     * @param logErrors whether the errors the timed calls end with are logged at error level.
+     */
+    public MethodTimingInterceptor(Supplier<MeterRegistry> meterRegistry, DoubleSupplier sampleRate, boolean logErrors) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRateSupplier = sampleRate;
+        this.logErrors = logErrors;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!sampled()) {
+            return invocation.proceed();
+        }
+        MethodMeters methodMeters = metersOf(invocation);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            methodMeters.record(System.nanoTime() - start, ERROR, e, -1);
+            throw e;
+        }
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Execution execution = new Execution(methodMeters, true);
+                return mono
+                    .doOnNext(execution)
+                    .doOnSuccess(value -> execution.completed())
+                    .doOnError(execution::failed)
+                    .doOnCancel(execution::cancelled);
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                Execution execution = new Execution(methodMeters, false);
+                return flux
+                    .doOnNext(execution)
+                    .doOnComplete(execution::completed)
+                    .doOnError(execution::failed)
+                    .doOnCancel(execution::cancelled);
+            });
+        }
+        methodMeters.record(System.nanoTime() - start, SUCCESS, null, -1);
+        return result;
+    }
+
+    private boolean sampled() {
+        double sampleRate = this.sampleRate;
+        if (Double.isNaN(sampleRate)) {
+            sampleRate = sampleRateSupplier.getAsDouble();
+            this.sampleRate = sampleRate;
+        }
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private MethodMeters metersOf(MethodInvocation invocation) {
+        Object target = invocation.getThis();
+        Key key = new Key(target != null ? target.getClass() : null, invocation.getMethod());
+        MethodMeters methodMeters = meters.get(key);
+        if (methodMeters == null) {
+            methodMeters = meters.computeIfAbsent(key, k -> new MethodMeters(userClass(target, k.method()), k.method().getName()));
+        }
+        return methodMeters;
+    }
+
+    /**
+     * Returns the class a method is timed under: the repository interface of a Spring Data repository, else the class of the
+     * bean without its proxy.
+     */
+    private static Class<?> userClass(Object target, Method method) {
+        if (target == null) {
+            return method.getDeclaringClass();
+        }
+        if (Proxy.isProxyClass(target.getClass())) {
+            return AopProxyUtils.proxiedUserInterfaces(target)[0];
+        }
+        return ClassUtils.getUserClass(target);
+    }
+
+    /**
+     * The meters of a method.
+     */
+    private final class MethodMeters {
+
+        private final Logger log;
+        private final String className;
+        private final String methodName;
+        private final Timer successTimer;
+        private volatile DistributionSummary elementsSummary;
+
+        MethodMeters(Class<?> type, String methodName) {
+            this.log = LoggerFactory.getLogger(type);
+            this.className = type.getSimpleName();
+            this.methodName = methodName;
+            this.successTimer = timer(SUCCESS, NO_EXCEPTION);
+        }
+
+        /**
+         * Returns the summary of the elements, registered on the first call returning a {@link Mono} or a {@link Flux}.
+         */
+        private DistributionSummary elementsSummary() {
+            DistributionSummary summary = elementsSummary;
+            if (summary == null) {
+                summary = DistributionSummary.builder(ELEMENTS_METER_NAME)
+                    .description(ELEMENTS_METER_DESCRIPTION)
+                    .baseUnit(ELEMENTS_METER_BASE_UNIT)
+                    .tag(CLASS_DIMENSION, className)
+                    .tag(METHOD_DIMENSION, methodName)
+                    .register(meterRegistry.get());
+                elementsSummary = summary;
+            }
+            return summary;
+        }
+
+        private Timer timer(String outcome, String exception) {
+            return Timer.builder(METER_NAME)
+                .description(METER_DESCRIPTION)
+                .tag(CLASS_DIMENSION, className)
+                .tag(METHOD_DIMENSION, methodName)
+                .tag(OUTCOME_DIMENSION, outcome)
+                .tag(EXCEPTION_DIMENSION, exception)
+                .register(meterRegistry.get());
+        }
+
+        /**
+         * Records a call.
+         * @param nanos the time from the call, or the subscription, to its end.
+         * @param outcome how the call ended.
+         * @param error the error the call ended with, if any.
+         * @param elements the number of elements emitted, or -1 if the method does not return a {@link Mono} or a {@link Flux}.
+         */
+        void record(long nanos, String outcome, Throwable error, long elements) {
+            Timer timer = switch (outcome) {
+                case SUCCESS -> successTimer;
+                case CANCELLED -> timer(CANCELLED, NO_EXCEPTION);
+                default -> timer(ERROR, error.getClass().getSimpleName());
+            };
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            if (elements >= 0) {
+                elementsSummary().record(elements);
+            }
+            if (error != null && logErrors) {
+                log.error(
+                    "Exception in {}() with cause = '{}' and exception = '{}'",
+                    methodName,
+                    error.getCause() != null ? error.getCause() : "NULL",
+                    error.getMessage(),
+                    error
+                );
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(
+                    "Exit: {}() with outcome {} in {} ms{}",
+                    methodName,
+                    error != null ? error : outcome,
+                    TimeUnit.NANOSECONDS.toMillis(nanos),
+                    elements >= 0 ? ", " + elements + " element(s)" : ""
+                );
+            }
+        }
+    }
+
+    /**
+     * A subscription to the {@link Mono} or {@link Flux} of a timed call. The subscription of a {@link Mono} ends with its value,
+     * as its subscribers usually cancel once they have it.
+     * <p>
+     * The subscription is recorded as its signal goes by, before it reaches the subscriber, so the time does not include the
+     * work of the subscriber, and the meters are written before the caller sees the end of the result.
+     */
+    private static final class Execution implements Consumer<Object> {
+
+        private final MethodMeters methodMeters;
+        private final boolean mono;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private long elements;
+
+        Execution(MethodMeters methodMeters, boolean mono) {
+            this.methodMeters = methodMeters;
+            this.mono = mono;
+        }
+
+        @Override
+        public void accept(Object element) {
+            elements++;
+            if (mono) {
+                finish(SUCCESS, null);
+            }
+        }
+
+        void completed() {
+            finish(SUCCESS, null);
+        }
+
+        void failed(Throwable e) {
+            finish(ERROR, e);
+        }
+
+        void cancelled() {
+            finish(CANCELLED, null);
+        }
+
+        private void finish(String outcome, Throwable error) {
+            if (finished.compareAndSet(false, true)) {
+                methodMeters.record(System.nanoTime() - start, outcome, error, elements);
+            }
+        }
+    }
+}
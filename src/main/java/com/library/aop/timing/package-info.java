@@ -0,0 +1,4 @@
+/**
+ * Method timing.
+ */
+package com.library.aop.timing;
@@ -1,5 +1,9 @@
 package com.library.config;
 
+import com.library.repository.routing.ReplicaRoutingConnectionFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,9 +14,688 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final BookImport bookImport = new BookImport();
+
+    private final Streaming streaming = new Streaming();
+
+    private final SlowQueries slowQueries = new SlowQueries();
+
+    private final Replicas replicas = new Replicas();
+
+    private final Availability availability = new Availability();
+
+    private final OverdueScan overdueScan = new OverdueScan();
+
+    private final ReferenceCache referenceCache = new ReferenceCache();
+
+    private final UserCache userCache = new UserCache();
+
+    private final JwtCache jwtCache = new JwtCache();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final LoginRateLimit loginRateLimit = new LoginRateLimit();
+
+    private final MethodTiming methodTiming = new MethodTiming();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
     // jhipster-needle-application-properties-property
 
+    public BookImport getBookImport() {
+        return bookImport;
+    }
+
+    public Streaming getStreaming() {
+        return streaming;
+    }
+
+    public SlowQueries getSlowQueries() {
+        return slowQueries;
+    }
+
+    public Replicas getReplicas() {
+        return replicas;
+    }
+
+    public Availability getAvailability() {
+        return availability;
+    }
+
+    public OverdueScan getOverdueScan() {
+        return overdueScan;
+    }
+
+    public ReferenceCache getReferenceCache() {
+        return referenceCache;
+    }
+
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    public JwtCache getJwtCache() {
+        return jwtCache;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public LoginRateLimit getLoginRateLimit() {
+        return loginRateLimit;
+    }
+
+    public MethodTiming getMethodTiming() {
+        return methodTiming;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
+    public static class BookImport {
+
+        /**
+         * Number of books written per multi-row insert, and per transaction.
+         */
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Streaming {
+
+        /**
+         * Number of rows fetched at a time from the server-side cursor of a streamed query.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * Number of bytes of a streamed JSON array gathered before they are handed to the server to be sent.
+         */
+        private int flushThreshold = 8192;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getFlushThreshold() {
+            return flushThreshold;
+        }
+
+        public void setFlushThreshold(int flushThreshold) {
+            this.flushThreshold = flushThreshold;
+        }
+    }
+
+    public static class SlowQueries {
+
+        /**
+         * Number of statement shapes kept by the slow query log.
+         */
+        private int size = 20;
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+    }
+
+    public static class Replicas {
+
+        /**
+         * R2DBC URLs of the read replicas; read-only transactions and reading requests use the primary when empty.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * How the replica of a connection is chosen.
+         */
+        private ReplicaRoutingConnectionFactory.Selection selection = ReplicaRoutingConnectionFactory.Selection.LEAST_PENDING;
+
+        /**
+         * How long the requests of a client read from the primary after it wrote, so that it reads its own writes.
+         */
+        private Duration stickyWindow = Duration.ofSeconds(5);
+
+        /**
+         * How long a replica is left out after failing to give a connection.
+         */
+        private Duration ejectionPeriod = Duration.ofSeconds(30);
+
+        /**
+         * Paths of the reading requests which write anyway, and so always use the primary.
+         */
+        private List<String> primaryPaths = new ArrayList<>(List.of("/api/activate"));
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public ReplicaRoutingConnectionFactory.Selection getSelection() {
+            return selection;
+        }
+
+        public void setSelection(ReplicaRoutingConnectionFactory.Selection selection) {
+            this.selection = selection;
+        }
+
+        public Duration getStickyWindow() {
+            return stickyWindow;
+        }
+
+        public void setStickyWindow(Duration stickyWindow) {
+            this.stickyWindow = stickyWindow;
+        }
+
+        public Duration getEjectionPeriod() {
+            return ejectionPeriod;
+        }
+
+        public void setEjectionPeriod(Duration ejectionPeriod) {
+            this.ejectionPeriod = ejectionPeriod;
+        }
+
+        public List<String> getPrimaryPaths() {
+            return primaryPaths;
+        }
+
+        public void setPrimaryPaths(List<String> primaryPaths) {
+            this.primaryPaths = primaryPaths;
+        }
+    }
+
+    public static class Availability {
+
+        /**
+         * Delay between two checks of the maintained numbers of copies on loan against the loans.
+         */
+        private Duration reconciliationInterval = Duration.ofMinutes(15);
+
+        /**
+         * Whether the numbers of copies on loan found wrong are recounted, or only reported.
+         */
+        private boolean repair = true;
+
+        /**
+         * Maximum number of books whose availability can be asked at once.
+         */
+        private int maxIds = 1000;
+
+        /**
+         * Maximum number of book availabilities cached in memory.
+         */
+        private int cacheMaximumSize = 10_000;
+
+        /**
+         * Time a book availability stays cached; the loans changed by the other instances are seen after it at the latest.
+         */
+        private Duration cacheTimeToLive = Duration.ofSeconds(30);
+
+        public Duration getReconciliationInterval() {
+            return reconciliationInterval;
+        }
+
+        public void setReconciliationInterval(Duration reconciliationInterval) {
+            this.reconciliationInterval = reconciliationInterval;
+        }
+
+        public boolean isRepair() {
+            return repair;
+        }
+
+        public void setRepair(boolean repair) {
+            this.repair = repair;
+        }
+
+        public int getMaxIds() {
+            return maxIds;
+        }
+
+        public void setMaxIds(int maxIds) {
+            this.maxIds = maxIds;
+        }
+
+        public int getCacheMaximumSize() {
+            return cacheMaximumSize;
+        }
+
+        public void setCacheMaximumSize(int cacheMaximumSize) {
+            this.cacheMaximumSize = cacheMaximumSize;
+        }
+
+        public Duration getCacheTimeToLive() {
+            return cacheTimeToLive;
+        }
+
+        public void setCacheTimeToLive(Duration cacheTimeToLive) {
+            this.cacheTimeToLive = cacheTimeToLive;
+        }
+    }
+
+    public static class OverdueScan {
+
+        /**
+         * Number of days a loan can last before it is overdue.
+         */
+        private int loanDays = 21;
+
+        /**
+         * Width of the id ranges the loans are scanned by.
+         */
+        private int chunkSize = 10_000;
+
+        /**
+         * Number of id ranges scanned at the same time.
+         */
+        private int concurrency = 4;
+
+        /**
+         * Number of times a failed scan is resumed from its checkpoint before waiting for the next run.
+         */
+        private int retries = 3;
+
+        /**
+         * Time waited before resuming a failed scan for the first time, doubled on each retry.
+         */
+        private Duration retryBackoff = Duration.ofMinutes(1);
+
+        public int getLoanDays() {
+            return loanDays;
+        }
+
+        public void setLoanDays(int loanDays) {
+            this.loanDays = loanDays;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+    }
+
+    public static class ReferenceCache {
+
+        /**
+         * Maximum number of entities of each type cached.
+         */
+        private int maximumSize = 10_000;
+
+        /**
+         * Time after which a cached entity is loaded again.
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        /**
+         * Whether the book queries read their category from the cache instead of joining the category table, and the eager
+         * book queries read their authors from the cache instead of joining the author table.
+         */
+        private boolean skipJoins = false;
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public boolean isSkipJoins() {
+            return skipJoins;
+        }
+
+        public void setSkipJoins(boolean skipJoins) {
+            this.skipJoins = skipJoins;
+        }
+    }
+
+    public static class UserCache {
+
+        /**
+         * Maximum number of entries cached, a user has one by login and one by email once looked up both ways; 0 disables
+         * the cache.
+         */
+        private int maximumSize = 10_000;
+
+        /**
+         * Time after which a cached user is loaded again.
+         */
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class JwtCache {
+
+        /**
+         * Maximum number of verified tokens cached; 0 disables the cache.
+         */
+        private int maximumSize = 10_000;
+
+        /**
+         * Time after which a cached token is verified again, if it does not expire before.
+         */
+        private Duration timeToLive = Duration.ofHours(1);
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class PasswordHashing {
+
+        /**
+         * Number of threads hashing passwords; 0 for one per processor.
+         */
+        private int threads = 0;
+
+        /**
+         * Number of hashes waiting for a thread, beyond which requests are rejected with a 503.
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * BCrypt strength, the log2 of the number of rounds, of the new hashes; the minimum when a target latency is set.
+         */
+        private int strength = 10;
+
+        /**
+         * If set, the strength is raised at startup so that a hash takes about this long, as measured on this machine.
+         */
+        private Duration targetLatency;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+
+        public Duration getTargetLatency() {
+            return targetLatency;
+        }
+
+        public void setTargetLatency(Duration targetLatency) {
+            this.targetLatency = targetLatency;
+        }
+    }
+
+    public static class LoginRateLimit {
+
+        /**
+         * Maximum number of clients, by address and by username, with a bucket of their own.
+         */
+        private int maxClients = 100_000;
+
+        /**
+         * Login attempts of each client address.
+         */
+        private final Bucket address = new Bucket(30, Duration.ofMinutes(1));
+
+        /**
+         * Login attempts on each username.
+         */
+        private final Bucket username = new Bucket(10, Duration.ofMinutes(10));
+
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public Bucket getAddress() {
+            return address;
+        }
+
+        public Bucket getUsername() {
+            return username;
+        }
+
+        public static class Bucket {
+
+            /**
+             * Number of attempts a client may make at once; 0 disables the limit.
+             */
+            private int capacity;
+
+            /**
+             * Time after which a client may make its whole capacity of attempts again.
+             */
+            private Duration refillPeriod;
+
+            Bucket(int capacity, Duration refillPeriod) {
+                this.capacity = capacity;
+                this.refillPeriod = refillPeriod;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public Duration getRefillPeriod() {
+                return refillPeriod;
+            }
+
+            public void setRefillPeriod(Duration refillPeriod) {
+                this.refillPeriod = refillPeriod;
+            }
+        }
+    }
+
+    public static class MethodTiming {
+
+        /**
+         * Whether the methods of the repositories, services and REST controllers are timed; when false, they are not proxied
+         * for it.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fraction of the calls timed, between 0 and 1.
+         */
+        private double sampleRate = 0.1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    public static class MailOutbox {
+
+        /**
+         * Delay between two deliveries of the emails waiting in the outbox.
+         */
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        /**
+         * Maximum number of emails claimed and sent over one SMTP connection.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Time after which the emails claimed by an instance which did not report their delivery can be claimed again.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Number of delivery attempts after which an email is given up, and left in the outbox as failed.
+         */
+        private int maxAttempts = 10;
+
+        /**
+         * Delay before the second attempt to deliver an email, doubled after each failed attempt.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        /**
+         * Maximum delay between two attempts to deliver an email.
+         */
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
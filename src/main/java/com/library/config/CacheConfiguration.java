@@ -0,0 +1,120 @@
+package com.library.config;
+
+import com.library.domain.Author;
+import com.library.domain.Authority;
+import com.library.domain.BookAvailability;
+import com.library.domain.Category;
+import com.library.domain.User;
+import com.library.repository.cache.NearCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the {@link NearCache}s of the reference entities, which are small and mostly read, of the users, which
+ * are read on each authentication, and of the availabilities of the books, which are read with each list of books.
+ */
+@Configuration
+public class CacheConfiguration {
+
+    private final ApplicationProperties.ReferenceCache properties;
+
+    private final ApplicationProperties.UserCache userProperties;
+
+    private final ApplicationProperties.Availability availabilityProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    public CacheConfiguration(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getReferenceCache();
+        this.userProperties = applicationProperties.getUserCache();
+        this.availabilityProperties = applicationProperties.getAvailability();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public NearCache<Long, Category> categoryCache() {
+        return new NearCache<>(
+            "category",
+            properties.getMaximumSize(),
+            properties.getTimeToLive(),
+            category -> new Category().id(category.getId()).name(category.getName()).version(category.getVersion()),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    public NearCache<Long, Author> authorCache() {
+        return new NearCache<>(
+            "author",
+            properties.getMaximumSize(),
+            properties.getTimeToLive(),
+            author ->
+                new Author()
+                    .id(author.getId())
+                    .firstName(author.getFirstName())
+                    .lastName(author.getLastName())
+                    .version(author.getVersion()),
+            meterRegistry
+        );
+    }
+
+    /**
+     * The users with their authorities, by {@code login:} or {@code email:} followed by the lowercase login or email.
+     */
+    @Bean
+    public NearCache<String, User> userCache() {
+        return new NearCache<>(
+            "user",
+            userProperties.getMaximumSize(),
+            userProperties.getTimeToLive(),
+            CacheConfiguration::copy,
+            meterRegistry
+        );
+    }
+
+    @Bean
+    public NearCache<Long, BookAvailability> availabilityCache() {
+        return new NearCache<>(
+            "availability",
+            availabilityProperties.getCacheMaximumSize(),
+            availabilityProperties.getCacheTimeToLive(),
+            UnaryOperator.identity(),
+            meterRegistry
+        );
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setLogin(user.getLogin());
+        copy.setPassword(user.getPassword());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setEmail(user.getEmail());
+        copy.setActivated(user.isActivated());
+        copy.setLangKey(user.getLangKey());
+        copy.setImageUrl(user.getImageUrl());
+        copy.setActivationKey(user.getActivationKey());
+        copy.setResetKey(user.getResetKey());
+        copy.setResetDate(user.getResetDate());
+        copy.setCreatedBy(user.getCreatedBy());
+        copy.setCreatedDate(user.getCreatedDate());
+        copy.setLastModifiedBy(user.getLastModifiedBy());
+        copy.setLastModifiedDate(user.getLastModifiedDate());
+        copy.setAuthorities(
+            user
+                .getAuthorities()
+                .stream()
+                .map(authority -> {
+                    Authority copyOfAuthority = new Authority();
+                    copyOfAuthority.setName(authority.getName());
+                    return copyOfAuthority;
+                })
+                .collect(Collectors.toSet())
+        );
+        return copy;
+    }
+}
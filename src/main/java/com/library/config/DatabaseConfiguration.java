@@ -1,5 +1,11 @@
 package com.library.config;
 
+import com.library.management.QueryInstrumentationPostProcessor;
+import com.library.management.QueryMetrics;
+import com.library.repository.routing.ReplicaAwareTransactionManager;
+import com.library.repository.routing.ReplicaRoutingPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
 import io.r2dbc.spi.ConnectionFactory;
 import java.sql.SQLException;
 import java.time.Duration;
@@ -12,8 +18,11 @@ import java.util.BitSet;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.h2.H2ConsoleProperties;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,6 +39,7 @@ import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.data.relational.core.dialect.RenderContextFactory;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
@@ -77,6 +87,49 @@ public class DatabaseConfiguration {
         return String.valueOf(port);
     }
 
+    /**
+     * Instrument the connection factory and the repositories, to get metrics of the connection pool and of the statements.
+     *
+     * @param queryMetrics the recorder of the metrics.
+     * @return the post processor instrumenting the beans.
+     */
+    @Bean
+    public static BeanPostProcessor queryInstrumentationPostProcessor(ObjectProvider<QueryMetrics> queryMetrics) {
+        return new QueryInstrumentationPostProcessor(queryMetrics);
+    }
+
+    /**
+     * Cap the number of statement shapes metered, see {@link QueryMetrics#maximumQueryTags()}.
+     *
+     * @return the meter filter.
+     */
+    @Bean
+    public MeterFilter queryMeterFilter() {
+        return QueryMetrics.maximumQueryTags();
+    }
+
+    /**
+     * Route the reads to the replicas, when {@code application.replicas.urls} is set.
+     *
+     * @param applicationProperties the properties of the replicas.
+     * @param r2dbcProperties the properties of the primary, used as defaults for the replicas.
+     * @param meterRegistry the registry of the metrics of the replica pools.
+     * @return the post processor wrapping the connection factory.
+     */
+    @Bean
+    public static BeanPostProcessor replicaRoutingPostProcessor(
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        ObjectProvider<R2dbcProperties> r2dbcProperties,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new ReplicaRoutingPostProcessor(applicationProperties, r2dbcProperties, meterRegistry);
+    }
+
+    @Bean
+    public R2dbcTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new ReplicaAwareTransactionManager(connectionFactory);
+    }
+
     // LocalDateTime seems to be the only type that is supported across all drivers atm
     // See https://github.com/r2dbc/r2dbc-h2/pull/139 https://github.com/mirromutth/r2dbc-mysql/issues/105
     @Bean
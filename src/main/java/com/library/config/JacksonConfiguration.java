@@ -1,9 +1,19 @@
 package com.library.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.domain.Author;
+import com.library.domain.Book;
+import com.library.domain.Loan;
+import com.library.domain.Reader;
+import com.library.web.codec.SparseFieldsetModule;
+import com.library.web.codec.StreamingJsonArrayEncoder;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 
 @Configuration
 public class JacksonConfiguration {
@@ -21,4 +31,25 @@ public class JacksonConfiguration {
     public Jdk8Module jdk8TimeModule() {
         return new Jdk8Module();
     }
+
+    /**
+     * Writes the sparse fieldsets of the list endpoints, see {@link com.library.web.util.FieldsetUtil}.
+     * @return the corresponding Jackson module.
+     */
+    @Bean
+    public SparseFieldsetModule sparseFieldsetModule() {
+        return new SparseFieldsetModule(Author.class, Book.class, Loan.class, Reader.class);
+    }
+
+    /**
+     * Replaces the default JSON encoder with one writing the arrays of streamed lists incrementally.
+     * Ordered last, so that it applies after Spring Boot's own Jackson customizer.
+     * @return the customizer of the codecs.
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public CodecCustomizer streamingJsonArrayCodecCustomizer(ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        int flushThreshold = applicationProperties.getStreaming().getFlushThreshold();
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new StreamingJsonArrayEncoder(objectMapper, flushThreshold));
+    }
 }
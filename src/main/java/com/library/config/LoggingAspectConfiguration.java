@@ -1,17 +0,0 @@
-package com.library.config;
-
-import com.library.aop.logging.LoggingAspect;
-import org.springframework.context.annotation.*;
-import org.springframework.core.env.Environment;
-import tech.jhipster.config.JHipsterConstants;
-
-@Configuration
-@EnableAspectJAutoProxy
-public class LoggingAspectConfiguration {
-
-    @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
-    }
-}
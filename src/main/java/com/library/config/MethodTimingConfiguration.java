@@ -0,0 +1,48 @@
+package com.library.config;
+
+import com.library.aop.timing.MethodTimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.*;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import tech.jhipster.config.JHipsterConstants;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class MethodTimingConfiguration {
+
+    /**
+     * Times the methods of the repositories, services and REST controllers, see {@link MethodTimingInterceptor}. When
+     * {@code application.method-timing.enabled} is false there is no advisor, and the beans are not proxied for it.
+     * <p>
+     * The advisors are created before most beans, while the auto-proxy creator instantiates the bean post-processors, so the
+     * advisor is an infrastructure bean of a static method, and the meter registry and the properties are only looked up on
+     * the first call.
+     * <p>
+     * With the dev profile, the errors of the timed calls are also logged at error level, with their stack trace.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = "application.method-timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public static Advisor methodTimingAdvisor(
+        ObjectProvider<MeterRegistry> meterRegistry,
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        Environment env
+    ) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(MethodTimingInterceptor.POINTCUT);
+        boolean logErrors = env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT));
+        MethodTimingInterceptor interceptor = new MethodTimingInterceptor(
+            meterRegistry::getObject,
+            () -> applicationProperties.getObject().getMethodTiming().getSampleRate(),
+            logErrors
+        );
+        return new DefaultPointcutAdvisor(pointcut, interceptor);
+    }
+}
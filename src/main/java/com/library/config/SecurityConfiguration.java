@@ -3,8 +3,14 @@ package com.library.config;
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
+import com.library.management.SecurityMetersService;
 import com.library.security.AuthoritiesConstants;
+import com.library.security.LoginRateLimiter;
+import com.library.security.PasswordHashing;
+import com.library.web.filter.LoginRateLimitWebFilter;
+import com.library.web.filter.ReadRoutingWebFilter;
 import com.library.web.filter.SpaWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
@@ -13,7 +19,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.header.ReferrerPolicyServerHttpHeadersWriter;
@@ -28,26 +33,38 @@ public class SecurityConfiguration {
 
     private final JHipsterProperties jHipsterProperties;
 
-    public SecurityConfiguration(JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public SecurityConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Bean
+    public PasswordHashing passwordHashing(MeterRegistry meterRegistry) {
+        return new PasswordHashing(applicationProperties.getPasswordHashing(), meterRegistry);
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashing passwordHashing) {
+        return passwordHashing.getPasswordEncoder();
     }
 
     @Bean
-    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsService userDetailsService) {
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(
+        ReactiveUserDetailsService userDetailsService,
+        PasswordHashing passwordHashing
+    ) {
         UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(
             userDetailsService
         );
-        authenticationManager.setPasswordEncoder(passwordEncoder());
+        authenticationManager.setPasswordEncoder(passwordHashing.getPasswordEncoder());
+        authenticationManager.setScheduler(passwordHashing.getScheduler());
         return authenticationManager;
     }
 
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http, SecurityMetersService securityMetersService) {
         http
             .securityMatcher(
                 new NegatedServerWebExchangeMatcher(
@@ -92,6 +109,24 @@ public class SecurityConfiguration {
             )
             .httpBasic(basic -> basic.disable())
             .oauth2ResourceServer(oauth2 -> oauth2.jwt(withDefaults()));
+        if (!applicationProperties.getReplicas().getUrls().isEmpty()) {
+            http.addFilterAfter(new ReadRoutingWebFilter(applicationProperties.getReplicas()), SecurityWebFiltersOrder.AUTHORIZATION);
+        }
+        ApplicationProperties.LoginRateLimit loginRateLimit = applicationProperties.getLoginRateLimit();
+        if (loginRateLimit.getAddress().getCapacity() > 0 || loginRateLimit.getUsername().getCapacity() > 0) {
+            http.addFilterBefore(
+                new LoginRateLimitWebFilter(
+                    loginRateLimiter(loginRateLimit.getAddress(), loginRateLimit.getMaxClients()),
+                    loginRateLimiter(loginRateLimit.getUsername(), loginRateLimit.getMaxClients()),
+                    securityMetersService
+                ),
+                SecurityWebFiltersOrder.AUTHENTICATION
+            );
+        }
         return http.build();
     }
+
+    private static LoginRateLimiter loginRateLimiter(ApplicationProperties.LoginRateLimit.Bucket bucket, int maxClients) {
+        return bucket.getCapacity() > 0 ? new LoginRateLimiter(bucket.getCapacity(), bucket.getRefillPeriod(), maxClients) : null;
+    }
 }
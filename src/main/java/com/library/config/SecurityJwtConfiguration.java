@@ -3,8 +3,16 @@ package com.library.config;
 import static com.library.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.library.management.SecurityMetersService;
+import com.library.security.CachingJwtDecoder;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
 import com.nimbusds.jose.util.Base64;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.text.ParseException;
+import java.time.Clock;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import org.slf4j.Logger;
@@ -12,7 +20,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
@@ -26,37 +37,53 @@ public class SecurityJwtConfiguration {
     private String jwtKey;
 
     @Bean
-    public ReactiveJwtDecoder jwtDecoder(SecurityMetersService metersService) {
+    public ReactiveJwtDecoder jwtDecoder(
+        SecurityMetersService metersService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
-            try {
-                return jwtDecoder
-                    .decode(token)
-                    .doOnError(e -> {
-                        if (e.getMessage().contains("Jwt expired at")) {
-                            metersService.trackTokenExpired();
-                        } else if (e.getMessage().contains("Failed to validate the token")) {
-                            metersService.trackTokenInvalidSignature();
-                        } else if (
-                            e.getMessage().contains("Invalid JWT serialization:") ||
-                            e.getMessage().contains("Invalid unsecured/JWS/JWE header:")
-                        ) {
-                            metersService.trackTokenMalformed();
-                        } else {
-                            LOG.error("Unknown JWT reactive error {}", e.getMessage());
-                        }
-                    });
-            } catch (Exception e) {
-                if (e.getMessage().contains("An error occurred while attempting to decode the Jwt")) {
-                    metersService.trackTokenMalformed();
-                } else if (e.getMessage().contains("Failed to validate the token")) {
-                    metersService.trackTokenInvalidSignature();
-                } else {
-                    LOG.error("Unknown JWT error {}", e.getMessage());
-                }
-                throw e;
-            }
-        };
+        // our tokens only carry timestamps to validate, so a token failing validation is an expired one
+        jwtDecoder.setJwtValidator(new JwtTimestampValidator());
+        ApplicationProperties.JwtCache jwtCache = applicationProperties.getJwtCache();
+        ReactiveJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(
+            jwtDecoder,
+            jwtCache.getMaximumSize(),
+            jwtCache.getTimeToLive(),
+            Clock.systemUTC(),
+            meterRegistry
+        );
+        return token -> cachingJwtDecoder.decode(token).doOnError(e -> trackInvalidToken(metersService, token, e));
+    }
+
+    /**
+     * Counts an error of the decoder by its type: the Nimbus exception causing a {@link BadJwtException} tells which step of
+     * the verification failed. An unsigned token is rejected before its verification, with no cause, so it is told apart
+     * from a malformed one by its header.
+     */
+    private static void trackInvalidToken(SecurityMetersService metersService, String token, Throwable e) {
+        if (e instanceof JwtValidationException) {
+            metersService.trackTokenExpired();
+        } else if (e.getCause() instanceof ParseException) {
+            metersService.trackTokenMalformed();
+        } else if (e.getCause() instanceof BadJWSException) {
+            metersService.trackTokenInvalidSignature();
+        } else if (e.getCause() instanceof BadJOSEException || isUnsigned(token)) {
+            // another algorithm, or no algorithm at all
+            metersService.trackTokenUnsupported();
+        } else if (e instanceof BadJwtException) {
+            metersService.trackTokenMalformed();
+        } else {
+            LOG.error("Unknown JWT error {}", e.getMessage());
+        }
+    }
+
+    private static boolean isUnsigned(String token) {
+        try {
+            return JWTParser.parse(token) instanceof PlainJWT;
+        } catch (ParseException e) {
+            return false;
+        }
     }
 
     @Bean
@@ -8,6 +8,7 @@ import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -50,6 +51,10 @@ public class Book implements Serializable {
     @Column("category_id")
     private Long categoryId;
 
+    @Version
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -162,6 +167,19 @@ public class Book implements Serializable {
         this.categoryId = category;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Book version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -190,6 +208,7 @@ public class Book implements Serializable {
             ", publicationDate='" + getPublicationDate() + "'" +
             ", copiesOwned=" + getCopiesOwned() +
             ", status='" + getStatus() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,28 @@
+package com.library.domain;
+
+import java.io.Serializable;
+
+/**
+ * The availability of a {@link Book}: its copies, and how many of them are currently on loan.
+ *
+ * @param bookId the id of the book.
+ * @param copiesOwned the number of copies of the book.
+ * @param copiesOnLoan the number of loans of the book not returned yet.
+ * @param copiesAvailable the number of copies which can be lent, never negative.
+ */
+public record BookAvailability(Long bookId, int copiesOwned, int copiesOnLoan, int copiesAvailable) implements Serializable {
+    public static BookAvailability of(Long bookId, Integer copiesOwned, Integer copiesOnLoan) {
+        int owned = copiesOwned != null ? copiesOwned : 0;
+        int onLoan = copiesOnLoan != null ? copiesOnLoan : 0;
+        return new BookAvailability(bookId, owned, onLoan, Math.max(0, owned - onLoan));
+    }
+
+    /**
+     * A book whose maintained number of copies on loan differs from its number of loans not returned yet.
+     *
+     * @param bookId the id of the book.
+     * @param recorded the maintained number of copies on loan.
+     * @param actual the number of loans not returned yet.
+     */
+    public record Drift(Long bookId, int recorded, int actual) {}
+}
@@ -0,0 +1,13 @@
+package com.library.domain;
+
+import java.time.LocalDate;
+
+/**
+ * The progress of the run of a batch job.
+ *
+ * @param jobName the name of the job.
+ * @param runDate the day the run is for.
+ * @param resumeFrom where the run is to continue, e.g. the first id not processed yet.
+ * @param completed whether the run is over.
+ */
+public record JobCheckpoint(String jobName, LocalDate runDate, long resumeFrom, boolean completed) {}
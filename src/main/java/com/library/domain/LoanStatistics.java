@@ -0,0 +1,38 @@
+package com.library.domain;
+
+import java.io.Serializable;
+import java.time.YearMonth;
+
+/**
+ * The circulation statistics, computed from the {@link Loan}s.
+ */
+public final class LoanStatistics {
+
+    private LoanStatistics() {}
+
+    /**
+     * The number of loans of the books of a {@link Category} made in a month.
+     *
+     * @param categoryId the id of the category, null for the books without a category.
+     * @param categoryName the name of the category, null for the books without a category.
+     * @param month the month of the loans.
+     * @param loans the number of loans.
+     */
+    public record CategoryMonth(Long categoryId, String categoryName, YearMonth month, long loans) implements Serializable {}
+
+    /**
+     * The number of loans of a {@link Book}.
+     *
+     * @param bookId the id of the book.
+     * @param title the title of the book.
+     * @param loans the number of loans.
+     */
+    public record BookLoans(Long bookId, String title, long loans) implements Serializable {}
+
+    /**
+     * The number of {@link Reader}s with at least one loan not returned yet.
+     *
+     * @param activeReaders the number of readers.
+     */
+    public record ActiveReaders(long activeReaders) implements Serializable {}
+}
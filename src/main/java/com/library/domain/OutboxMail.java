@@ -0,0 +1,26 @@
+package com.library.domain;
+
+import java.time.Instant;
+
+/**
+ * An email waiting in the outbox to be sent.
+ *
+ * @param id the id of the email in the outbox.
+ * @param to the address of the recipient.
+ * @param subject the subject.
+ * @param content the content, already rendered.
+ * @param multipart whether the content is sent as a multipart message.
+ * @param html whether the content is HTML, else plain text.
+ * @param createdAt when the email was queued.
+ * @param attempts the number of attempts made to send it.
+ */
+public record OutboxMail(
+    Long id,
+    String to,
+    String subject,
+    String content,
+    boolean multipart,
+    boolean html,
+    Instant createdAt,
+    int attempts
+) {}
@@ -0,0 +1,216 @@
+package com.library.domain.criteria;
+
+import com.library.domain.enumeration.BookStatusEnum;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.*;
+
+/**
+ * Criteria class for the {@link com.library.domain.Book} entity. This class is used
+ * in {@link com.library.web.rest.BookResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /api/books?status.equals=AVAILABLE&publicationDate.greaterThan=2000-01-01}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BookCriteria implements Serializable, Criteria {
+
+    /**
+     * Class for filtering BookStatusEnum
+     */
+    public static class BookStatusEnumFilter extends Filter<BookStatusEnum> {
+
+        public BookStatusEnumFilter() {}
+
+        public BookStatusEnumFilter(BookStatusEnumFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public BookStatusEnumFilter copy() {
+            return new BookStatusEnumFilter(this);
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+    private StringFilter title;
+    private LocalDateFilter publicationDate;
+    private IntegerFilter copiesOwned;
+    private BookStatusEnumFilter status;
+    private LongFilter categoryId;
+
+    public BookCriteria() {}
+
+    public BookCriteria(BookCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.title = other.optionalTitle().map(StringFilter::copy).orElse(null);
+        this.publicationDate = other.optionalPublicationDate().map(LocalDateFilter::copy).orElse(null);
+        this.copiesOwned = other.optionalCopiesOwned().map(IntegerFilter::copy).orElse(null);
+        this.status = other.optionalStatus().map(BookStatusEnumFilter::copy).orElse(null);
+        this.categoryId = other.optionalCategoryId().map(LongFilter::copy).orElse(null);
+    }
+
+    @Override
+    public BookCriteria copy() {
+        return new BookCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getTitle() {
+        return title;
+    }
+
+    public Optional<StringFilter> optionalTitle() {
+        return Optional.ofNullable(title);
+    }
+
+    public StringFilter title() {
+        if (title == null) {
+            setTitle(new StringFilter());
+        }
+        return title;
+    }
+
+    public void setTitle(StringFilter title) {
+        this.title = title;
+    }
+
+    public LocalDateFilter getPublicationDate() {
+        return publicationDate;
+    }
+
+    public Optional<LocalDateFilter> optionalPublicationDate() {
+        return Optional.ofNullable(publicationDate);
+    }
+
+    public LocalDateFilter publicationDate() {
+        if (publicationDate == null) {
+            setPublicationDate(new LocalDateFilter());
+        }
+        return publicationDate;
+    }
+
+    public void setPublicationDate(LocalDateFilter publicationDate) {
+        this.publicationDate = publicationDate;
+    }
+
+    public IntegerFilter getCopiesOwned() {
+        return copiesOwned;
+    }
+
+    public Optional<IntegerFilter> optionalCopiesOwned() {
+        return Optional.ofNullable(copiesOwned);
+    }
+
+    public IntegerFilter copiesOwned() {
+        if (copiesOwned == null) {
+            setCopiesOwned(new IntegerFilter());
+        }
+        return copiesOwned;
+    }
+
+    public void setCopiesOwned(IntegerFilter copiesOwned) {
+        this.copiesOwned = copiesOwned;
+    }
+
+    public BookStatusEnumFilter getStatus() {
+        return status;
+    }
+
+    public Optional<BookStatusEnumFilter> optionalStatus() {
+        return Optional.ofNullable(status);
+    }
+
+    public BookStatusEnumFilter status() {
+        if (status == null) {
+            setStatus(new BookStatusEnumFilter());
+        }
+        return status;
+    }
+
+    public void setStatus(BookStatusEnumFilter status) {
+        this.status = status;
+    }
+
+    public LongFilter getCategoryId() {
+        return categoryId;
+    }
+
+    public Optional<LongFilter> optionalCategoryId() {
+        return Optional.ofNullable(categoryId);
+    }
+
+    public LongFilter categoryId() {
+        if (categoryId == null) {
+            setCategoryId(new LongFilter());
+        }
+        return categoryId;
+    }
+
+    public void setCategoryId(LongFilter categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final BookCriteria that = (BookCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(title, that.title) &&
+            Objects.equals(publicationDate, that.publicationDate) &&
+            Objects.equals(copiesOwned, that.copiesOwned) &&
+            Objects.equals(status, that.status) &&
+            Objects.equals(categoryId, that.categoryId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, publicationDate, copiesOwned, status, categoryId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalTitle().map(f -> "title=" + f + ", ").orElse("") +
+            optionalPublicationDate().map(f -> "publicationDate=" + f + ", ").orElse("") +
+            optionalCopiesOwned().map(f -> "copiesOwned=" + f + ", ").orElse("") +
+            optionalStatus().map(f -> "status=" + f + ", ").orElse("") +
+            optionalCategoryId().map(f -> "categoryId=" + f + ", ").orElse("") +
+        "}";
+    }
+}
@@ -0,0 +1,175 @@
+package com.library.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.*;
+
+/**
+ * Criteria class for the {@link com.library.domain.Loan} entity. This class is used
+ * in {@link com.library.web.rest.LoanResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /api/loans?loanDate.greaterThanOrEqual=2024-01-01&returnDate.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class LoanCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+    private LocalDateFilter loanDate;
+    private LocalDateFilter returnDate;
+    private LongFilter bookId;
+    private LongFilter memberId;
+
+    public LoanCriteria() {}
+
+    public LoanCriteria(LoanCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.loanDate = other.optionalLoanDate().map(LocalDateFilter::copy).orElse(null);
+        this.returnDate = other.optionalReturnDate().map(LocalDateFilter::copy).orElse(null);
+        this.bookId = other.optionalBookId().map(LongFilter::copy).orElse(null);
+        this.memberId = other.optionalMemberId().map(LongFilter::copy).orElse(null);
+    }
+
+    @Override
+    public LoanCriteria copy() {
+        return new LoanCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public LocalDateFilter getLoanDate() {
+        return loanDate;
+    }
+
+    public Optional<LocalDateFilter> optionalLoanDate() {
+        return Optional.ofNullable(loanDate);
+    }
+
+    public LocalDateFilter loanDate() {
+        if (loanDate == null) {
+            setLoanDate(new LocalDateFilter());
+        }
+        return loanDate;
+    }
+
+    public void setLoanDate(LocalDateFilter loanDate) {
+        this.loanDate = loanDate;
+    }
+
+    public LocalDateFilter getReturnDate() {
+        return returnDate;
+    }
+
+    public Optional<LocalDateFilter> optionalReturnDate() {
+        return Optional.ofNullable(returnDate);
+    }
+
+    public LocalDateFilter returnDate() {
+        if (returnDate == null) {
+            setReturnDate(new LocalDateFilter());
+        }
+        return returnDate;
+    }
+
+    public void setReturnDate(LocalDateFilter returnDate) {
+        this.returnDate = returnDate;
+    }
+
+    public LongFilter getBookId() {
+        return bookId;
+    }
+
+    public Optional<LongFilter> optionalBookId() {
+        return Optional.ofNullable(bookId);
+    }
+
+    public LongFilter bookId() {
+        if (bookId == null) {
+            setBookId(new LongFilter());
+        }
+        return bookId;
+    }
+
+    public void setBookId(LongFilter bookId) {
+        this.bookId = bookId;
+    }
+
+    public LongFilter getMemberId() {
+        return memberId;
+    }
+
+    public Optional<LongFilter> optionalMemberId() {
+        return Optional.ofNullable(memberId);
+    }
+
+    public LongFilter memberId() {
+        if (memberId == null) {
+            setMemberId(new LongFilter());
+        }
+        return memberId;
+    }
+
+    public void setMemberId(LongFilter memberId) {
+        this.memberId = memberId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final LoanCriteria that = (LoanCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(loanDate, that.loanDate) &&
+            Objects.equals(returnDate, that.returnDate) &&
+            Objects.equals(bookId, that.bookId) &&
+            Objects.equals(memberId, that.memberId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, loanDate, returnDate, bookId, memberId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LoanCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalLoanDate().map(f -> "loanDate=" + f + ", ").orElse("") +
+            optionalReturnDate().map(f -> "returnDate=" + f + ", ").orElse("") +
+            optionalBookId().map(f -> "bookId=" + f + ", ").orElse("") +
+            optionalMemberId().map(f -> "memberId=" + f + ", ").orElse("") +
+        "}";
+    }
+}
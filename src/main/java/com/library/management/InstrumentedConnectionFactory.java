@@ -0,0 +1,329 @@
+package com.library.management;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ConnectionFactory} recording the time taken to acquire a connection, and the execution time and row count of every
+ * statement, through {@link QueryMetrics}.
+ * <p>
+ * The execution of a statement is timed from the subscription to {@link Statement#execute()} until its results are consumed,
+ * so for a streamed query it includes the time the client took to read it. The repository method which issued the statement
+ * is taken from the Reactor context, see {@link QueryOriginInterceptor}.
+ * <p>
+ * The pool itself stays reachable through {@link Wrapped#unwrap()}, so Spring Boot still binds its gauges of the acquired, idle
+ * and pending connections.
+ */
+public class InstrumentedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private final ConnectionFactory delegate;
+    private final QueryMetrics queryMetrics;
+
+    public InstrumentedConnectionFactory(ConnectionFactory delegate, QueryMetrics queryMetrics) {
+        this.delegate = delegate;
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.from(delegate.create()).map(connection -> {
+                queryMetrics.recordAcquire(System.nanoTime() - start);
+                return new InstrumentedConnection(connection);
+            });
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable disposable && disposable.isDisposed();
+    }
+
+    private final class InstrumentedConnection implements Connection, Wrapped<Connection> {
+
+        private final Connection connection;
+
+        private InstrumentedConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new InstrumentedStatement(connection.createStatement(sql), sql);
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return connection.beginTransaction();
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+            return connection.beginTransaction(definition);
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return connection.close();
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return connection.commitTransaction();
+        }
+
+        @Override
+        public Batch createBatch() {
+            return connection.createBatch();
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return connection.createSavepoint(name);
+        }
+
+        @Override
+        public boolean isAutoCommit() {
+            return connection.isAutoCommit();
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            return connection.getMetadata();
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            return connection.getTransactionIsolationLevel();
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return connection.releaseSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return connection.rollbackTransaction();
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return connection.rollbackTransactionToSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return connection.setAutoCommit(autoCommit);
+        }
+
+        @Override
+        public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+            return connection.setLockWaitTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setStatementTimeout(Duration timeout) {
+            return connection.setStatementTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            return connection.setTransactionIsolationLevel(isolationLevel);
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            return connection.validate(depth);
+        }
+
+        @Override
+        public Connection unwrap() {
+            return connection;
+        }
+    }
+
+    private final class InstrumentedStatement implements Statement {
+
+        private final Statement statement;
+        private final String sql;
+
+        private InstrumentedStatement(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            return Flux.deferContextual(context -> {
+                Execution execution = new Execution(sql, QueryOriginInterceptor.origin(context));
+                return execution.track(Flux.from(statement.execute()).map(execution::result));
+            });
+        }
+
+        @Override
+        public Statement add() {
+            statement.add();
+            return this;
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            statement.bind(index, value);
+            return this;
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            statement.bind(name, value);
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            statement.bindNull(index, type);
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            statement.bindNull(name, type);
+            return this;
+        }
+
+        @Override
+        public Statement returnGeneratedValues(String... columns) {
+            statement.returnGeneratedValues(columns);
+            return this;
+        }
+
+        @Override
+        public Statement fetchSize(int rows) {
+            statement.fetchSize(rows);
+            return this;
+        }
+    }
+
+    /**
+     * One execution of a statement, which ends once the statement and the consumption of each of its results have terminated.
+     * It is recorded before the termination is signalled downstream, so the metrics are up to date when the caller resumes.
+     */
+    private final class Execution {
+
+        private final String sql;
+        private final String origin;
+        private final long start = System.nanoTime();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicLong rows = new AtomicLong();
+
+        private Execution(String sql, String origin) {
+            this.sql = sql;
+            this.origin = origin;
+        }
+
+        private Result result(Result result) {
+            pending.incrementAndGet();
+            return new InstrumentedResult(result, this, new AtomicBoolean());
+        }
+
+        private <T> Flux<T> track(Flux<T> flux) {
+            return track(flux, new AtomicBoolean());
+        }
+
+        private <T> Flux<T> track(Flux<T> flux, AtomicBoolean ended) {
+            Runnable end = () -> {
+                if (ended.compareAndSet(false, true) && pending.decrementAndGet() == 0) {
+                    queryMetrics.recordQuery(sql, origin, System.nanoTime() - start, rows.get());
+                }
+            };
+            return flux.doOnTerminate(end).doOnCancel(end);
+        }
+    }
+
+    private static final class InstrumentedResult implements Result {
+
+        private final Result result;
+        private final Execution execution;
+        private final AtomicBoolean consumed;
+
+        private InstrumentedResult(Result result, Execution execution, AtomicBoolean consumed) {
+            this.result = result;
+            this.execution = execution;
+            this.consumed = consumed;
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return execution.track(Flux.from(result.getRowsUpdated()).doOnNext(execution.rows::addAndGet), consumed);
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return execution.track(Flux.from(result.<T>map(mappingFunction)).doOnNext(row -> execution.rows.incrementAndGet()), consumed);
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return execution.track(Flux.from(result.<T>map(mappingFunction)).doOnNext(row -> execution.rows.incrementAndGet()), consumed);
+        }
+
+        @Override
+        public Result filter(Predicate<Segment> filter) {
+            return new InstrumentedResult(result.filter(filter), execution, consumed);
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            Flux<T> segments = Flux.from(
+                result.<T>flatMap(segment -> {
+                    if (segment instanceof RowSegment) {
+                        execution.rows.incrementAndGet();
+                    }
+                    return mappingFunction.apply(segment);
+                })
+            );
+            return execution.track(segments, consumed);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.library.management;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Wraps the {@link ConnectionFactory} into an {@link InstrumentedConnectionFactory}, and adds a {@link QueryOriginInterceptor}
+ * to every repository so that the statements are tagged with the repository method which issued them.
+ */
+public class QueryInstrumentationPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<QueryMetrics> queryMetrics;
+
+    public QueryInstrumentationPostProcessor(ObjectProvider<QueryMetrics> queryMetrics) {
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+            repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+                repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                    proxyFactory.addAdvice(new QueryOriginInterceptor(repositoryInformation.getRepositoryInterface()))
+                )
+            );
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ConnectionFactory connectionFactory && !(bean instanceof InstrumentedConnectionFactory)) {
+            return new InstrumentedConnectionFactory(connectionFactory, queryMetrics.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,146 @@
+package com.library.management;
+
+import com.library.config.ApplicationProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the metrics of the database connections and statements, see {@link InstrumentedConnectionFactory}.
+ * <p>
+ * Statements are grouped by shape: their SQL with the literals, the bind marker numbers and the repeated value lists
+ * normalized away, so that e.g. all the multi-row inserts of a table share a shape whatever their row count. A shape is
+ * identified in the {@code query} tag by a hash of its normalized SQL, and its SQL can be looked up in the slow query log.
+ * <p>
+ * The least recently used shapes are forgotten past {@link #MAX_SHAPES}, and so are the statements they were normalized
+ * from. The meters do not forget theirs, so {@link #maximumQueryTags()} caps the values of the {@code query} tag.
+ */
+@Component
+public class QueryMetrics {
+
+    public static final String ACQUIRE_METER_NAME = "r2dbc.pool.acquire";
+    public static final String ACQUIRE_METER_DESCRIPTION = "Time taken to acquire a connection from the pool.";
+
+    public static final String QUERY_METER_NAME = "r2dbc.query";
+    public static final String QUERY_METER_DESCRIPTION = "Execution time of the statements, until their results are consumed.";
+
+    public static final String QUERY_ROWS_METER_NAME = "r2dbc.query.rows";
+    public static final String QUERY_ROWS_METER_DESCRIPTION = "Number of rows read or updated by the statements.";
+    public static final String QUERY_ROWS_METER_BASE_UNIT = "rows";
+
+    public static final String QUERY_DIMENSION = "query";
+    public static final String ORIGIN_DIMENSION = "origin";
+
+    public static final int MAX_SHAPES = 1024;
+
+    private static final int MAX_STATEMENTS = 4 * MAX_SHAPES;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern NUMBERED_MARKER = Pattern.compile("([:$@]\\w*?)\\d+\\b");
+    private static final Pattern MARKER_LIST = Pattern.compile("([:$@]\\w*\\?)(?:\\s*,\\s*\\1)+");
+    private static final Pattern VALUE_LIST = Pattern.compile("(\\([^()]*\\))(?:\\s*,\\s*\\1)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private record Shape(String query, String sql) {}
+
+    private final MeterRegistry meterRegistry;
+    private final SlowQueryLog slowQueryLog;
+    private final Timer acquireTimer;
+
+    /**
+     * The shapes by normalized SQL, in access order, guarded by their own lock.
+     */
+    private final Map<String, Shape> shapes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Shape> eldest) {
+            return size() > MAX_SHAPES;
+        }
+    };
+
+    /**
+     * The shapes of the statements recently recorded, by SQL as sent, so that most statements are not normalized again.
+     */
+    private final Map<String, Shape> statements = new ConcurrentHashMap<>();
+
+    public QueryMetrics(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = new SlowQueryLog(applicationProperties.getSlowQueries().getSize());
+        this.acquireTimer = Timer.builder(ACQUIRE_METER_NAME).description(ACQUIRE_METER_DESCRIPTION).register(meterRegistry);
+    }
+
+    /**
+     * Caps the number of values of the {@code query} tag of the statement meters to {@link #MAX_SHAPES}; the statements of
+     * the shapes past it are not metered, but still go to the slow query log.
+     * @return the filter to add to the meter registries.
+     */
+    public static MeterFilter maximumQueryTags() {
+        return MeterFilter.maximumAllowableTags(QUERY_METER_NAME, QUERY_DIMENSION, MAX_SHAPES, MeterFilter.deny());
+    }
+
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    public void recordAcquire(long nanos) {
+        acquireTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records an execution of a statement.
+     * @param sql the SQL of the statement, as sent to the driver.
+     * @param origin the repository method which issued the statement.
+     * @param nanos the time from the execution of the statement until its results were consumed.
+     * @param rows the number of rows read or updated.
+     */
+    public void recordQuery(String sql, String origin, long nanos, long rows) {
+        Shape shape = shapeOf(sql);
+        Timer.builder(QUERY_METER_NAME)
+            .description(QUERY_METER_DESCRIPTION)
+            .tag(QUERY_DIMENSION, shape.query())
+            .tag(ORIGIN_DIMENSION, origin)
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(QUERY_ROWS_METER_NAME)
+            .description(QUERY_ROWS_METER_DESCRIPTION)
+            .baseUnit(QUERY_ROWS_METER_BASE_UNIT)
+            .tag(QUERY_DIMENSION, shape.query())
+            .tag(ORIGIN_DIMENSION, origin)
+            .register(meterRegistry)
+            .record(rows);
+        slowQueryLog.record(shape.query(), shape.sql(), origin, nanos, rows);
+    }
+
+    private Shape shapeOf(String sql) {
+        Shape shape = statements.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        String normalized = normalize(sql);
+        synchronized (shapes) {
+            shape = shapes.computeIfAbsent(normalized, n -> new Shape(Integer.toHexString(n.hashCode()), n));
+        }
+        // the statements differing only by their literals have a single shape, but can fill the map: it starts over then
+        if (statements.size() >= MAX_STATEMENTS) {
+            statements.clear();
+        }
+        statements.put(sql, shape);
+        return shape;
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBERED_MARKER.matcher(normalized).replaceAll("$1?");
+        normalized = MARKER_LIST.matcher(normalized).replaceAll("$1, ...");
+        normalized = VALUE_LIST.matcher(normalized).replaceAll("$1, ...");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.management;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Puts the name of the invoked repository method, e.g. {@code BookRepository.findByCriteria}, into the Reactor context of the
+ * returned {@link Mono} or {@link Flux}, where {@link InstrumentedConnectionFactory} reads it to tag the statements it issues.
+ */
+public class QueryOriginInterceptor implements MethodInterceptor {
+
+    static final String CONTEXT_KEY = QueryOriginInterceptor.class.getName() + ".origin";
+
+    static final String UNKNOWN_ORIGIN = "unknown";
+
+    private final String repositoryName;
+
+    public QueryOriginInterceptor(Class<?> repositoryInterface) {
+        this.repositoryName = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (result instanceof Mono<?> mono) {
+            return mono.contextWrite(context -> context.put(CONTEXT_KEY, origin(invocation)));
+        }
+        if (result instanceof Flux<?> flux) {
+            return flux.contextWrite(context -> context.put(CONTEXT_KEY, origin(invocation)));
+        }
+        return result;
+    }
+
+    private String origin(MethodInvocation invocation) {
+        return repositoryName + '.' + invocation.getMethod().getName();
+    }
+
+    /**
+     * Returns the repository method which issued a statement.
+     * @param context the context of the statement execution.
+     * @return the name of the repository method, or {@code unknown}.
+     */
+    static String origin(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, UNKNOWN_ORIGIN);
+    }
+}
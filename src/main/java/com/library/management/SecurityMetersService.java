@@ -13,16 +13,25 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String LOGIN_RATE_LIMITED_METER_NAME = "security.authentication.rate-limited";
+    public static final String LOGIN_RATE_LIMITED_METER_DESCRIPTION = "Indicates count of the login attempts rejected by the rate limiter.";
+    public static final String LOGIN_RATE_LIMITED_METER_BASE_UNIT = "attempts";
+    public static final String LOGIN_RATE_LIMITED_METER_KEY_DIMENSION = "key";
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
+    private final Counter loginRateLimitedByAddressCounter;
+    private final Counter loginRateLimitedByUsernameCounter;
 
     public SecurityMetersService(MeterRegistry registry) {
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.loginRateLimitedByAddressCounter = loginRateLimitedCounterForKeyBuilder("address").register(registry);
+        this.loginRateLimitedByUsernameCounter = loginRateLimitedCounterForKeyBuilder("username").register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -32,6 +41,13 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder loginRateLimitedCounterForKeyBuilder(String key) {
+        return Counter.builder(LOGIN_RATE_LIMITED_METER_NAME)
+            .baseUnit(LOGIN_RATE_LIMITED_METER_BASE_UNIT)
+            .description(LOGIN_RATE_LIMITED_METER_DESCRIPTION)
+            .tag(LOGIN_RATE_LIMITED_METER_KEY_DIMENSION, key);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -47,4 +63,12 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackLoginRateLimitedByAddress() {
+        this.loginRateLimitedByAddressCounter.increment();
+    }
+
+    public void trackLoginRateLimitedByUsername() {
+        this.loginRateLimitedByUsernameCounter.increment();
+    }
 }
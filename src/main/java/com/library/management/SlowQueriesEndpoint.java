@@ -0,0 +1,31 @@
+package com.library.management;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /management/slowqueries}: the statement shapes with the slowest executions, see {@link SlowQueryLog}.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueriesEndpoint {
+
+    private final QueryMetrics queryMetrics;
+
+    public SlowQueriesEndpoint(QueryMetrics queryMetrics) {
+        this.queryMetrics = queryMetrics;
+    }
+
+    @ReadOperation
+    public List<SlowQueryLog.SlowQuery> slowQueries() {
+        return queryMetrics.getSlowQueryLog().getSlowQueries();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        queryMetrics.getSlowQueryLog().clear();
+    }
+}
@@ -0,0 +1,128 @@
+package com.library.management;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The statement shapes with the slowest executions, at most {@code capacity} of them.
+ * <p>
+ * A shape is tracked once one of its executions is slower than the slowest execution of the fastest tracked shape, which it
+ * then replaces. Executions of shapes which are not tracked and not slow enough only cost a map lookup and a comparison.
+ */
+public class SlowQueryLog {
+
+    /**
+     * The statistics of a tracked statement shape.
+     * @param query the identifier of the shape, as used in the {@code query} tag of the metrics.
+     * @param sql the normalized SQL of the shape.
+     * @param origin the repository method which issued the slowest execution.
+     * @param count the number of executions since the shape is tracked.
+     * @param maxMillis the duration of the slowest execution.
+     * @param meanMillis the mean duration of the executions.
+     * @param rows the number of rows of the slowest execution.
+     */
+    public record SlowQuery(String query, String sql, String origin, long count, double maxMillis, double meanMillis, long rows) {}
+
+    private final int capacity;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long threshold;
+
+    public SlowQueryLog(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records an execution of a statement shape.
+     * @param query the identifier of the shape.
+     * @param sql the normalized SQL of the shape.
+     * @param origin the repository method which issued the statement.
+     * @param nanos the duration of the execution.
+     * @param rows the number of rows read or updated.
+     */
+    public void record(String query, String sql, String origin, long nanos, long rows) {
+        Entry entry = entries.get(query);
+        if (entry == null) {
+            if (nanos <= threshold || capacity <= 0) {
+                return;
+            }
+            synchronized (this) {
+                entry = entries.get(query);
+                if (entry == null) {
+                    if (entries.size() >= capacity) {
+                        Entry fastest = entries.values().stream().min(Comparator.comparingLong(Entry::max)).orElseThrow();
+                        if (nanos <= fastest.max()) {
+                            return;
+                        }
+                        entries.remove(fastest.query);
+                    }
+                    entry = new Entry(query, sql);
+                    entry.record(origin, nanos, rows);
+                    entries.put(query, entry);
+                    threshold = entries.size() >= capacity
+                        ? entries.values().stream().mapToLong(Entry::max).min().orElse(0)
+                        : 0;
+                    return;
+                }
+            }
+        }
+        entry.record(origin, nanos, rows);
+    }
+
+    /**
+     * Returns the tracked shapes, slowest first.
+     * @return the tracked shapes.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> slowQueries = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            slowQueries.add(entry.toSlowQuery());
+        }
+        slowQueries.sort(Comparator.comparingDouble(SlowQuery::maxMillis).reversed());
+        return slowQueries;
+    }
+
+    /**
+     * Forgets all the tracked shapes.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        threshold = 0;
+    }
+
+    private static final class Entry {
+
+        private final String query;
+        private final String sql;
+        private String origin;
+        private long count;
+        private long total;
+        private long max;
+        private long rows;
+
+        private Entry(String query, String sql) {
+            this.query = query;
+            this.sql = sql;
+        }
+
+        private synchronized void record(String origin, long nanos, long rows) {
+            count++;
+            total += nanos;
+            if (nanos > max || this.origin == null) {
+                this.max = Math.max(max, nanos);
+                this.origin = origin;
+                this.rows = rows;
+            }
+        }
+
+        private synchronized long max() {
+            return max;
+        }
+
+        private synchronized SlowQuery toSlowQuery() {
+            return new SlowQuery(query, sql, origin, count, max / 1e6, count > 0 ? total / 1e6 / count : 0, rows);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.library.repository;
 
 import com.library.domain.Author;
+import com.library.domain.criteria.AuthorCriteria;
+import java.util.Collection;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -13,6 +16,9 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface AuthorRepository extends ReactiveCrudRepository<Author, Long>, AuthorRepositoryInternal {
+    @Query("SELECT * FROM author entity WHERE CONCAT(entity.first_name, ' ', entity.last_name) IN (:names) ORDER BY entity.id")
+    Flux<Author> findByFullNameIn(Collection<String> names);
+
     @Override
     <S extends Author> Mono<S> save(S entity);
 
@@ -24,6 +30,9 @@ public interface AuthorRepository extends ReactiveCrudRepository<Author, Long>,
 
     @Override
     Mono<Void> deleteById(Long id);
+
+    @Override
+    Mono<Void> delete(Author entity);
 }
 
 interface AuthorRepositoryInternal {
@@ -31,9 +40,29 @@ interface AuthorRepositoryInternal {
 
     Flux<Author> findAllBy(Pageable pageable);
 
+    Flux<Author> findAllBy(Keyset keyset);
+
     Flux<Author> findAll();
 
     Mono<Author> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Author> findAllBy(Pageable pageable, Criteria criteria);
+
+    Mono<Long> findVersionById(Long id);
+
+    Flux<Author> findByCriteria(AuthorCriteria criteria);
+
+    Flux<Author> findByCriteria(AuthorCriteria criteria, Fieldset fieldset);
+
+    Flux<Author> streamByCriteria(AuthorCriteria criteria);
+
+    Flux<Author> findByCriteria(AuthorCriteria criteria, Pageable pageable);
+
+    Flux<Author> findByCriteria(AuthorCriteria criteria, Keyset keyset);
+
+    Flux<Author> findByCriteria(AuthorCriteria criteria, Keyset keyset, Fieldset fieldset);
+
+    Mono<Long> countByCriteria(AuthorCriteria criteria);
+
+    Mono<Void> deleteById(Long id);
+
+    Mono<Void> delete(Author entity);
 }
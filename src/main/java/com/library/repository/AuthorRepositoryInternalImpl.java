@@ -1,6 +1,8 @@
 package com.library.repository;
 
 import com.library.domain.Author;
+import com.library.domain.criteria.AuthorCriteria;
+import com.library.repository.cache.NearCache;
 import com.library.repository.rowmapper.AuthorRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
@@ -10,15 +12,16 @@ import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -34,6 +37,8 @@ class AuthorRepositoryInternalImpl extends SimpleR2dbcRepository<Author, Long> i
     private final EntityManager entityManager;
 
     private final AuthorRowMapper authorMapper;
+    private final NearCache<Long, Author> authorCache;
+    private final EntityChangeRepository entityChangeRepository;
 
     private static final Table entityTable = Table.aliased("author", EntityManager.ENTITY_ALIAS);
 
@@ -41,6 +46,8 @@ class AuthorRepositoryInternalImpl extends SimpleR2dbcRepository<Author, Long> i
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         AuthorRowMapper authorMapper,
+        NearCache<Long, Author> authorCache,
+        EntityChangeRepository entityChangeRepository,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -53,6 +60,8 @@ class AuthorRepositoryInternalImpl extends SimpleR2dbcRepository<Author, Long> i
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.authorMapper = authorMapper;
+        this.authorCache = authorCache;
+        this.entityChangeRepository = entityChangeRepository;
     }
 
     @Override
@@ -60,23 +69,142 @@ class AuthorRepositoryInternalImpl extends SimpleR2dbcRepository<Author, Long> i
         return createQuery(pageable, null).all();
     }
 
+    @Override
+    public Flux<Author> findAllBy(Keyset keyset) {
+        return createKeysetQuery(keyset, new FilterConditionBuilder()).all();
+    }
+
+    @Override
+    public Flux<Author> findByCriteria(AuthorCriteria criteria) {
+        return createCriteriaQuery(criteria).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Author> findByCriteria(AuthorCriteria criteria, Fieldset fieldset) {
+        return createCriteriaQuery(criteria, fieldset).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Author> streamByCriteria(AuthorCriteria criteria) {
+        return entityManager.withCursor(createCriteriaQuery(criteria)).map(this::process).all();
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(AuthorCriteria criteria) {
+        return createCriteriaQuery(criteria, Fieldset.all());
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(AuthorCriteria criteria, Fieldset fieldset) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Author.class, "criteria:" + filter.getShape() + ':' + fieldset.getShape(), () ->
+            entityManager.createSelect(createSelectFrom(fieldset), Author.class, null, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select));
+    }
+
+    @Override
+    public Flux<Author> findByCriteria(AuthorCriteria criteria, Pageable pageable) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.createSelect(createSelectFrom(), Author.class, pageable, filter.buildConditions());
+        return filter.bind(db.sql(select)).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Author> findByCriteria(AuthorCriteria criteria, Keyset keyset) {
+        return createKeysetQuery(keyset, buildConditions(criteria)).all();
+    }
+
+    @Override
+    public Flux<Author> findByCriteria(AuthorCriteria criteria, Keyset keyset, Fieldset fieldset) {
+        // The next cursor is built from the sort property of the last author
+        return createKeysetQuery(keyset, buildConditions(criteria), fieldset.with(keyset.getProperty())).all();
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(AuthorCriteria criteria) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Author.class, "count:" + filter.getShape(), () ->
+            entityManager.createCount(entityTable, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select)).map(row -> row.get(0, Long.class)).one();
+    }
+
     RowsFetchSpec<Author> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = AuthorSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Author.class, pageable, whereClause);
+        String select = entityManager.createSelect(createSelectFrom(), Author.class, pageable, whereClause);
         return db.sql(select).map(this::process);
     }
 
+    RowsFetchSpec<Author> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter) {
+        return createKeysetQuery(keyset, filter, Fieldset.all());
+    }
+
+    RowsFetchSpec<Author> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter, Fieldset fieldset) {
+        String shape = EntityManager.keysetShape(keyset) + ':' + filter.getShape() + ':' + fieldset.getShape();
+        String select = entityManager.getSelectTemplate(Author.class, shape, () ->
+            entityManager.createKeysetSelect(createSelectFrom(fieldset), Author.class, keyset, filter.buildConditions())
+        );
+        return entityManager.bindKeyset(filter.bind(db.sql(select)), Author.class, keyset).map(this::process);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
+        return createSelectFrom(Fieldset.all());
+    }
+
+    private SelectFromAndJoin createSelectFrom(Fieldset fieldset) {
+        List<Expression> columns = AuthorSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS, fieldset);
+        return Select.builder().select(columns).from(entityTable);
+    }
+
+    private FilterConditionBuilder buildConditions(AuthorCriteria criteria) {
+        FilterConditionBuilder filter = new FilterConditionBuilder();
+        if (criteria != null) {
+            filter.buildFilterConditionForField(criteria.getId(), entityTable.column("id"));
+            filter.buildFilterConditionForField(criteria.getFirstName(), entityTable.column("first_name"));
+            filter.buildFilterConditionForField(criteria.getLastName(), entityTable.column("last_name"));
+        }
+        return filter;
+    }
+
     @Override
     public Flux<Author> findAll() {
-        return findAllBy(null);
+        String select = entityManager.getSelectTemplate(Author.class, "findAll", () ->
+            entityManager.createSelect(createSelectFrom(), Author.class, null, null)
+        );
+        return db.sql(select).map(this::process).all();
     }
 
+    /**
+     * Finds an author by id. The eager book queries fill in the authors from the same {@link NearCache} when they skip the
+     * author join, so only an author missing from it, or cached too long ago, is read from the database.
+     */
     @Override
     public Mono<Author> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return authorCache.get(id, this::loadById);
+    }
+
+    private Mono<Author> loadById(Long id) {
+        String select = entityManager.getSelectTemplate(Author.class, "findById", () ->
+            entityManager.createSelect(
+                createSelectFrom(),
+                Author.class,
+                null,
+                Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"))
+            )
+        );
+        return db.sql(select).bind("id", id).map(this::process).one();
+    }
+
+    /**
+     * Finds the version of an author by id. A conditional request on an author held by the cache is answered without reading
+     * the author table.
+     */
+    @Override
+    public Mono<Long> findVersionById(Long id) {
+        Author cached = authorCache.getIfPresent(id);
+        return cached != null ? Mono.justOrEmpty(cached.getVersion()) : loadVersionById(id);
+    }
+
+    private Mono<Long> loadVersionById(Long id) {
+        return db.sql("SELECT version FROM author WHERE id = :id").bind("id", id).map(row -> row.get(0, Long.class)).one();
     }
 
     private Author process(Row row, RowMetadata metadata) {
@@ -84,8 +212,45 @@ class AuthorRepositoryInternalImpl extends SimpleR2dbcRepository<Author, Long> i
         return entity;
     }
 
+    /**
+     * Saves an author, failing with an {@link org.springframework.dao.OptimisticLockingFailureException} if another save changed
+     * it since the version given; an author sent without a version overwrites the current one. The cached author is invalidated
+     * after the commit, so the books read next embed the author as saved.
+     */
     @Override
     public <S extends Author> Mono<S> save(S entity) {
-        return super.save(entity);
+        return withCurrentVersion(entity)
+            .flatMap(super::save)
+            .flatMap(saved -> countChange(saved.getId()).then(invalidateAfterCommit(saved.getId())).thenReturn(saved));
+    }
+
+    private <S extends Author> Mono<S> withCurrentVersion(S entity) {
+        if (entity.getId() == null || entity.getVersion() != null) {
+            return Mono.just(entity);
+        }
+        return loadVersionById(entity.getId())
+            .map(version -> {
+                entity.setVersion(version);
+                return entity;
+            })
+            .defaultIfEmpty(entity);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return super.deleteById(id).then(countChange(id)).then(invalidateAfterCommit(id));
+    }
+
+    @Override
+    public Mono<Void> delete(Author entity) {
+        return deleteById(entity.getId());
+    }
+
+    private Mono<Void> countChange(Long id) {
+        return entityChangeRepository.countChange("author", id);
+    }
+
+    private Mono<Void> invalidateAfterCommit(Long id) {
+        return entityManager.afterCommit(() -> authorCache.invalidate(id));
     }
 }
@@ -9,10 +9,15 @@ import org.springframework.data.relational.core.sql.Table;
 public class AuthorSqlHelper {
 
     public static List<Expression> getColumns(Table table, String columnPrefix) {
+        return getColumns(table, columnPrefix, Fieldset.all());
+    }
+
+    public static List<Expression> getColumns(Table table, String columnPrefix, Fieldset fieldset) {
         List<Expression> columns = new ArrayList<>();
         columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("first_name", table, columnPrefix + "_first_name"));
-        columns.add(Column.aliased("last_name", table, columnPrefix + "_last_name"));
+        columns.add(fieldset.column("firstName", table, "first_name", columnPrefix + "_first_name"));
+        columns.add(fieldset.column("lastName", table, "last_name", columnPrefix + "_last_name"));
+        columns.add(fieldset.column("version", table, "version", columnPrefix + "_version"));
 
         return columns;
     }
@@ -0,0 +1,11 @@
+package com.library.repository;
+
+import java.util.List;
+
+/**
+ * Published by {@link BookRepository} once books were saved or deleted, after the transaction committed.
+ *
+ * @param bookIds the ids of the books.
+ * @param deleted whether the books were deleted, rather than created or updated.
+ */
+public record BookChangedEvent(List<Long> bookIds, boolean deleted) {}
@@ -1,6 +1,10 @@
 package com.library.repository;
 
 import com.library.domain.Book;
+import com.library.domain.BookAvailability;
+import com.library.domain.criteria.BookCriteria;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -23,6 +27,15 @@ public interface BookRepository extends ReactiveCrudRepository<Book, Long>, Book
     @Override
     Flux<Book> findAllWithEagerRelationships(Pageable page);
 
+    @Override
+    Flux<Book> findAllWithEagerRelationshipsBy(Keyset keyset);
+
+    @Override
+    Flux<Book> findByCriteriaWithEagerRelationships(BookCriteria criteria);
+
+    @Override
+    Flux<Book> findByCriteriaWithEagerRelationships(BookCriteria criteria, Keyset keyset);
+
     @Query("SELECT * FROM book entity WHERE entity.category_id = :id")
     Flux<Book> findByCategory(Long id);
 
@@ -52,11 +65,27 @@ interface BookRepositoryInternal {
 
     Flux<Book> findAllBy(Pageable pageable);
 
+    Flux<Book> findAllBy(Keyset keyset);
+
     Flux<Book> findAll();
 
     Mono<Book> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Book> findAllBy(Pageable pageable, Criteria criteria);
+
+    Mono<Long> findVersionById(Long id);
+
+    Flux<Book> findByCriteria(BookCriteria criteria);
+
+    Flux<Book> streamByCriteria(BookCriteria criteria);
+
+    Flux<Book> streamByCriteria(BookCriteria criteria, Fieldset fieldset);
+
+    Flux<Book> findByCriteria(BookCriteria criteria, Pageable pageable);
+
+    Flux<Book> findByCriteria(BookCriteria criteria, Keyset keyset);
+
+    Flux<Book> findByCriteria(BookCriteria criteria, Keyset keyset, Fieldset fieldset);
+
+    Mono<Long> countByCriteria(BookCriteria criteria);
 
     Mono<Book> findOneWithEagerRelationships(Long id);
 
@@ -64,5 +93,25 @@ interface BookRepositoryInternal {
 
     Flux<Book> findAllWithEagerRelationships(Pageable page);
 
+    Flux<Book> findAllWithEagerRelationshipsBy(Keyset keyset);
+
+    Flux<Book> findByCriteriaWithEagerRelationships(BookCriteria criteria);
+
+    Flux<Book> findByCriteriaWithEagerRelationships(BookCriteria criteria, Keyset keyset);
+
+    Flux<Book> findByCriteriaWithEagerRelationships(BookCriteria criteria, Keyset keyset, Fieldset fieldset);
+
+    Flux<Book> streamByCriteriaWithEagerRelationships(BookCriteria criteria, Fieldset fieldset);
+
+    Flux<Book> insertAll(List<Book> books);
+
+    Mono<Long> adjustCopiesOnLoan(Long id, int delta);
+
+    Flux<BookAvailability> findAvailabilityByIdIn(Collection<Long> ids);
+
+    Flux<BookAvailability.Drift> findAvailabilityDrift();
+
+    Mono<Long> recountCopiesOnLoan(Long id);
+
     Mono<Void> deleteById(Long id);
 }
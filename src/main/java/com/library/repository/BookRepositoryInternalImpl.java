@@ -1,27 +1,41 @@
 package com.library.repository;
 
+import com.library.config.ApplicationProperties;
 import com.library.domain.Author;
 import com.library.domain.Book;
+import com.library.domain.BookAvailability;
+import com.library.domain.Category;
+import com.library.domain.criteria.BookCriteria;
+import com.library.repository.cache.NearCache;
+import com.library.repository.rowmapper.AuthorRowMapper;
 import com.library.repository.rowmapper.BookRowMapper;
 import com.library.repository.rowmapper.CategoryRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -35,22 +49,44 @@ class BookRepositoryInternalImpl extends SimpleR2dbcRepository<Book, Long> imple
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityChangeRepository entityChangeRepository;
 
     private final CategoryRowMapper categoryMapper;
     private final BookRowMapper bookMapper;
+    private final AuthorRowMapper authorMapper;
+    private final NearCache<Long, Category> categoryCache;
+    private final NearCache<Long, Author> authorCache;
+    private final boolean skipJoins;
 
     private static final Table entityTable = Table.aliased("book", EntityManager.ENTITY_ALIAS);
     private static final Table categoryTable = Table.aliased("category", "category");
 
+    private static final Table authorLinkTable = Table.aliased("rel_book__author", "link");
+    private static final Table authorTable = Table.aliased("author", "author");
+
     private static final EntityManager.LinkTable authorLink = new EntityManager.LinkTable("rel_book__author", "book_id", "author_id");
 
+    private static final int EAGER_BATCH_SIZE = 256;
+
+    private final String authorsByBookIdsSelect;
+    private final String authorIdsByBookIdsSelect;
+    private final String categoryByIdSelect;
+    private final String authorByIdSelect;
+
     public BookRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         CategoryRowMapper categoryMapper,
         BookRowMapper bookMapper,
+        AuthorRowMapper authorMapper,
         R2dbcEntityOperations entityOperations,
-        R2dbcConverter converter
+        R2dbcConverter converter,
+        ApplicationEventPublisher eventPublisher,
+        NearCache<Long, Category> categoryCache,
+        NearCache<Long, Author> authorCache,
+        EntityChangeRepository entityChangeRepository,
+        ApplicationProperties applicationProperties
     ) {
         super(
             new MappingRelationalEntityInformation(converter.getMappingContext().getRequiredPersistentEntity(Book.class)),
@@ -62,62 +98,357 @@ class BookRepositoryInternalImpl extends SimpleR2dbcRepository<Book, Long> imple
         this.entityManager = entityManager;
         this.categoryMapper = categoryMapper;
         this.bookMapper = bookMapper;
+        this.authorMapper = authorMapper;
+        this.eventPublisher = eventPublisher;
+        this.categoryCache = categoryCache;
+        this.authorCache = authorCache;
+        this.entityChangeRepository = entityChangeRepository;
+        this.skipJoins = applicationProperties.getReferenceCache().isSkipJoins();
+        this.authorsByBookIdsSelect = createAuthorsByBookIdsSelect();
+        this.authorIdsByBookIdsSelect = createAuthorIdsByBookIdsSelect();
+        this.categoryByIdSelect = entityManager.createSelect(
+            Select.builder()
+                .select(CategorySqlHelper.getColumns(categoryTable, "category"))
+                .from(categoryTable)
+                .where(Conditions.isEqual(Column.create("id", categoryTable), SQL.bindMarker(":id")))
+                .build()
+        );
+        this.authorByIdSelect = entityManager.createSelect(
+            Select.builder()
+                .select(AuthorSqlHelper.getColumns(authorTable, "author"))
+                .from(authorTable)
+                .where(Conditions.isEqual(Column.create("id", authorTable), SQL.bindMarker(":id")))
+                .build()
+        );
     }
 
     @Override
     public Flux<Book> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return withCategories(createQuery(pageable, null).all());
+    }
+
+    @Override
+    public Flux<Book> findAllBy(Keyset keyset) {
+        return withCategories(createKeysetQuery(keyset, new FilterConditionBuilder()).all());
+    }
+
+    @Override
+    public Flux<Book> findByCriteria(BookCriteria criteria) {
+        return withCategories(createCriteriaQuery(criteria).map(this::process).all());
+    }
+
+    @Override
+    public Flux<Book> streamByCriteria(BookCriteria criteria) {
+        return streamByCriteria(criteria, Fieldset.all());
+    }
+
+    @Override
+    public Flux<Book> streamByCriteria(BookCriteria criteria, Fieldset fieldset) {
+        return withCategories(
+            entityManager.withCursor(createCriteriaQuery(criteria, fieldset)).map((row, metadata) -> process(row, fieldset)).all(),
+            fieldset
+        );
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(BookCriteria criteria) {
+        return createCriteriaQuery(criteria, Fieldset.all());
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(BookCriteria criteria, Fieldset fieldset) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Book.class, "criteria:" + filter.getShape() + ':' + fieldset.getShape(), () ->
+            createSelect(null, filter.buildConditions(), fieldset)
+        );
+        return filter.bind(db.sql(select));
+    }
+
+    @Override
+    public Flux<Book> findByCriteria(BookCriteria criteria, Pageable pageable) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = createSelect(pageable, filter.buildConditions());
+        return withCategories(filter.bind(db.sql(select)).map(this::process).all());
+    }
+
+    @Override
+    public Flux<Book> findByCriteria(BookCriteria criteria, Keyset keyset) {
+        return withCategories(createKeysetQuery(keyset, buildConditions(criteria)).all());
+    }
+
+    @Override
+    public Flux<Book> findByCriteria(BookCriteria criteria, Keyset keyset, Fieldset fieldset) {
+        // The next cursor is built from the sort property of the last book
+        Fieldset selected = fieldset.with(keyset.getProperty());
+        return withCategories(createKeysetQuery(keyset, buildConditions(criteria), selected).all(), selected);
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(BookCriteria criteria) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Book.class, "count:" + filter.getShape(), () ->
+            entityManager.createCount(entityTable, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select)).map(row -> row.get(0, Long.class)).one();
     }
 
     RowsFetchSpec<Book> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = BookSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        String select = createSelect(pageable, whereClause);
+        return db.sql(select).map(this::process);
+    }
+
+    RowsFetchSpec<Book> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter) {
+        return createKeysetQuery(keyset, filter, Fieldset.all());
+    }
+
+    RowsFetchSpec<Book> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter, Fieldset fieldset) {
+        String shape = EntityManager.keysetShape(keyset) + ':' + filter.getShape() + ':' + fieldset.getShape();
+        String select = entityManager.getSelectTemplate(Book.class, shape, () ->
+            joinsCategory(fieldset)
+                ? entityManager.createKeysetSelect(createSelectFrom(fieldset), Book.class, keyset, filter.buildConditions())
+                : entityManager.createKeysetSelect(createBookSelectFrom(fieldset), Book.class, keyset, filter.buildConditions())
+        );
+        return entityManager.bindKeyset(filter.bind(db.sql(select)), Book.class, keyset).map((row, metadata) -> process(row, fieldset));
+    }
+
+    private String createSelect(Pageable pageable, Condition where) {
+        return createSelect(pageable, where, Fieldset.all());
+    }
+
+    private String createSelect(Pageable pageable, Condition where, Fieldset fieldset) {
+        if (!joinsCategory(fieldset)) {
+            return entityManager.createSelect(createBookSelectFrom(fieldset), Book.class, pageable, where);
+        }
+        return entityManager.createSelect(createSelectFrom(fieldset), Book.class, pageable, where);
+    }
+
+    /**
+     * Whether the selects of a fieldset join the category, rather than leave it out or look it up in the {@link NearCache}.
+     */
+    private boolean joinsCategory(Fieldset fieldset) {
+        return !skipJoins && fieldset.includes("category");
+    }
+
+    private SelectFromAndJoin createBookSelectFrom(Fieldset fieldset) {
+        return Select.builder().select(BookSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS, fieldset)).from(entityTable);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom(Fieldset fieldset) {
+        List<Expression> columns = BookSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS, fieldset);
         columns.addAll(CategorySqlHelper.getColumns(categoryTable, "category"));
-        SelectFromAndJoinCondition selectFrom = Select.builder()
+        return Select.builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(categoryTable)
             .on(Column.create("category_id", entityTable))
             .equals(Column.create("id", categoryTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Book.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+    }
+
+    private FilterConditionBuilder buildConditions(BookCriteria criteria) {
+        FilterConditionBuilder filter = new FilterConditionBuilder();
+        if (criteria != null) {
+            filter.buildFilterConditionForField(criteria.getId(), entityTable.column("id"));
+            filter.buildFilterConditionForField(criteria.getTitle(), entityTable.column("title"));
+            filter.buildFilterConditionForField(criteria.getPublicationDate(), entityTable.column("publication_date"));
+            filter.buildFilterConditionForField(criteria.getCopiesOwned(), entityTable.column("copies_owned"));
+            filter.buildFilterConditionForField(criteria.getStatus(), entityTable.column("status"));
+            filter.buildFilterConditionForField(criteria.getCategoryId(), entityTable.column("category_id"));
+        }
+        return filter;
     }
 
     @Override
     public Flux<Book> findAll() {
-        return findAllBy(null);
+        String select = entityManager.getSelectTemplate(Book.class, "findAll", () -> createSelect(null, null));
+        return withCategories(db.sql(select).map(this::process).all());
     }
 
     @Override
     public Mono<Book> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        String select = entityManager.getSelectTemplate(Book.class, "findById", () ->
+            createSelect(null, Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id")))
+        );
+        return db.sql(select).bind("id", id).map(this::process).one().flatMap(this::withCategory);
+    }
+
+    @Override
+    public Mono<Long> findVersionById(Long id) {
+        return db.sql("SELECT version FROM book WHERE id = :id").bind("id", id).map(row -> row.get(0, Long.class)).one();
     }
 
     @Override
     public Mono<Book> findOneWithEagerRelationships(Long id) {
-        return findById(id);
+        return findById(id).flatMap(book -> fetchAuthors(List.of(book)).thenReturn(book));
     }
 
     @Override
     public Flux<Book> findAllWithEagerRelationships() {
-        return findAll();
+        return withAuthors(findAll());
     }
 
     @Override
     public Flux<Book> findAllWithEagerRelationships(Pageable page) {
-        return findAllBy(page);
+        return withAuthors(findAllBy(page));
+    }
+
+    @Override
+    public Flux<Book> findAllWithEagerRelationshipsBy(Keyset keyset) {
+        return withAuthors(findAllBy(keyset));
+    }
+
+    @Override
+    public Flux<Book> findByCriteriaWithEagerRelationships(BookCriteria criteria) {
+        return withAuthors(findByCriteria(criteria));
+    }
+
+    @Override
+    public Flux<Book> findByCriteriaWithEagerRelationships(BookCriteria criteria, Keyset keyset) {
+        return withAuthors(findByCriteria(criteria, keyset));
+    }
+
+    @Override
+    public Flux<Book> findByCriteriaWithEagerRelationships(BookCriteria criteria, Keyset keyset, Fieldset fieldset) {
+        return withAuthors(findByCriteria(criteria, keyset, fieldset));
+    }
+
+    @Override
+    public Flux<Book> streamByCriteriaWithEagerRelationships(BookCriteria criteria, Fieldset fieldset) {
+        return withAuthors(streamByCriteria(criteria, fieldset));
+    }
+
+    /**
+     * Fills the authors of the books, one window of {@link #EAGER_BATCH_SIZE} books at a time, so a stream is never
+     * buffered as a whole, and each window costs a single query.
+     */
+    private Flux<Book> withAuthors(Flux<Book> books) {
+        return books.buffer(EAGER_BATCH_SIZE).concatMap(window -> fetchAuthors(window).thenMany(Flux.fromIterable(window)), 1);
+    }
+
+    private Mono<Void> fetchAuthors(List<Book> books) {
+        Map<Long, Book> booksById = new HashMap<>();
+        for (Book book : books) {
+            booksById.put(book.getId(), book);
+        }
+        if (skipJoins) {
+            return db
+                .sql(authorIdsByBookIdsSelect)
+                .bind("bookIds", books.stream().map(Book::getId).toList())
+                .map(row -> Map.entry(row.get("link_book_id", Long.class), row.get("link_author_id", Long.class)))
+                .all()
+                .flatMapSequential(link ->
+                    authorCache.get(link.getValue(), this::loadAuthor).map(author -> Map.entry(link.getKey(), author))
+                )
+                .doOnNext(bookAuthor -> booksById.get(bookAuthor.getKey()).addAuthor(bookAuthor.getValue()))
+                .then();
+        }
+        return db
+            .sql(authorsByBookIdsSelect)
+            .bind("bookIds", books.stream().map(Book::getId).toList())
+            .map((row, metadata) -> {
+                Book book = booksById.get(row.get("link_book_id", Long.class));
+                book.addAuthor(authorMapper.apply(row, "author"));
+                return book;
+            })
+            .all()
+            .then();
+    }
+
+    private String createAuthorsByBookIdsSelect() {
+        List<Expression> columns = AuthorSqlHelper.getColumns(authorTable, "author");
+        columns.add(Column.aliased("book_id", authorLinkTable, "link_book_id"));
+        Select select = Select.builder()
+            .select(columns)
+            .from(authorLinkTable)
+            .join(authorTable)
+            .on(Column.create("author_id", authorLinkTable))
+            .equals(Column.create("id", authorTable))
+            .where(Conditions.in(Column.create("book_id", authorLinkTable), SQL.bindMarker(":bookIds")))
+            .build();
+        return entityManager.createSelect(select);
+    }
+
+    private String createAuthorIdsByBookIdsSelect() {
+        Select select = Select.builder()
+            .select(
+                Column.aliased("book_id", authorLinkTable, "link_book_id"),
+                Column.aliased("author_id", authorLinkTable, "link_author_id")
+            )
+            .from(authorLinkTable)
+            .where(Conditions.in(Column.create("book_id", authorLinkTable), SQL.bindMarker(":bookIds")))
+            .build();
+        return entityManager.createSelect(select);
     }
 
     private Book process(Row row, RowMetadata metadata) {
+        return process(row, Fieldset.all());
+    }
+
+    private Book process(Row row, Fieldset fieldset) {
         Book entity = bookMapper.apply(row, "e");
-        entity.setCategory(categoryMapper.apply(row, "category"));
+        if (joinsCategory(fieldset)) {
+            entity.setCategory(categoryMapper.apply(row, "category"));
+        }
         return entity;
     }
 
+    private Flux<Book> withCategories(Flux<Book> books) {
+        return withCategories(books, Fieldset.all());
+    }
+
+    /**
+     * Fills the categories of the books from the {@link NearCache} of the categories, when the queries do not join them and
+     * the fieldset includes them.
+     */
+    private Flux<Book> withCategories(Flux<Book> books, Fieldset fieldset) {
+        return skipJoins && fieldset.includes("category") ? books.flatMapSequential(this::withCategory) : books;
+    }
+
+    private Mono<Book> withCategory(Book book) {
+        if (!skipJoins || book.getCategoryId() == null) {
+            return Mono.just(book);
+        }
+        Category category = categoryCache.getIfPresent(book.getCategoryId());
+        if (category != null) {
+            book.setCategory(category);
+            return Mono.just(book);
+        }
+        return categoryCache
+            .get(book.getCategoryId(), this::loadCategory)
+            .map(loaded -> {
+                book.setCategory(loaded);
+                return book;
+            })
+            .defaultIfEmpty(book);
+    }
+
+    private Mono<Category> loadCategory(Long id) {
+        return db.sql(categoryByIdSelect).bind("id", id).map((row, metadata) -> categoryMapper.apply(row, "category")).one();
+    }
+
+    private Mono<Author> loadAuthor(Long id) {
+        return db.sql(authorByIdSelect).bind("id", id).map((row, metadata) -> authorMapper.apply(row, "author")).one();
+    }
+
+    /**
+     * Saves a book. An existing book is updated only if its version is still the one given, else the save fails with an
+     * {@link org.springframework.dao.OptimisticLockingFailureException}; without a version, it is updated whatever its version.
+     */
     @Override
     public <S extends Book> Mono<S> save(S entity) {
-        return super.save(entity).flatMap((S e) -> updateRelations(e));
+        return withCurrentVersion(entity)
+            .flatMap(super::save)
+            .flatMap((S e) -> updateRelations(e))
+            .flatMap((S e) -> countChange(e.getId()).then(publishAfterCommit(List.of(e.getId()), false)).thenReturn(e));
+    }
+
+    private <S extends Book> Mono<S> withCurrentVersion(S entity) {
+        if (entity.getId() == null || entity.getVersion() != null) {
+            return Mono.just(entity);
+        }
+        return findVersionById(entity.getId())
+            .map(version -> {
+                entity.setVersion(version);
+                return entity;
+            })
+            .defaultIfEmpty(entity);
     }
 
     protected <S extends Book> Mono<S> updateRelations(S entity) {
@@ -127,12 +458,127 @@ class BookRepositoryInternalImpl extends SimpleR2dbcRepository<Book, Long> imple
         return result.thenReturn(entity);
     }
 
+    @Override
+    public Flux<Book> insertAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return Flux.empty();
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO book (title, publication_date, copies_owned, status, category_id) VALUES ");
+        for (int i = 0; i < books.size(); i++) {
+            sql
+                .append(i == 0 ? "" : ", ")
+                .append("(:title")
+                .append(i)
+                .append(", :publicationDate")
+                .append(i)
+                .append(", :copiesOwned")
+                .append(i)
+                .append(", :status")
+                .append(i)
+                .append(", :categoryId")
+                .append(i)
+                .append(')');
+        }
+        GenericExecuteSpec insert = db.sql(sql.toString()).filter(statement -> statement.returnGeneratedValues("id"));
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            insert = bind(insert, "title" + i, book.getTitle(), String.class);
+            insert = bind(insert, "publicationDate" + i, book.getPublicationDate(), LocalDate.class);
+            insert = bind(insert, "copiesOwned" + i, book.getCopiesOwned(), Integer.class);
+            insert = bind(insert, "status" + i, book.getStatus() != null ? book.getStatus().name() : null, String.class);
+            insert = bind(insert, "categoryId" + i, book.getCategoryId(), Long.class);
+        }
+        return insert
+            .map(row -> row.get("id", Long.class))
+            .all()
+            .collectList()
+            .flatMapMany(ids -> {
+                Map<Long, List<Long>> authorIdsByBookId = new LinkedHashMap<>();
+                for (int i = 0; i < books.size(); i++) {
+                    Book book = books.get(i);
+                    book.setId(ids.get(i));
+                    book.setVersion(0L);
+                    authorIdsByBookId.put(book.getId(), book.getAuthors().stream().map(Author::getId).toList());
+                }
+                return entityManager
+                    .insertLinks(authorLink, authorIdsByBookId)
+                    .then(countChange(ids.get(0)))
+                    .then(publishAfterCommit(ids, false))
+                    .thenMany(Flux.fromIterable(books));
+            });
+    }
+
+    /**
+     * Adds to the number of copies of a book on loan, with a single statement so that concurrent loans of the same book are
+     * serialized by its row lock.
+     */
+    @Override
+    public Mono<Long> adjustCopiesOnLoan(Long id, int delta) {
+        return db
+            .sql("UPDATE book SET copies_on_loan = copies_on_loan + :delta WHERE id = :id")
+            .bind("delta", delta)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    @Override
+    public Flux<BookAvailability> findAvailabilityByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return db
+            .sql("SELECT id, copies_owned, copies_on_loan FROM book WHERE id IN (:ids)")
+            .bind("ids", ids)
+            .map(row -> BookAvailability.of(row.get(0, Long.class), row.get(1, Integer.class), row.get(2, Integer.class)))
+            .all();
+    }
+
+    @Override
+    public Flux<BookAvailability.Drift> findAvailabilityDrift() {
+        return db
+            .sql(
+                "SELECT b.id, b.copies_on_loan, COALESCE(l.on_loan, 0) FROM book b LEFT JOIN " +
+                "(SELECT book_id, COUNT(*) AS on_loan FROM loan WHERE return_date IS NULL GROUP BY book_id) l ON l.book_id = b.id " +
+                "WHERE b.copies_on_loan <> COALESCE(l.on_loan, 0)"
+            )
+            .map(row -> new BookAvailability.Drift(row.get(0, Long.class), row.get(1, Integer.class), row.get(2, Long.class).intValue()))
+            .all();
+    }
+
+    @Override
+    public Mono<Long> recountCopiesOnLoan(Long id) {
+        return db
+            .sql(
+                "UPDATE book SET copies_on_loan = " +
+                "(SELECT COUNT(*) FROM loan WHERE loan.book_id = book.id AND loan.return_date IS NULL) WHERE id = :id"
+            )
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
     @Override
     public Mono<Void> deleteById(Long entityId) {
-        return deleteRelations(entityId).then(super.deleteById(entityId));
+        return deleteRelations(entityId)
+            .then(super.deleteById(entityId))
+            .then(countChange(entityId))
+            .then(publishAfterCommit(List.of(entityId), true));
     }
 
     protected Mono<Void> deleteRelations(Long entityId) {
         return entityManager.deleteFromLinkTable(authorLink, entityId);
     }
+
+    private Mono<Void> countChange(Long id) {
+        return entityChangeRepository.countChange("book", id);
+    }
+
+    private Mono<Void> publishAfterCommit(List<Long> bookIds, boolean deleted) {
+        return entityManager.afterCommit(() -> eventPublisher.publishEvent(new BookChangedEvent(bookIds, deleted)));
+    }
 }
@@ -9,14 +9,21 @@ import org.springframework.data.relational.core.sql.Table;
 public class BookSqlHelper {
 
     public static List<Expression> getColumns(Table table, String columnPrefix) {
+        return getColumns(table, columnPrefix, Fieldset.all());
+    }
+
+    public static List<Expression> getColumns(Table table, String columnPrefix, Fieldset fieldset) {
         List<Expression> columns = new ArrayList<>();
         columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("title", table, columnPrefix + "_title"));
-        columns.add(Column.aliased("publication_date", table, columnPrefix + "_publication_date"));
-        columns.add(Column.aliased("copies_owned", table, columnPrefix + "_copies_owned"));
-        columns.add(Column.aliased("status", table, columnPrefix + "_status"));
+        columns.add(fieldset.column("title", table, "title", columnPrefix + "_title"));
+        columns.add(fieldset.column("publicationDate", table, "publication_date", columnPrefix + "_publication_date"));
+        columns.add(fieldset.column("copiesOwned", table, "copies_owned", columnPrefix + "_copies_owned"));
+        columns.add(fieldset.column("status", table, "status", columnPrefix + "_status"));
 
-        columns.add(Column.aliased("category_id", table, columnPrefix + "_category_id"));
+        // The category is joined or looked up by its id
+        String categoryField = fieldset.includes("category") ? "category" : "categoryId";
+        columns.add(fieldset.column(categoryField, table, "category_id", columnPrefix + "_category_id"));
+        columns.add(fieldset.column("version", table, "version", columnPrefix + "_version"));
         return columns;
     }
 }
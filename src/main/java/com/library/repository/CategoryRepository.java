@@ -1,7 +1,10 @@
 package com.library.repository;
 
 import com.library.domain.Category;
+import com.library.domain.criteria.CategoryCriteria;
+import java.util.Collection;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -13,6 +16,9 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface CategoryRepository extends ReactiveCrudRepository<Category, Long>, CategoryRepositoryInternal {
+    @Query("SELECT * FROM category entity WHERE entity.name IN (:names)")
+    Flux<Category> findByNameIn(Collection<String> names);
+
     @Override
     <S extends Category> Mono<S> save(S entity);
 
@@ -24,6 +30,9 @@ public interface CategoryRepository extends ReactiveCrudRepository<Category, Lon
 
     @Override
     Mono<Void> deleteById(Long id);
+
+    @Override
+    Mono<Void> delete(Category entity);
 }
 
 interface CategoryRepositoryInternal {
@@ -31,9 +40,25 @@ interface CategoryRepositoryInternal {
 
     Flux<Category> findAllBy(Pageable pageable);
 
+    Flux<Category> findAllBy(Keyset keyset);
+
     Flux<Category> findAll();
 
     Mono<Category> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Category> findAllBy(Pageable pageable, Criteria criteria);
+
+    Mono<Long> findVersionById(Long id);
+
+    Flux<Category> findByCriteria(CategoryCriteria criteria);
+
+    Flux<Category> streamByCriteria(CategoryCriteria criteria);
+
+    Flux<Category> findByCriteria(CategoryCriteria criteria, Pageable pageable);
+
+    Flux<Category> findByCriteria(CategoryCriteria criteria, Keyset keyset);
+
+    Mono<Long> countByCriteria(CategoryCriteria criteria);
+
+    Mono<Void> deleteById(Long id);
+
+    Mono<Void> delete(Category entity);
 }
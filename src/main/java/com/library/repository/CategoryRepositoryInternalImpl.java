@@ -1,6 +1,8 @@
 package com.library.repository;
 
 import com.library.domain.Category;
+import com.library.domain.criteria.CategoryCriteria;
+import com.library.repository.cache.NearCache;
 import com.library.repository.rowmapper.CategoryRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
@@ -10,15 +12,16 @@ import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -34,6 +37,8 @@ class CategoryRepositoryInternalImpl extends SimpleR2dbcRepository<Category, Lon
     private final EntityManager entityManager;
 
     private final CategoryRowMapper categoryMapper;
+    private final NearCache<Long, Category> categoryCache;
+    private final EntityChangeRepository entityChangeRepository;
 
     private static final Table entityTable = Table.aliased("category", EntityManager.ENTITY_ALIAS);
 
@@ -41,6 +46,8 @@ class CategoryRepositoryInternalImpl extends SimpleR2dbcRepository<Category, Lon
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         CategoryRowMapper categoryMapper,
+        NearCache<Long, Category> categoryCache,
+        EntityChangeRepository entityChangeRepository,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -53,6 +60,8 @@ class CategoryRepositoryInternalImpl extends SimpleR2dbcRepository<Category, Lon
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.categoryMapper = categoryMapper;
+        this.categoryCache = categoryCache;
+        this.entityChangeRepository = entityChangeRepository;
     }
 
     @Override
@@ -60,23 +69,117 @@ class CategoryRepositoryInternalImpl extends SimpleR2dbcRepository<Category, Lon
         return createQuery(pageable, null).all();
     }
 
+    @Override
+    public Flux<Category> findAllBy(Keyset keyset) {
+        return createKeysetQuery(keyset, new FilterConditionBuilder()).all();
+    }
+
+    @Override
+    public Flux<Category> findByCriteria(CategoryCriteria criteria) {
+        return createCriteriaQuery(criteria).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Category> streamByCriteria(CategoryCriteria criteria) {
+        return entityManager.withCursor(createCriteriaQuery(criteria)).map(this::process).all();
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(CategoryCriteria criteria) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Category.class, "criteria:" + filter.getShape(), () ->
+            entityManager.createSelect(createSelectFrom(), Category.class, null, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select));
+    }
+
+    @Override
+    public Flux<Category> findByCriteria(CategoryCriteria criteria, Pageable pageable) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.createSelect(createSelectFrom(), Category.class, pageable, filter.buildConditions());
+        return filter.bind(db.sql(select)).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Category> findByCriteria(CategoryCriteria criteria, Keyset keyset) {
+        return createKeysetQuery(keyset, buildConditions(criteria)).all();
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(CategoryCriteria criteria) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Category.class, "count:" + filter.getShape(), () ->
+            entityManager.createCount(entityTable, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select)).map(row -> row.get(0, Long.class)).one();
+    }
+
     RowsFetchSpec<Category> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = CategorySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Category.class, pageable, whereClause);
+        String select = entityManager.createSelect(createSelectFrom(), Category.class, pageable, whereClause);
         return db.sql(select).map(this::process);
     }
 
+    RowsFetchSpec<Category> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter) {
+        String select = entityManager.getSelectTemplate(Category.class, EntityManager.keysetShape(keyset) + ':' + filter.getShape(), () ->
+            entityManager.createKeysetSelect(createSelectFrom(), Category.class, keyset, filter.buildConditions())
+        );
+        return entityManager.bindKeyset(filter.bind(db.sql(select)), Category.class, keyset).map(this::process);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
+        List<Expression> columns = CategorySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(entityTable);
+    }
+
+    private FilterConditionBuilder buildConditions(CategoryCriteria criteria) {
+        FilterConditionBuilder filter = new FilterConditionBuilder();
+        if (criteria != null) {
+            filter.buildFilterConditionForField(criteria.getId(), entityTable.column("id"));
+            filter.buildFilterConditionForField(criteria.getName(), entityTable.column("name"));
+        }
+        return filter;
+    }
+
     @Override
     public Flux<Category> findAll() {
-        return findAllBy(null);
+        String select = entityManager.getSelectTemplate(Category.class, "findAll", () ->
+            entityManager.createSelect(createSelectFrom(), Category.class, null, null)
+        );
+        return db.sql(select).map(this::process).all();
     }
 
+    /**
+     * Finds a category by id. The categories are few and seldom change, so once read a category is served from the
+     * {@link NearCache}, which the book queries skipping the category join read as well.
+     */
     @Override
     public Mono<Category> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return categoryCache.get(id, this::loadById);
+    }
+
+    private Mono<Category> loadById(Long id) {
+        String select = entityManager.getSelectTemplate(Category.class, "findById", () ->
+            entityManager.createSelect(
+                createSelectFrom(),
+                Category.class,
+                null,
+                Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"))
+            )
+        );
+        return db.sql(select).bind("id", id).map(this::process).one();
+    }
+
+    /**
+     * Finds the version of a category by id, for its entity tag: a cached category answers without a query, and otherwise only
+     * the version column is selected.
+     */
+    @Override
+    public Mono<Long> findVersionById(Long id) {
+        Category cached = categoryCache.getIfPresent(id);
+        return cached != null ? Mono.justOrEmpty(cached.getVersion()) : loadVersionById(id);
+    }
+
+    private Mono<Long> loadVersionById(Long id) {
+        return db.sql("SELECT version FROM category WHERE id = :id").bind("id", id).map(row -> row.get(0, Long.class)).one();
     }
 
     private Category process(Row row, RowMetadata metadata) {
@@ -84,8 +187,45 @@ class CategoryRepositoryInternalImpl extends SimpleR2dbcRepository<Category, Lon
         return entity;
     }
 
+    /**
+     * Saves a category. When it carries a version, the update is refused with an
+     * {@link org.springframework.dao.OptimisticLockingFailureException} if the category changed since; without one, the current
+     * version is used. The cached category is dropped once the transaction commits.
+     */
     @Override
     public <S extends Category> Mono<S> save(S entity) {
-        return super.save(entity);
+        return withCurrentVersion(entity)
+            .flatMap(super::save)
+            .flatMap(saved -> countChange(saved.getId()).then(invalidateAfterCommit(saved.getId())).thenReturn(saved));
+    }
+
+    private <S extends Category> Mono<S> withCurrentVersion(S entity) {
+        if (entity.getId() == null || entity.getVersion() != null) {
+            return Mono.just(entity);
+        }
+        return loadVersionById(entity.getId())
+            .map(version -> {
+                entity.setVersion(version);
+                return entity;
+            })
+            .defaultIfEmpty(entity);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return super.deleteById(id).then(countChange(id)).then(invalidateAfterCommit(id));
+    }
+
+    @Override
+    public Mono<Void> delete(Category entity) {
+        return deleteById(entity.getId());
+    }
+
+    private Mono<Void> countChange(Long id) {
+        return entityChangeRepository.countChange("category", id);
+    }
+
+    private Mono<Void> invalidateAfterCommit(Long id) {
+        return entityManager.afterCommit(() -> categoryCache.invalidate(id));
     }
 }
@@ -0,0 +1,57 @@
+package com.library.repository;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for the number of changes of each table, from which the ETags of the lists are derived.
+ * <p>
+ * The counts are incremented by the repositories of the books, authors and categories in the transaction of each change, so
+ * that a list can be known unchanged without being queried. Each count is split into {@value #STRIPES} rows by entity id,
+ * created with the table, so that concurrent changes of different entities do not all wait for the lock of one row.
+ */
+@Repository
+public class EntityChangeRepository {
+
+    public static final int STRIPES = 16;
+
+    private final DatabaseClient db;
+
+    public EntityChangeRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /**
+     * Counts a change of a table, in the current transaction.
+     * @param tableName the table.
+     * @param id the id of the entity which changed, choosing the row of the count.
+     * @return a {@link Mono} completing once the change is counted.
+     */
+    public Mono<Void> countChange(String tableName, Long id) {
+        return db
+            .sql("UPDATE entity_change SET change_count = change_count + 1 WHERE table_name = :table AND stripe = :stripe")
+            .bind("table", tableName)
+            .bind("stripe", (int) Math.floorMod(id, (long) STRIPES))
+            .then();
+    }
+
+    /**
+     * Returns the number of changes of tables.
+     * @param tableNames the tables.
+     * @return the numbers of changes, in the order of the tables.
+     */
+    public Mono<List<Long>> findChangeCounts(List<String> tableNames) {
+        return db
+            .sql(
+                "SELECT table_name, CAST(SUM(change_count) AS BIGINT) FROM entity_change WHERE table_name IN (:tables) GROUP BY table_name"
+            )
+            .bind("tables", tableNames)
+            .map(row -> Map.entry(row.get(0, String.class), row.get(1, Long.class)))
+            .all()
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+            .map(counts -> tableNames.stream().map(tableName -> counts.getOrDefault(tableName, 0L)).toList());
+    }
+}
@@ -1,8 +1,18 @@
 package com.library.repository;
 
+import com.library.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -10,20 +20,28 @@ import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.sql.BindMarker;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Functions;
 import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
-import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -36,6 +54,16 @@ public class EntityManager {
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
 
+    public static final String LINK_TABLE_STATEMENTS_METER_NAME = "repository.link-table.statements";
+    public static final String LINK_TABLE_STATEMENTS_METER_DESCRIPTION = "Number of statements issued to maintain the link tables.";
+    public static final String LINK_TABLE_STATEMENTS_METER_BASE_UNIT = "statements";
+
+    private static final int MAX_SELECT_TEMPLATES = 1024;
+
+    private static final String KEYSET_VALUE_MARKER = "keyset_value";
+    private static final String KEYSET_ID_MARKER = "keyset_id";
+    private static final String KEYSET_LIMIT_MARKER = "keyset_limit";
+
     public static class LinkTable {
 
         final String tableName;
@@ -56,11 +84,23 @@ public class EntityManager {
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final MeterRegistry meterRegistry;
+    private final int fetchSize;
+    // read without lock, as every query of the repositories looks its shape up
+    private final Map<String, String> selectTemplates = new ConcurrentHashMap<>();
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.meterRegistry = meterRegistry;
+        this.fetchSize = applicationProperties.getStreaming().getFetchSize();
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
     }
 
@@ -128,6 +168,175 @@ public class EntityManager {
         }
     }
 
+    /**
+     * Creates an SQL select statement from a fragment whose joins are chosen at run time, e.g. from a {@link Fieldset}.
+     * @param selectFrom a representation of a select statement, with or without joins.
+     * @param entityType the entity type which holds the table name.
+     * @param pageable page parameter, or null, if everything needs to be returned
+     * @param where condition or null. The condition to apply as where clause.
+     * @return sql select statement
+     */
+    public String createSelect(SelectJoin selectFrom, Class<?> entityType, Pageable pageable, Condition where) {
+        return selectFrom instanceof SelectFromAndJoinCondition joined
+            ? createSelect(joined, entityType, pageable, where)
+            : createSelect((SelectFromAndJoin) selectFrom, entityType, pageable, where);
+    }
+
+    /**
+     * Creates an SQL select statement for a seek page, ordered by the keyset property and the id, and positioned after the
+     * last row of the previous page. One extra row is fetched, so the caller can tell whether there is a next page.
+     * The returned statement uses named bind markers for the position and the limit, which must be bound with
+     * {@link #bindKeyset(GenericExecuteSpec, Class, Keyset)}.
+     * @param selectFrom a representation of a select statement.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the keyset page parameter.
+     * @param where condition or null. The condition to apply as where clause.
+     * @return sql select statement
+     */
+    public String createKeysetSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Keyset keyset, Condition where) {
+        Table table = createEntityTable(entityType);
+        Condition condition = and(where, createKeysetCondition(table, entityType, keyset));
+        SelectOrdered ordered = condition != null ? selectFrom.where(condition) : selectFrom;
+        return withKeysetLimit(createSelect(ordered.orderBy(createKeysetOrderByFields(table, entityType, keyset)).build()));
+    }
+
+    /**
+     * Creates an SQL select statement for a seek page, ordered by the keyset property and the id, and positioned after the
+     * last row of the previous page. One extra row is fetched, so the caller can tell whether there is a next page.
+     * The returned statement uses named bind markers for the position and the limit, which must be bound with
+     * {@link #bindKeyset(GenericExecuteSpec, Class, Keyset)}.
+     * @param selectFrom a representation of a select statement.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the keyset page parameter.
+     * @param where condition or null. The condition to apply as where clause.
+     * @return sql select statement
+     */
+    public String createKeysetSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Keyset keyset, Condition where) {
+        Table table = createEntityTable(entityType);
+        Condition condition = and(where, createKeysetCondition(table, entityType, keyset));
+        SelectOrdered ordered = condition != null ? selectFrom.where(condition) : selectFrom;
+        return withKeysetLimit(createSelect(ordered.orderBy(createKeysetOrderByFields(table, entityType, keyset)).build()));
+    }
+
+    /**
+     * Creates an SQL select statement for a seek page from a fragment whose joins are chosen at run time, e.g. from a
+     * {@link Fieldset}, see {@link #createKeysetSelect(SelectFromAndJoin, Class, Keyset, Condition)}.
+     * @param selectFrom a representation of a select statement, with or without joins.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the keyset page parameter.
+     * @param where condition or null. The condition to apply as where clause.
+     * @return sql select statement
+     */
+    public String createKeysetSelect(SelectJoin selectFrom, Class<?> entityType, Keyset keyset, Condition where) {
+        return selectFrom instanceof SelectFromAndJoinCondition joined
+            ? createKeysetSelect(joined, entityType, keyset, where)
+            : createKeysetSelect((SelectFromAndJoin) selectFrom, entityType, keyset, where);
+    }
+
+    /**
+     * Binds the position of the keyset to a statement created by one of the {@code createKeysetSelect} methods.
+     * @param spec the statement to bind to.
+     * @param entityType the entity type which holds the sort property.
+     * @param keyset the keyset page parameter.
+     * @return the statement with the keyset values bound.
+     */
+    public GenericExecuteSpec bindKeyset(GenericExecuteSpec spec, Class<?> entityType, Keyset keyset) {
+        spec = spec.bind(KEYSET_LIMIT_MARKER, keyset.getSize() + 1L);
+        if (keyset.isFirst()) {
+            return spec;
+        }
+        RelationalPersistentProperty property = getKeysetProperty(entityType, keyset);
+        spec = spec.bind(KEYSET_ID_MARKER, keyset.getAfterId());
+        if (!property.isIdProperty()) {
+            spec = spec.bind(KEYSET_VALUE_MARKER, keyset.getAfterValue(property.getType()));
+        }
+        return spec;
+    }
+
+    /**
+     * Returns the SQL of a query shape, which is rendered only the first time it is requested and then served from a cache.
+     * Values which vary between executions must be bind markers in the rendered SQL, never literals, so every execution of a
+     * shape sends the very same statement, which the driver can prepare once.
+     * @param entityType the entity type the query is for.
+     * @param shape the name of the query shape, unique for the entity type.
+     * @param renderer renders the SQL of the shape.
+     * @return the SQL of the shape.
+     */
+    public String getSelectTemplate(Class<?> entityType, String shape, Supplier<String> renderer) {
+        String key = entityType.getName() + '#' + shape;
+        String template = selectTemplates.get(key);
+        if (template != null) {
+            return template;
+        }
+        // two requests rendering the same shape at once render the same SQL
+        template = renderer.get();
+        // the shapes are fixed by the code, so the bound is only reached by shapes named after values: it starts over then
+        if (selectTemplates.size() >= MAX_SELECT_TEMPLATES) {
+            selectTemplates.clear();
+        }
+        String previous = selectTemplates.putIfAbsent(key, template);
+        return previous != null ? previous : template;
+    }
+
+    /**
+     * Returns the name of the query shape of a keyset page: the shape depends on the sort and whether the page is positioned,
+     * but neither on the position nor on the page size, which are bound.
+     * @param keyset the keyset page parameter.
+     * @return the name of the query shape.
+     */
+    public static String keysetShape(Keyset keyset) {
+        return "keyset:" + keyset.getProperty() + ':' + keyset.getDirection() + (keyset.isFirst() ? ":first" : "");
+    }
+
+    /**
+     * Creates an SQL statement counting the rows of the entity table which match the condition. Unlike the selects, it does not
+     * join the related tables, so the condition may only refer to the columns of the entity table.
+     * @param entityTable the table of the entity, aliased the same way as in the condition.
+     * @param where condition or null. The condition to apply as where clause.
+     * @return sql count statement
+     */
+    public String createCount(Table entityTable, Condition where) {
+        SelectFromAndJoin selectFrom = Select.builder().select(Functions.count(entityTable.column("id"))).from(entityTable);
+        return createSelect(where != null ? selectFrom.where(where).build() : selectFrom.build());
+    }
+
+    /**
+     * Makes a query fetch its rows from a server-side cursor, {@code application.streaming.fetch-size} rows at a time and only
+     * as they are requested, instead of letting the driver receive the whole result up front. Cancelling the subscription
+     * closes the cursor, which stops the query on the server.
+     * @param query the query to stream.
+     * @return the query with the fetch size set.
+     */
+    public GenericExecuteSpec withCursor(GenericExecuteSpec query) {
+        return query.filter(statement -> statement.fetchSize(fetchSize));
+    }
+
+    /**
+     * Runs an action once the current transaction has committed, or right away when there is no transaction.
+     * The action is not run if the transaction rolls back.
+     * @param action the action to run.
+     * @return a {@link Mono} registering or running the action.
+     */
+    public Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .flatMap(synchronizationManager -> {
+                if (!synchronizationManager.isSynchronizationActive()) {
+                    return Mono.fromRunnable(action);
+                }
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(action);
+                        }
+                    }
+                );
+                return Mono.<Void>empty();
+            })
+            .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(action))
+            .then();
+    }
+
     /**
      * Generate an actual SQL from the given {@link Select}.
      * @param select a representation of a select statement.
@@ -168,27 +377,94 @@ public class EntityManager {
 
     /**
      * Updates the table, which links the entity with the referred entities.
+     * <p>
+     * The current links are read first, then only the links which are no longer referred are deleted, and the new links are
+     * inserted with a single multi-row insert - so at most three statements are issued, and only one when nothing changed.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
      * @param entityId the id of the entity, for which the links are created.
      * @param referencedIds the id of the referred entities.
      * @return the number of inserted rows.
      */
     public Mono<Long> updateLinkTable(LinkTable table, Object entityId, Stream<?> referencedIds) {
-        return deleteFromLinkTable(table, entityId).then(
-            Flux.fromStream(referencedIds)
-                .flatMap((Object referenceId) -> {
-                    StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                        .getDataAccessStrategy()
-                        .getStatementMapper()
-                        .createInsert(table.tableName)
-                        .withColumn(table.idColumn, Parameter.from(entityId))
-                        .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                    return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(insert)).fetch().rowsUpdated();
-                })
-                .collectList()
-                .map((List<Long> updates) -> updates.stream().reduce(Long::sum).orElse(0l))
-        );
+        Assert.notNull(entityId, "entityId is null");
+        Set<Object> wantedIds = referencedIds.collect(Collectors.toCollection(LinkedHashSet::new));
+        return findLinks(table, entityId).flatMap((Set<Object> existingIds) -> {
+            List<Object> removedIds = existingIds.stream().filter(id -> !wantedIds.contains(id)).toList();
+            List<Object> addedIds = wantedIds.stream().filter(id -> !existingIds.contains(id)).toList();
+            return deleteLinks(table, entityId, removedIds).then(insertLinks(table, Map.of(entityId, addedIds)));
+        });
+    }
+
+    private Mono<Set<Object>> findLinks(LinkTable table, Object entityId) {
+        StatementMapper.SelectSpec select = statementMapper
+            .createSelect(table.tableName)
+            .withProjection(table.referenceColumn)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId));
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(statementMapper.getMappedObject(select))
+            .map(row -> row.get(0))
+            .all()
+            .collect(Collectors.toSet())
+            .doOnSubscribe(subscription -> countLinkTableStatement(table, "select"));
+    }
+
+    private Mono<Long> deleteLinks(LinkTable table, Object entityId, List<Object> referenceIds) {
+        if (referenceIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StatementMapper.DeleteSpec delete = statementMapper
+            .createDelete(table.tableName)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId).and(table.referenceColumn).in(referenceIds));
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(statementMapper.getMappedObject(delete))
+            .fetch()
+            .rowsUpdated()
+            .doOnSubscribe(subscription -> countLinkTableStatement(table, "delete"));
+    }
+
+    /**
+     * Inserts the links of entities, which have no links yet, with a single multi-row insert.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param referencedIdsByEntityId the ids of the referred entities, by the id of the entity they are linked to.
+     * @return the number of inserted rows.
+     */
+    public Mono<Long> insertLinks(LinkTable table, Map<?, ? extends Collection<?>> referencedIdsByEntityId) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+            .append(table.tableName)
+            .append(" (")
+            .append(table.idColumn)
+            .append(", ")
+            .append(table.referenceColumn)
+            .append(") VALUES ");
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        for (Map.Entry<?, ? extends Collection<?>> links : referencedIdsByEntityId.entrySet()) {
+            for (Object referenceId : links.getValue()) {
+                int i = bindings.size() / 2;
+                sql.append(i == 0 ? "" : ", ").append("(:entityId").append(i).append(", :referenceId").append(i).append(')');
+                bindings.put("entityId" + i, links.getKey());
+                bindings.put("referenceId" + i, referenceId);
+            }
+        }
+        if (bindings.isEmpty()) {
+            return Mono.just(0L);
+        }
+        GenericExecuteSpec insert = r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString());
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            insert = insert.bind(binding.getKey(), binding.getValue());
+        }
+        return insert.fetch().rowsUpdated().doOnSubscribe(subscription -> countLinkTableStatement(table, "insert"));
+    }
+
+    private void countLinkTableStatement(LinkTable table, String operation) {
+        Counter.builder(LINK_TABLE_STATEMENTS_METER_NAME)
+            .baseUnit(LINK_TABLE_STATEMENTS_METER_BASE_UNIT)
+            .description(LINK_TABLE_STATEMENTS_METER_DESCRIPTION)
+            .tag("table", table.tableName)
+            .tag("operation", operation)
+            .register(meterRegistry)
+            .increment();
     }
 
     public Mono<Void> deleteFromLinkTable(LinkTable table, Object entityId) {
@@ -198,7 +474,11 @@ public class EntityManager {
             .getStatementMapper()
             .createDelete(table.tableName)
             .withCriteria(Criteria.from(Criteria.where(table.idColumn).is(entityId)));
-        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(statementMapper.getMappedObject(deleteSpec))
+            .then()
+            .doOnSubscribe(subscription -> countLinkTableStatement(table, "delete"));
     }
 
     private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
@@ -213,6 +493,66 @@ public class EntityManager {
         return createSelect(selectFrom.build());
     }
 
+    private Table createEntityTable(Class<?> entityType) {
+        return Table.create(getRequiredPersistentEntity(entityType).getTableName()).as(EntityManager.ENTITY_ALIAS);
+    }
+
+    private RelationalPersistentEntity<?> getRequiredPersistentEntity(Class<?> entityType) {
+        return r2dbcEntityTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityType);
+    }
+
+    private RelationalPersistentProperty getKeysetProperty(Class<?> entityType, Keyset keyset) {
+        RelationalPersistentProperty property = getRequiredPersistentEntity(entityType).getPersistentProperty(keyset.getProperty());
+        if (property == null) {
+            throw new IllegalArgumentException("Unknown keyset property: " + keyset.getProperty());
+        }
+        return property;
+    }
+
+    private Condition createKeysetCondition(Table table, Class<?> entityType, Keyset keyset) {
+        if (keyset.isFirst()) {
+            return null;
+        }
+        RelationalPersistentProperty property = getKeysetProperty(entityType, keyset);
+        Column idColumn = table.column(getRequiredPersistentEntity(entityType).getRequiredIdProperty().getColumnName());
+        BindMarker afterId = SQL.bindMarker(":" + KEYSET_ID_MARKER);
+        if (property.isIdProperty()) {
+            return keyset.getDirection().isAscending() ? Conditions.isGreater(idColumn, afterId) : Conditions.isLess(idColumn, afterId);
+        }
+        Column column = table.column(property.getColumnName());
+        BindMarker afterValue = SQL.bindMarker(":" + KEYSET_VALUE_MARKER);
+        Condition beyondValue = keyset.getDirection().isAscending()
+            ? Conditions.isGreater(column, afterValue)
+            : Conditions.isLess(column, afterValue);
+        Condition beyondId = keyset.getDirection().isAscending()
+            ? Conditions.isGreater(idColumn, afterId)
+            : Conditions.isLess(idColumn, afterId);
+        return Conditions.nest(beyondValue.or(Conditions.isEqual(column, afterValue).and(beyondId)));
+    }
+
+    private List<OrderByField> createKeysetOrderByFields(Table table, Class<?> entityType, Keyset keyset) {
+        RelationalPersistentProperty property = getKeysetProperty(entityType, keyset);
+        Sort.Direction direction = keyset.getDirection();
+        List<OrderByField> fields = new ArrayList<>();
+        if (!property.isIdProperty()) {
+            fields.add(OrderByField.from(table.column(property.getColumnName()), direction));
+        }
+        fields.add(OrderByField.from(table.column(getRequiredPersistentEntity(entityType).getRequiredIdProperty().getColumnName()), direction));
+        return fields;
+    }
+
+    private static String withKeysetLimit(String select) {
+        // the size of the page is bound rather than rendered, so that all the sizes share the statement of a shape
+        return select + " LIMIT :" + KEYSET_LIMIT_MARKER;
+    }
+
+    private static Condition and(Condition left, Condition right) {
+        if (left == null) {
+            return right;
+        }
+        return right == null ? left : left.and(right);
+    }
+
     private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
         return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
     }
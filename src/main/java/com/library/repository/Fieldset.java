@@ -0,0 +1,121 @@
+package com.library.repository;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.data.relational.core.sql.AliasedExpression;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.Table;
+
+/**
+ * The fields of an entity a request asks for, a sparse fieldset, by their JSON property names.
+ * <p>
+ * The selects read the columns of these fields only and skip the joins of the relations left out; the other columns are
+ * selected as {@code NULL} under their usual aliases, so the row mappers read every row the same way. The id is always part
+ * of a fieldset.
+ */
+public final class Fieldset {
+
+    private static final String ID = "id";
+
+    private static final Fieldset ALL = new Fieldset(null);
+
+    private final Set<String> fields;
+
+    private Fieldset(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the fieldset of all the fields, of a request without sparse fieldset.
+     * @return the fieldset.
+     */
+    public static Fieldset all() {
+        return ALL;
+    }
+
+    /**
+     * Returns the fieldset of the given fields and the id.
+     * @param fields the JSON property names of the fields.
+     * @return the fieldset.
+     */
+    public static Fieldset of(Collection<String> fields) {
+        Set<String> sorted = new TreeSet<>(fields);
+        sorted.add(ID);
+        return new Fieldset(sorted);
+    }
+
+    /**
+     * Returns this fieldset with one more field, e.g. the sort property of a keyset page, which the next cursor is built from.
+     * @param field the JSON property name of the field.
+     * @return the fieldset.
+     */
+    public Fieldset with(String field) {
+        if (includes(field)) {
+            return this;
+        }
+        Set<String> more = new TreeSet<>(fields);
+        more.add(field);
+        return new Fieldset(more);
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Returns the fields, or null for all the fields.
+     * @return the sorted JSON property names.
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns a description of the fieldset, which determines the rendered SQL, for {@link EntityManager#getSelectTemplate}.
+     * @return the shape of the fieldset.
+     */
+    public String getShape() {
+        return fields == null ? "*" : String.join(",", fields);
+    }
+
+    /**
+     * Returns the select list expression of a column of a field: the aliased column if the field is part of the fieldset,
+     * else {@code NULL} under the same alias.
+     * @param field the JSON property name of the field.
+     * @param table the table of the column.
+     * @param column the column name.
+     * @param alias the alias of the column.
+     * @return the expression.
+     */
+    public Expression column(String field, Table table, String column, String alias) {
+        return includes(field) ? Column.aliased(column, table, alias) : new AliasedExpression(SQL.nullLiteral(), alias);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Fieldset)) {
+            return false;
+        }
+        return getShape().equals(((Fieldset) o).getShape());
+    }
+
+    @Override
+    public int hashCode() {
+        return getShape().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Fieldset{" + getShape() + "}";
+    }
+}
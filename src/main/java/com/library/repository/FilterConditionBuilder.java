@@ -0,0 +1,144 @@
+package com.library.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.relational.core.sql.BindMarker;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Functions;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Translates the {@link Filter}s of a criteria into a where clause.
+ * <p>
+ * Unlike {@code tech.jhipster.service.ConditionBuilder}, which inlines the filter values as literals, every value is a named
+ * bind marker, so the values never end up in the SQL text. The rendered SQL then only depends on which filter operators are
+ * used, which is described by {@link #getShape()}, so statements can be cached with {@link EntityManager#getSelectTemplate}.
+ */
+public class FilterConditionBuilder {
+
+    private static final String MARKER_PREFIX = "filter";
+
+    private final List<Condition> conditions = new ArrayList<>();
+    private final Map<String, Object> bindings = new LinkedHashMap<>();
+    private final StringBuilder shape = new StringBuilder();
+
+    /**
+     * Adds the conditions of the given filter on the given column, does nothing if the filter is null.
+     * @param filter the filter of a criteria field.
+     * @param column the column of the field.
+     * @param <X> the type of the field.
+     */
+    public <X> void buildFilterConditionForField(Filter<X> filter, Column column) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getEquals() != null) {
+            add(column, "equals", Conditions.isEqual(column, bind(filter.getEquals())));
+        }
+        if (filter.getNotEquals() != null) {
+            add(column, "notEquals", Conditions.isNotEqual(column, bind(filter.getNotEquals())));
+        }
+        if (filter.getSpecified() != null) {
+            Condition isNull = Conditions.isNull(column);
+            add(column, "specified=" + filter.getSpecified(), filter.getSpecified() ? isNull.not() : isNull);
+        }
+        if (filter.getIn() != null) {
+            add(column, "in", filter.getIn().isEmpty() ? Conditions.just("1 = 0") : Conditions.in(column, bind(filter.getIn())));
+        }
+        if (filter.getNotIn() != null && !filter.getNotIn().isEmpty()) {
+            add(column, "notIn", Conditions.in(column, bind(filter.getNotIn())).not());
+        }
+        if (filter instanceof RangeFilter<?> rangeFilter) {
+            buildRangeConditions(rangeFilter, column);
+        }
+        if (filter instanceof StringFilter stringFilter) {
+            buildStringConditions(stringFilter, column);
+        }
+    }
+
+    /**
+     * Returns the conjunction of all the conditions added so far.
+     * @return the condition, or null if no filter was set.
+     */
+    public Condition buildConditions() {
+        return conditions.stream().reduce(Condition::and).orElse(null);
+    }
+
+    /**
+     * Returns a description of the conditions added so far, which determines the rendered SQL but not the bound values.
+     * @return the shape of the conditions.
+     */
+    public String getShape() {
+        return shape.toString();
+    }
+
+    /**
+     * Binds the filter values to a statement containing the condition returned by {@link #buildConditions()}.
+     * @param spec the statement to bind to.
+     * @return the statement with the filter values bound.
+     */
+    public GenericExecuteSpec bind(GenericExecuteSpec spec) {
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec;
+    }
+
+    private void buildRangeConditions(RangeFilter<?> filter, Column column) {
+        if (filter.getGreaterThan() != null) {
+            add(column, "greaterThan", Conditions.isGreater(column, bind(filter.getGreaterThan())));
+        }
+        if (filter.getGreaterThanOrEqual() != null) {
+            add(column, "greaterThanOrEqual", Conditions.isGreaterOrEqualTo(column, bind(filter.getGreaterThanOrEqual())));
+        }
+        if (filter.getLessThan() != null) {
+            add(column, "lessThan", Conditions.isLess(column, bind(filter.getLessThan())));
+        }
+        if (filter.getLessThanOrEqual() != null) {
+            add(column, "lessThanOrEqual", Conditions.isLessOrEqualTo(column, bind(filter.getLessThanOrEqual())));
+        }
+    }
+
+    private void buildStringConditions(StringFilter filter, Column column) {
+        if (filter.getContains() != null) {
+            add(column, "contains", Conditions.like(Functions.upper(column), bind(containsPattern(filter.getContains()))));
+        }
+        if (filter.getDoesNotContain() != null) {
+            add(column, "doesNotContain", Conditions.notLike(Functions.upper(column), bind(containsPattern(filter.getDoesNotContain()))));
+        }
+    }
+
+    private void add(Column column, String operator, Condition condition) {
+        conditions.add(condition);
+        shape.append(column.getName()).append('.').append(operator).append(';');
+    }
+
+    private BindMarker bind(Object value) {
+        String name = MARKER_PREFIX + bindings.size();
+        bindings.put(name, toBindValue(value));
+        return SQL.bindMarker(":" + name);
+    }
+
+    private static Object toBindValue(Object value) {
+        if (value instanceof List<?> values) {
+            return values.stream().map(FilterConditionBuilder::toBindValue).toList();
+        }
+        if (value instanceof Enum<?> enumValue) {
+            return enumValue.name();
+        }
+        return value;
+    }
+
+    private static String containsPattern(String value) {
+        String escaped = value.toUpperCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,76 @@
+package com.library.repository;
+
+import com.library.domain.JobCheckpoint;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for the {@link JobCheckpoint}s, one per job.
+ */
+@Repository
+public class JobCheckpointRepository {
+
+    private final DatabaseClient db;
+
+    public JobCheckpointRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    public Mono<JobCheckpoint> findByJobName(String jobName) {
+        return db
+            .sql("SELECT job_name, run_date, resume_from, completed FROM job_checkpoint WHERE job_name = :jobName")
+            .bind("jobName", jobName)
+            .map(row ->
+                new JobCheckpoint(
+                    row.get(0, String.class),
+                    row.get(1, LocalDate.class),
+                    row.get(2, Long.class),
+                    Boolean.TRUE.equals(row.get(3, Boolean.class))
+                )
+            )
+            .one();
+    }
+
+    /**
+     * Saves the checkpoint of a job, replacing its previous one.
+     * @param checkpoint the checkpoint.
+     * @return a {@link Mono} completing once the checkpoint is saved.
+     */
+    public Mono<Void> save(JobCheckpoint checkpoint) {
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        return db
+            .sql(
+                "UPDATE job_checkpoint SET run_date = :runDate, resume_from = :resumeFrom, completed = :completed, " +
+                "updated_at = :updatedAt WHERE job_name = :jobName"
+            )
+            .bind("jobName", checkpoint.jobName())
+            .bind("runDate", checkpoint.runDate())
+            .bind("resumeFrom", checkpoint.resumeFrom())
+            .bind("completed", checkpoint.completed())
+            .bind("updatedAt", now)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(updated -> {
+                if (updated > 0) {
+                    return Mono.empty();
+                }
+                return db
+                    .sql(
+                        "INSERT INTO job_checkpoint (job_name, run_date, resume_from, completed, updated_at) " +
+                        "VALUES (:jobName, :runDate, :resumeFrom, :completed, :updatedAt)"
+                    )
+                    .bind("jobName", checkpoint.jobName())
+                    .bind("runDate", checkpoint.runDate())
+                    .bind("resumeFrom", checkpoint.resumeFrom())
+                    .bind("completed", checkpoint.completed())
+                    .bind("updatedAt", now)
+                    .then();
+            })
+            .then();
+    }
+}
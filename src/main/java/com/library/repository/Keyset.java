@@ -0,0 +1,193 @@
+package com.library.repository;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * A seek (keyset) page request on {@code (sort key, id)}.
+ * <p>
+ * Instead of skipping {@code offset} rows, the next page starts right after the sort value and id of the last row of the
+ * previous page, so the database can seek through the index and deep pages cost the same as the first one.
+ * The position can be exchanged with clients as an opaque continuation token, see {@link #toToken()} and {@link #fromToken(String, int)}.
+ */
+public final class Keyset {
+
+    private static final String SEPARATOR = ",";
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final int size;
+    private final String afterValue;
+    private final Long afterId;
+
+    private Keyset(String property, Sort.Direction direction, int size, String afterValue, Long afterId) {
+        Assert.hasText(property, "property is empty");
+        Assert.notNull(direction, "direction is null");
+        Assert.isTrue(size > 0, "size must be positive");
+        this.property = property;
+        this.direction = direction;
+        this.size = size;
+        this.afterValue = afterValue;
+        this.afterId = afterId;
+    }
+
+    /**
+     * Creates a request for the first page.
+     * @param property the entity property to sort on, ties are broken by the id.
+     * @param direction the sort direction.
+     * @param size the page size.
+     * @return the keyset of the first page.
+     */
+    public static Keyset first(String property, Sort.Direction direction, int size) {
+        return new Keyset(property, direction, size, null, null);
+    }
+
+    /**
+     * Creates the request for the page following the row with the given sort value and id.
+     * @param value the string representation of the sort property of the last row.
+     * @param id the id of the last row.
+     * @return the keyset of the next page.
+     */
+    public Keyset after(String value, Long id) {
+        Assert.notNull(value, "value is null");
+        Assert.notNull(id, "id is null");
+        return new Keyset(property, direction, size, value, id);
+    }
+
+    /**
+     * Decodes a continuation token created by {@link #toToken()}.
+     * @param token the opaque token.
+     * @param size the page size to use for the page.
+     * @return the keyset stored in the token.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static Keyset fromToken(String token, int size) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed keyset token");
+            }
+            return first(decode(parts[0]), Sort.Direction.fromString(decode(parts[1])), size).after(
+                decode(parts[2]),
+                Long.valueOf(decode(parts[3]))
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed keyset token", e);
+        }
+    }
+
+    /**
+     * Encodes the sort and position of this keyset into an opaque, url safe token. The page size is not part of the token.
+     * @return the token.
+     */
+    public String toToken() {
+        Assert.state(!isFirst(), "The first page has no position");
+        String raw = String.join(SEPARATOR, encode(property), encode(direction.name()), encode(afterValue), encode(afterId.toString()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getAfterValue() {
+        return afterValue;
+    }
+
+    /**
+     * Returns the sort value of the last row of the previous page, converted to the type of the sort property. Enums are returned
+     * by their name, which is how they are stored.
+     * @param type the type of the sort property.
+     * @return the converted value, or null for the first page.
+     * @throws IllegalArgumentException if the value is not a value of the type, e.g. in a tampered token.
+     */
+    public Object getAfterValue(Class<?> type) {
+        if (afterValue == null) {
+            return null;
+        }
+        try {
+            if (type.isEnum()) {
+                if (Arrays.stream(type.getEnumConstants()).noneMatch(constant -> ((Enum<?>) constant).name().equals(afterValue))) {
+                    throw new IllegalArgumentException("No " + type.getSimpleName() + " named " + afterValue);
+                }
+                return afterValue;
+            }
+            if (LocalDate.class.equals(type)) {
+                return LocalDate.parse(afterValue);
+            }
+            return DefaultConversionService.getSharedInstance().convert(afterValue, type);
+        } catch (DateTimeParseException | ConversionException e) {
+            throw new IllegalArgumentException("Invalid keyset value for " + type.getSimpleName(), e);
+        }
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public boolean isFirst() {
+        return afterId == null;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Keyset)) {
+            return false;
+        }
+        Keyset other = (Keyset) o;
+        return (
+            size == other.size &&
+            property.equals(other.property) &&
+            direction == other.direction &&
+            Objects.equals(afterValue, other.afterValue) &&
+            Objects.equals(afterId, other.afterId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, size, afterValue, afterId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Keyset{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", size=" + size +
+            ", afterValue='" + afterValue + "'" +
+            ", afterId=" + afterId +
+            "}";
+    }
+}
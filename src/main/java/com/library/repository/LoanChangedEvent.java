@@ -0,0 +1,10 @@
+package com.library.repository;
+
+import java.util.List;
+
+/**
+ * Published by {@link LoanRepository} once loans were saved or deleted, after the transaction committed.
+ *
+ * @param bookIds the ids of the books whose number of copies on loan changed.
+ */
+public record LoanChangedEvent(List<Long> bookIds) {}
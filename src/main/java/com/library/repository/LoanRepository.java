@@ -1,6 +1,8 @@
 package com.library.repository;
 
 import com.library.domain.Loan;
+import com.library.domain.criteria.LoanCriteria;
+import java.time.LocalDate;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -23,6 +25,18 @@ public interface LoanRepository extends ReactiveCrudRepository<Loan, Long>, Loan
     @Override
     Flux<Loan> findAllWithEagerRelationships(Pageable page);
 
+    @Query("SELECT MAX(entity.id) FROM loan entity WHERE entity.return_date IS NULL")
+    Mono<Long> findMaxIdNotReturned();
+
+    @Query("SELECT MIN(entity.id) FROM loan entity WHERE entity.return_date IS NULL AND entity.id >= :fromId")
+    Mono<Long> findMinIdNotReturnedFrom(Long fromId);
+
+    @Query(
+        "SELECT * FROM loan entity WHERE entity.id >= :fromId AND entity.id < :toId " +
+        "AND entity.return_date IS NULL AND entity.loan_date < :loanedBefore"
+    )
+    Flux<Loan> findNotReturnedInIdRangeLoanedBefore(Long fromId, Long toId, LocalDate loanedBefore);
+
     @Query("SELECT * FROM loan entity WHERE entity.book_id = :id")
     Flux<Loan> findByBook(Long id);
 
@@ -46,6 +60,9 @@ public interface LoanRepository extends ReactiveCrudRepository<Loan, Long>, Loan
 
     @Override
     Mono<Void> deleteById(Long id);
+
+    @Override
+    Mono<Void> delete(Loan entity);
 }
 
 interface LoanRepositoryInternal {
@@ -53,11 +70,25 @@ interface LoanRepositoryInternal {
 
     Flux<Loan> findAllBy(Pageable pageable);
 
+    Flux<Loan> findAllBy(Keyset keyset);
+
     Flux<Loan> findAll();
 
     Mono<Loan> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Loan> findAllBy(Pageable pageable, Criteria criteria);
+
+    Flux<Loan> findByCriteria(LoanCriteria criteria);
+
+    Flux<Loan> streamByCriteria(LoanCriteria criteria);
+
+    Flux<Loan> streamByCriteria(LoanCriteria criteria, Fieldset fieldset);
+
+    Flux<Loan> findByCriteria(LoanCriteria criteria, Pageable pageable);
+
+    Flux<Loan> findByCriteria(LoanCriteria criteria, Keyset keyset);
+
+    Flux<Loan> findByCriteria(LoanCriteria criteria, Keyset keyset, Fieldset fieldset);
+
+    Mono<Long> countByCriteria(LoanCriteria criteria);
 
     Mono<Loan> findOneWithEagerRelationships(Long id);
 
@@ -66,4 +97,6 @@ interface LoanRepositoryInternal {
     Flux<Loan> findAllWithEagerRelationships(Pageable page);
 
     Mono<Void> deleteById(Long id);
+
+    Mono<Void> delete(Loan entity);
 }
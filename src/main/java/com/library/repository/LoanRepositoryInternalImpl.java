@@ -1,27 +1,34 @@
 package com.library.repository;
 
 import com.library.domain.Loan;
+import com.library.domain.criteria.LoanCriteria;
 import com.library.repository.rowmapper.BookRowMapper;
 import com.library.repository.rowmapper.LoanRowMapper;
 import com.library.repository.rowmapper.ReaderRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -39,6 +46,9 @@ class LoanRepositoryInternalImpl extends SimpleR2dbcRepository<Loan, Long> imple
     private final BookRowMapper bookMapper;
     private final ReaderRowMapper readerMapper;
     private final LoanRowMapper loanMapper;
+    private final LoanStatisticsRepository statisticsRepository;
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final Table entityTable = Table.aliased("loan", EntityManager.ENTITY_ALIAS);
     private static final Table bookTable = Table.aliased("book", "book");
@@ -50,6 +60,9 @@ class LoanRepositoryInternalImpl extends SimpleR2dbcRepository<Loan, Long> imple
         BookRowMapper bookMapper,
         ReaderRowMapper readerMapper,
         LoanRowMapper loanMapper,
+        LoanStatisticsRepository statisticsRepository,
+        BookRepository bookRepository,
+        ApplicationEventPublisher eventPublisher,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -64,6 +77,9 @@ class LoanRepositoryInternalImpl extends SimpleR2dbcRepository<Loan, Long> imple
         this.bookMapper = bookMapper;
         this.readerMapper = readerMapper;
         this.loanMapper = loanMapper;
+        this.statisticsRepository = statisticsRepository;
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -71,33 +87,137 @@ class LoanRepositoryInternalImpl extends SimpleR2dbcRepository<Loan, Long> imple
         return createQuery(pageable, null).all();
     }
 
+    @Override
+    public Flux<Loan> findAllBy(Keyset keyset) {
+        return createKeysetQuery(keyset, new FilterConditionBuilder()).all();
+    }
+
+    @Override
+    public Flux<Loan> findByCriteria(LoanCriteria criteria) {
+        return createCriteriaQuery(criteria).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Loan> streamByCriteria(LoanCriteria criteria) {
+        return streamByCriteria(criteria, Fieldset.all());
+    }
+
+    @Override
+    public Flux<Loan> streamByCriteria(LoanCriteria criteria, Fieldset fieldset) {
+        return entityManager.withCursor(createCriteriaQuery(criteria, fieldset)).map((row, metadata) -> process(row, fieldset)).all();
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(LoanCriteria criteria) {
+        return createCriteriaQuery(criteria, Fieldset.all());
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(LoanCriteria criteria, Fieldset fieldset) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Loan.class, "criteria:" + filter.getShape() + ':' + fieldset.getShape(), () ->
+            entityManager.createSelect(createSelectFrom(fieldset), Loan.class, null, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select));
+    }
+
+    @Override
+    public Flux<Loan> findByCriteria(LoanCriteria criteria, Pageable pageable) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.createSelect(createSelectFrom(Fieldset.all()), Loan.class, pageable, filter.buildConditions());
+        return filter.bind(db.sql(select)).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Loan> findByCriteria(LoanCriteria criteria, Keyset keyset) {
+        return createKeysetQuery(keyset, buildConditions(criteria)).all();
+    }
+
+    @Override
+    public Flux<Loan> findByCriteria(LoanCriteria criteria, Keyset keyset, Fieldset fieldset) {
+        // The next cursor is built from the sort property of the last loan
+        return createKeysetQuery(keyset, buildConditions(criteria), fieldset.with(keyset.getProperty())).all();
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(LoanCriteria criteria) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Loan.class, "count:" + filter.getShape(), () ->
+            entityManager.createCount(entityTable, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select)).map(row -> row.get(0, Long.class)).one();
+    }
+
     RowsFetchSpec<Loan> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = LoanSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        columns.addAll(BookSqlHelper.getColumns(bookTable, "book"));
-        columns.addAll(ReaderSqlHelper.getColumns(memberTable, "member"));
-        SelectFromAndJoinCondition selectFrom = Select.builder()
-            .select(columns)
-            .from(entityTable)
-            .leftOuterJoin(bookTable)
-            .on(Column.create("book_id", entityTable))
-            .equals(Column.create("id", bookTable))
-            .leftOuterJoin(memberTable)
-            .on(Column.create("member_id", entityTable))
-            .equals(Column.create("id", memberTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Loan.class, pageable, whereClause);
+        String select = entityManager.createSelect(createSelectFrom(Fieldset.all()), Loan.class, pageable, whereClause);
         return db.sql(select).map(this::process);
     }
 
+    RowsFetchSpec<Loan> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter) {
+        return createKeysetQuery(keyset, filter, Fieldset.all());
+    }
+
+    RowsFetchSpec<Loan> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter, Fieldset fieldset) {
+        String shape = EntityManager.keysetShape(keyset) + ':' + filter.getShape() + ':' + fieldset.getShape();
+        String select = entityManager.getSelectTemplate(Loan.class, shape, () ->
+            entityManager.createKeysetSelect(createSelectFrom(fieldset), Loan.class, keyset, filter.buildConditions())
+        );
+        return entityManager.bindKeyset(filter.bind(db.sql(select)), Loan.class, keyset).map((row, metadata) -> process(row, fieldset));
+    }
+
+    /**
+     * Creates the select of the loans, joining the book and the member only if the fieldset includes them.
+     */
+    private SelectJoin createSelectFrom(Fieldset fieldset) {
+        List<Expression> columns = LoanSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS, fieldset);
+        if (fieldset.includes("book")) {
+            columns.addAll(BookSqlHelper.getColumns(bookTable, "book"));
+        }
+        if (fieldset.includes("member")) {
+            columns.addAll(ReaderSqlHelper.getColumns(memberTable, "member"));
+        }
+        SelectJoin select = Select.builder().select(columns).from(entityTable);
+        if (fieldset.includes("book")) {
+            select = select.leftOuterJoin(bookTable).on(Column.create("book_id", entityTable)).equals(Column.create("id", bookTable));
+        }
+        if (fieldset.includes("member")) {
+            select = select
+                .leftOuterJoin(memberTable)
+                .on(Column.create("member_id", entityTable))
+                .equals(Column.create("id", memberTable));
+        }
+        return select;
+    }
+
+    private FilterConditionBuilder buildConditions(LoanCriteria criteria) {
+        FilterConditionBuilder filter = new FilterConditionBuilder();
+        if (criteria != null) {
+            filter.buildFilterConditionForField(criteria.getId(), entityTable.column("id"));
+            filter.buildFilterConditionForField(criteria.getLoanDate(), entityTable.column("loan_date"));
+            filter.buildFilterConditionForField(criteria.getReturnDate(), entityTable.column("return_date"));
+            filter.buildFilterConditionForField(criteria.getBookId(), entityTable.column("book_id"));
+            filter.buildFilterConditionForField(criteria.getMemberId(), entityTable.column("member_id"));
+        }
+        return filter;
+    }
+
     @Override
     public Flux<Loan> findAll() {
-        return findAllBy(null);
+        String select = entityManager.getSelectTemplate(Loan.class, "findAll", () ->
+            entityManager.createSelect(createSelectFrom(Fieldset.all()), Loan.class, null, null)
+        );
+        return db.sql(select).map(this::process).all();
     }
 
     @Override
     public Mono<Loan> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        String select = entityManager.getSelectTemplate(Loan.class, "findById", () ->
+            entityManager.createSelect(
+                createSelectFrom(Fieldset.all()),
+                Loan.class,
+                null,
+                Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"))
+            )
+        );
+        return db.sql(select).bind("id", id).map(this::process).one();
     }
 
     @Override
@@ -116,14 +236,90 @@ class LoanRepositoryInternalImpl extends SimpleR2dbcRepository<Loan, Long> imple
     }
 
     private Loan process(Row row, RowMetadata metadata) {
+        return process(row, Fieldset.all());
+    }
+
+    private Loan process(Row row, Fieldset fieldset) {
         Loan entity = loanMapper.apply(row, "e");
-        entity.setBook(bookMapper.apply(row, "book"));
-        entity.setMember(readerMapper.apply(row, "member"));
+        if (fieldset.includes("book")) {
+            entity.setBook(bookMapper.apply(row, "book"));
+        }
+        if (fieldset.includes("member")) {
+            entity.setMember(readerMapper.apply(row, "member"));
+        }
         return entity;
     }
 
+    /**
+     * Saves a loan, and adjusts the statistics and the copies on loan of its books for it, see {@link #loanChanged(Loan, Loan)}.
+     */
     @Override
     public <S extends Loan> Mono<S> save(S entity) {
-        return super.save(entity);
+        if (entity.getId() == null) {
+            return super.save(entity).flatMap(saved -> loanChanged(null, saved).thenReturn(saved));
+        }
+        return findCounted(entity.getId())
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(before -> super.save(entity).flatMap(saved -> loanChanged(before.orElse(null), saved).thenReturn(saved)));
+    }
+
+    /**
+     * Deletes a loan, and adjusts the statistics and the copies on loan of its book for it, see {@link #loanChanged(Loan, Loan)}.
+     */
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return findCounted(id)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(before -> super.deleteById(id).then(before.map(loan -> loanChanged(loan, null)).orElse(Mono.empty())));
+    }
+
+    @Override
+    public Mono<Void> delete(Loan entity) {
+        return deleteById(entity.getId());
+    }
+
+    /**
+     * Adjusts the statistics (see {@link LoanStatisticsRepository}) and the copies on loan of the books for a loan which
+     * changed, in the current transaction, and publishes a {@link LoanChangedEvent} once it is committed.
+     * @param before the loan before the change, null if it was created.
+     * @param after the loan after the change, null if it was deleted.
+     */
+    private Mono<Void> loanChanged(Loan before, Loan after) {
+        Map<Long, Integer> copiesOnLoan = new LinkedHashMap<>();
+        if (before != null && before.getBookId() != null && before.getReturnDate() == null) {
+            copiesOnLoan.merge(before.getBookId(), -1, Integer::sum);
+        }
+        if (after != null && after.getBookId() != null && after.getReturnDate() == null) {
+            copiesOnLoan.merge(after.getBookId(), 1, Integer::sum);
+        }
+        copiesOnLoan.values().removeIf(delta -> delta == 0);
+        if (copiesOnLoan.isEmpty()) {
+            return statisticsRepository.loanChanged(before, after);
+        }
+        List<Long> bookIds = List.copyOf(copiesOnLoan.keySet());
+        return statisticsRepository
+            .loanChanged(before, after)
+            .thenMany(Flux.fromIterable(copiesOnLoan.entrySet()))
+            .concatMap(delta -> bookRepository.adjustCopiesOnLoan(delta.getKey(), delta.getValue()))
+            .then(entityManager.afterCommit(() -> eventPublisher.publishEvent(new LoanChangedEvent(bookIds))));
+    }
+
+    /**
+     * Reads the columns of a loan which are counted by the statistics and the copies on loan of its book, locking it until
+     * the end of the current transaction, so that concurrent changes of the loan adjust the counts one after the other.
+     */
+    private Mono<Loan> findCounted(Long id) {
+        return db
+            .sql("SELECT book_id, member_id, loan_date, return_date FROM loan WHERE id = :id FOR UPDATE")
+            .bind("id", id)
+            .map(row -> {
+                Loan loan = new Loan().loanDate(row.get(2, LocalDate.class)).returnDate(row.get(3, LocalDate.class));
+                loan.setBookId(row.get(0, Long.class));
+                loan.setMemberId(row.get(1, Long.class));
+                return loan;
+            })
+            .one();
     }
 }
@@ -9,13 +9,20 @@ import org.springframework.data.relational.core.sql.Table;
 public class LoanSqlHelper {
 
     public static List<Expression> getColumns(Table table, String columnPrefix) {
+        return getColumns(table, columnPrefix, Fieldset.all());
+    }
+
+    public static List<Expression> getColumns(Table table, String columnPrefix, Fieldset fieldset) {
         List<Expression> columns = new ArrayList<>();
         columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("loan_date", table, columnPrefix + "_loan_date"));
-        columns.add(Column.aliased("return_date", table, columnPrefix + "_return_date"));
+        columns.add(fieldset.column("loanDate", table, "loan_date", columnPrefix + "_loan_date"));
+        columns.add(fieldset.column("returnDate", table, "return_date", columnPrefix + "_return_date"));
 
-        columns.add(Column.aliased("book_id", table, columnPrefix + "_book_id"));
-        columns.add(Column.aliased("member_id", table, columnPrefix + "_member_id"));
+        // The book and the member are joined by their ids
+        String bookField = fieldset.includes("book") ? "book" : "bookId";
+        columns.add(fieldset.column(bookField, table, "book_id", columnPrefix + "_book_id"));
+        String memberField = fieldset.includes("member") ? "member" : "memberId";
+        columns.add(fieldset.column(memberField, table, "member_id", columnPrefix + "_member_id"));
         return columns;
     }
 }
@@ -0,0 +1,336 @@
+package com.library.repository;
+
+import com.library.domain.Loan;
+import com.library.domain.LoanStatistics;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for the circulation statistics, see {@link LoanStatistics}.
+ * <p>
+ * The statistics are counters of summary tables, adjusted by {@link LoanRepositoryInternalImpl} in the transaction of each
+ * loan change, so reading them never needs the loans to be grouped. The loans of a category are counted under the category
+ * of their book when they are recorded; {@link #rebuild()} recounts everything from the loans, e.g. after books changed
+ * category or loans were changed outside of the application.
+ * <p>
+ * The number of active readers is split into {@value #STRIPES} rows by reader id, so that concurrent loans of different
+ * readers do not all wait for the lock of one row.
+ */
+@Repository
+public class LoanStatisticsRepository {
+
+    public static final int STRIPES = 16;
+
+    private static final long NO_CATEGORY = 0L;
+
+    private static final String ACTIVE_READERS = "active_readers";
+
+    private static final String BOOK_LOANS = "stats_book_loans";
+
+    private static final String CATEGORY_MONTH_LOANS = "stats_category_month_loans";
+
+    private static final String READER_LOANS = "stats_reader_loans";
+
+    private static final String COUNTER = "stats_counter";
+
+    private static final List<String> REBUILD_STATEMENTS = List.of(
+        "DELETE FROM " + BOOK_LOANS,
+        "DELETE FROM " + CATEGORY_MONTH_LOANS,
+        "DELETE FROM " + READER_LOANS,
+        "DELETE FROM " + COUNTER,
+        "INSERT INTO " + BOOK_LOANS + " (book_id, loan_count) " +
+        "SELECT book_id, COUNT(*) FROM loan WHERE book_id IS NOT NULL GROUP BY book_id",
+        "INSERT INTO " + CATEGORY_MONTH_LOANS + " (loan_month, category_id, loan_count) " +
+        "SELECT CAST(DATE_TRUNC('MONTH', loan.loan_date) AS DATE), COALESCE(book.category_id, 0), COUNT(*) " +
+        "FROM loan LEFT JOIN book ON book.id = loan.book_id " +
+        "GROUP BY CAST(DATE_TRUNC('MONTH', loan.loan_date) AS DATE), COALESCE(book.category_id, 0)",
+        "INSERT INTO " + READER_LOANS + " (member_id, loan_count, on_loan_count) " +
+        "SELECT member_id, COUNT(*), SUM(CASE WHEN return_date IS NULL THEN 1 ELSE 0 END) " +
+        "FROM loan WHERE member_id IS NOT NULL GROUP BY member_id",
+        "INSERT INTO " + COUNTER + " (name, stripe, counter_value) " +
+        "SELECT '" + ACTIVE_READERS + "', MOD(member_id, " + STRIPES + "), COUNT(*) " +
+        "FROM " + READER_LOANS + " WHERE on_loan_count > 0 GROUP BY MOD(member_id, " + STRIPES + ")"
+    );
+
+    private final DatabaseClient db;
+
+    private final boolean postgres;
+
+    public LoanStatisticsRepository(DatabaseClient db) {
+        this.db = db;
+        this.postgres = db.getConnectionFactory().getMetadata().getName().contains("PostgreSQL");
+    }
+
+    /**
+     * Adjusts the statistics for a loan which changed, in the current transaction.
+     * @param before the loan before the change, null if it was created.
+     * @param after the loan after the change, null if it was deleted.
+     * @return a {@link Mono} completing once the statistics are adjusted.
+     */
+    public Mono<Void> loanChanged(Loan before, Loan after) {
+        Long beforeBookId = before != null ? before.getBookId() : null;
+        Long afterBookId = after != null ? after.getBookId() : null;
+        return findCategoryId(beforeBookId).flatMap(beforeCategoryId -> {
+            boolean sameBook = Objects.equals(beforeBookId, afterBookId);
+            return (sameBook ? Mono.just(beforeCategoryId) : findCategoryId(afterBookId)).flatMap(afterCategoryId -> {
+                Deltas deltas = new Deltas();
+                deltas.add(before, beforeCategoryId, -1);
+                deltas.add(after, afterCategoryId, 1);
+                return deltas.apply();
+            });
+        });
+    }
+
+    private Mono<Long> findCategoryId(Long bookId) {
+        if (bookId == null) {
+            return Mono.just(NO_CATEGORY);
+        }
+        return db
+            .sql("SELECT category_id FROM book WHERE id = :id")
+            .bind("id", bookId)
+            .map(row -> Objects.requireNonNullElse(row.get(0, Long.class), NO_CATEGORY))
+            .one()
+            .defaultIfEmpty(NO_CATEGORY);
+    }
+
+    /**
+     * Recounts all the statistics from the loans.
+     * <p>
+     * On PostgreSQL, the loans are locked against changes until the end of the current transaction, so none is missed.
+     * @return a {@link Mono} completing once the statistics are recounted.
+     */
+    public Mono<Void> rebuild() {
+        List<String> statements = new ArrayList<>();
+        if (postgres) {
+            statements.add("LOCK TABLE loan IN SHARE MODE");
+        }
+        statements.addAll(REBUILD_STATEMENTS);
+        return Flux.fromIterable(statements).concatMap(statement -> db.sql(statement).then()).then();
+    }
+
+    /**
+     * Returns the number of loans of each category, by month.
+     * @param from the first month.
+     * @param to the last month.
+     * @return the categories with loans, by month then category id.
+     */
+    public Flux<LoanStatistics.CategoryMonth> findLoansByCategory(YearMonth from, YearMonth to) {
+        return db
+            .sql(
+                "SELECT s.category_id, c.name, s.loan_month, s.loan_count FROM " +
+                CATEGORY_MONTH_LOANS +
+                " s LEFT JOIN category c ON c.id = s.category_id " +
+                "WHERE s.loan_month >= :from AND s.loan_month <= :to AND s.loan_count > 0 ORDER BY s.loan_month, s.category_id"
+            )
+            .bind("from", from.atDay(1))
+            .bind("to", to.atDay(1))
+            .map(row -> {
+                Long categoryId = row.get(0, Long.class);
+                return new LoanStatistics.CategoryMonth(
+                    NO_CATEGORY == categoryId ? null : categoryId,
+                    row.get(1, String.class),
+                    YearMonth.from(row.get(2, LocalDate.class)),
+                    row.get(3, Long.class)
+                );
+            })
+            .all();
+    }
+
+    /**
+     * Returns the most borrowed books.
+     * @param limit the number of books.
+     * @return the books, by descending number of loans.
+     */
+    public Flux<LoanStatistics.BookLoans> findMostBorrowedBooks(int limit) {
+        return db
+            .sql(
+                "SELECT s.book_id, b.title, s.loan_count FROM " +
+                BOOK_LOANS +
+                " s JOIN book b ON b.id = s.book_id " +
+                "WHERE s.loan_count > 0 ORDER BY s.loan_count DESC, s.book_id LIMIT :limit"
+            )
+            .bind("limit", limit)
+            .map(row -> new LoanStatistics.BookLoans(row.get(0, Long.class), row.get(1, String.class), row.get(2, Long.class)))
+            .all();
+    }
+
+    /**
+     * Returns the number of readers with at least one loan not returned yet.
+     * @return the number of readers.
+     */
+    public Mono<LoanStatistics.ActiveReaders> countActiveReaders() {
+        return db
+            .sql("SELECT CAST(COALESCE(SUM(counter_value), 0) AS BIGINT) FROM " + COUNTER + " WHERE name = :name")
+            .bind("name", ACTIVE_READERS)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .map(LoanStatistics.ActiveReaders::new);
+    }
+
+    /**
+     * The changes of the counters for one loan change, by table then key; the keys are sorted so that concurrent changes
+     * lock the rows in the same order.
+     */
+    private final class Deltas {
+
+        private final Map<Long, Long> bookLoans = new TreeMap<>();
+        private final Map<LocalDate, Map<Long, Long>> categoryMonthLoans = new TreeMap<>();
+        private final Map<Long, Long> readerLoans = new TreeMap<>();
+        private final Map<Long, Long> readerOnLoans = new TreeMap<>();
+
+        void add(Loan loan, long categoryId, long sign) {
+            if (loan == null) {
+                return;
+            }
+            if (loan.getBookId() != null) {
+                bookLoans.merge(loan.getBookId(), sign, Long::sum);
+            }
+            if (loan.getLoanDate() != null) {
+                categoryMonthLoans
+                    .computeIfAbsent(loan.getLoanDate().withDayOfMonth(1), month -> new TreeMap<>())
+                    .merge(categoryId, sign, Long::sum);
+            }
+            if (loan.getMemberId() != null) {
+                readerLoans.merge(loan.getMemberId(), sign, Long::sum);
+                readerOnLoans.merge(loan.getMemberId(), loan.getReturnDate() == null ? sign : 0, Long::sum);
+            }
+        }
+
+        Mono<Void> apply() {
+            List<Mono<Void>> updates = new ArrayList<>();
+            bookLoans.forEach((bookId, delta) -> {
+                if (delta != 0) {
+                    updates.add(increment(BOOK_LOANS, Map.of("book_id", bookId), Map.of("loan_count", delta)));
+                }
+            });
+            categoryMonthLoans.forEach((month, categories) ->
+                categories.forEach((categoryId, delta) -> {
+                    if (delta != 0) {
+                        updates.add(
+                            increment(
+                                CATEGORY_MONTH_LOANS,
+                                Map.of("loan_month", month, "category_id", categoryId),
+                                Map.of("loan_count", delta)
+                            )
+                        );
+                    }
+                })
+            );
+            readerLoans.forEach((memberId, delta) -> {
+                long onLoanDelta = readerOnLoans.get(memberId);
+                if (delta != 0 || onLoanDelta != 0) {
+                    updates.add(
+                        increment(READER_LOANS, Map.of("member_id", memberId), Map.of("loan_count", delta, "on_loan_count", onLoanDelta))
+                    );
+                }
+                if (onLoanDelta != 0) {
+                    updates.add(updateActiveReaders(memberId, onLoanDelta));
+                }
+            });
+            return Flux.concat(updates).then();
+        }
+    }
+
+    private Mono<Void> updateActiveReaders(Long memberId, long onLoanDelta) {
+        return db
+            .sql("SELECT on_loan_count FROM " + READER_LOANS + " WHERE member_id = :id")
+            .bind("id", memberId)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .flatMap(onLoan -> {
+                long previous = onLoan - onLoanDelta;
+                if (previous <= 0 && onLoan > 0) {
+                    return incrementActiveReaders(memberId, 1);
+                }
+                if (previous > 0 && onLoan <= 0) {
+                    return incrementActiveReaders(memberId, -1);
+                }
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> incrementActiveReaders(Long memberId, long delta) {
+        int stripe = (int) Math.floorMod(memberId, (long) STRIPES);
+        return increment(COUNTER, Map.of("name", ACTIVE_READERS, "stripe", stripe), Map.of("counter_value", delta));
+    }
+
+    /**
+     * Adds deltas to the counters of a row, inserting it if it does not exist yet.
+     * <p>
+     * On PostgreSQL this is one {@code INSERT ... ON CONFLICT} statement. Elsewhere the row is updated, or inserted if it
+     * did not exist, and updated again if a concurrent transaction inserted it first, which relies on the failed insert
+     * not aborting the transaction, as with H2.
+     */
+    private Mono<Void> increment(String table, Map<String, Object> key, Map<String, Long> deltas) {
+        if (postgres) {
+            return bind(db.sql(upsertStatement(table, key, deltas)), key, deltas).then();
+        }
+        String update = updateStatement(table, key, deltas);
+        return bind(db.sql(update), key, deltas)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(updated -> {
+                if (updated > 0) {
+                    return Mono.empty();
+                }
+                return bind(db.sql(insertStatement(table, key, deltas)), key, deltas)
+                    .then()
+                    .onErrorResume(DataIntegrityViolationException.class, e -> bind(db.sql(update), key, deltas).then());
+            });
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, Map<String, Object> key, Map<String, Long> deltas) {
+        for (Map.Entry<String, Object> column : key.entrySet()) {
+            spec = spec.bind(column.getKey(), column.getValue());
+        }
+        for (Map.Entry<String, Long> column : deltas.entrySet()) {
+            spec = spec.bind(column.getKey(), column.getValue());
+        }
+        return spec;
+    }
+
+    private static String upsertStatement(String table, Map<String, Object> key, Map<String, Long> deltas) {
+        StringBuilder sql = new StringBuilder(insertStatement(table, key, deltas))
+            .append(" ON CONFLICT (")
+            .append(String.join(", ", key.keySet()))
+            .append(") DO UPDATE SET ");
+        String separator = "";
+        for (String column : deltas.keySet()) {
+            sql.append(separator).append(column).append(" = ").append(table).append('.').append(column);
+            sql.append(" + EXCLUDED.").append(column);
+            separator = ", ";
+        }
+        return sql.toString();
+    }
+
+    private static String insertStatement(String table, Map<String, Object> key, Map<String, Long> deltas) {
+        List<String> columns = new ArrayList<>(key.keySet());
+        columns.addAll(deltas.keySet());
+        return (
+            "INSERT INTO " +
+            table +
+            " (" +
+            String.join(", ", columns) +
+            ") VALUES (" +
+            String.join(", ", columns.stream().map(column -> ":" + column).toList()) +
+            ")"
+        );
+    }
+
+    private static String updateStatement(String table, Map<String, Object> key, Map<String, Long> deltas) {
+        List<String> assignments = deltas.keySet().stream().map(column -> column + " = " + column + " + :" + column).toList();
+        List<String> conditions = key.keySet().stream().map(column -> column + " = :" + column).toList();
+        return "UPDATE " + table + " SET " + String.join(", ", assignments) + " WHERE " + String.join(" AND ", conditions);
+    }
+}
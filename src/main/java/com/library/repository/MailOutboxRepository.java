@@ -0,0 +1,169 @@
+package com.library.repository;
+
+import com.library.domain.OutboxMail;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for the {@link OutboxMail}s, the emails waiting to be sent.
+ * <p>
+ * The emails are claimed by batches with a token and until a time, the lease: the other instances skip them until the lease
+ * is over, so that the emails of an instance stopped while sending them are sent by another one.
+ */
+@Repository
+public class MailOutboxRepository {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    /**
+     * The emails waiting in the outbox.
+     *
+     * @param pending the number of emails to be sent.
+     * @param oldestPending when the oldest email to be sent was queued, or null if there is none.
+     * @param failed the number of emails given up after too many attempts.
+     */
+    public record Backlog(long pending, Instant oldestPending, long failed) {}
+
+    private final DatabaseClient db;
+
+    public MailOutboxRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /**
+     * Queues an email, to be sent at once.
+     * @return a {@link Mono} completing once the email is queued.
+     */
+    public Mono<Void> enqueue(String to, String subject, String content, boolean multipart, boolean html) {
+        LocalDateTime now = utc(Instant.now());
+        return db
+            .sql(
+                "INSERT INTO mail_outbox (recipient, subject, content, multipart, html, created_at, attempts, next_attempt_at) " +
+                "VALUES (:to, :subject, :content, :multipart, :html, :now, 0, :now)"
+            )
+            .bind("to", to)
+            .bind("subject", subject)
+            .bind("content", content)
+            .bind("multipart", multipart)
+            .bind("html", html)
+            .bind("now", now)
+            .then();
+    }
+
+    /**
+     * Claims the emails due, oldest first, which are not claimed by another instance and were not given up.
+     * @param token the token of the claim, which the delivery of the emails must be reported with.
+     * @param now the current time.
+     * @param claimedUntil the end of the lease.
+     * @param batchSize the maximum number of emails claimed.
+     * @param maxAttempts the number of attempts after which an email is given up.
+     * @return the emails claimed.
+     */
+    public Flux<OutboxMail> claim(String token, Instant now, Instant claimedUntil, int batchSize, int maxAttempts) {
+        // the lease is checked again by the update, so that two instances selecting the same emails do not both claim them
+        return db
+            .sql(
+                "UPDATE mail_outbox SET claim_token = :token, claimed_until = :claimedUntil " +
+                "WHERE (claimed_until IS NULL OR claimed_until < :now) AND id IN (" +
+                "SELECT id FROM mail_outbox WHERE next_attempt_at <= :now AND attempts < :maxAttempts " +
+                "AND (claimed_until IS NULL OR claimed_until < :now) ORDER BY next_attempt_at, id LIMIT :batchSize)"
+            )
+            .bind("token", token)
+            .bind("now", utc(now))
+            .bind("claimedUntil", utc(claimedUntil))
+            .bind("batchSize", batchSize)
+            .bind("maxAttempts", maxAttempts)
+            .then()
+            .thenMany(
+                db
+                    .sql(
+                        "SELECT id, recipient, subject, content, multipart, html, created_at, attempts FROM mail_outbox " +
+                        "WHERE claim_token = :token ORDER BY id"
+                    )
+                    .bind("token", token)
+                    .map(row ->
+                        new OutboxMail(
+                            row.get(0, Long.class),
+                            row.get(1, String.class),
+                            row.get(2, String.class),
+                            row.get(3, String.class),
+                            Boolean.TRUE.equals(row.get(4, Boolean.class)),
+                            Boolean.TRUE.equals(row.get(5, Boolean.class)),
+                            row.get(6, LocalDateTime.class).toInstant(ZoneOffset.UTC),
+                            row.get(7, Integer.class)
+                        )
+                    )
+                    .all()
+            );
+    }
+
+    /**
+     * Removes the emails sent from the outbox.
+     * @param token the token the emails were claimed with.
+     * @param ids the ids of the emails.
+     * @return a {@link Mono} completing once the emails are removed.
+     */
+    public Mono<Void> deleteSent(String token, Collection<Long> ids) {
+        return db
+            .sql("DELETE FROM mail_outbox WHERE claim_token = :token AND id IN (:ids)")
+            .bind("token", token)
+            .bind("ids", ids)
+            .then();
+    }
+
+    /**
+     * Records a failed attempt to send an email, and releases its claim.
+     * @param token the token the email was claimed with.
+     * @param id the id of the email.
+     * @param attempts the number of attempts made, this one included.
+     * @param nextAttemptAt when the email is to be sent again.
+     * @param error the reason of the failure.
+     * @return a {@link Mono} completing once the attempt is recorded.
+     */
+    public Mono<Void> reschedule(String token, Long id, int attempts, Instant nextAttemptAt, String error) {
+        return db
+            .sql(
+                "UPDATE mail_outbox SET attempts = :attempts, next_attempt_at = :nextAttemptAt, last_error = :error, " +
+                "claim_token = NULL, claimed_until = NULL WHERE id = :id AND claim_token = :token"
+            )
+            .bind("token", token)
+            .bind("id", id)
+            .bind("attempts", attempts)
+            .bind("nextAttemptAt", utc(nextAttemptAt))
+            .bind("error", error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error)
+            .then();
+    }
+
+    /**
+     * Returns the emails waiting in the outbox.
+     * @param maxAttempts the number of attempts after which an email is given up.
+     * @return the emails waiting.
+     */
+    public Mono<Backlog> findBacklog(int maxAttempts) {
+        return db
+            .sql(
+                "SELECT COUNT(CASE WHEN attempts < :maxAttempts THEN 1 END), MIN(CASE WHEN attempts < :maxAttempts THEN created_at END), " +
+                "COUNT(CASE WHEN attempts >= :maxAttempts THEN 1 END) FROM mail_outbox"
+            )
+            .bind("maxAttempts", maxAttempts)
+            .map(row -> {
+                LocalDateTime oldestPending = row.get(1, LocalDateTime.class);
+                return new Backlog(
+                    row.get(0, Long.class),
+                    oldestPending != null ? oldestPending.toInstant(ZoneOffset.UTC) : null,
+                    row.get(2, Long.class)
+                );
+            })
+            .one();
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -1,6 +1,7 @@
 package com.library.repository;
 
 import com.library.domain.Reader;
+import com.library.domain.criteria.ReaderCriteria;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -31,9 +32,23 @@ interface ReaderRepositoryInternal {
 
     Flux<Reader> findAllBy(Pageable pageable);
 
+    Flux<Reader> findAllBy(Keyset keyset);
+
     Flux<Reader> findAll();
 
     Mono<Reader> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Reader> findAllBy(Pageable pageable, Criteria criteria);
+
+    Flux<Reader> findByCriteria(ReaderCriteria criteria);
+
+    Flux<Reader> streamByCriteria(ReaderCriteria criteria);
+
+    Flux<Reader> streamByCriteria(ReaderCriteria criteria, Fieldset fieldset);
+
+    Flux<Reader> findByCriteria(ReaderCriteria criteria, Pageable pageable);
+
+    Flux<Reader> findByCriteria(ReaderCriteria criteria, Keyset keyset);
+
+    Flux<Reader> findByCriteria(ReaderCriteria criteria, Keyset keyset, Fieldset fieldset);
+
+    Mono<Long> countByCriteria(ReaderCriteria criteria);
 }
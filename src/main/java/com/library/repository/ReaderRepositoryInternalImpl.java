@@ -1,6 +1,7 @@
 package com.library.repository;
 
 import com.library.domain.Reader;
+import com.library.domain.criteria.ReaderCriteria;
 import com.library.repository.rowmapper.ReaderRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
@@ -10,15 +11,16 @@ import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -60,23 +62,122 @@ class ReaderRepositoryInternalImpl extends SimpleR2dbcRepository<Reader, Long> i
         return createQuery(pageable, null).all();
     }
 
+    @Override
+    public Flux<Reader> findAllBy(Keyset keyset) {
+        return createKeysetQuery(keyset, new FilterConditionBuilder()).all();
+    }
+
+    @Override
+    public Flux<Reader> findByCriteria(ReaderCriteria criteria) {
+        return createCriteriaQuery(criteria).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Reader> streamByCriteria(ReaderCriteria criteria) {
+        return streamByCriteria(criteria, Fieldset.all());
+    }
+
+    @Override
+    public Flux<Reader> streamByCriteria(ReaderCriteria criteria, Fieldset fieldset) {
+        return entityManager.withCursor(createCriteriaQuery(criteria, fieldset)).map(this::process).all();
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(ReaderCriteria criteria) {
+        return createCriteriaQuery(criteria, Fieldset.all());
+    }
+
+    private GenericExecuteSpec createCriteriaQuery(ReaderCriteria criteria, Fieldset fieldset) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Reader.class, "criteria:" + filter.getShape() + ':' + fieldset.getShape(), () ->
+            entityManager.createSelect(createSelectFrom(fieldset), Reader.class, null, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select));
+    }
+
+    @Override
+    public Flux<Reader> findByCriteria(ReaderCriteria criteria, Pageable pageable) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.createSelect(createSelectFrom(), Reader.class, pageable, filter.buildConditions());
+        return filter.bind(db.sql(select)).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Reader> findByCriteria(ReaderCriteria criteria, Keyset keyset) {
+        return createKeysetQuery(keyset, buildConditions(criteria)).all();
+    }
+
+    @Override
+    public Flux<Reader> findByCriteria(ReaderCriteria criteria, Keyset keyset, Fieldset fieldset) {
+        // The next cursor is built from the sort property of the last reader
+        return createKeysetQuery(keyset, buildConditions(criteria), fieldset.with(keyset.getProperty())).all();
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(ReaderCriteria criteria) {
+        FilterConditionBuilder filter = buildConditions(criteria);
+        String select = entityManager.getSelectTemplate(Reader.class, "count:" + filter.getShape(), () ->
+            entityManager.createCount(entityTable, filter.buildConditions())
+        );
+        return filter.bind(db.sql(select)).map(row -> row.get(0, Long.class)).one();
+    }
+
     RowsFetchSpec<Reader> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = ReaderSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Reader.class, pageable, whereClause);
+        String select = entityManager.createSelect(createSelectFrom(), Reader.class, pageable, whereClause);
         return db.sql(select).map(this::process);
     }
 
+    RowsFetchSpec<Reader> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter) {
+        return createKeysetQuery(keyset, filter, Fieldset.all());
+    }
+
+    RowsFetchSpec<Reader> createKeysetQuery(Keyset keyset, FilterConditionBuilder filter, Fieldset fieldset) {
+        String shape = EntityManager.keysetShape(keyset) + ':' + filter.getShape() + ':' + fieldset.getShape();
+        String select = entityManager.getSelectTemplate(Reader.class, shape, () ->
+            entityManager.createKeysetSelect(createSelectFrom(fieldset), Reader.class, keyset, filter.buildConditions())
+        );
+        return entityManager.bindKeyset(filter.bind(db.sql(select)), Reader.class, keyset).map(this::process);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
+        return createSelectFrom(Fieldset.all());
+    }
+
+    private SelectFromAndJoin createSelectFrom(Fieldset fieldset) {
+        List<Expression> columns = ReaderSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS, fieldset);
+        return Select.builder().select(columns).from(entityTable);
+    }
+
+    private FilterConditionBuilder buildConditions(ReaderCriteria criteria) {
+        FilterConditionBuilder filter = new FilterConditionBuilder();
+        if (criteria != null) {
+            filter.buildFilterConditionForField(criteria.getId(), entityTable.column("id"));
+            filter.buildFilterConditionForField(criteria.getFirstName(), entityTable.column("first_name"));
+            filter.buildFilterConditionForField(criteria.getLastName(), entityTable.column("last_name"));
+            filter.buildFilterConditionForField(criteria.getEmail(), entityTable.column("email"));
+            filter.buildFilterConditionForField(criteria.getJoinedDate(), entityTable.column("joined_date"));
+        }
+        return filter;
+    }
+
     @Override
     public Flux<Reader> findAll() {
-        return findAllBy(null);
+        String select = entityManager.getSelectTemplate(Reader.class, "findAll", () ->
+            entityManager.createSelect(createSelectFrom(), Reader.class, null, null)
+        );
+        return db.sql(select).map(this::process).all();
     }
 
     @Override
     public Mono<Reader> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        String select = entityManager.getSelectTemplate(Reader.class, "findById", () ->
+            entityManager.createSelect(
+                createSelectFrom(),
+                Reader.class,
+                null,
+                Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"))
+            )
+        );
+        return db.sql(select).bind("id", id).map(this::process).one();
     }
 
     private Reader process(Row row, RowMetadata metadata) {
@@ -9,12 +9,16 @@ import org.springframework.data.relational.core.sql.Table;
 public class ReaderSqlHelper {
 
     public static List<Expression> getColumns(Table table, String columnPrefix) {
+        return getColumns(table, columnPrefix, Fieldset.all());
+    }
+
+    public static List<Expression> getColumns(Table table, String columnPrefix, Fieldset fieldset) {
         List<Expression> columns = new ArrayList<>();
         columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("first_name", table, columnPrefix + "_first_name"));
-        columns.add(Column.aliased("last_name", table, columnPrefix + "_last_name"));
-        columns.add(Column.aliased("email", table, columnPrefix + "_email"));
-        columns.add(Column.aliased("joined_date", table, columnPrefix + "_joined_date"));
+        columns.add(fieldset.column("firstName", table, "first_name", columnPrefix + "_first_name"));
+        columns.add(fieldset.column("lastName", table, "last_name", columnPrefix + "_last_name"));
+        columns.add(fieldset.column("email", table, "email", columnPrefix + "_email"));
+        columns.add(fieldset.column("joinedDate", table, "joined_date", columnPrefix + "_joined_date"));
 
         return columns;
     }
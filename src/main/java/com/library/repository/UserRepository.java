@@ -5,17 +5,20 @@ import static org.springframework.data.relational.core.query.Query.query;
 
 import com.library.domain.Authority;
 import com.library.domain.User;
+import com.library.repository.cache.NearCache;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -52,6 +55,15 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
 
     @Query("DELETE FROM jhi_user_authority WHERE user_id = :userId")
     Mono<Void> deleteUserAuthorities(Long userId);
+
+    @Override
+    <S extends User> Mono<S> save(S user);
+
+    @Override
+    Mono<Void> deleteById(Long id);
+
+    @Override
+    Mono<Void> deleteAll();
 }
 
 interface DeleteExtended<T> {
@@ -59,6 +71,12 @@ interface DeleteExtended<T> {
 }
 
 interface UserRepositoryInternal extends DeleteExtended<User> {
+    <S extends User> Mono<S> save(S user);
+
+    Mono<Void> deleteById(Long id);
+
+    Mono<Void> deleteAll();
+
     Mono<User> findOneWithAuthoritiesByLogin(String login);
 
     Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
@@ -68,50 +86,114 @@ interface UserRepositoryInternal extends DeleteExtended<User> {
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+        "id",
+        "login",
+        "firstName",
+        "lastName",
+        "email",
+        "activated",
+        "langKey",
+        "createdBy",
+        "createdDate",
+        "lastModifiedBy",
+        "lastModifiedDate"
+    );
+
+    private static final String LOGIN_KEY_PREFIX = "login:";
+    private static final String EMAIL_KEY_PREFIX = "email:";
+
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final R2dbcConverter r2dbcConverter;
-
-    public UserRepositoryInternalImpl(DatabaseClient db, R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcConverter r2dbcConverter) {
+    private final EntityManager entityManager;
+    private final NearCache<String, User> userCache;
+
+    public UserRepositoryInternalImpl(
+        DatabaseClient db,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcConverter r2dbcConverter,
+        EntityManager entityManager,
+        NearCache<String, User> userCache
+    ) {
         this.db = db;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.r2dbcConverter = r2dbcConverter;
+        this.entityManager = entityManager;
+        this.userCache = userCache;
     }
 
+    /**
+     * Finds a user with its authorities by login, through the {@link NearCache} of the users.
+     */
     @Override
     public Mono<User> findOneWithAuthoritiesByLogin(String login) {
-        return findOneWithAuthoritiesBy("login", login);
+        return userCache.get(LOGIN_KEY_PREFIX + login, key -> findOneWithAuthoritiesBy("login", login));
     }
 
+    /**
+     * Finds a user with its authorities by email, through the {@link NearCache} of the users.
+     */
     @Override
     public Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email) {
-        return findOneWithAuthoritiesBy("email", email.toLowerCase());
+        String lowercaseEmail = email.toLowerCase();
+        return userCache.get(EMAIL_KEY_PREFIX + lowercaseEmail, key -> findOneWithAuthoritiesBy("email", lowercaseEmail));
     }
 
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().orElse("id");
-        String direction = String.valueOf(
-            pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().orElse(Sort.DEFAULT_DIRECTION)
-        );
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
+        Sort sort = pageable.getSort();
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                return Flux.error(new IllegalArgumentException("Sorting users on " + order.getProperty() + " is not supported"));
+            }
+        }
+        if (sort.getOrderFor("id") == null) {
+            // the id makes the order total, so consecutive pages neither repeat nor skip users
+            sort = sort.and(Sort.by("id"));
+        }
+        Pageable sortedPageable = pageable.isPaged()
+            ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+            : Pageable.unpaged(sort);
+
+        return r2dbcEntityTemplate
+            .select(User.class)
+            .matching(query(Criteria.empty()).with(sortedPageable))
+            .all()
+            .collectList()
+            .flatMapMany(users -> users.isEmpty() ? Flux.empty() : fetchAuthorities(users));
+    }
 
+    private Flux<User> fetchAuthorities(List<User> users) {
+        List<Long> userIds = users.stream().map(User::getId).toList();
         return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
-            )
+            .sql("SELECT ua.user_id, ua.authority_name FROM jhi_user_authority ua WHERE ua.user_id IN (:userIds)")
+            .bind("userIds", userIds)
+            .map((row, metadata) -> Tuples.of(row.get("user_id", Long.class), row.get("authority_name", String.class)))
             .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+            .collectMultimap(Tuple2::getT1, Tuple2::getT2)
+            .flatMapMany(authorities ->
+                Flux.fromIterable(users).map(user -> {
+                    user.setAuthorities(
+                        authorities
+                            .getOrDefault(user.getId(), Collections.emptyList())
+                            .stream()
+                            .map(name -> {
+                                Authority authority = new Authority();
+                                authority.setName(name);
+                                return authority;
+                            })
+                            .collect(Collectors.toSet())
+                    );
+                    return user;
+                })
+            );
+    }
+
+    @Override
+    public <S extends User> Mono<S> save(S user) {
+        Mono<S> saved = user.getId() == null ? r2dbcEntityTemplate.insert(user) : r2dbcEntityTemplate.update(user);
+        return saved.flatMap(savedUser -> invalidateAfterCommit(savedUser.getId()).thenReturn(savedUser));
     }
 
     @Override
@@ -120,7 +202,26 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .sql("DELETE FROM jhi_user_authority WHERE user_id = :userId")
             .bind("userId", user.getId())
             .then()
-            .then(r2dbcEntityTemplate.delete(User.class).matching(query(where("id").is(user.getId()))).all().then());
+            .then(r2dbcEntityTemplate.delete(User.class).matching(query(where("id").is(user.getId()))).all().then())
+            .then(invalidateAfterCommit(user.getId()));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return r2dbcEntityTemplate.delete(User.class).matching(query(where("id").is(id))).all().then(invalidateAfterCommit(id));
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return r2dbcEntityTemplate.delete(User.class).all().then(entityManager.afterCommit(userCache::invalidateAll));
+    }
+
+    /**
+     * Removes a user from the cache once the transaction commits. The user is cached by its login and its email as they were
+     * when it was loaded, which may have changed since, so its entries are found by id.
+     */
+    private Mono<Void> invalidateAfterCommit(Long id) {
+        return entityManager.afterCommit(() -> userCache.invalidateIf(user -> id.equals(user.getId())));
     }
 
     private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
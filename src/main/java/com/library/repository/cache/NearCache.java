@@ -0,0 +1,258 @@
+package com.library.repository.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * A bounded in-memory cache of entities by id, loaded asynchronously.
+ * <p>
+ * Concurrent gets of a key which is not cached share a single load. An entry expires {@code timeToLive} after its load
+ * started, or earlier as set by {@link #expireAfterLoad(Function)}, and once more than {@code maximumSize} entries are
+ * cached, the least recently used one is evicted. Empty or failed loads are not cached. Entities are mutable, so a copy of
+ * the cached entity is returned by each get.
+ * <p>
+ * The gets, by result, the evictions and the size are published with the usual Micrometer cache meters, tagged with the
+ * name of the cache.
+ *
+ * @param <K> the type of the ids.
+ * @param <V> the type of the entities.
+ */
+public class NearCache<K, V> {
+
+    private static final class Entry<V> {
+
+        private volatile long expiresAt;
+
+        private volatile Mono<V> load;
+
+        private volatile V value;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maximumSize;
+
+    private final long timeToLiveNanos;
+
+    private final UnaryOperator<V> copier;
+
+    private final LongSupplier nanoClock;
+
+    private volatile Function<? super V, Duration> valueTimeToLive;
+
+    /**
+     * The entries in access order, guarded by their own lock; the loads run outside of it.
+     */
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    public NearCache(String name, int maximumSize, Duration timeToLive, UnaryOperator<V> copier, MeterRegistry meterRegistry) {
+        this(name, maximumSize, timeToLive, copier, meterRegistry, System::nanoTime);
+    }
+
+    NearCache(
+        String name,
+        int maximumSize,
+        Duration timeToLive,
+        UnaryOperator<V> copier,
+        MeterRegistry meterRegistry,
+        LongSupplier nanoClock
+    ) {
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.copier = copier;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > NearCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", name).register(meterRegistry);
+        Gauge.builder("cache.size", this, NearCache::size).tag("cache", name).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached entity with the given id, without loading it.
+     * @param key the id of the entity.
+     * @return a copy of the entity, or null if it is not cached or still loading.
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = current(key);
+        }
+        V value = entry != null ? entry.value : null;
+        if (value == null) {
+            return null;
+        }
+        hits.increment();
+        return copier.apply(value);
+    }
+
+    /**
+     * Returns the entity with the given id, loading it if it is not cached.
+     * @param key the id of the entity.
+     * @param loader the load of an entity by id, empty if it does not exist.
+     * @return a copy of the entity, empty if it does not exist.
+     */
+    public Mono<V> get(K key, Function<? super K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            Entry<V> entry;
+            Entry<V> created = null;
+            synchronized (entries) {
+                entry = current(key);
+                if (entry == null) {
+                    created = createEntry(key, loader);
+                    entries.put(key, created);
+                }
+            }
+            if (created != null) {
+                misses.increment();
+                return created.load.map(copier);
+            }
+            hits.increment();
+            V value = entry.value;
+            return value != null ? Mono.just(copier.apply(value)) : entry.load.map(copier);
+        });
+    }
+
+    private Entry<V> createEntry(K key, Function<? super K, Mono<V>> loader) {
+        Entry<V> entry = new Entry<>(nanoClock.getAsLong() + timeToLiveNanos);
+        entry.load = loader
+            .apply(key)
+            .doOnSuccess(value -> {
+                if (value == null) {
+                    remove(key, entry);
+                } else {
+                    expireEarlier(entry, value);
+                    entry.value = value;
+                }
+            })
+            .doOnError(e -> remove(key, entry))
+            .cache();
+        return entry;
+    }
+
+    private void expireEarlier(Entry<V> entry, V value) {
+        Function<? super V, Duration> timeToLive = valueTimeToLive;
+        if (timeToLive == null) {
+            return;
+        }
+        Duration remaining = timeToLive.apply(value);
+        if (remaining.compareTo(Duration.ofNanos(timeToLiveNanos)) < 0) {
+            entry.expiresAt = nanoClock.getAsLong() + (remaining.isNegative() ? 0 : remaining.toNanos());
+        }
+    }
+
+    /**
+     * Caches an entity loaded otherwise, e.g. along with others by a single query, in place of any cached or loading one.
+     * @param key the id of the entity.
+     * @param value the entity.
+     */
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<>(nanoClock.getAsLong() + timeToLiveNanos);
+        expireEarlier(entry, value);
+        entry.value = value;
+        entry.load = Mono.just(value);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Makes the entities expire before {@code timeToLive} when they say so, e.g. credentials at their own expiry.
+     * @param valueTimeToLive the time an entity may stay cached once loaded, zero or negative to not keep it.
+     * @return this cache.
+     */
+    public NearCache<K, V> expireAfterLoad(Function<? super V, Duration> valueTimeToLive) {
+        this.valueTimeToLive = valueTimeToLive;
+        return this;
+    }
+
+    /**
+     * Removes an entity from the cache; a load in progress is not cached.
+     * @param key the id of the entity.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes the entities matching the given predicate from the cache, along with all the loads in progress, which are not
+     * cached since they may be loading a matching entity.
+     * <p>
+     * This scans the cache, it is meant for entities cached under keys which change with the entity, so are not known when it
+     * is written.
+     * @param predicate the predicate matching the entities to remove.
+     */
+    public void invalidateIf(Predicate<? super V> predicate) {
+        synchronized (entries) {
+            entries
+                .values()
+                .removeIf(entry -> {
+                    V value = entry.value;
+                    return value == null || predicate.test(value);
+                });
+        }
+    }
+
+    /**
+     * Removes all the entities from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of entities cached or loading.
+     * @return the number of entries.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Entry<V> current(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && nanoClock.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(key);
+            evictions.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+}
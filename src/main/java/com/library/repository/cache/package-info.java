@@ -0,0 +1,4 @@
+/**
+ * In-memory caches of the reference entities, in front of their repositories.
+ */
+package com.library.repository.cache;
@@ -0,0 +1,32 @@
+package com.library.repository.routing;
+
+import com.library.repository.routing.ReplicaRoutingConnectionFactory.Route;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link R2dbcTransactionManager} beginning the read-only transactions on a replica.
+ * <p>
+ * The connection of a read-only transaction is created with the {@link Route#REPLICA} route, unless the caller pinned the
+ * {@link Route#PRIMARY} route, e.g. to read its own writes. The other transactions keep the route of the caller.
+ */
+public class ReplicaAwareTransactionManager extends R2dbcTransactionManager {
+
+    public ReplicaAwareTransactionManager(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction, TransactionDefinition definition) {
+        return super
+            .doBegin(synchronizationManager, transaction, definition)
+            .contextWrite(context ->
+                definition.isReadOnly() && ReplicaRoutingConnectionFactory.getRoute(context) != Route.PRIMARY
+                    ? ReplicaRoutingConnectionFactory.withRoute(context, Route.REPLICA)
+                    : context
+            );
+    }
+}
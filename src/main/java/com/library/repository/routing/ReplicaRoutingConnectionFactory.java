@@ -0,0 +1,179 @@
+package com.library.repository.routing;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * A {@link ConnectionFactory} sending reads to replicas, and everything else to the primary.
+ * <p>
+ * The route of a connection is taken from the Reactor context it is created in, see {@link #ROUTE_CONTEXT_KEY}: it is set to
+ * {@link Route#REPLICA} for read-only transactions by {@link ReplicaAwareTransactionManager}, and for the requests which do
+ * not write by {@code ReadRoutingWebFilter}. Without a route, connections go to the primary.
+ * <p>
+ * A replica whose connection acquisition fails is ejected for the ejection period, and the connection is taken from the
+ * primary instead.
+ */
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRoutingConnectionFactory.class);
+
+    public static final String ROUTE_CONTEXT_KEY = ReplicaRoutingConnectionFactory.class.getName() + ".route";
+
+    public enum Route {
+        PRIMARY,
+        REPLICA,
+    }
+
+    public enum Selection {
+        /**
+         * Use the replicas in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * Use the replica with the fewest acquired and pending connections, in turn between equally loaded replicas.
+         */
+        LEAST_PENDING,
+    }
+
+    private final ConnectionFactory primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long ejectionNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingConnectionFactory(
+        ConnectionFactory primary,
+        List<ConnectionFactory> replicas,
+        Selection selection,
+        Duration ejectionPeriod
+    ) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.ejectionNanos = ejectionPeriod.toNanos();
+    }
+
+    /**
+     * Routes the connections created within the given context.
+     * @param context the context.
+     * @param route the route.
+     * @return the context with the route set.
+     */
+    public static Context withRoute(Context context, Route route) {
+        return context.put(ROUTE_CONTEXT_KEY, route);
+    }
+
+    /**
+     * Returns the route of the connections created within the given context.
+     * @param context the context.
+     * @return the route, or null if none was set.
+     */
+    public static Route getRoute(ContextView context) {
+        return context.getOrDefault(ROUTE_CONTEXT_KEY, null);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> {
+            if (getRoute(context) != Route.REPLICA) {
+                return Mono.from(primary.create());
+            }
+            Replica replica = select(System.nanoTime());
+            if (replica == null) {
+                return Mono.from(primary.create());
+            }
+            return Mono.<Connection>from(replica.connectionFactory.create()).onErrorResume(e -> {
+                LOG.warn("Ejecting replica {} for {} ms: {}", replica.connectionFactory, ejectionNanos / 1_000_000, e.toString());
+                replica.ejectedUntil = System.nanoTime() + ejectionNanos;
+                return Mono.from(primary.create());
+            });
+        });
+    }
+
+    private Replica select(long now) {
+        int size = replicas.size();
+        int offset = Math.floorMod(next.getAndIncrement(), size);
+        Replica selected = null;
+        int selectedLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((offset + i) % size);
+            if (replica.isEjected(now)) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return replica;
+            }
+            int load = replica.load();
+            if (load < selectedLoad) {
+                selected = replica;
+                selectedLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public void dispose() {
+        for (Replica replica : replicas) {
+            if (replica.connectionFactory instanceof Disposable disposable) {
+                disposable.dispose();
+            }
+        }
+        if (primary instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return primary instanceof Disposable disposable && disposable.isDisposed();
+    }
+
+    private static final class Replica {
+
+        private final ConnectionFactory connectionFactory;
+        private volatile long ejectedUntil;
+
+        private Replica(ConnectionFactory connectionFactory) {
+            this.connectionFactory = connectionFactory;
+        }
+
+        private boolean isEjected(long now) {
+            return ejectedUntil != 0 && now - ejectedUntil < 0;
+        }
+
+        private int load() {
+            if (connectionFactory instanceof ConnectionPool pool) {
+                PoolMetrics metrics = pool.getMetrics().orElse(null);
+                if (metrics != null) {
+                    return metrics.acquiredSize() + metrics.pendingAcquireSize();
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.library.repository.routing;
+
+import com.library.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+/**
+ * Wraps the {@link ConnectionFactory} into a {@link ReplicaRoutingConnectionFactory} when replicas are configured with
+ * {@code application.replicas.urls}.
+ * <p>
+ * Each replica gets its own connection pool, sized like the primary one, and uses the credentials of the primary unless its
+ * URL has its own. The post processor runs first, so that the routing factory is itself wrapped by the instrumentation.
+ */
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRoutingPostProcessor.class);
+
+    private final ObjectProvider<ApplicationProperties> applicationProperties;
+    private final ObjectProvider<R2dbcProperties> r2dbcProperties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ReplicaRoutingPostProcessor(
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        ObjectProvider<R2dbcProperties> r2dbcProperties,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        this.applicationProperties = applicationProperties;
+        this.r2dbcProperties = r2dbcProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ConnectionFactory primary) || bean instanceof ReplicaRoutingConnectionFactory) {
+            return bean;
+        }
+        ApplicationProperties.Replicas properties = applicationProperties.getObject().getReplicas();
+        if (properties.getUrls().isEmpty()) {
+            return bean;
+        }
+        R2dbcProperties r2dbc = r2dbcProperties.getObject();
+        List<ConnectionFactory> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getUrls().size(); i++) {
+            String name = "replica-" + i;
+            ConnectionPool pool = createPool(properties.getUrls().get(i), r2dbc, name);
+            meterRegistry.ifAvailable(registry -> new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(registry));
+            replicas.add(pool);
+        }
+        LOG.info("Routing read-only transactions to {} replica(s), selected by {}", replicas.size(), properties.getSelection());
+        return new ReplicaRoutingConnectionFactory(primary, replicas, properties.getSelection(), properties.getEjectionPeriod());
+    }
+
+    private static ConnectionPool createPool(String url, R2dbcProperties r2dbc, String name) {
+        ConnectionFactoryOptions parsed = ConnectionFactoryOptions.parse(url);
+        ConnectionFactoryOptions.Builder options = parsed.mutate();
+        if (!parsed.hasOption(ConnectionFactoryOptions.USER) && StringUtils.hasText(r2dbc.getUsername())) {
+            options.option(ConnectionFactoryOptions.USER, r2dbc.getUsername());
+        }
+        if (!parsed.hasOption(ConnectionFactoryOptions.PASSWORD) && StringUtils.hasText(r2dbc.getPassword())) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbc.getPassword());
+        }
+        R2dbcProperties.Pool pool = r2dbc.getPool();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+            .name(name)
+            .initialSize(pool.getInitialSize())
+            .maxSize(pool.getMaxSize())
+            .maxIdleTime(pool.getMaxIdleTime());
+        if (pool.getMaxAcquireTime() != null) {
+            configuration.maxAcquireTime(pool.getMaxAcquireTime());
+        }
+        if (StringUtils.hasText(pool.getValidationQuery())) {
+            configuration.validationQuery(pool.getValidationQuery());
+        }
+        return new ConnectionPool(configuration.build());
+    }
+}
@@ -11,10 +11,19 @@ import org.springframework.stereotype.Service;
 @Service
 public class AuthorRowMapper implements BiFunction<Row, String, Author> {
 
-    private final ColumnConverter converter;
+    private static final int ID = 0;
+    private static final int FIRST_NAME = 1;
+    private static final int LAST_NAME = 2;
+    private static final int VERSION = 3;
+
+    private final IndexedColumns columns;
 
     public AuthorRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.columns = new IndexedColumns(converter)
+            .add("_id", Long.class)
+            .add("_first_name", String.class)
+            .add("_last_name", String.class)
+            .add("_version", Long.class);
     }
 
     /**
@@ -23,10 +32,12 @@ public class AuthorRowMapper implements BiFunction<Row, String, Author> {
      */
     @Override
     public Author apply(Row row, String prefix) {
+        IndexedColumns.Plan plan = columns.plan(row, prefix);
         Author entity = new Author();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
+        entity.setId(plan.get(row, ID));
+        entity.setFirstName(plan.get(row, FIRST_NAME));
+        entity.setLastName(plan.get(row, LAST_NAME));
+        entity.setVersion(plan.get(row, VERSION));
         return entity;
     }
 }
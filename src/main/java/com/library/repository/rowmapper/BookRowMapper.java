@@ -13,10 +13,25 @@ import org.springframework.stereotype.Service;
 @Service
 public class BookRowMapper implements BiFunction<Row, String, Book> {
 
-    private final ColumnConverter converter;
+    private static final int ID = 0;
+    private static final int TITLE = 1;
+    private static final int PUBLICATION_DATE = 2;
+    private static final int COPIES_OWNED = 3;
+    private static final int STATUS = 4;
+    private static final int CATEGORY_ID = 5;
+    private static final int VERSION = 6;
+
+    private final IndexedColumns columns;
 
     public BookRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.columns = new IndexedColumns(converter)
+            .add("_id", Long.class)
+            .add("_title", String.class)
+            .add("_publication_date", LocalDate.class)
+            .add("_copies_owned", Integer.class)
+            .add("_status", BookStatusEnum.class)
+            .add("_category_id", Long.class)
+            .add("_version", Long.class);
     }
 
     /**
@@ -25,13 +40,15 @@ public class BookRowMapper implements BiFunction<Row, String, Book> {
      */
     @Override
     public Book apply(Row row, String prefix) {
+        IndexedColumns.Plan plan = columns.plan(row, prefix);
         Book entity = new Book();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setTitle(converter.fromRow(row, prefix + "_title", String.class));
-        entity.setPublicationDate(converter.fromRow(row, prefix + "_publication_date", LocalDate.class));
-        entity.setCopiesOwned(converter.fromRow(row, prefix + "_copies_owned", Integer.class));
-        entity.setStatus(converter.fromRow(row, prefix + "_status", BookStatusEnum.class));
-        entity.setCategoryId(converter.fromRow(row, prefix + "_category_id", Long.class));
+        entity.setId(plan.get(row, ID));
+        entity.setTitle(plan.get(row, TITLE));
+        entity.setPublicationDate(plan.get(row, PUBLICATION_DATE));
+        entity.setCopiesOwned(plan.get(row, COPIES_OWNED));
+        entity.setStatus(plan.get(row, STATUS));
+        entity.setCategoryId(plan.get(row, CATEGORY_ID));
+        entity.setVersion(plan.get(row, VERSION));
         return entity;
     }
 }
@@ -11,10 +11,17 @@ import org.springframework.stereotype.Service;
 @Service
 public class CategoryRowMapper implements BiFunction<Row, String, Category> {
 
-    private final ColumnConverter converter;
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int VERSION = 2;
+
+    private final IndexedColumns columns;
 
     public CategoryRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.columns = new IndexedColumns(converter)
+            .add("_id", Long.class)
+            .add("_name", String.class)
+            .add("_version", Long.class);
     }
 
     /**
@@ -23,9 +30,11 @@ public class CategoryRowMapper implements BiFunction<Row, String, Category> {
      */
     @Override
     public Category apply(Row row, String prefix) {
+        IndexedColumns.Plan plan = columns.plan(row, prefix);
         Category entity = new Category();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setName(converter.fromRow(row, prefix + "_name", String.class));
+        entity.setId(plan.get(row, ID));
+        entity.setName(plan.get(row, NAME));
+        entity.setVersion(plan.get(row, VERSION));
         return entity;
     }
 }
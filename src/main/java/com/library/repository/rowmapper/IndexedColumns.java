@@ -0,0 +1,178 @@
+package com.library.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The columns a row mapper reads, which are read by index instead of by name.
+ * <p>
+ * For each alias prefix the columns are looked up once per list of column names, so once per query shape rather than once per
+ * row, and at the same time the way to read each column is chosen from the Java type reported by the driver: directly with the
+ * target type, through {@link Enum#valueOf(Class, String)}, or through the {@link ColumnConverter}. Reading a row then does
+ * neither name lookups nor the exception driven fallback of {@link ColumnConverter#fromRow(Row, String, Class)}.
+ */
+public final class IndexedColumns {
+
+    private enum Read {
+        DIRECT,
+        ENUM,
+        CONVERT,
+    }
+
+    private final ColumnConverter converter;
+    private final List<String> suffixes = new ArrayList<>();
+    private final List<Class<?>> types = new ArrayList<>();
+    private final Map<String, Plans> plans = new ConcurrentHashMap<>();
+
+    public IndexedColumns(ColumnConverter converter) {
+        this.converter = converter;
+    }
+
+    /**
+     * Adds a column; columns are numbered in the order they are added, starting at 0.
+     * @param suffix the column name without the alias prefix, e.g. {@code _id}.
+     * @param type the type of the entity field.
+     * @return this instance.
+     */
+    public IndexedColumns add(String suffix, Class<?> type) {
+        suffixes.add(suffix);
+        types.add(type);
+        return this;
+    }
+
+    /**
+     * Returns the plan to read the columns with the given alias prefix from the given row, and the other rows with the same
+     * columns.
+     * @param row the row to read.
+     * @param prefix the alias prefix of the columns.
+     * @return the plan.
+     * @throws IllegalArgumentException if a column is not part of the row.
+     */
+    public Plan plan(Row row, String prefix) {
+        RowMetadata metadata = row.getMetadata();
+        Plans prefixPlans = plans.get(prefix);
+        if (prefixPlans == null) {
+            prefixPlans = plans.computeIfAbsent(prefix, p -> new Plans());
+        }
+        // the rows of a result share their metadata, so the column names are only listed for the first row of each result
+        Plans.Last last = prefixPlans.last;
+        if (last != null && last.metadata() == metadata) {
+            return last.plan();
+        }
+        List<? extends ColumnMetadata> columnMetadatas = metadata.getColumnMetadatas();
+        List<String> names = new ArrayList<>(columnMetadatas.size());
+        for (ColumnMetadata columnMetadata : columnMetadatas) {
+            names.add(columnMetadata.getName());
+        }
+        Plan plan;
+        synchronized (prefixPlans.byColumns) {
+            plan = prefixPlans.byColumns.get(names);
+        }
+        if (plan == null) {
+            plan = resolve(columnMetadatas, prefix);
+            synchronized (prefixPlans.byColumns) {
+                prefixPlans.byColumns.put(names, plan);
+            }
+        }
+        prefixPlans.last = new Plans.Last(metadata, plan);
+        return plan;
+    }
+
+    private Plan resolve(List<? extends ColumnMetadata> columnMetadatas, String prefix) {
+        Map<String, Integer> indexByName = new HashMap<>();
+        for (int i = 0; i < columnMetadatas.size(); i++) {
+            indexByName.putIfAbsent(columnMetadatas.get(i).getName().toLowerCase(Locale.ROOT), i);
+        }
+        int[] indexes = new int[suffixes.size()];
+        Read[] reads = new Read[suffixes.size()];
+        for (int column = 0; column < suffixes.size(); column++) {
+            String name = prefix + suffixes.get(column);
+            Integer index = indexByName.get(name.toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new IllegalArgumentException("Column " + name + " is not part of the row");
+            }
+            indexes[column] = index;
+            reads[column] = chooseRead(types.get(column), columnMetadatas.get(index).getJavaType());
+        }
+        return new Plan(indexes, types.toArray(new Class<?>[0]), reads);
+    }
+
+    private static Read chooseRead(Class<?> type, Class<?> javaType) {
+        if (type.isEnum()) {
+            return Read.ENUM;
+        }
+        if (javaType != null && type.isAssignableFrom(javaType)) {
+            return Read.DIRECT;
+        }
+        return Read.CONVERT;
+    }
+
+    /**
+     * The plans of one alias prefix, by the names of the columns of the rows they read, and the last one used with the metadata
+     * it was used for.
+     * <p>
+     * A mapper reads the results of several query shapes, e.g. one per fieldset, and their rows interleave when queries run
+     * concurrently, so a plan per list of columns is kept rather than only the last one. The least recently used list is
+     * dropped past {@link #MAX_PLANS_PER_PREFIX}.
+     */
+    private static final class Plans {
+
+        private static final int MAX_PLANS_PER_PREFIX = 64;
+
+        private record Last(RowMetadata metadata, Plan plan) {}
+
+        private final Map<List<String>, Plan> byColumns = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, Plan> eldest) {
+                return size() > MAX_PLANS_PER_PREFIX;
+            }
+        };
+
+        private volatile Last last;
+    }
+
+    /**
+     * The column indexes and read strategies of one alias prefix for one list of columns.
+     */
+    public final class Plan {
+
+        private final int[] indexes;
+        private final Class<?>[] columnTypes;
+        private final Read[] reads;
+
+        private Plan(int[] indexes, Class<?>[] columnTypes, Read[] reads) {
+            this.indexes = indexes;
+            this.columnTypes = columnTypes;
+            this.reads = reads;
+        }
+
+        /**
+         * Reads a column from a row with the columns this plan was resolved for.
+         * @param row the row to read.
+         * @param column the number of the column, in the order of {@link IndexedColumns#add(String, Class)}.
+         * @param <T> the type of the column, as it was added.
+         * @return the value of the column.
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public <T> T get(Row row, int column) {
+            int index = indexes[column];
+            Class<?> type = columnTypes[column];
+            return switch (reads[column]) {
+                case DIRECT -> (T) row.get(index, type);
+                case ENUM -> {
+                    Object value = row.get(index);
+                    yield value == null || type.isInstance(value) ? (T) value : (T) Enum.valueOf((Class<Enum>) type, value.toString());
+                }
+                case CONVERT -> (T) converter.convert(row.get(index), type);
+            };
+        }
+    }
+}
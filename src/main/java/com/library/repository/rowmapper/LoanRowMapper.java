@@ -12,10 +12,21 @@ import org.springframework.stereotype.Service;
 @Service
 public class LoanRowMapper implements BiFunction<Row, String, Loan> {
 
-    private final ColumnConverter converter;
+    private static final int ID = 0;
+    private static final int LOAN_DATE = 1;
+    private static final int RETURN_DATE = 2;
+    private static final int BOOK_ID = 3;
+    private static final int MEMBER_ID = 4;
+
+    private final IndexedColumns columns;
 
     public LoanRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.columns = new IndexedColumns(converter)
+            .add("_id", Long.class)
+            .add("_loan_date", LocalDate.class)
+            .add("_return_date", LocalDate.class)
+            .add("_book_id", Long.class)
+            .add("_member_id", Long.class);
     }
 
     /**
@@ -24,12 +35,13 @@ public class LoanRowMapper implements BiFunction<Row, String, Loan> {
      */
     @Override
     public Loan apply(Row row, String prefix) {
+        IndexedColumns.Plan plan = columns.plan(row, prefix);
         Loan entity = new Loan();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setLoanDate(converter.fromRow(row, prefix + "_loan_date", LocalDate.class));
-        entity.setReturnDate(converter.fromRow(row, prefix + "_return_date", LocalDate.class));
-        entity.setBookId(converter.fromRow(row, prefix + "_book_id", Long.class));
-        entity.setMemberId(converter.fromRow(row, prefix + "_member_id", Long.class));
+        entity.setId(plan.get(row, ID));
+        entity.setLoanDate(plan.get(row, LOAN_DATE));
+        entity.setReturnDate(plan.get(row, RETURN_DATE));
+        entity.setBookId(plan.get(row, BOOK_ID));
+        entity.setMemberId(plan.get(row, MEMBER_ID));
         return entity;
     }
 }
@@ -12,10 +12,21 @@ import org.springframework.stereotype.Service;
 @Service
 public class ReaderRowMapper implements BiFunction<Row, String, Reader> {
 
-    private final ColumnConverter converter;
+    private static final int ID = 0;
+    private static final int FIRST_NAME = 1;
+    private static final int LAST_NAME = 2;
+    private static final int EMAIL = 3;
+    private static final int JOINED_DATE = 4;
+
+    private final IndexedColumns columns;
 
     public ReaderRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.columns = new IndexedColumns(converter)
+            .add("_id", Long.class)
+            .add("_first_name", String.class)
+            .add("_last_name", String.class)
+            .add("_email", String.class)
+            .add("_joined_date", LocalDate.class);
     }
 
     /**
@@ -24,12 +35,13 @@ public class ReaderRowMapper implements BiFunction<Row, String, Reader> {
      */
     @Override
     public Reader apply(Row row, String prefix) {
+        IndexedColumns.Plan plan = columns.plan(row, prefix);
         Reader entity = new Reader();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setJoinedDate(converter.fromRow(row, prefix + "_joined_date", LocalDate.class));
+        entity.setId(plan.get(row, ID));
+        entity.setFirstName(plan.get(row, FIRST_NAME));
+        entity.setLastName(plan.get(row, LAST_NAME));
+        entity.setEmail(plan.get(row, EMAIL));
+        entity.setJoinedDate(plan.get(row, JOINED_DATE));
         return entity;
     }
 }
@@ -12,10 +12,35 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserRowMapper implements BiFunction<Row, String, User> {
 
-    private final ColumnConverter converter;
+    private static final int ID = 0;
+    private static final int LOGIN = 1;
+    private static final int PASSWORD = 2;
+    private static final int FIRST_NAME = 3;
+    private static final int LAST_NAME = 4;
+    private static final int EMAIL = 5;
+    private static final int ACTIVATED = 6;
+    private static final int LANG_KEY = 7;
+    private static final int IMAGE_URL = 8;
+    private static final int ACTIVATION_KEY = 9;
+    private static final int RESET_KEY = 10;
+    private static final int RESET_DATE = 11;
+
+    private final IndexedColumns columns;
 
     public UserRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.columns = new IndexedColumns(converter)
+            .add("_id", Long.class)
+            .add("_login", String.class)
+            .add("_password", String.class)
+            .add("_first_name", String.class)
+            .add("_last_name", String.class)
+            .add("_email", String.class)
+            .add("_activated", Boolean.class)
+            .add("_lang_key", String.class)
+            .add("_image_url", String.class)
+            .add("_activation_key", String.class)
+            .add("_reset_key", String.class)
+            .add("_reset_date", Instant.class);
     }
 
     /**
@@ -24,19 +49,20 @@ public class UserRowMapper implements BiFunction<Row, String, User> {
      */
     @Override
     public User apply(Row row, String prefix) {
+        IndexedColumns.Plan plan = columns.plan(row, prefix);
         User entity = new User();
-        entity.setId(row.get(prefix + "_id", Long.class));
-        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
-        entity.setPassword(converter.fromRow(row, prefix + "_password", String.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
-        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
-        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
-        entity.setActivationKey(converter.fromRow(row, prefix + "_activation_key", String.class));
-        entity.setResetKey(converter.fromRow(row, prefix + "_reset_key", String.class));
-        entity.setResetDate(converter.fromRow(row, prefix + "_reset_date", Instant.class));
+        entity.setId(plan.get(row, ID));
+        entity.setLogin(plan.get(row, LOGIN));
+        entity.setPassword(plan.get(row, PASSWORD));
+        entity.setFirstName(plan.get(row, FIRST_NAME));
+        entity.setLastName(plan.get(row, LAST_NAME));
+        entity.setEmail(plan.get(row, EMAIL));
+        entity.setActivated(Boolean.TRUE.equals(plan.<Boolean>get(row, ACTIVATED)));
+        entity.setLangKey(plan.get(row, LANG_KEY));
+        entity.setImageUrl(plan.get(row, IMAGE_URL));
+        entity.setActivationKey(plan.get(row, ACTIVATION_KEY));
+        entity.setResetKey(plan.get(row, RESET_KEY));
+        entity.setResetDate(plan.get(row, RESET_DATE));
         return entity;
     }
 }
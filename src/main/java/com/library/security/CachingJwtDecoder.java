@@ -0,0 +1,54 @@
+package com.library.security;
+
+import com.library.repository.cache.NearCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.UnaryOperator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ReactiveJwtDecoder} which remembers the tokens verified by another one, until they expire.
+ * <p>
+ * Clients send the same token with each request, and verifying it again means parsing it and computing its signature again.
+ * Instead the {@link Jwt}s decoded by the delegate are kept in a {@link NearCache}, by the SHA-256 digest of their token, until
+ * the token expires or {@code timeToLive} passes, whichever comes first. Tokens which fail verification are not cached, so
+ * the delegate reports their errors on every request.
+ */
+public class CachingJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+
+    private final NearCache<ByteBuffer, Jwt> cache;
+
+    public CachingJwtDecoder(
+        ReactiveJwtDecoder delegate,
+        int maximumSize,
+        Duration timeToLive,
+        Clock clock,
+        MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.cache = new NearCache<ByteBuffer, Jwt>("jwt", maximumSize, timeToLive, UnaryOperator.identity(), meterRegistry)
+            .expireAfterLoad(jwt -> jwt.getExpiresAt() != null ? Duration.between(clock.instant(), jwt.getExpiresAt()) : timeToLive);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        return Mono.defer(() -> cache.get(digest(token), key -> Mono.defer(() -> delegate.decode(token))));
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
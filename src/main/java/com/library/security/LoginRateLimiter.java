@@ -0,0 +1,119 @@
+package com.library.security;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets limiting the login attempts of each client, known by a key such as its address or the username it tries.
+ * <p>
+ * A bucket holds {@code capacity} attempts and refills completely over {@code refillPeriod}. It is kept as a single
+ * {@link AtomicLong}, the time at which it will be full again (the generic cell rate algorithm), so that taking an attempt is
+ * one compare-and-set, without lock nor allocation once the client has a bucket.
+ * <p>
+ * The buckets live in a map of about {@code maxClients} keys. The buckets which refilled completely are dropped once per
+ * {@code refillPeriod}, as a new bucket would be the same. When the map is full all the same, a quarter of the buckets is
+ * dropped, those which will be full again the soonest, judged from a sample: a client attacking with more keys than the map
+ * holds only resets the buckets of the clients which made the fewest attempts recently, and the new clients still get a bucket
+ * of their own. A full scan of the map frees a quarter of it, so it is made at most once per {@code maxClients / 4} new keys.
+ */
+public class LoginRateLimiter {
+
+    private final long intervalNanos;
+    private final long refillNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+
+    private static final int EVICTION_SAMPLE_SIZE = 1024;
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long nextSweepAt;
+
+    public LoginRateLimiter(int capacity, Duration refillPeriod, int maxClients) {
+        this(capacity, refillPeriod, maxClients, System::nanoTime);
+    }
+
+    LoginRateLimiter(int capacity, Duration refillPeriod, int maxClients, LongSupplier nanoClock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        this.refillNanos = refillPeriod.toNanos();
+        this.intervalNanos = refillNanos / capacity;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+        this.nextSweepAt = nanoClock.getAsLong() + refillNanos;
+    }
+
+    /**
+     * Takes an attempt from the bucket of a client, if it has one left.
+     * @param key the client.
+     * @return 0 if the attempt is allowed, else the time in nanoseconds until the next one would be.
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucket(key, now);
+        while (true) {
+            long fullAt = bucket.get();
+            long newFullAt = (fullAt - now > 0 ? fullAt : now) + intervalNanos;
+            long wait = newFullAt - now - refillNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of clients with a bucket of their own.
+     * @return the number of clients.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (now - nextSweepAt >= 0 || buckets.size() >= maxClients) {
+            sweep(now);
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    /**
+     * Drops the buckets which refilled, if they were not dropped for a refill period, then makes room if the map is still full.
+     * The keys added during a sweep by the other threads do not wait for it, and are only counted by the next one.
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (now - nextSweepAt >= 0) {
+                buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+                nextSweepAt = now + refillNanos;
+            }
+            if (buckets.size() >= maxClients) {
+                evictSoonestFull();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private void evictSoonestFull() {
+        long[] sample = buckets.values().stream().limit(EVICTION_SAMPLE_SIZE).mapToLong(AtomicLong::get).sorted().toArray();
+        if (sample.length > 0) {
+            long threshold = sample[sample.length / 4];
+            buckets.values().removeIf(bucket -> bucket.get() - threshold <= 0);
+        }
+    }
+}
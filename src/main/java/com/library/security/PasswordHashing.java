@@ -0,0 +1,174 @@
+package com.library.security;
+
+import com.library.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the password hashes, which are CPU bound and slow on purpose, on their own bounded executor.
+ * <p>
+ * On {@code Schedulers.boundedElastic()} a burst of logins would hold up every other blocking task. Here the hashes run on
+ * one thread per processor, as more threads would not hash any faster, behind a bounded queue: once it is full, a hash is
+ * rejected with a {@link PasswordHashingRejectedException}, answered with a 503, instead of making every request wait longer.
+ * <p>
+ * The BCrypt strength of the new hashes may be raised at startup so that a hash takes about a target latency on this
+ * machine. The existing hashes keep being verified with the strength they were created with.
+ */
+public class PasswordHashing implements DisposableBean {
+
+    public static final String QUEUE_METER_NAME = "password.hashing.queue";
+    public static final String QUEUE_METER_DESCRIPTION = "Number of password hashes waiting for a thread.";
+
+    public static final String LATENCY_METER_NAME = "password.hashing.latency";
+    public static final String LATENCY_METER_DESCRIPTION = "Time taken to hash a new password, or to check one against its hash.";
+
+    public static final String REJECTED_METER_NAME = "password.hashing.rejected";
+    public static final String REJECTED_METER_DESCRIPTION = "Number of password hashes rejected because the queue was full.";
+
+    private static final Logger LOG = LoggerFactory.getLogger(PasswordHashing.class);
+
+    private static final int MAXIMUM_STRENGTH = 31;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Scheduler scheduler;
+
+    private final int strength;
+
+    private final PasswordEncoder passwordEncoder;
+
+    public PasswordHashing(ApplicationProperties.PasswordHashing properties, MeterRegistry meterRegistry) {
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = properties.getQueueCapacity() > 0
+            ? new ArrayBlockingQueue<>(properties.getQueueCapacity())
+            : new SynchronousQueue<>();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        Counter rejections = Counter.builder(REJECTED_METER_NAME).description(REJECTED_METER_DESCRIPTION).register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, threadFactory, (task, pool) -> {
+            rejections.increment();
+            throw new PasswordHashingRejectedException();
+        });
+        Gauge.builder(QUEUE_METER_NAME, executor, pool -> pool.getQueue().size())
+            .description(QUEUE_METER_DESCRIPTION)
+            .register(meterRegistry);
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+
+        this.strength = properties.getTargetLatency() == null
+            ? properties.getStrength()
+            : calibrate(properties.getStrength(), properties.getTargetLatency());
+        this.passwordEncoder = new TimedPasswordEncoder(
+            new BCryptPasswordEncoder(strength),
+            latencyTimer("encode", meterRegistry),
+            latencyTimer("matches", meterRegistry)
+        );
+    }
+
+    /**
+     * Returns the scheduler to hash passwords on, with {@code publishOn} right before the hash.
+     * @return the scheduler.
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Returns the encoder of the passwords, which times the hashes.
+     * @return the password encoder.
+     */
+    public PasswordEncoder getPasswordEncoder() {
+        return passwordEncoder;
+    }
+
+    /**
+     * Returns the BCrypt strength of the new hashes.
+     * @return the strength.
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private static int calibrate(int minimumStrength, Duration targetLatency) {
+        Duration latency = measure(minimumStrength);
+        int calibratedStrength = calibratedStrength(minimumStrength, targetLatency, latency);
+        LOG.info(
+            "A hash of strength {} takes {} ms, hashing with strength {} for a target of {} ms",
+            minimumStrength,
+            latency.toMillis(),
+            calibratedStrength,
+            targetLatency.toMillis()
+        );
+        return calibratedStrength;
+    }
+
+    private static Duration measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("warm-up");
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(fastest);
+    }
+
+    /**
+     * Returns the strength at which a hash takes about the target latency, knowing each step doubles the work.
+     * @param minimumStrength the strength the latency was measured at, below which the strength is never lowered.
+     * @param targetLatency the target latency.
+     * @param latency the latency of a hash of the minimum strength.
+     * @return the strength, which does not make a hash take longer than the target unless it is the minimum.
+     */
+    static int calibratedStrength(int minimumStrength, Duration targetLatency, Duration latency) {
+        double ratio = (double) targetLatency.toNanos() / Math.max(latency.toNanos(), 1);
+        int doublings = ratio < 2 ? 0 : (int) Math.floor(Math.log(ratio) / Math.log(2));
+        return Math.min(minimumStrength + doublings, MAXIMUM_STRENGTH);
+    }
+
+    private static Timer latencyTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder(LATENCY_METER_NAME)
+            .description(LATENCY_METER_DESCRIPTION)
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private record TimedPasswordEncoder(PasswordEncoder delegate, Timer encodeTimer, Timer matchesTimer) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return encodeTimer.record(() -> delegate.encode(rawPassword));
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.library.service;
+
+import com.library.config.ApplicationProperties;
+import com.library.domain.BookAvailability;
+import com.library.repository.BookChangedEvent;
+import com.library.repository.BookRepository;
+import com.library.repository.LoanChangedEvent;
+import com.library.repository.LoanRepository;
+import com.library.repository.cache.NearCache;
+import com.library.repository.routing.ReplicaRoutingConnectionFactory;
+import com.library.repository.routing.ReplicaRoutingConnectionFactory.Route;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service maintaining the availability of the books, see {@link BookAvailability}.
+ * <p>
+ * The number of copies of each book on loan is a counter of the {@code book} table, updated by {@link LoanRepository} in
+ * the transaction of each loan change, so it never needs the loans to be counted. The availabilities are cached in memory once read, in a bounded
+ * {@link NearCache} for at most {@code application.availability.cache-time-to-live}. A book is evicted once a change of its
+ * loans or of itself is committed by this instance, and an availability read while an eviction happened is not cached, so this
+ * instance never serves an older value than the database for its own changes; the changes committed by the other instances
+ * are seen once the cached value expires. The counters are regularly checked against the loans, and recounted if they
+ * drifted, e.g. after loans were changed outside of the application.
+ */
+@Service
+public class BookAvailabilityService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookAvailabilityService.class);
+
+    public static final String DRIFT_METER_NAME = "availability.drift";
+    public static final String DRIFT_METER_DESCRIPTION = "Number of books whose copies on loan differed from their loans.";
+
+    private final BookRepository bookRepository;
+
+    private final boolean repair;
+
+    private final Counter driftCounter;
+
+    private final NearCache<Long, BookAvailability> cache;
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    public BookAvailabilityService(
+        BookRepository bookRepository,
+        NearCache<Long, BookAvailability> availabilityCache,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.bookRepository = bookRepository;
+        this.cache = availabilityCache;
+        this.repair = applicationProperties.getAvailability().isRepair();
+        this.driftCounter = Counter.builder(DRIFT_METER_NAME).description(DRIFT_METER_DESCRIPTION).register(meterRegistry);
+    }
+
+    @EventListener
+    public void onLoanChanged(LoanChangedEvent event) {
+        evict(event.bookIds());
+    }
+
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        evict(event.bookIds());
+    }
+
+    /**
+     * Returns the availability of books, in the order of their ids; the unknown books are left out.
+     * <p>
+     * The cache misses are read from the primary database, as a replica may not have the last loans yet.
+     * @param bookIds the ids of the books.
+     * @return the availabilities.
+     */
+    public Mono<List<BookAvailability>> getAvailability(Collection<Long> bookIds) {
+        return Mono.defer(() -> {
+            long evictionCount = evictions.get();
+            Map<Long, BookAvailability> cached = new HashMap<>();
+            Set<Long> missing = new LinkedHashSet<>();
+            for (Long bookId : bookIds) {
+                BookAvailability availability = cache.getIfPresent(bookId);
+                if (availability != null) {
+                    cached.put(bookId, availability);
+                } else {
+                    missing.add(bookId);
+                }
+            }
+            return bookRepository
+                .findAvailabilityByIdIn(missing)
+                .contextWrite(context -> ReplicaRoutingConnectionFactory.withRoute(context, Route.PRIMARY))
+                .collectMap(BookAvailability::bookId)
+                .map(loaded -> {
+                    loaded.values().forEach(availability -> cacheUnlessEvicted(availability, evictionCount));
+                    List<BookAvailability> availabilities = new ArrayList<>();
+                    for (Long bookId : new LinkedHashSet<>(bookIds)) {
+                        BookAvailability availability = loaded.containsKey(bookId) ? loaded.get(bookId) : cached.get(bookId);
+                        if (availability != null) {
+                            availabilities.add(availability);
+                        }
+                    }
+                    return availabilities;
+                });
+        });
+    }
+
+    private void cacheUnlessEvicted(BookAvailability availability, long evictionCount) {
+        cache.put(availability.bookId(), availability);
+        if (evictions.get() != evictionCount) {
+            // the value may have been read before a change was committed
+            cache.invalidate(availability.bookId());
+        }
+    }
+
+    private void evict(Collection<Long> bookIds) {
+        evictions.incrementAndGet();
+        bookIds.forEach(cache::invalidate);
+    }
+
+    /**
+     * Checks the numbers of copies on loan against the loans, unless the previous check is still going.
+     * <p>
+     * This is scheduled to get fired every {@code application.availability.reconciliation-interval}. The check runs on the
+     * database threads, the scheduler thread only starts it.
+     */
+    @Scheduled(
+        initialDelayString = "${application.availability.reconciliation-interval:15m}",
+        fixedDelayString = "${application.availability.reconciliation-interval:15m}"
+    )
+    public void reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            LOG.warn("The previous availability reconciliation is still running");
+            return;
+        }
+        reconcileReactively()
+            .doFinally(signal -> reconciling.set(false))
+            .subscribe(
+                drifts -> LOG.debug("Availability reconciliation done, {} drifts found", drifts.size()),
+                e -> LOG.error("Availability reconciliation failed", e)
+            );
+    }
+
+    /**
+     * Finds the books whose number of copies on loan differs from their loans not returned yet, and recounts them unless
+     * {@code application.availability.repair} is false.
+     * @return the drifts found.
+     */
+    public Mono<List<BookAvailability.Drift>> reconcileReactively() {
+        return bookRepository
+            .findAvailabilityDrift()
+            .concatMap(drift -> {
+                LOG.warn(
+                    "Book {} has {} copies on loan recorded but {} loans not returned",
+                    drift.bookId(),
+                    drift.recorded(),
+                    drift.actual()
+                );
+                driftCounter.increment();
+                if (!repair) {
+                    return Mono.just(drift);
+                }
+                return bookRepository
+                    .recountCopiesOnLoan(drift.bookId())
+                    .then(Mono.fromRunnable(() -> evict(List.of(drift.bookId()))))
+                    .thenReturn(drift);
+            })
+            .collectList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.library.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.domain.enumeration.BookStatusEnum;
+import com.library.service.dto.BookImportRow;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * Parses the lines of a catalog import into {@link BookImportRow}s, one line at a time.
+ * <p>
+ * A CSV document starts with a header line and separates the fields with {@code ;}, like the Liquibase fake data; the
+ * authors are separated with {@code |}. Fields are not quoted. Columns are matched on their name ignoring case and
+ * underscores, so both {@code publication_date} and {@code publicationDate} are accepted, and unknown columns like
+ * {@code id} are ignored.
+ */
+class BookImportParser {
+
+    /**
+     * The result of parsing one line: either a row, or the reason the line was rejected.
+     */
+    record ParsedLine(long line, BookImportRow row, String error) {
+        static ParsedLine of(long line, BookImportRow row) {
+            return new ParsedLine(line, row, null);
+        }
+
+        static ParsedLine rejected(long line, String error) {
+            return new ParsedLine(line, null, error);
+        }
+    }
+
+    private static final String CSV_SEPARATOR = ";";
+
+    private static final String CSV_LIST_SEPARATOR = "\\|";
+
+    private final ObjectMapper objectMapper;
+
+    BookImportParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parses the lines of a document, blank lines are skipped.
+     * @param lines the lines of the document.
+     * @param format the format of the document.
+     * @return the parsed lines, numbered from 1.
+     */
+    Flux<ParsedLine> parse(Flux<String> lines, BookImportService.Format format) {
+        Flux<Tuple2<Long, String>> numbered = lines
+            .index((index, line) -> Tuples.of(index + 1, line))
+            .filter(line -> !line.getT2().isBlank());
+        if (format == BookImportService.Format.CSV) {
+            return numbered.switchOnFirst((first, all) -> {
+                if (!first.hasValue()) {
+                    return all.thenMany(Flux.empty());
+                }
+                String[] header = Arrays.stream(first.get().getT2().split(CSV_SEPARATOR, -1))
+                    .map(BookImportParser::normalize)
+                    .toArray(String[]::new);
+                return all.skip(1).map(line -> parseCsv(header, line.getT1(), line.getT2()));
+            });
+        }
+        return numbered.map(line -> parseJson(line.getT1(), line.getT2()));
+    }
+
+    private ParsedLine parseJson(long line, String json) {
+        try {
+            return ParsedLine.of(line, objectMapper.readValue(json, BookImportRow.class));
+        } catch (JsonProcessingException e) {
+            return ParsedLine.rejected(line, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ParsedLine parseCsv(String[] header, long line, String csv) {
+        String[] values = csv.split(CSV_SEPARATOR, -1);
+        if (values.length != header.length) {
+            return ParsedLine.rejected(line, "Expected " + header.length + " fields but found " + values.length);
+        }
+        BookImportRow row = new BookImportRow();
+        for (int i = 0; i < header.length; i++) {
+            String value = values[i].trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            try {
+                switch (header[i]) {
+                    case "title" -> row.setTitle(value);
+                    case "publicationdate" -> row.setPublicationDate(LocalDate.parse(value));
+                    case "copiesowned" -> row.setCopiesOwned(Integer.valueOf(value));
+                    case "status" -> row.setStatus(BookStatusEnum.valueOf(value));
+                    case "category" -> row.setCategory(value);
+                    case "authors" -> row.setAuthors(
+                        Arrays.stream(value.split(CSV_LIST_SEPARATOR)).map(String::trim).filter(author -> !author.isEmpty()).toList()
+                    );
+                    default -> {
+                        // not a book column
+                    }
+                }
+            } catch (RuntimeException e) {
+                return ParsedLine.rejected(line, "Invalid value for " + header[i] + ": " + value);
+            }
+        }
+        return ParsedLine.of(line, row);
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,227 @@
+package com.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.config.ApplicationProperties;
+import com.library.domain.Author;
+import com.library.domain.Book;
+import com.library.repository.AuthorRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.service.dto.BookImportEvent;
+import com.library.service.dto.BookImportRow;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service importing a catalog of {@link Book}s.
+ * <p>
+ * The document is read line by line as it arrives and imported in batches of {@code application.book-import.batch-size}
+ * books: each batch resolves the categories and authors it refers to, then inserts its books with one multi-row statement in
+ * its own transaction, and the next lines are only requested once the batch is written. Categories and authors are resolved
+ * by name through a cache that lives as long as the import, so each name is looked up at most once.
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookImportService.class);
+
+    public enum Format {
+        NDJSON,
+        CSV,
+    }
+
+    private final BookRepository bookRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final AuthorRepository authorRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Validator validator;
+
+    private final BookImportParser parser;
+
+    private final int batchSize;
+
+    public BookImportService(
+        BookRepository bookRepository,
+        CategoryRepository categoryRepository,
+        AuthorRepository authorRepository,
+        TransactionalOperator transactionalOperator,
+        Validator validator,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.bookRepository = bookRepository;
+        this.categoryRepository = categoryRepository;
+        this.authorRepository = authorRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.parser = new BookImportParser(objectMapper);
+        this.batchSize = applicationProperties.getBookImport().getBatchSize();
+    }
+
+    /**
+     * Imports the books of a document.
+     * @param lines the lines of the document.
+     * @param format the format of the document.
+     * @return an error event for each rejected line, a progress event after each batch, and a completed event at the end.
+     */
+    public Flux<BookImportEvent> importBooks(Flux<String> lines, Format format) {
+        return Flux.defer(() -> {
+            ImportContext context = new ImportContext();
+            return parser
+                .parse(lines, format)
+                .buffer(batchSize)
+                .concatMap(batch -> importBatch(batch, context), 1)
+                .concatWith(
+                    Mono.fromSupplier(() -> {
+                        LOG.debug("Imported {} books, rejected {} lines", context.imported, context.failed);
+                        return BookImportEvent.progress(
+                            BookImportEvent.Type.COMPLETED,
+                            context.processed,
+                            context.imported,
+                            context.failed
+                        );
+                    })
+                );
+        });
+    }
+
+    private Flux<BookImportEvent> importBatch(List<BookImportParser.ParsedLine> batch, ImportContext context) {
+        return resolveNames(batch, context).thenMany(
+            Flux.defer(() -> {
+                List<BookImportEvent> errors = new ArrayList<>();
+                List<Book> books = new ArrayList<>();
+                List<Long> bookLines = new ArrayList<>();
+                for (BookImportParser.ParsedLine parsed : batch) {
+                    String error = parsed.error() != null ? parsed.error() : toBook(parsed.row(), context, books);
+                    if (error != null) {
+                        errors.add(BookImportEvent.error(parsed.line(), error));
+                    } else {
+                        bookLines.add(parsed.line());
+                    }
+                }
+                return transactionalOperator
+                    .transactional(bookRepository.insertAll(books).count())
+                    .onErrorResume(e -> {
+                        LOG.warn("Could not import the books of lines {} to {}", bookLines.get(0), bookLines.get(bookLines.size() - 1), e);
+                        bookLines.forEach(line -> errors.add(BookImportEvent.error(line, "Batch rejected: " + e.getMessage())));
+                        return Mono.just(0L);
+                    })
+                    .flatMapMany(imported -> {
+                        context.processed += batch.size();
+                        context.imported += imported;
+                        context.failed += errors.size();
+                        errors.sort((first, second) -> Long.compare(first.getLine(), second.getLine()));
+                        return Flux.fromIterable(errors).concatWith(
+                            Mono.just(
+                                BookImportEvent.progress(BookImportEvent.Type.PROGRESS, context.processed, context.imported, context.failed)
+                            )
+                        );
+                    });
+            })
+        );
+    }
+
+    /**
+     * Looks up the category and author names of a batch which are not in the cache yet, with one query each.
+     */
+    private Mono<Void> resolveNames(List<BookImportParser.ParsedLine> batch, ImportContext context) {
+        Set<String> categories = batch
+            .stream()
+            .filter(parsed -> parsed.row() != null && parsed.row().getCategory() != null)
+            .map(parsed -> parsed.row().getCategory())
+            .filter(name -> !context.categoryIds.containsKey(name))
+            .collect(Collectors.toSet());
+        Set<String> authors = batch
+            .stream()
+            .filter(parsed -> parsed.row() != null && parsed.row().getAuthors() != null)
+            .flatMap(parsed -> parsed.row().getAuthors().stream())
+            .filter(name -> !context.authorIds.containsKey(name))
+            .collect(Collectors.toSet());
+        Mono<Void> resolveCategories = categories.isEmpty()
+            ? Mono.empty()
+            : categoryRepository
+                .findByNameIn(categories)
+                .doOnNext(category -> context.categoryIds.putIfAbsent(category.getName(), Optional.of(category.getId())))
+                .then(Mono.fromRunnable(() -> categories.forEach(name -> context.categoryIds.putIfAbsent(name, Optional.empty()))));
+        Mono<Void> resolveAuthors = authors.isEmpty()
+            ? Mono.empty()
+            : authorRepository
+                .findByFullNameIn(authors)
+                .doOnNext(author ->
+                    context.authorIds.putIfAbsent(author.getFirstName() + " " + author.getLastName(), Optional.of(author.getId()))
+                )
+                .then(Mono.fromRunnable(() -> authors.forEach(name -> context.authorIds.putIfAbsent(name, Optional.empty()))));
+        return resolveCategories.then(resolveAuthors);
+    }
+
+    /**
+     * Converts a row to a book and adds it to the given list.
+     * @return the reason the row is rejected, or null if it was added.
+     */
+    private String toBook(BookImportRow row, ImportContext context, List<Book> books) {
+        Book book = new Book()
+            .title(row.getTitle())
+            .publicationDate(row.getPublicationDate())
+            .copiesOwned(row.getCopiesOwned())
+            .status(row.getStatus());
+        if (row.getCategory() != null) {
+            Optional<Long> categoryId = context.categoryIds.get(row.getCategory());
+            if (categoryId.isEmpty()) {
+                return "Unknown category: " + row.getCategory();
+            }
+            book.setCategoryId(categoryId.orElseThrow());
+        }
+        if (row.getAuthors() != null) {
+            for (String name : row.getAuthors()) {
+                Optional<Long> authorId = context.authorIds.get(name);
+                if (authorId.isEmpty()) {
+                    return "Unknown author: " + name;
+                }
+                book.addAuthor(new Author().id(authorId.orElseThrow()));
+            }
+        }
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            return violations
+                .stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        }
+        books.add(book);
+        return null;
+    }
+
+    /**
+     * The state of one import; batches are imported one after the other, so it is never accessed concurrently.
+     */
+    private static final class ImportContext {
+
+        private final Map<String, Optional<Long>> categoryIds = new HashMap<>();
+
+        private final Map<String, Optional<Long>> authorIds = new HashMap<>();
+
+        private long processed;
+
+        private long imported;
+
+        private long failed;
+    }
+}
@@ -0,0 +1,284 @@
+package com.library.service;
+
+import com.library.config.ApplicationProperties;
+import com.library.domain.OutboxMail;
+import com.library.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service sending the emails queued in the outbox by {@link MailService}.
+ * <p>
+ * The emails due are claimed by batches of {@code application.mail-outbox.batch-size}, and each batch is sent over one SMTP
+ * connection. The emails sent are removed from the outbox; the others are tried again after a delay starting at
+ * {@code application.mail-outbox.initial-backoff} and doubled after each failure, up to {@code application.mail-outbox.max-backoff},
+ * and given up after {@code application.mail-outbox.max-attempts} attempts. An email is sent at least once: if an instance
+ * stops between sending a batch and removing it, the batch is sent again once its lease is over.
+ */
+@Service
+public class MailOutboxDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    public static final String PENDING_METER_NAME = "mail.outbox.pending";
+    public static final String PENDING_METER_DESCRIPTION = "Number of emails waiting in the outbox to be sent.";
+
+    public static final String LAG_METER_NAME = "mail.outbox.lag";
+    public static final String LAG_METER_DESCRIPTION = "Time since the oldest email waiting in the outbox was queued.";
+
+    public static final String FAILED_METER_NAME = "mail.outbox.failed";
+    public static final String FAILED_METER_DESCRIPTION = "Number of emails left in the outbox after too many failed attempts.";
+
+    public static final String SENT_METER_NAME = "mail.outbox.sent";
+    public static final String SENT_METER_DESCRIPTION = "Number of emails sent from the outbox.";
+
+    public static final String ATTEMPT_FAILURES_METER_NAME = "mail.outbox.attempt.failures";
+    public static final String ATTEMPT_FAILURES_METER_DESCRIPTION = "Number of failed attempts to send an email.";
+
+    public static final String DELIVERY_METER_NAME = "mail.outbox.delivery";
+    public static final String DELIVERY_METER_DESCRIPTION = "Time from the queuing of an email to its sending.";
+
+    public static final String BATCH_METER_NAME = "mail.outbox.batch";
+    public static final String BATCH_METER_DESCRIPTION = "Time taken to send a batch of emails to the SMTP server.";
+
+    private record Batch(int claimed, int sent) {}
+
+    private final MailOutboxRepository mailOutboxRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final int batchSize;
+
+    private final Duration lease;
+
+    private final int maxAttempts;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final Counter sentCounter;
+
+    private final Counter attemptFailureCounter;
+
+    private final Timer deliveryTimer;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong oldestPending = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public MailOutboxDispatcher(
+        MailOutboxRepository mailOutboxRepository,
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.batchSize = applicationProperties.getMailOutbox().getBatchSize();
+        this.lease = applicationProperties.getMailOutbox().getLease();
+        this.maxAttempts = applicationProperties.getMailOutbox().getMaxAttempts();
+        this.initialBackoff = applicationProperties.getMailOutbox().getInitialBackoff();
+        this.maxBackoff = applicationProperties.getMailOutbox().getMaxBackoff();
+        this.sentCounter = Counter.builder(SENT_METER_NAME).description(SENT_METER_DESCRIPTION).register(meterRegistry);
+        this.attemptFailureCounter = Counter.builder(ATTEMPT_FAILURES_METER_NAME)
+            .description(ATTEMPT_FAILURES_METER_DESCRIPTION)
+            .register(meterRegistry);
+        this.deliveryTimer = Timer.builder(DELIVERY_METER_NAME).description(DELIVERY_METER_DESCRIPTION).register(meterRegistry);
+        this.batchTimer = Timer.builder(BATCH_METER_NAME).description(BATCH_METER_DESCRIPTION).register(meterRegistry);
+        Gauge.builder(PENDING_METER_NAME, pending, AtomicLong::get).description(PENDING_METER_DESCRIPTION).register(meterRegistry);
+        // computed when read, so that the lag keeps growing while the outbox is not delivered
+        Gauge.builder(LAG_METER_NAME, oldestPending, MailOutboxDispatcher::secondsSince)
+            .description(LAG_METER_DESCRIPTION)
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder(FAILED_METER_NAME, failed, AtomicLong::get).description(FAILED_METER_DESCRIPTION).register(meterRegistry);
+    }
+
+    /**
+     * Sends the emails due, unless the previous dispatch is still going.
+     * <p>
+     * This is scheduled to get fired every {@code application.mail-outbox.poll-interval}. The dispatch runs on the database
+     * and mail threads, the scheduler thread only starts it.
+     */
+    @Scheduled(
+        initialDelayString = "${application.mail-outbox.poll-interval:5s}",
+        fixedDelayString = "${application.mail-outbox.poll-interval:5s}"
+    )
+    public void deliver() {
+        if (!running.compareAndSet(false, true)) {
+            LOG.debug("The previous dispatch of the outbox is still running");
+            return;
+        }
+        dispatch()
+            .doFinally(signal -> running.set(false))
+            .subscribe(sent -> LOG.debug("Dispatched the outbox, {} emails sent", sent), e -> LOG.error("Outbox dispatch failed", e));
+    }
+
+    /**
+     * Sends the emails due, batch after batch until the outbox has no more, and refreshes the meters of the outbox.
+     * @return the number of emails sent.
+     */
+    public Mono<Long> dispatch() {
+        return dispatchBatch()
+            .expand(batch -> batch.claimed() == batchSize ? dispatchBatch() : Mono.empty())
+            .reduce(0L, (sent, batch) -> sent + batch.sent())
+            .flatMap(sent -> refreshBacklog().thenReturn(sent));
+    }
+
+    private Mono<Batch> dispatchBatch() {
+        return Mono.defer(() -> {
+            String token = UUID.randomUUID().toString();
+            Instant now = Instant.now();
+            return mailOutboxRepository
+                .claim(token, now, now.plus(lease), batchSize, maxAttempts)
+                .collectList()
+                .flatMap(mails -> {
+                    if (mails.isEmpty()) {
+                        return Mono.just(new Batch(0, 0));
+                    }
+                    return Mono.fromCallable(() -> send(mails))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(failures -> report(token, mails, failures));
+                });
+        });
+    }
+
+    /**
+     * Sends a batch of emails over one SMTP connection.
+     * @return the errors of the emails not sent, by id.
+     */
+    private Map<Long, Exception> send(List<OutboxMail> mails) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Long> ids = new LinkedHashMap<>();
+        for (OutboxMail mail : mails) {
+            try {
+                ids.put(toMimeMessage(mail), mail.id());
+            } catch (MailException | MessagingException e) {
+                failures.put(mail.id(), e);
+            }
+        }
+        if (ids.isEmpty()) {
+            return failures;
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            javaMailSender.send(ids.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            // the messages failed are known unless the connection itself failed
+            if (e.getFailedMessages().isEmpty()) {
+                ids.values().forEach(id -> failures.put(id, e));
+            } else {
+                e.getFailedMessages().forEach((message, cause) -> failures.put(ids.get(message), cause));
+            }
+        } catch (MailException e) {
+            ids.values().forEach(id -> failures.put(id, e));
+        } finally {
+            sample.stop(batchTimer);
+        }
+        LOG.debug("Sent {} emails, {} failed", mails.size() - failures.size(), failures.size());
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(OutboxMail mail) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, mail.multipart(), StandardCharsets.UTF_8.name());
+        message.setTo(mail.to());
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(mail.subject());
+        message.setText(mail.content(), mail.html());
+        return mimeMessage;
+    }
+
+    /**
+     * Removes the emails sent from the outbox, and reschedules the others.
+     */
+    private Mono<Batch> report(String token, List<OutboxMail> mails, Map<Long, Exception> failures) {
+        Instant now = Instant.now();
+        List<OutboxMail> sent = mails.stream().filter(mail -> !failures.containsKey(mail.id())).toList();
+        sentCounter.increment(sent.size());
+        sent.forEach(mail -> deliveryTimer.record(Duration.between(mail.createdAt(), now)));
+        List<Long> sentIds = sent.stream().map(OutboxMail::id).toList();
+        return (sentIds.isEmpty() ? Mono.<Void>empty() : mailOutboxRepository.deleteSent(token, sentIds))
+            .thenMany(
+                Flux.fromIterable(mails)
+                    .filter(mail -> failures.containsKey(mail.id()))
+                    .concatMap(mail -> reschedule(token, mail, failures.get(mail.id()), now))
+            )
+            .then(Mono.just(new Batch(mails.size(), sent.size())));
+    }
+
+    private Mono<Void> reschedule(String token, OutboxMail mail, Exception error, Instant now) {
+        int attempts = mail.attempts() + 1;
+        attemptFailureCounter.increment();
+        if (attempts >= maxAttempts) {
+            LOG.error("Email {} to '{}' given up after {} attempts", mail.id(), mail.to(), attempts, error);
+        } else {
+            LOG.warn("Email {} to '{}' could not be sent, attempt {}: {}", mail.id(), mail.to(), attempts, error.toString());
+        }
+        return mailOutboxRepository.reschedule(token, mail.id(), attempts, now.plus(backoff(attempts)), error.toString());
+    }
+
+    /**
+     * Returns the delay before the attempt following a failed one.
+     * @param attempts the number of attempts made.
+     * @return the delay.
+     */
+    Duration backoff(int attempts) {
+        // the shift is bounded so that it cannot overflow, the delay is capped well before anyway
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private Mono<Void> refreshBacklog() {
+        return mailOutboxRepository
+            .findBacklog(maxAttempts)
+            .doOnNext(backlog -> {
+                pending.set(backlog.pending());
+                oldestPending.set(backlog.oldestPending() != null ? backlog.oldestPending().toEpochMilli() : 0);
+                failed.set(backlog.failed());
+            })
+            .then();
+    }
+
+    private static double secondsSince(AtomicLong epochMilli) {
+        long since = epochMilli.get();
+        return since == 0 ? 0 : Math.max(0, System.currentTimeMillis() - since) / 1000.0;
+    }
+}
@@ -0,0 +1,249 @@
+package com.library.service;
+
+import com.library.config.ApplicationProperties;
+import com.library.domain.JobCheckpoint;
+import com.library.domain.Loan;
+import com.library.repository.JobCheckpointRepository;
+import com.library.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Service finding the loans not returned after {@code application.overdue-scan.loan-days}, and publishing them as
+ * {@link OverdueLoansEvent}s.
+ * <p>
+ * The loans not returned are walked by ranges of {@code application.overdue-scan.chunk-size} ids, up to
+ * {@code application.overdue-scan.concurrency} ranges at a time. The ranges are checkpointed in order: the checkpoint is the
+ * first id of the first range not done, so a run interrupted by a restart resumes from it instead of starting over, and only
+ * the ranges which were in flight are scanned twice.
+ * <p>
+ * An unfinished run is resumed when the application is ready, after a failure (up to {@code application.overdue-scan.retries}
+ * times, waiting {@code application.overdue-scan.retry-backoff} then twice as long each time), and otherwise by the next
+ * scheduled run, before it scans its own day.
+ */
+@Service
+public class OverdueLoanScanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OverdueLoanScanner.class);
+
+    public static final String JOB_NAME = "overdue-loans";
+
+    public static final String LOANS_METER_NAME = "overdue.scan.loans";
+    public static final String LOANS_METER_DESCRIPTION = "Number of overdue loans found.";
+
+    public static final String CHUNK_METER_NAME = "overdue.scan.chunk";
+    public static final String CHUNK_METER_DESCRIPTION = "Time taken to scan a range of loan ids.";
+
+    public static final String REMAINING_METER_NAME = "overdue.scan.remaining";
+    public static final String REMAINING_METER_DESCRIPTION = "Number of loan ids left to scan by the current run.";
+
+    public static final String LAST_COMPLETION_METER_NAME = "overdue.scan.last.completion";
+    public static final String LAST_COMPLETION_METER_DESCRIPTION = "Time of the end of the last complete run, in seconds since the epoch.";
+
+    /**
+     * The outcome of a run.
+     *
+     * @param day the day of the run.
+     * @param fromId the id the run started or resumed from.
+     * @param chunks the number of id ranges scanned.
+     * @param overdueLoans the number of overdue loans found.
+     */
+    public record Run(LocalDate day, long fromId, long chunks, long overdueLoans) {}
+
+    private record Chunk(long toId, int overdueLoans) {}
+
+    private final LoanRepository loanRepository;
+
+    private final JobCheckpointRepository checkpointRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int loanDays;
+
+    private final int chunkSize;
+
+    private final int concurrency;
+
+    private final int retries;
+
+    private final Duration retryBackoff;
+
+    private final Counter overdueCounter;
+
+    private final Timer chunkTimer;
+
+    private final AtomicLong remaining = new AtomicLong();
+
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OverdueLoanScanner(
+        LoanRepository loanRepository,
+        JobCheckpointRepository checkpointRepository,
+        ApplicationEventPublisher eventPublisher,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.loanRepository = loanRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.eventPublisher = eventPublisher;
+        this.loanDays = applicationProperties.getOverdueScan().getLoanDays();
+        this.chunkSize = applicationProperties.getOverdueScan().getChunkSize();
+        this.concurrency = applicationProperties.getOverdueScan().getConcurrency();
+        this.retries = applicationProperties.getOverdueScan().getRetries();
+        this.retryBackoff = applicationProperties.getOverdueScan().getRetryBackoff();
+        this.overdueCounter = Counter.builder(LOANS_METER_NAME).description(LOANS_METER_DESCRIPTION).register(meterRegistry);
+        this.chunkTimer = Timer.builder(CHUNK_METER_NAME).description(CHUNK_METER_DESCRIPTION).register(meterRegistry);
+        Gauge.builder(REMAINING_METER_NAME, remaining, AtomicLong::get).description(REMAINING_METER_DESCRIPTION).register(meterRegistry);
+        Gauge.builder(LAST_COMPLETION_METER_NAME, lastCompletion, AtomicLong::get)
+            .description(LAST_COMPLETION_METER_DESCRIPTION)
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Finishes the unfinished run of an earlier day if there is one, then scans the loans of the day, unless the previous run
+     * is still going.
+     * <p>
+     * This is scheduled to get fired every day, at 01:30 (am). The scan runs on the database threads, the scheduler thread
+     * only starts it.
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void scanOverdueLoans() {
+        start(resumeInterrupted().then(Mono.defer(() -> scanAndLog(LocalDate.now()))));
+    }
+
+    /**
+     * Resumes the run interrupted by the last shutdown, if there is one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedScan() {
+        start(resumeInterrupted());
+    }
+
+    private void start(Mono<?> scan) {
+        if (!running.compareAndSet(false, true)) {
+            LOG.warn("The previous overdue loans scan is still running");
+            return;
+        }
+        scan
+            // each attempt reads the checkpoint again, so it resumes where the failed one stopped
+            .retryWhen(
+                Retry.backoff(retries, retryBackoff)
+                    .doBeforeRetry(signal -> LOG.warn("Overdue loans scan failed, resuming it from its checkpoint", signal.failure()))
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure())
+            )
+            .doFinally(signal -> running.set(false))
+            .subscribe(null, e -> LOG.error("Overdue loans scan failed, the next run will resume it from its checkpoint", e));
+    }
+
+    private Mono<Run> resumeInterrupted() {
+        return checkpointRepository
+            .findByJobName(JOB_NAME)
+            .filter(checkpoint -> !checkpoint.completed())
+            .flatMap(checkpoint -> scanAndLog(checkpoint.runDate()));
+    }
+
+    private Mono<Run> scanAndLog(LocalDate day) {
+        return scan(day).doOnNext(run -> LOG.info("Overdue loans scan of {} done, {} overdue loans found", run.day(), run.overdueLoans()));
+    }
+
+    /**
+     * Scans the loans for a day, resuming from the checkpoint of the day if there is one.
+     * @param day the day of the scan; the loans loaned before {@code application.overdue-scan.loan-days} days are overdue.
+     * @return the outcome of the run, with no chunk if the day was already scanned.
+     */
+    public Mono<Run> scan(LocalDate day) {
+        return checkpointRepository
+            .findByJobName(JOB_NAME)
+            .filter(checkpoint -> checkpoint.runDate().equals(day))
+            .defaultIfEmpty(new JobCheckpoint(JOB_NAME, day, 0, false))
+            .flatMap(checkpoint -> {
+                if (checkpoint.completed()) {
+                    LOG.debug("Overdue loans of {} already scanned", day);
+                    return Mono.just(new Run(day, checkpoint.resumeFrom(), 0, 0));
+                }
+                if (checkpoint.resumeFrom() > 0) {
+                    LOG.info("Resuming the overdue loans scan of {} from loan {}", day, checkpoint.resumeFrom());
+                }
+                // the ids below the first loan not returned are skipped, rather than walked as empty ranges
+                return loanRepository
+                    .findMinIdNotReturnedFrom(checkpoint.resumeFrom())
+                    .defaultIfEmpty(checkpoint.resumeFrom())
+                    .zipWith(loanRepository.findMaxIdNotReturned().defaultIfEmpty(-1L))
+                    .flatMap(ids -> run(day, ids.getT1(), ids.getT2() + 1));
+            });
+    }
+
+    private Mono<Run> run(LocalDate day, long fromId, long endId) {
+        LocalDate loanedBefore = day.minusDays(loanDays);
+        AtomicLong overdueLoans = new AtomicLong();
+        remaining.set(Math.max(0, endId - fromId));
+        return Flux.<Long, Long>generate(
+            () -> fromId,
+            (startId, sink) -> {
+                if (startId < endId) {
+                    sink.next(startId);
+                } else {
+                    sink.complete();
+                }
+                return startId + chunkSize;
+            }
+        )
+            // the ranges are scanned concurrently, but their results come in order, so the checkpoint never skips a range
+            .flatMapSequential(startId -> scanChunk(day, startId, Math.min(startId + chunkSize, endId), loanedBefore), concurrency, 1)
+            .concatMap(chunk -> {
+                overdueLoans.addAndGet(chunk.overdueLoans());
+                remaining.set(endId - chunk.toId());
+                return checkpointRepository.save(new JobCheckpoint(JOB_NAME, day, chunk.toId(), false));
+            }, 1)
+            .then(checkpointRepository.save(new JobCheckpoint(JOB_NAME, day, Math.max(fromId, endId), true)))
+            .then(
+                Mono.fromSupplier(() -> {
+                    lastCompletion.set(Instant.now().getEpochSecond());
+                    long chunks = endId > fromId ? (endId - fromId + chunkSize - 1) / chunkSize : 0;
+                    return new Run(day, fromId, chunks, overdueLoans.get());
+                })
+            );
+    }
+
+    private Mono<Chunk> scanChunk(LocalDate day, long fromId, long toId, LocalDate loanedBefore) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return loanRepository
+                .findNotReturnedInIdRangeLoanedBefore(fromId, toId, loanedBefore)
+                .collectList()
+                .map(loans -> {
+                    publish(day, loans);
+                    return new Chunk(toId, loans.size());
+                })
+                .doOnSuccess(chunk -> sample.stop(chunkTimer));
+        });
+    }
+
+    private void publish(LocalDate day, List<Loan> loans) {
+        if (!loans.isEmpty()) {
+            overdueCounter.increment(loans.size());
+            eventPublisher.publishEvent(new OverdueLoansEvent(day, loans));
+        }
+    }
+}
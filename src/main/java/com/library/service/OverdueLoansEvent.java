@@ -0,0 +1,16 @@
+package com.library.service;
+
+import com.library.domain.Loan;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published by {@link OverdueLoanScanner} for each chunk of loans found overdue.
+ * <p>
+ * A chunk is published again if the scan is interrupted before it could record that the chunk was done, so the listeners
+ * should tolerate duplicates.
+ *
+ * @param day the day of the scan.
+ * @param loans the overdue loans of the chunk.
+ */
+public record OverdueLoansEvent(LocalDate day, List<Loan> loans) {}
@@ -0,0 +1,114 @@
+package com.library.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+
+/**
+ * A DTO representing an event streamed back while a catalog import runs: a rejected line, the progress after a batch, or
+ * the final counts.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookImportEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        ERROR,
+        PROGRESS,
+        COMPLETED,
+    }
+
+    private Type type;
+
+    private Long line;
+
+    private String message;
+
+    private Long processed;
+
+    private Long imported;
+
+    private Long failed;
+
+    public BookImportEvent() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public static BookImportEvent error(long line, String message) {
+        BookImportEvent event = new BookImportEvent();
+        event.type = Type.ERROR;
+        event.line = line;
+        event.message = message;
+        return event;
+    }
+
+    public static BookImportEvent progress(Type type, long processed, long imported, long failed) {
+        BookImportEvent event = new BookImportEvent();
+        event.type = type;
+        event.processed = processed;
+        event.imported = imported;
+        event.failed = failed;
+        return event;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getLine() {
+        return line;
+    }
+
+    public void setLine(Long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Long processed) {
+        this.processed = processed;
+    }
+
+    public Long getImported() {
+        return imported;
+    }
+
+    public void setImported(Long imported) {
+        this.imported = imported;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Long failed) {
+        this.failed = failed;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookImportEvent{" +
+            "type=" + type +
+            ", line=" + line +
+            ", message='" + message + "'" +
+            ", processed=" + processed +
+            ", imported=" + imported +
+            ", failed=" + failed +
+            "}";
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.service.dto;
+
+import com.library.domain.enumeration.BookStatusEnum;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing one book of a catalog import; the category and the authors are referred to by name.
+ */
+public class BookImportRow implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String title;
+
+    private LocalDate publicationDate;
+
+    private Integer copiesOwned;
+
+    private BookStatusEnum status;
+
+    private String category;
+
+    private List<String> authors = new ArrayList<>();
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public LocalDate getPublicationDate() {
+        return publicationDate;
+    }
+
+    public void setPublicationDate(LocalDate publicationDate) {
+        this.publicationDate = publicationDate;
+    }
+
+    public Integer getCopiesOwned() {
+        return copiesOwned;
+    }
+
+    public void setCopiesOwned(Integer copiesOwned) {
+        this.copiesOwned = copiesOwned;
+    }
+
+    public BookStatusEnum getStatus() {
+        return status;
+    }
+
+    public void setStatus(BookStatusEnum status) {
+        this.status = status;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public List<String> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(List<String> authors) {
+        this.authors = authors != null ? authors : new ArrayList<>();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookImportRow{" +
+            "title='" + title + "'" +
+            ", publicationDate='" + publicationDate + "'" +
+            ", copiesOwned=" + copiesOwned +
+            ", status='" + status + "'" +
+            ", category='" + category + "'" +
+            ", authors=" + authors +
+            "}";
+    }
+}
@@ -0,0 +1,207 @@
+package com.library.service.search;
+
+import com.library.domain.Book;
+import com.library.domain.criteria.BookCriteria;
+import com.library.repository.BookChangedEvent;
+import com.library.repository.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Service searching the {@link Book}s by title, author name and category name, see {@link SearchIndex}.
+ * <p>
+ * The index is built from the database once the application is ready, then kept up to date from the
+ * {@link BookChangedEvent}s, which are published once the changes are committed. The updates are applied one at a time and
+ * in order, after the build, so an update is never overwritten by an older one. Renaming an author or a category is only
+ * seen by the search once its books are saved again, or the index is rebuilt.
+ */
+@Service
+public class BookSearchService implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookSearchService.class);
+
+    public static final String SEARCH_METER_NAME = "search.query";
+    public static final String SEARCH_METER_DESCRIPTION = "Time taken to search, including the loading of the found entities.";
+
+    public static final String DOCUMENTS_METER_NAME = "search.index.documents";
+    public static final String DOCUMENTS_METER_DESCRIPTION = "Number of entities in the search index.";
+
+    public static final String INDEX_DIMENSION = "index";
+
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double AUTHOR_WEIGHT = 1.5;
+    private static final double CATEGORY_WEIGHT = 1.0;
+
+    private final BookRepository bookRepository;
+
+    private final Timer searchTimer;
+
+    private final Sinks.Many<Mono<Void>> updates = Sinks.many().unicast().onBackpressureBuffer();
+
+    private volatile SearchIndex index = createIndex();
+
+    private volatile boolean ready;
+
+    private Disposable updating;
+
+    public BookSearchService(BookRepository bookRepository, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.searchTimer = Timer.builder(SEARCH_METER_NAME)
+            .description(SEARCH_METER_DESCRIPTION)
+            .tag(INDEX_DIMENSION, "books")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder(DOCUMENTS_METER_NAME, this, service -> service.index.size())
+            .description(DOCUMENTS_METER_DESCRIPTION)
+            .tag(INDEX_DIMENSION, "books")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index, then starts applying the updates.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (updating != null) {
+            return;
+        }
+        updating = updates
+            .asFlux()
+            .concatMap(update ->
+                update.onErrorResume(e -> {
+                    LOG.warn("Failed to update the book search index", e);
+                    return Mono.empty();
+                })
+            )
+            .subscribe();
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the database, in the background.
+     */
+    public void rebuild() {
+        enqueue(
+            Mono.defer(() -> {
+                SearchIndex rebuilt = createIndex();
+                return bookRepository
+                    .findAllWithEagerRelationships()
+                    .doOnNext(book -> put(rebuilt, book))
+                    .then(
+                        Mono.fromRunnable(() -> {
+                            index = rebuilt;
+                            ready = true;
+                            LOG.info("Built the book search index with {} books", rebuilt.size());
+                        })
+                    );
+            })
+        );
+    }
+
+    /**
+     * Returns whether the index was built; until it is, the search finds nothing.
+     * @return whether the index is ready.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.deleted()) {
+            enqueue(Mono.fromRunnable(() -> event.bookIds().forEach(id -> index.remove(id))));
+        } else {
+            enqueue(reindex(event.bookIds()));
+        }
+    }
+
+    private Mono<Void> reindex(List<Long> bookIds) {
+        return Mono.defer(() -> {
+            BookCriteria criteria = new BookCriteria();
+            criteria.id().setIn(bookIds);
+            Set<Long> missing = new HashSet<>(bookIds);
+            return bookRepository
+                .findByCriteriaWithEagerRelationships(criteria)
+                .doOnNext(book -> {
+                    missing.remove(book.getId());
+                    put(index, book);
+                })
+                .then(Mono.fromRunnable(() -> missing.forEach(id -> index.remove(id))));
+        });
+    }
+
+    /**
+     * Searches the books matching a query, best first.
+     * @param query the words to look for.
+     * @param pageable the page to return; its sort is ignored.
+     * @return the page of books.
+     */
+    public Mono<Page<Book>> search(String query, Pageable pageable) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            SearchIndex.Hits hits = index.search(query, pageable.getOffset(), pageable.getPageSize());
+            return load(hits.ids())
+                .<Page<Book>>map(books -> new PageImpl<>(books, pageable, hits.total()))
+                .doOnTerminate(() -> sample.stop(searchTimer));
+        });
+    }
+
+    private Mono<List<Book>> load(List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        BookCriteria criteria = new BookCriteria();
+        criteria.id().setIn(bookIds);
+        return bookRepository
+            .findByCriteriaWithEagerRelationships(criteria)
+            .collectMap(Book::getId, Function.identity())
+            .map(booksById -> bookIds.stream().map(booksById::get).filter(Objects::nonNull).toList());
+    }
+
+    private static void put(SearchIndex index, Book book) {
+        String authors = book
+            .getAuthors()
+            .stream()
+            .map(author -> author.getFirstName() + " " + author.getLastName())
+            .collect(Collectors.joining(" "));
+        String category = book.getCategory() != null ? book.getCategory().getName() : null;
+        index.put(book.getId(), book.getTitle(), authors, category);
+    }
+
+    private static SearchIndex createIndex() {
+        return new SearchIndex(TITLE_WEIGHT, AUTHOR_WEIGHT, CATEGORY_WEIGHT);
+    }
+
+    private synchronized void enqueue(Mono<Void> update) {
+        Sinks.EmitResult result = updates.tryEmitNext(update);
+        if (result.isFailure()) {
+            LOG.debug("Dropped a book search index update: {}", result);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (updating != null) {
+            updating.dispose();
+        }
+    }
+}
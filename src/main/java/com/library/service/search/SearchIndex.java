@@ -0,0 +1,234 @@
+package com.library.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index of documents made of a few weighted text fields, ranked with BM25F.
+ * <p>
+ * Every term of a query must match a document, in any field, either exactly, as a prefix of a document term, or with a
+ * typo: one edit for terms of {@value #ONE_TYPO_LENGTH} characters or more, two edits from {@value #TWO_TYPOS_LENGTH}
+ * characters. The inexact matches score less than the exact ones. The index is safe for concurrent use, searches only wait
+ * for updates.
+ */
+class SearchIndex {
+
+    static final int ONE_TYPO_LENGTH = 4;
+    static final int TWO_TYPOS_LENGTH = 8;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private static final double PREFIX_BOOST = 0.7;
+    private static final double ONE_TYPO_BOOST = 0.5;
+    private static final double TWO_TYPOS_BOOST = 0.3;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * A page of the documents matching a query, best first.
+     *
+     * @param ids the ids of the documents of the page.
+     * @param total the number of documents matching the query.
+     */
+    record Hits(List<Long> ids, int total) {}
+
+    private record Document(int[] lengths, Set<String> terms) {}
+
+    private final double[] weights;
+    private final long[] totalLengths;
+    private final NavigableMap<String, Map<Long, int[]>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param weights the weight of each field of the documents.
+     */
+    SearchIndex(double... weights) {
+        this.weights = weights.clone();
+        this.totalLengths = new long[weights.length];
+    }
+
+    /**
+     * Adds a document, or replaces it.
+     * @param id the id of the document.
+     * @param fields the text of each field, in the order of the weights; a field may be null.
+     */
+    void put(long id, String... fields) {
+        int[] lengths = new int[weights.length];
+        Map<String, int[]> frequencies = new LinkedHashMap<>();
+        for (int field = 0; field < weights.length; field++) {
+            List<String> terms = TextAnalyzer.tokenize(field < fields.length ? fields[field] : null);
+            lengths[field] = terms.size();
+            for (String term : terms) {
+                frequencies.computeIfAbsent(term, t -> new int[weights.length])[field]++;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+            documents.put(id, new Document(lengths, frequencies.keySet()));
+            for (int field = 0; field < weights.length; field++) {
+                totalLengths[field] += lengths[field];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document, does nothing if it is not indexed.
+     * @param id the id of the document.
+     */
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, int[]> documentFrequencies = postings.get(term);
+            documentFrequencies.remove(id);
+            if (documentFrequencies.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        for (int field = 0; field < weights.length; field++) {
+            totalLengths[field] -= document.lengths()[field];
+        }
+    }
+
+    /**
+     * Returns the number of indexed documents.
+     * @return the number of documents.
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the documents matching a query.
+     * @param query the query.
+     * @param offset the number of best documents to skip.
+     * @param limit the maximum number of documents to return.
+     * @return the matching documents.
+     */
+    Hits search(String query, long offset, int limit) {
+        List<String> queryTerms = TextAnalyzer.tokenize(query).stream().distinct().toList();
+        if (queryTerms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            scores = score(queryTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = ranked.stream().skip(offset).limit(limit).map(Map.Entry::getKey).toList();
+        return new Hits(ids, ranked.size());
+    }
+
+    private Map<Long, Double> score(List<String> queryTerms) {
+        double[] averageLengths = new double[weights.length];
+        for (int field = 0; field < weights.length; field++) {
+            averageLengths[field] = documents.isEmpty() ? 0 : (double) totalLengths[field] / documents.size();
+        }
+        Map<Long, Double> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Double> termScores = new HashMap<>();
+            expand(queryTerm).forEach((term, boost) -> {
+                Map<Long, int[]> documentFrequencies = postings.get(term);
+                double idf = Math.log(1 + (documents.size() - documentFrequencies.size() + 0.5) / (documentFrequencies.size() + 0.5));
+                documentFrequencies.forEach((id, frequency) -> {
+                    double score = boost * idf * saturate(frequency, documents.get(id).lengths(), averageLengths);
+                    termScores.merge(id, score, Math::max);
+                });
+            });
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the weighted and length normalized frequency of a term in a document, saturated by {@link #K1}.
+     */
+    private double saturate(int[] frequency, int[] lengths, double[] averageLengths) {
+        double weighted = 0;
+        for (int field = 0; field < weights.length; field++) {
+            if (frequency[field] > 0) {
+                weighted += (weights[field] * frequency[field]) / (1 - B + (B * lengths[field]) / averageLengths[field]);
+            }
+        }
+        return (weighted * (K1 + 1)) / (weighted + K1);
+    }
+
+    /**
+     * Returns the indexed terms matching a query term, with the boost of the match.
+     */
+    private Map<String, Double> expand(String queryTerm) {
+        Map<String, Double> terms = new HashMap<>();
+        if (postings.containsKey(queryTerm)) {
+            terms.put(queryTerm, 1.0);
+        }
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            for (String term : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                if (terms.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                terms.put(term, PREFIX_BOOST);
+            }
+        }
+        int maxEdits = queryTerm.length() >= TWO_TYPOS_LENGTH ? 2 : queryTerm.length() >= ONE_TYPO_LENGTH ? 1 : 0;
+        if (maxEdits > 0) {
+            // typos on the first character are rare, so only the terms sharing it are compared
+            String first = queryTerm.substring(0, 1);
+            for (String term : postings.subMap(first, true, first + Character.MAX_VALUE, false).keySet()) {
+                if (terms.size() >= 2 * MAX_EXPANSIONS) {
+                    break;
+                }
+                if (!terms.containsKey(term)) {
+                    int distance = TextAnalyzer.distance(queryTerm, term, maxEdits);
+                    if (distance <= maxEdits) {
+                        terms.put(term, distance == 1 ? ONE_TYPO_BOOST : TWO_TYPOS_BOOST);
+                    }
+                }
+            }
+        }
+        return terms;
+    }
+}
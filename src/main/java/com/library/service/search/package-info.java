@@ -0,0 +1,4 @@
+/**
+ * In-memory full-text search.
+ */
+package com.library.service.search;
@@ -0,0 +1,27 @@
+package com.library.web.codec;
+
+import com.library.repository.Fieldset;
+
+/**
+ * The sparse fieldset of the entities of a response: the JSON of an entity of the given type only holds the fields of the
+ * fieldset, while the entities it embeds, of other types, are written whole.
+ * <p>
+ * It is recorded in the attributes of the request under {@link #ATTRIBUTE}, handed to the encoder as a hint under the same
+ * name, and read by {@link SparseFieldsetModule} from the attributes of the Jackson writer under this class.
+ *
+ * @param type the type of the entities of the response.
+ * @param fieldset the fields to write.
+ */
+public record SparseFieldset(Class<?> type, Fieldset fieldset) {
+    public static final String ATTRIBUTE = SparseFieldset.class.getName();
+
+    /**
+     * Whether a property of a bean is written.
+     * @param bean the bean.
+     * @param property the name of the property.
+     * @return false if the bean is of the type of the entities and the property not part of the fieldset.
+     */
+    public boolean writes(Object bean, String property) {
+        return bean.getClass() != type || fieldset.includes(property);
+    }
+}
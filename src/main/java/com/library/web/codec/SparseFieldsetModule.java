@@ -0,0 +1,60 @@
+package com.library.web.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Jackson module writing the entities of the given types according to the {@link SparseFieldset} of the writer, if any.
+ * <p>
+ * The properties of these types are written through a {@link BeanPropertyWriter} which skips the properties left out of
+ * the fieldset, so the serializers are still built once per type and a write without sparse fieldset is unchanged.
+ */
+public class SparseFieldsetModule extends SimpleModule {
+
+    public SparseFieldsetModule(Class<?>... types) {
+        super("SparseFieldsetModule");
+        Set<Class<?>> projectedTypes = Set.of(types);
+        setSerializerModifier(
+            new BeanSerializerModifier() {
+                @Override
+                public List<BeanPropertyWriter> changeProperties(
+                    SerializationConfig config,
+                    BeanDescription beanDesc,
+                    List<BeanPropertyWriter> beanProperties
+                ) {
+                    if (!projectedTypes.contains(beanDesc.getBeanClass())) {
+                        return beanProperties;
+                    }
+                    List<BeanPropertyWriter> properties = new ArrayList<>(beanProperties.size());
+                    for (BeanPropertyWriter property : beanProperties) {
+                        properties.add(new SparseFieldsetPropertyWriter(property));
+                    }
+                    return properties;
+                }
+            }
+        );
+    }
+
+    private static final class SparseFieldsetPropertyWriter extends BeanPropertyWriter {
+
+        SparseFieldsetPropertyWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            if (prov.getAttribute(SparseFieldset.class) instanceof SparseFieldset fieldset && !fieldset.writes(bean, getName())) {
+                return;
+            }
+            super.serializeAsField(bean, gen, prov);
+        }
+    }
+}
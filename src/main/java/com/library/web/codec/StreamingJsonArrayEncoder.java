@@ -0,0 +1,193 @@
+package com.library.web.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+/**
+ * {@link Jackson2JsonEncoder} writing a {@link Flux} to a JSON array incrementally, e.g. the body of a list endpoint returning
+ * {@code ResponseEntity<Flux<T>>} as {@code application/json}.
+ * <p>
+ * Each element is serialized as it arrives, straight into a buffer of the response allocated from the server's pooled
+ * {@link DataBufferFactory}, and the buffer is handed to the server once it holds at least {@code flushThreshold} bytes.
+ * The memory a response holds is then one buffer and the element being written, whatever the length of the array, and
+ * small elements are sent a few kilobytes at a time rather than one write each, as the default encoder does.
+ * <p>
+ * Single values and the streaming media types, such as {@code application/x-ndjson}, are encoded as by the default encoder.
+ * <p>
+ * Whatever the shape of the body, the {@link SparseFieldset} recorded on the request, if any, is handed to the Jackson writer
+ * as an attribute, for {@link SparseFieldsetModule}.
+ */
+public class StreamingJsonArrayEncoder extends Jackson2JsonEncoder {
+
+    private final int flushThreshold;
+
+    /**
+     * @param objectMapper the mapper, as for the default encoder.
+     * @param flushThreshold the number of bytes gathered before they are handed to the server, see
+     * {@code application.streaming.flush-threshold}.
+     */
+    public StreamingJsonArrayEncoder(ObjectMapper objectMapper, int flushThreshold) {
+        super(objectMapper);
+        this.flushThreshold = flushThreshold;
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(
+        Publisher<?> inputStream,
+        DataBufferFactory bufferFactory,
+        ResolvableType elementType,
+        @Nullable MimeType mimeType,
+        @Nullable Map<String, Object> hints
+    ) {
+        if (inputStream instanceof Mono || getStreamingMediaTypeSeparator(mimeType) != null) {
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+        ObjectMapper mapper = selectObjectMapper(elementType, mimeType);
+        if (mapper == null) {
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+        ObjectWriter writer = createWriter(mapper, elementType, mimeType, hints);
+        return Flux.using(
+            () -> new JsonArrayWriter(writer, mimeType, bufferFactory),
+            arrayWriter -> Flux.from(inputStream).<DataBuffer>handle(arrayWriter::write).concatWith(Mono.fromCallable(arrayWriter::end)),
+            JsonArrayWriter::release
+        ).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    @Override
+    public Map<String, Object> getEncodeHints(
+        ResolvableType actualType,
+        ResolvableType elementType,
+        @Nullable MediaType mediaType,
+        ServerHttpRequest request,
+        ServerHttpResponse response
+    ) {
+        Map<String, Object> hints = super.getEncodeHints(actualType, elementType, mediaType, request, response);
+        Object sparseFieldset = request.getAttributes().get(SparseFieldset.ATTRIBUTE);
+        if (sparseFieldset == null) {
+            return hints;
+        }
+        Map<String, Object> withFieldset = new HashMap<>(hints);
+        withFieldset.put(SparseFieldset.ATTRIBUTE, sparseFieldset);
+        return withFieldset;
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(
+        ObjectWriter writer,
+        @Nullable MimeType mimeType,
+        ResolvableType elementType,
+        @Nullable Map<String, Object> hints
+    ) {
+        ObjectWriter customized = super.customizeWriter(writer, mimeType, elementType, hints);
+        Object sparseFieldset = hints != null ? hints.get(SparseFieldset.ATTRIBUTE) : null;
+        return sparseFieldset != null ? customized.withAttribute(SparseFieldset.class, sparseFieldset) : customized;
+    }
+
+    private ObjectWriter createWriter(
+        ObjectMapper mapper,
+        ResolvableType elementType,
+        @Nullable MimeType mimeType,
+        @Nullable Map<String, Object> hints
+    ) {
+        Class<?> jsonView = hints != null ? (Class<?>) hints.get(JSON_VIEW_HINT) : null;
+        ObjectWriter writer = jsonView != null ? mapper.writerWithView(jsonView) : mapper.writer();
+        JavaType javaType = getJavaType(elementType.getType(), null);
+        if (javaType.isContainerType()) {
+            writer = writer.forType(javaType);
+        }
+        return customizeWriter(writer, mimeType, elementType, hints);
+    }
+
+    /**
+     * Writes the array of one response, as the output stream of its generator: the bytes go to the current buffer, which is
+     * allocated on the first write and taken away once full.
+     */
+    private final class JsonArrayWriter extends OutputStream {
+
+        private final DataBufferFactory bufferFactory;
+
+        private final JsonGenerator generator;
+
+        private final SequenceWriter sequenceWriter;
+
+        private DataBuffer buffer;
+
+        JsonArrayWriter(ObjectWriter writer, @Nullable MimeType mimeType, DataBufferFactory bufferFactory) throws IOException {
+            this.bufferFactory = bufferFactory;
+            this.generator = writer.createGenerator(this, getJsonEncoding(mimeType));
+            this.sequenceWriter = writer.writeValuesAsArray(generator);
+        }
+
+        void write(Object value, SynchronousSink<DataBuffer> sink) {
+            try {
+                sequenceWriter.write(value);
+                generator.flush();
+            } catch (IOException e) {
+                sink.error(new EncodingException("JSON encoding error: " + e.getMessage(), e));
+                return;
+            }
+            if (buffer != null && buffer.readableByteCount() >= flushThreshold) {
+                sink.next(take());
+            }
+        }
+
+        DataBuffer end() throws IOException {
+            sequenceWriter.close();
+            generator.flush();
+            return take();
+        }
+
+        void release() {
+            if (buffer != null) {
+                DataBufferUtils.release(buffer);
+                buffer = null;
+            }
+        }
+
+        private DataBuffer take() {
+            DataBuffer full = buffer;
+            buffer = null;
+            return full;
+        }
+
+        private DataBuffer buffer() {
+            if (buffer == null) {
+                buffer = bufferFactory.allocateBuffer(flushThreshold);
+            }
+            return buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer().write((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer().write(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Encoders of the HTTP bodies.
+ */
+package com.library.web.codec;
@@ -0,0 +1,158 @@
+package com.library.web.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.library.management.SecurityMetersService;
+import com.library.security.LoginRateLimitedException;
+import com.library.security.LoginRateLimiter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.PayloadTooLargeException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Limits the login attempts, on {@code POST /api/authenticate} and {@code POST /api/account/reset-password/init}, of each
+ * client address and of each username, see {@link LoginRateLimiter}.
+ * <p>
+ * The address is checked first, before the body is read, so that a client out of attempts costs as little as possible. Then the
+ * username, or the email of a password reset, is read from the body, which is handed on to the controller. An attempt over
+ * either limit is answered with a 429 and a {@code Retry-After} header. The body is read up to {@value #MAX_BODY_SIZE} bytes,
+ * which is plenty for a login or an email, since it is read before any limit on the username: a larger body is answered with
+ * a 413.
+ * <p>
+ * Behind a proxy, {@code server.forward-headers-strategy} must be set for the address to be the client's.
+ */
+public class LoginRateLimitWebFilter implements WebFilter {
+
+    static final String AUTHENTICATE_PATH = "/api/authenticate";
+    static final String RESET_PASSWORD_INIT_PATH = "/api/account/reset-password/init";
+
+    static final int MAX_BODY_SIZE = 4 * 1024;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final LoginRateLimiter addressLimiter;
+    private final LoginRateLimiter usernameLimiter;
+    private final SecurityMetersService securityMetersService;
+
+    /**
+     * @param addressLimiter the limiter by client address, or {@code null} not to limit by address.
+     * @param usernameLimiter the limiter by username, or {@code null} not to limit by username.
+     * @param securityMetersService the service counting the rejected attempts.
+     */
+    public LoginRateLimitWebFilter(
+        LoginRateLimiter addressLimiter,
+        LoginRateLimiter usernameLimiter,
+        SecurityMetersService securityMetersService
+    ) {
+        this.addressLimiter = addressLimiter;
+        this.usernameLimiter = usernameLimiter;
+        this.securityMetersService = securityMetersService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!HttpMethod.POST.equals(request.getMethod())) {
+            return chain.filter(exchange);
+        }
+        String path = request.getPath().pathWithinApplication().value();
+        boolean authenticate = AUTHENTICATE_PATH.equals(path);
+        if (!authenticate && !RESET_PASSWORD_INIT_PATH.equals(path)) {
+            return chain.filter(exchange);
+        }
+
+        if (addressLimiter != null) {
+            long wait = addressLimiter.tryAcquire(address(request));
+            if (wait > 0) {
+                securityMetersService.trackLoginRateLimitedByAddress();
+                return rejected(exchange, wait);
+            }
+        }
+        if (usernameLimiter == null) {
+            return chain.filter(exchange);
+        }
+        // the buffers read are released when the body is over the limit
+        return DataBufferUtils.join(request.getBody(), MAX_BODY_SIZE)
+            .onErrorMap(DataBufferLimitException.class, PayloadTooLargeException::new)
+            .switchIfEmpty(Mono.fromSupplier(() -> exchange.getResponse().bufferFactory().allocateBuffer(0)))
+            .flatMap(body -> {
+                String username = authenticate ? jsonUsername(body) : textUsername(body);
+                long wait = username != null ? usernameLimiter.tryAcquire(username) : 0;
+                if (wait > 0) {
+                    DataBufferUtils.release(body);
+                    securityMetersService.trackLoginRateLimitedByUsername();
+                    return rejected(exchange, wait);
+                }
+                return chain.filter(exchange.mutate().request(withBody(request, body)).build());
+            });
+    }
+
+    private static String address(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getHostString() : "";
+    }
+
+    private static String jsonUsername(DataBuffer body) {
+        int position = body.readPosition();
+        try (InputStream input = body.asInputStream(); JsonParser parser = JSON_FACTORY.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if ("username".equals(parser.currentName())) {
+                    return parser.nextToken() == JsonToken.VALUE_STRING ? normalize(parser.getText()) : null;
+                }
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            // Not a login, which the controller rejects
+            return null;
+        } finally {
+            body.readPosition(position);
+        }
+    }
+
+    private static String textUsername(DataBuffer body) {
+        return normalize(body.toString(body.readPosition(), body.readableByteCount(), StandardCharsets.UTF_8));
+    }
+
+    private static String normalize(String username) {
+        String trimmed = username.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static ServerHttpRequest withBody(ServerHttpRequest request, DataBuffer body) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.just(body);
+            }
+        };
+    }
+
+    private static Mono<Void> rejected(ServerWebExchange exchange, long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        return Mono.error(new LoginRateLimitedException(Duration.ofSeconds(seconds)));
+    }
+}
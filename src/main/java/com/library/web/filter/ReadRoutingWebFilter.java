@@ -0,0 +1,145 @@
+package com.library.web.filter;
+
+import com.library.config.ApplicationProperties;
+import com.library.repository.routing.ReplicaRoutingConnectionFactory;
+import com.library.repository.routing.ReplicaRoutingConnectionFactory.Route;
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes the database connections of a request, see {@link ReplicaRoutingConnectionFactory}.
+ * <p>
+ * The reading requests ({@code GET}, {@code HEAD} and {@code OPTIONS}) use the replicas, except for the configured primary
+ * paths, which write anyway. The other requests use the primary, and make the following requests of the same client, known by
+ * its principal or else its address, use the primary too during the sticky window, so that it reads its own writes while the
+ * replicas catch up.
+ * <p>
+ * The last writes are kept in a map of about {@code MAX_CLIENTS} clients. The writes older than the sticky window are dropped
+ * at most once per window, when a new client writes; when the map is full all the same, a quarter of it is dropped, the
+ * oldest writes judged from a sample, so that the clients which wrote last keep reading their writes.
+ */
+public class ReadRoutingWebFilter implements WebFilter {
+
+    private static final Set<HttpMethod> READING_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private static final int MAX_CLIENTS = 10_000;
+
+    private static final int EVICTION_SAMPLE_SIZE = 1024;
+
+    private final long stickyNanos;
+    private final List<String> primaryPaths;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long nextSweepAt;
+
+    public ReadRoutingWebFilter(ApplicationProperties.Replicas properties) {
+        this(properties.getStickyWindow(), properties.getPrimaryPaths());
+    }
+
+    public ReadRoutingWebFilter(Duration stickyWindow, List<String> primaryPaths) {
+        this(stickyWindow, primaryPaths, MAX_CLIENTS, System::nanoTime);
+    }
+
+    ReadRoutingWebFilter(Duration stickyWindow, List<String> primaryPaths, int maxClients, LongSupplier nanoClock) {
+        this.stickyNanos = stickyWindow.toNanos();
+        this.primaryPaths = List.copyOf(primaryPaths);
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+        this.nextSweepAt = nanoClock.getAsLong() + stickyNanos;
+    }
+
+    /**
+     * Returns the number of clients whose last write is kept.
+     * @return the number of clients.
+     */
+    int size() {
+        return lastWrites.size();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (primaryPaths.stream().anyMatch(path::startsWith)) {
+            return route(chain.filter(exchange), Route.PRIMARY);
+        }
+        return clientKey(exchange).flatMap(client -> {
+            if (!READING_METHODS.contains(exchange.getRequest().getMethod())) {
+                recordWrite(client);
+                return route(chain.filter(exchange).doFinally(signal -> recordWrite(client)), Route.PRIMARY);
+            }
+            return route(chain.filter(exchange), wroteRecently(client) ? Route.PRIMARY : Route.REPLICA);
+        });
+    }
+
+    private static Mono<Void> route(Mono<Void> chain, Route route) {
+        return chain.contextWrite(context -> ReplicaRoutingConnectionFactory.withRoute(context, route));
+    }
+
+    private static Mono<String> clientKey(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        String address = remoteAddress != null ? remoteAddress.getHostString() : "";
+        return exchange.getPrincipal().map(Principal::getName).defaultIfEmpty(address);
+    }
+
+    private boolean wroteRecently(String client) {
+        Long lastWrite = lastWrites.get(client);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (nanoClock.getAsLong() - lastWrite < stickyNanos) {
+            return true;
+        }
+        lastWrites.remove(client, lastWrite);
+        return false;
+    }
+
+    private void recordWrite(String client) {
+        long now = nanoClock.getAsLong();
+        if (lastWrites.put(client, now) == null && (now - nextSweepAt >= 0 || lastWrites.size() > maxClients)) {
+            sweep(now);
+        }
+    }
+
+    /**
+     * Drops the writes older than the sticky window, if they were not dropped for a window, then makes room if the map is
+     * still full. The clients writing during a sweep do not wait for it.
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (now - nextSweepAt >= 0) {
+                lastWrites.values().removeIf(lastWrite -> now - lastWrite >= stickyNanos);
+                nextSweepAt = now + stickyNanos;
+            }
+            if (lastWrites.size() > maxClients) {
+                evictOldest();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private void evictOldest() {
+        long[] sample = lastWrites.values().stream().limit(EVICTION_SAMPLE_SIZE).mapToLong(Long::longValue).sorted().toArray();
+        if (sample.length > 0) {
+            long threshold = sample[sample.length / 4];
+            lastWrites.values().removeIf(lastWrite -> lastWrite - threshold <= 0);
+        }
+    }
+}
@@ -60,7 +60,7 @@ public class AccountResource {
         if (isPasswordLengthInvalid(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
-        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).doOnSuccess(mailService::sendActivationEmail).then();
+        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).flatMap(mailService::sendActivationEmail);
     }
 
     /**
@@ -150,15 +150,13 @@ public class AccountResource {
         return userService
             .requestPasswordReset(mail)
             .doOnSuccess(user -> {
-                if (Objects.nonNull(user)) {
-                    mailService.sendPasswordResetMail(user);
-                } else {
+                if (Objects.isNull(user)) {
                     // Pretend the request has been successful to prevent checking which emails really exist
                     // but log that an invalid attempt has been made
                     LOG.warn("Password reset requested for non existing mail");
                 }
             })
-            .then();
+            .flatMap(mailService::sendPasswordResetMail);
     }
 
     /**
@@ -1,27 +1,40 @@
 package com.library.web.rest;
 
 import com.library.domain.Author;
+import com.library.domain.criteria.AuthorCriteria;
 import com.library.repository.AuthorRepository;
+import com.library.repository.EntityChangeRepository;
+import com.library.repository.Fieldset;
+import com.library.repository.Keyset;
 import com.library.web.rest.errors.BadRequestAlertException;
+import com.library.web.util.EntityTagUtil;
+import com.library.web.util.FieldsetUtil;
+import com.library.web.util.KeysetPaginationUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.library.domain.Author}.
@@ -35,13 +48,29 @@ public class AuthorResource {
 
     private static final String ENTITY_NAME = "author";
 
+    private static final Set<String> FIELDS = Set.of("id", "firstName", "lastName", "version");
+
+    private static final Map<String, Function<Author, Object>> KEYSET_PROPERTIES = Map.of(
+        "id",
+        Author::getId,
+        "firstName",
+        Author::getFirstName,
+        "lastName",
+        Author::getLastName
+    );
+
+    private static final List<String> CHANGE_TABLES = List.of("author");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final AuthorRepository authorRepository;
 
-    public AuthorResource(AuthorRepository authorRepository) {
+    private final EntityChangeRepository entityChangeRepository;
+
+    public AuthorResource(AuthorRepository authorRepository, EntityChangeRepository entityChangeRepository) {
         this.authorRepository = authorRepository;
+        this.entityChangeRepository = entityChangeRepository;
     }
 
     /**
@@ -63,6 +92,7 @@ public class AuthorResource {
                 try {
                     return ResponseEntity.created(new URI("/api/authors/" + result.getId()))
                         .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .eTag(EntityTagUtil.entityTag(result.getVersion()))
                         .body(result);
                 } catch (URISyntaxException e) {
                     throw new RuntimeException(e);
@@ -74,15 +104,18 @@ public class AuthorResource {
      * {@code PUT  /authors/:id} : Updates an existing author.
      *
      * @param id the id of the author to save.
+     * @param ifMatch the {@code If-Match} header, the entity tag of the author as it was read, if any.
      * @param author the author to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated author,
      * or with status {@code 400 (Bad Request)} if the author is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the author was changed since it was read,
      * or with status {@code 500 (Internal Server Error)} if the author couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<Author>> updateAuthor(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Author author
     ) throws URISyntaxException {
         LOG.debug("REST request to update Author : {}, {}", id, author);
@@ -92,6 +125,10 @@ public class AuthorResource {
         if (!Objects.equals(id, author.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        Long expectedVersion = EntityTagUtil.expectedVersion(ifMatch);
+        if (expectedVersion != null) {
+            author.setVersion(expectedVersion);
+        }
 
         return authorRepository
             .existsById(id)
@@ -102,10 +139,12 @@ public class AuthorResource {
 
                 return authorRepository
                     .save(author)
+                    .onErrorMap(OptimisticLockingFailureException.class, e -> ifMatch != null ? EntityTagUtil.preconditionFailed() : e)
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity.ok()
                             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                            .eTag(EntityTagUtil.entityTag(result.getVersion()))
                             .body(result)
                     );
             });
@@ -115,16 +154,19 @@ public class AuthorResource {
      * {@code PATCH  /authors/:id} : Partial updates given fields of an existing author, field will ignore if it is null
      *
      * @param id the id of the author to save.
+     * @param ifMatch the {@code If-Match} header, the entity tag of the author as it was read, if any.
      * @param author the author to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated author,
      * or with status {@code 400 (Bad Request)} if the author is not valid,
      * or with status {@code 404 (Not Found)} if the author is not found,
+     * or with status {@code 412 (Precondition Failed)} if the author was changed since it was read,
      * or with status {@code 500 (Internal Server Error)} if the author couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public Mono<ResponseEntity<Author>> partialUpdateAuthor(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Author author
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Author partially : {}, {}", id, author);
@@ -134,6 +176,7 @@ public class AuthorResource {
         if (!Objects.equals(id, author.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        Long expectedVersion = EntityTagUtil.expectedVersion(ifMatch);
 
         return authorRepository
             .existsById(id)
@@ -145,6 +188,11 @@ public class AuthorResource {
                 Mono<Author> result = authorRepository
                     .findById(author.getId())
                     .map(existingAuthor -> {
+                        if (expectedVersion != null) {
+                            existingAuthor.setVersion(expectedVersion);
+                        } else if (author.getVersion() != null) {
+                            existingAuthor.setVersion(author.getVersion());
+                        }
                         if (author.getFirstName() != null) {
                             existingAuthor.setFirstName(author.getFirstName());
                         }
@@ -154,50 +202,147 @@ public class AuthorResource {
 
                         return existingAuthor;
                     })
-                    .flatMap(authorRepository::save);
+                    .flatMap(authorRepository::save)
+                    .onErrorMap(OptimisticLockingFailureException.class, e -> ifMatch != null ? EntityTagUtil.preconditionFailed() : e);
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(res ->
                         ResponseEntity.ok()
                             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                            .eTag(EntityTagUtil.entityTag(res.getVersion()))
                             .body(res)
                     );
             });
     }
 
     /**
-     * {@code GET  /authors} : get all the authors.
+     * {@code GET  /authors} : get all the authors matching the criteria.
+     * <p>
+     * When a {@code cursor} or a {@code size} is given, a single keyset page is returned instead, and the link to the next
+     * page is provided in the {@code Link} header, and the number of matching authors in the {@code X-Total-Count} header.
+     * <p>
+     * When {@code fields} is given, only these fields of the authors are read and returned, see {@link FieldsetUtil}.
+     * <p>
+     * The {@code ETag} header holds the number of changes of the authors, so that a request whose {@code If-None-Match} holds
+     * it is answered with a {@code 304 (Not Modified)} without querying the authors.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of authors in body.
+     * @param criteria the criteria which the requested authors should match.
+     * @param request a {@link ServerHttpRequest} request.
+     * @param cursor the continuation token of the previous page.
+     * @param size the size of the page.
+     * @param sort the sort property and direction of the first page, e.g. {@code id,desc}.
+     * @param fields the fields of the authors to return, e.g. {@code lastName}, or all the fields if null.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of authors in body,
+     * or with status {@code 304 (Not Modified)} if the authors did not change.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Author>> getAllAuthors() {
-        LOG.debug("REST request to get all Authors");
-        return authorRepository.findAll().collectList();
+    public Mono<ResponseEntity<List<Author>>> getAllAuthors(
+        AuthorCriteria criteria,
+        ServerHttpRequest request,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "sort", required = false) String sort,
+        @RequestParam(name = "fields", required = false) String fields
+    ) {
+        LOG.debug("REST request to get Authors by criteria: {}", criteria);
+        Fieldset fieldset = FieldsetUtil.resolveFieldset(request, fields, Author.class, FIELDS, ENTITY_NAME);
+        // Counted before the query, so that a change committed meanwhile makes the tag stale rather than the list
+        return entityChangeRepository
+            .findChangeCounts(CHANGE_TABLES)
+            .flatMap(changeCounts -> {
+                String entityTag = EntityTagUtil.entityTag(changeCounts);
+                if (EntityTagUtil.isNotModified(request, entityTag)) {
+                    return Mono.just(EntityTagUtil.<List<Author>>notModified(entityTag));
+                }
+                return findAllAuthors(criteria, request, cursor, size, sort, fieldset).map(response ->
+                    EntityTagUtil.withEntityTag(response, entityTag)
+                );
+            });
+    }
+
+    private Mono<ResponseEntity<List<Author>>> findAllAuthors(
+        AuthorCriteria criteria,
+        ServerHttpRequest request,
+        String cursor,
+        Integer size,
+        String sort,
+        Fieldset fieldset
+    ) {
+        if (cursor != null || size != null) {
+            Keyset keyset = KeysetPaginationUtil.resolveKeyset(cursor, size, sort, Author.class, KEYSET_PROPERTIES.keySet(), ENTITY_NAME);
+            return authorRepository.findByCriteria(criteria, keyset, fieldset)
+                .collectList()
+                .zipWith(authorRepository.countByCriteria(criteria))
+                .map(authorsWithCount ->
+                    KeysetPaginationUtil.createKeysetResponse(
+                        ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                        keyset,
+                        authorsWithCount.getT1(),
+                        authorsWithCount.getT2(),
+                        Author::getId,
+                        KEYSET_PROPERTIES
+                    )
+                );
+        }
+        return authorRepository.findByCriteria(criteria, fieldset).collectList().map(ResponseEntity::ok);
     }
 
     /**
-     * {@code GET  /authors} : get all the authors as a stream.
+     * {@code GET  /authors} : get all the authors matching the criteria as a stream.
+     * @param criteria the criteria which the requested authors should match.
      * @return the {@link Flux} of authors.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Author> getAllAuthorsAsStream() {
-        LOG.debug("REST request to get all Authors as a stream");
-        return authorRepository.findAll();
+    public Flux<Author> getAllAuthorsAsStream(AuthorCriteria criteria) {
+        LOG.debug("REST request to get Authors by criteria as a stream: {}", criteria);
+        return authorRepository.streamByCriteria(criteria);
+    }
+
+    /**
+     * {@code GET  /authors/count} : count all the authors.
+     *
+     * @param criteria the criteria which the requested authors should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> countAuthors(AuthorCriteria criteria) {
+        LOG.debug("REST request to count Authors by criteria: {}", criteria);
+        return authorRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
     }
 
     /**
      * {@code GET  /authors/:id} : get the "id" author.
      *
+     * <p>
+     * The {@code ETag} header holds the version of the author, so that a request whose {@code If-None-Match} holds it is
+     * answered with a {@code 304 (Not Modified)} after looking the version up only.
+     *
      * @param id the id of the author to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the author, or with status {@code 404 (Not Found)}.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the author,
+     * or with status {@code 304 (Not Modified)} if the author did not change, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<Author>> getAuthor(@PathVariable("id") Long id) {
+    public Mono<ResponseEntity<Author>> getAuthor(@PathVariable("id") Long id, ServerHttpRequest request) {
         LOG.debug("REST request to get Author : {}", id);
-        Mono<Author> author = authorRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(author);
+        Mono<ResponseEntity<Author>> response = EntityTagUtil.hasIfNoneMatch(request)
+            ? authorRepository
+                .findVersionById(id)
+                .flatMap(version -> {
+                    String entityTag = EntityTagUtil.entityTag(version);
+                    return EntityTagUtil.isNotModified(request, entityTag)
+                        ? Mono.just(EntityTagUtil.notModified(entityTag))
+                        : findAuthor(id);
+                })
+            : findAuthor(id);
+        return response.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    private Mono<ResponseEntity<Author>> findAuthor(Long id) {
+        return authorRepository
+            .findById(id)
+            .map(author -> ResponseEntity.ok().eTag(EntityTagUtil.entityTag(author.getVersion())).body(author));
     }
 
     /**
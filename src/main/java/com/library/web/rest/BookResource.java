@@ -1,27 +1,50 @@
 package com.library.web.rest;
 
+import com.library.config.ApplicationProperties;
 import com.library.domain.Book;
+import com.library.domain.BookAvailability;
+import com.library.domain.criteria.BookCriteria;
 import com.library.repository.BookRepository;
+import com.library.repository.EntityChangeRepository;
+import com.library.repository.Fieldset;
+import com.library.repository.Keyset;
+import com.library.service.BookAvailabilityService;
+import com.library.service.BookImportService;
+import com.library.service.dto.BookImportEvent;
 import com.library.web.rest.errors.BadRequestAlertException;
+import com.library.web.util.EntityTagUtil;
+import com.library.web.util.FieldsetUtil;
+import com.library.web.util.KeysetPaginationUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.library.domain.Book}.
@@ -35,13 +58,68 @@ public class BookResource {
 
     private static final String ENTITY_NAME = "book";
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes();
+
+    private static final Map<String, Function<Book, Object>> KEYSET_PROPERTIES = Map.of(
+        "id",
+        Book::getId,
+        "title",
+        Book::getTitle,
+        "copiesOwned",
+        Book::getCopiesOwned,
+        "status",
+        Book::getStatus
+    );
+
+    /**
+     * The fields a sparse fieldset may hold; the authors are only read when they are eager loaded.
+     */
+    private static final Set<String> FIELDS = Set.of(
+        "id",
+        "title",
+        "publicationDate",
+        "copiesOwned",
+        "status",
+        "category",
+        "categoryId",
+        "authors",
+        "version"
+    );
+
+    private static final List<String> CHANGE_TABLES = List.of("book", "author", "category");
+
+    /**
+     * The tables of the entities embedded in a book, whose changes make part of its entity tag.
+     */
+    private static final List<String> EMBEDDED_CHANGE_TABLES = List.of("author", "category");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final BookRepository bookRepository;
 
-    public BookResource(BookRepository bookRepository) {
+    private final BookImportService bookImportService;
+
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final EntityChangeRepository entityChangeRepository;
+
+    private final int maxAvailabilityIds;
+
+    public BookResource(
+        BookRepository bookRepository,
+        BookImportService bookImportService,
+        BookAvailabilityService bookAvailabilityService,
+        EntityChangeRepository entityChangeRepository,
+        ApplicationProperties applicationProperties
+    ) {
         this.bookRepository = bookRepository;
+        this.bookImportService = bookImportService;
+        this.bookAvailabilityService = bookAvailabilityService;
+        this.entityChangeRepository = entityChangeRepository;
+        this.maxAvailabilityIds = applicationProperties.getAvailability().getMaxIds();
     }
 
     /**
@@ -57,32 +135,35 @@ public class BookResource {
         if (book.getId() != null) {
             throw new BadRequestAlertException("A new book cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        return bookRepository
-            .save(book)
-            .map(result -> {
-                try {
-                    return ResponseEntity.created(new URI("/api/books/" + result.getId()))
-                        .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
-                        .body(result);
-                } catch (URISyntaxException e) {
-                    throw new RuntimeException(e);
-                }
-            });
+        return withEntityTag(bookRepository.save(book)).map(resultWithEntityTag -> {
+            Book result = resultWithEntityTag.getT1();
+            try {
+                return ResponseEntity.created(new URI("/api/books/" + result.getId()))
+                    .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                    .eTag(resultWithEntityTag.getT2())
+                    .body(result);
+            } catch (URISyntaxException e) {
+                throw new RuntimeException(e);
+            }
+        });
     }
 
     /**
      * {@code PUT  /books/:id} : Updates an existing book.
      *
      * @param id the id of the book to save.
+     * @param ifMatch the {@code If-Match} header, the entity tag of the book as it was read, if any.
      * @param book the book to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated book,
      * or with status {@code 400 (Bad Request)} if the book is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the book was changed since it was read,
      * or with status {@code 500 (Internal Server Error)} if the book couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<Book>> updateBook(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Book book
     ) throws URISyntaxException {
         LOG.debug("REST request to update Book : {}, {}", id, book);
@@ -92,6 +173,10 @@ public class BookResource {
         if (!Objects.equals(id, book.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        Long expectedVersion = EntityTagUtil.expectedVersion(ifMatch);
+        if (expectedVersion != null) {
+            book.setVersion(expectedVersion);
+        }
 
         return bookRepository
             .existsById(id)
@@ -100,14 +185,24 @@ public class BookResource {
                     return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
                 }
 
-                return bookRepository
+                Mono<Book> result = bookRepository
                     .save(book)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity.ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
+                    .onErrorMap(OptimisticLockingFailureException.class, e -> ifMatch != null ? EntityTagUtil.preconditionFailed() : e)
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+
+                return withEntityTag(result).map(resultWithEntityTag ->
+                    ResponseEntity.ok()
+                        .headers(
+                            HeaderUtil.createEntityUpdateAlert(
+                                applicationName,
+                                false,
+                                ENTITY_NAME,
+                                resultWithEntityTag.getT1().getId().toString()
+                            )
+                        )
+                        .eTag(resultWithEntityTag.getT2())
+                        .body(resultWithEntityTag.getT1())
+                );
             });
     }
 
@@ -115,16 +210,19 @@ public class BookResource {
      * {@code PATCH  /books/:id} : Partial updates given fields of an existing book, field will ignore if it is null
      *
      * @param id the id of the book to save.
+     * @param ifMatch the {@code If-Match} header, the entity tag of the book as it was read, if any.
      * @param book the book to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated book,
      * or with status {@code 400 (Bad Request)} if the book is not valid,
      * or with status {@code 404 (Not Found)} if the book is not found,
+     * or with status {@code 412 (Precondition Failed)} if the book was changed since it was read,
      * or with status {@code 500 (Internal Server Error)} if the book couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public Mono<ResponseEntity<Book>> partialUpdateBook(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Book book
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Book partially : {}, {}", id, book);
@@ -134,6 +232,7 @@ public class BookResource {
         if (!Objects.equals(id, book.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        Long expectedVersion = EntityTagUtil.expectedVersion(ifMatch);
 
         return bookRepository
             .existsById(id)
@@ -145,6 +244,11 @@ public class BookResource {
                 Mono<Book> result = bookRepository
                     .findById(book.getId())
                     .map(existingBook -> {
+                        if (expectedVersion != null) {
+                            existingBook.setVersion(expectedVersion);
+                        } else if (book.getVersion() != null) {
+                            existingBook.setVersion(book.getVersion());
+                        }
                         if (book.getTitle() != null) {
                             existingBook.setTitle(book.getTitle());
                         }
@@ -160,55 +264,218 @@ public class BookResource {
 
                         return existingBook;
                     })
-                    .flatMap(bookRepository::save);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity.ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
+                    .flatMap(bookRepository::save)
+                    .onErrorMap(OptimisticLockingFailureException.class, e -> ifMatch != null ? EntityTagUtil.preconditionFailed() : e)
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+
+                return withEntityTag(result).map(resWithEntityTag ->
+                    ResponseEntity.ok()
+                        .headers(
+                            HeaderUtil.createEntityUpdateAlert(
+                                applicationName,
+                                false,
+                                ENTITY_NAME,
+                                resWithEntityTag.getT1().getId().toString()
+                            )
+                        )
+                        .eTag(resWithEntityTag.getT2())
+                        .body(resWithEntityTag.getT1())
+                );
             });
     }
 
     /**
-     * {@code GET  /books} : get all the books.
+     * {@code GET  /books} : get all the books matching the criteria.
+     * <p>
+     * When a {@code cursor} or a {@code size} is given, a single keyset page is returned instead, and the link to the next
+     * page is provided in the {@code Link} header, and the number of matching books in the {@code X-Total-Count} header.
+     * Otherwise the books are streamed from a cursor into the JSON array as they are read, rather than collected first.
+     * <p>
+     * When {@code fields} is given, only these fields of the books are read and returned, see {@link FieldsetUtil}.
+     * <p>
+     * The {@code ETag} header holds the numbers of changes of the books, authors and categories, which the books embed, so that
+     * a request whose {@code If-None-Match} holds it is answered with a {@code 304 (Not Modified)} without querying the books.
      *
+     * @param criteria the criteria which the requested books should match.
+     * @param request a {@link ServerHttpRequest} request.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     * @param cursor the continuation token of the previous page.
+     * @param size the size of the page.
+     * @param sort the sort property and direction of the first page, e.g. {@code id,desc}.
+     * @param fields the fields of the books to return, e.g. {@code title,status}, or all the fields if null.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body,
+     * or with status {@code 304 (Not Modified)} if the books did not change.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Book>> getAllBooks(@RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload) {
-        LOG.debug("REST request to get all Books");
-        if (eagerload) {
-            return bookRepository.findAllWithEagerRelationships().collectList();
+    public Mono<ResponseEntity<Flux<Book>>> getAllBooks(
+        BookCriteria criteria,
+        ServerHttpRequest request,
+        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "sort", required = false) String sort,
+        @RequestParam(name = "fields", required = false) String fields
+    ) {
+        LOG.debug("REST request to get Books by criteria: {}", criteria);
+        Fieldset fieldset = FieldsetUtil.resolveFieldset(request, fields, Book.class, FIELDS, ENTITY_NAME);
+        // Counted before the query, so that a change committed meanwhile makes the tag stale rather than the list
+        return entityChangeRepository
+            .findChangeCounts(CHANGE_TABLES)
+            .flatMap(changeCounts -> {
+                String entityTag = EntityTagUtil.entityTag(changeCounts);
+                if (EntityTagUtil.isNotModified(request, entityTag)) {
+                    return Mono.just(EntityTagUtil.<Flux<Book>>notModified(entityTag));
+                }
+                return findAllBooks(criteria, request, eagerload, cursor, size, sort, fieldset).map(response ->
+                    EntityTagUtil.withEntityTag(response, entityTag)
+                );
+            });
+    }
+
+    private Mono<ResponseEntity<Flux<Book>>> findAllBooks(
+        BookCriteria criteria,
+        ServerHttpRequest request,
+        boolean eagerload,
+        String cursor,
+        Integer size,
+        String sort,
+        Fieldset fieldset
+    ) {
+        boolean withAuthors = eagerload && fieldset.includes("authors");
+        if (cursor != null || size != null) {
+            Keyset keyset = KeysetPaginationUtil.resolveKeyset(cursor, size, sort, Book.class, KEYSET_PROPERTIES.keySet(), ENTITY_NAME);
+            Flux<Book> page = withAuthors
+                ? bookRepository.findByCriteriaWithEagerRelationships(criteria, keyset, fieldset)
+                : bookRepository.findByCriteria(criteria, keyset, fieldset);
+            return page
+                .collectList()
+                .zipWith(bookRepository.countByCriteria(criteria))
+                .map(booksWithCount ->
+                    KeysetPaginationUtil.createKeysetResponse(
+                        ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                        keyset,
+                        booksWithCount.getT1(),
+                        booksWithCount.getT2(),
+                        Book::getId,
+                        KEYSET_PROPERTIES
+                    )
+                )
+                .map(KeysetPaginationUtil::toFluxResponse);
+        }
+        if (withAuthors) {
+            return Mono.just(ResponseEntity.ok(bookRepository.streamByCriteriaWithEagerRelationships(criteria, fieldset)));
         } else {
-            return bookRepository.findAll().collectList();
+            return Mono.just(ResponseEntity.ok(bookRepository.streamByCriteria(criteria, fieldset)));
         }
     }
 
     /**
-     * {@code GET  /books} : get all the books as a stream.
+     * {@code GET  /books} : get all the books matching the criteria as a stream.
+     * @param criteria the criteria which the requested books should match.
      * @return the {@link Flux} of books.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Book> getAllBooksAsStream() {
-        LOG.debug("REST request to get all Books as a stream");
-        return bookRepository.findAll();
+    public Flux<Book> getAllBooksAsStream(BookCriteria criteria) {
+        LOG.debug("REST request to get Books by criteria as a stream: {}", criteria);
+        return bookRepository.streamByCriteria(criteria);
+    }
+
+    /**
+     * {@code POST  /books/import} : Import a catalog of books.
+     * <p>
+     * The body is either NDJSON, one book per line, or CSV with a header line, and is imported while it is received.
+     * Each batch of books is inserted in its own transaction, so the batches completed before an error stay imported.
+     *
+     * @param request the request, whose body holds the books to import.
+     * @return the {@link Flux} of events: an error for each rejected line, the progress after each batch, and the final counts.
+     */
+    @PostMapping(
+        value = "/import",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BookImportEvent> importBooks(ServerHttpRequest request) {
+        MediaType contentType = request.getHeaders().getContentType();
+        LOG.debug("REST request to import Books : {}", contentType);
+        BookImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+            ? BookImportService.Format.NDJSON
+            : BookImportService.Format.CSV;
+        Flux<String> lines = LINE_DECODER.decode(request.getBody(), ResolvableType.forClass(String.class), contentType, Map.of());
+        return bookImportService.importBooks(lines, format);
+    }
+
+    /**
+     * {@code GET  /books/count} : count all the books.
+     *
+     * @param criteria the criteria which the requested books should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> countBooks(BookCriteria criteria) {
+        LOG.debug("REST request to count Books by criteria: {}", criteria);
+        return bookRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
+    }
+
+    /**
+     * {@code GET  /books/availability?ids=:ids} : get the availability of books.
+     *
+     * @param ids the ids of the books, at most {@code application.availability.max-ids}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the availabilities of the existing books in body,
+     * in the order of the ids, or with status {@code 400 (Bad Request)} if too many ids are given.
+     */
+    @GetMapping("/availability")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<ResponseEntity<List<BookAvailability>>> getBooksAvailability(@RequestParam("ids") List<Long> ids) {
+        LOG.debug("REST request to get the availability of Books : {}", ids);
+        if (ids.size() > maxAvailabilityIds) {
+            throw new BadRequestAlertException("At most " + maxAvailabilityIds + " ids can be given", ENTITY_NAME, "toomanyids");
+        }
+        return bookAvailabilityService.getAvailability(ids).map(ResponseEntity::ok);
     }
 
     /**
      * {@code GET  /books/:id} : get the "id" book.
      *
+     * <p>
+     * The {@code ETag} header holds the version of the book and the numbers of changes of the authors and categories, which
+     * the book embeds, so that a request whose {@code If-None-Match} holds it is answered with a {@code 304 (Not Modified)}
+     * after looking these numbers up only.
+     *
      * @param id the id of the book to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book, or with status {@code 404 (Not Found)}.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book,
+     * or with status {@code 304 (Not Modified)} if the book did not change, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<Book>> getBook(@PathVariable("id") Long id) {
+    public Mono<ResponseEntity<Book>> getBook(@PathVariable("id") Long id, ServerHttpRequest request) {
         LOG.debug("REST request to get Book : {}", id);
-        Mono<Book> book = bookRepository.findOneWithEagerRelationships(id);
-        return ResponseUtil.wrapOrNotFound(book);
+        Mono<ResponseEntity<Book>> response = EntityTagUtil.hasIfNoneMatch(request)
+            ? bookRepository
+                .findVersionById(id)
+                .zipWith(entityChangeRepository.findChangeCounts(EMBEDDED_CHANGE_TABLES))
+                .flatMap(versionWithChangeCounts -> {
+                    String entityTag = EntityTagUtil.entityTag(versionWithChangeCounts.getT1(), versionWithChangeCounts.getT2());
+                    return EntityTagUtil.isNotModified(request, entityTag)
+                        ? Mono.just(EntityTagUtil.notModified(entityTag))
+                        : findBook(id);
+                })
+            : findBook(id);
+        return response.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    private Mono<ResponseEntity<Book>> findBook(Long id) {
+        return withEntityTag(bookRepository.findOneWithEagerRelationships(id)).map(bookWithEntityTag ->
+            ResponseEntity.ok().eTag(bookWithEntityTag.getT2()).body(bookWithEntityTag.getT1())
+        );
+    }
+
+    private Mono<Tuple2<Book, String>> withEntityTag(Mono<Book> book) {
+        // Counted before the book is read, so that a change of its authors or category committed meanwhile makes the tag stale
+        // rather than the book
+        return entityChangeRepository
+            .findChangeCounts(EMBEDDED_CHANGE_TABLES)
+            .flatMap(changeCounts -> book.map(result -> Tuples.of(result, EntityTagUtil.entityTag(result.getVersion(), changeCounts))));
     }
 
     /**
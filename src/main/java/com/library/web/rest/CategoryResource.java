@@ -1,27 +1,37 @@
 package com.library.web.rest;
 
 import com.library.domain.Category;
+import com.library.domain.criteria.CategoryCriteria;
 import com.library.repository.CategoryRepository;
+import com.library.repository.EntityChangeRepository;
+import com.library.repository.Keyset;
 import com.library.web.rest.errors.BadRequestAlertException;
+import com.library.web.util.EntityTagUtil;
+import com.library.web.util.KeysetPaginationUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.library.domain.Category}.
@@ -35,13 +45,25 @@ public class CategoryResource {
 
     private static final String ENTITY_NAME = "category";
 
+    private static final Map<String, Function<Category, Object>> KEYSET_PROPERTIES = Map.of(
+        "id",
+        Category::getId,
+        "name",
+        Category::getName
+    );
+
+    private static final List<String> CHANGE_TABLES = List.of("category");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryResource(CategoryRepository categoryRepository) {
+    private final EntityChangeRepository entityChangeRepository;
+
+    public CategoryResource(CategoryRepository categoryRepository, EntityChangeRepository entityChangeRepository) {
         this.categoryRepository = categoryRepository;
+        this.entityChangeRepository = entityChangeRepository;
     }
 
     /**
@@ -63,6 +85,7 @@ public class CategoryResource {
                 try {
                     return ResponseEntity.created(new URI("/api/categories/" + result.getId()))
                         .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .eTag(EntityTagUtil.entityTag(result.getVersion()))
                         .body(result);
                 } catch (URISyntaxException e) {
                     throw new RuntimeException(e);
@@ -74,15 +97,18 @@ public class CategoryResource {
      * {@code PUT  /categories/:id} : Updates an existing category.
      *
      * @param id the id of the category to save.
+     * @param ifMatch the {@code If-Match} header, the entity tag of the category as it was read, if any.
      * @param category the category to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
      * or with status {@code 400 (Bad Request)} if the category is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the category was changed since it was read,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<Category>> updateCategory(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Category category
     ) throws URISyntaxException {
         LOG.debug("REST request to update Category : {}, {}", id, category);
@@ -92,6 +118,10 @@ public class CategoryResource {
         if (!Objects.equals(id, category.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        Long expectedVersion = EntityTagUtil.expectedVersion(ifMatch);
+        if (expectedVersion != null) {
+            category.setVersion(expectedVersion);
+        }
 
         return categoryRepository
             .existsById(id)
@@ -102,10 +132,12 @@ public class CategoryResource {
 
                 return categoryRepository
                     .save(category)
+                    .onErrorMap(OptimisticLockingFailureException.class, e -> ifMatch != null ? EntityTagUtil.preconditionFailed() : e)
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity.ok()
                             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                            .eTag(EntityTagUtil.entityTag(result.getVersion()))
                             .body(result)
                     );
             });
@@ -115,16 +147,19 @@ public class CategoryResource {
      * {@code PATCH  /categories/:id} : Partial updates given fields of an existing category, field will ignore if it is null
      *
      * @param id the id of the category to save.
+     * @param ifMatch the {@code If-Match} header, the entity tag of the category as it was read, if any.
      * @param category the category to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
      * or with status {@code 400 (Bad Request)} if the category is not valid,
      * or with status {@code 404 (Not Found)} if the category is not found,
+     * or with status {@code 412 (Precondition Failed)} if the category was changed since it was read,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public Mono<ResponseEntity<Category>> partialUpdateCategory(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Category category
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Category partially : {}, {}", id, category);
@@ -134,6 +169,7 @@ public class CategoryResource {
         if (!Objects.equals(id, category.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        Long expectedVersion = EntityTagUtil.expectedVersion(ifMatch);
 
         return categoryRepository
             .existsById(id)
@@ -145,56 +181,152 @@ public class CategoryResource {
                 Mono<Category> result = categoryRepository
                     .findById(category.getId())
                     .map(existingCategory -> {
+                        if (expectedVersion != null) {
+                            existingCategory.setVersion(expectedVersion);
+                        } else if (category.getVersion() != null) {
+                            existingCategory.setVersion(category.getVersion());
+                        }
                         if (category.getName() != null) {
                             existingCategory.setName(category.getName());
                         }
 
                         return existingCategory;
                     })
-                    .flatMap(categoryRepository::save);
+                    .flatMap(categoryRepository::save)
+                    .onErrorMap(OptimisticLockingFailureException.class, e -> ifMatch != null ? EntityTagUtil.preconditionFailed() : e);
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(res ->
                         ResponseEntity.ok()
                             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                            .eTag(EntityTagUtil.entityTag(res.getVersion()))
                             .body(res)
                     );
             });
     }
 
     /**
-     * {@code GET  /categories} : get all the categories.
+     * {@code GET  /categories} : get all the categories matching the criteria.
+     * <p>
+     * When a {@code cursor} or a {@code size} is given, a single keyset page is returned instead, and the link to the next
+     * page is provided in the {@code Link} header, and the number of matching categories in the {@code X-Total-Count} header.
+     * <p>
+     * The {@code ETag} header holds the number of changes of the categories, so that a request whose {@code If-None-Match} holds
+     * it is answered with a {@code 304 (Not Modified)} without querying the categories.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
+     * @param criteria the criteria which the requested categories should match.
+     * @param request a {@link ServerHttpRequest} request.
+     * @param cursor the continuation token of the previous page.
+     * @param size the size of the page.
+     * @param sort the sort property and direction of the first page, e.g. {@code id,desc}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body,
+     * or with status {@code 304 (Not Modified)} if the categories did not change.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Category>> getAllCategories() {
-        LOG.debug("REST request to get all Categories");
-        return categoryRepository.findAll().collectList();
+    public Mono<ResponseEntity<List<Category>>> getAllCategories(
+        CategoryCriteria criteria,
+        ServerHttpRequest request,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "sort", required = false) String sort
+    ) {
+        LOG.debug("REST request to get Categories by criteria: {}", criteria);
+        // Counted before the query, so that a change committed meanwhile makes the tag stale rather than the list
+        return entityChangeRepository
+            .findChangeCounts(CHANGE_TABLES)
+            .flatMap(changeCounts -> {
+                String entityTag = EntityTagUtil.entityTag(changeCounts);
+                if (EntityTagUtil.isNotModified(request, entityTag)) {
+                    return Mono.just(EntityTagUtil.<List<Category>>notModified(entityTag));
+                }
+                return findAllCategories(criteria, request, cursor, size, sort).map(response ->
+                    EntityTagUtil.withEntityTag(response, entityTag)
+                );
+            });
+    }
+
+    private Mono<ResponseEntity<List<Category>>> findAllCategories(
+        CategoryCriteria criteria,
+        ServerHttpRequest request,
+        String cursor,
+        Integer size,
+        String sort
+    ) {
+        if (cursor != null || size != null) {
+            Keyset keyset = KeysetPaginationUtil.resolveKeyset(cursor, size, sort, Category.class, KEYSET_PROPERTIES.keySet(), ENTITY_NAME);
+            return categoryRepository.findByCriteria(criteria, keyset)
+                .collectList()
+                .zipWith(categoryRepository.countByCriteria(criteria))
+                .map(categoriesWithCount ->
+                    KeysetPaginationUtil.createKeysetResponse(
+                        ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                        keyset,
+                        categoriesWithCount.getT1(),
+                        categoriesWithCount.getT2(),
+                        Category::getId,
+                        KEYSET_PROPERTIES
+                    )
+                );
+        }
+        return categoryRepository.findByCriteria(criteria).collectList().map(ResponseEntity::ok);
     }
 
     /**
-     * {@code GET  /categories} : get all the categories as a stream.
+     * {@code GET  /categories} : get all the categories matching the criteria as a stream.
+     * @param criteria the criteria which the requested categories should match.
      * @return the {@link Flux} of categories.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Category> getAllCategoriesAsStream() {
-        LOG.debug("REST request to get all Categories as a stream");
-        return categoryRepository.findAll();
+    public Flux<Category> getAllCategoriesAsStream(CategoryCriteria criteria) {
+        LOG.debug("REST request to get Categories by criteria as a stream: {}", criteria);
+        return categoryRepository.streamByCriteria(criteria);
+    }
+
+    /**
+     * {@code GET  /categories/count} : count all the categories.
+     *
+     * @param criteria the criteria which the requested categories should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> countCategories(CategoryCriteria criteria) {
+        LOG.debug("REST request to count Categories by criteria: {}", criteria);
+        return categoryRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
     }
 
     /**
      * {@code GET  /categories/:id} : get the "id" category.
      *
+     * <p>
+     * The {@code ETag} header holds the version of the category, so that a request whose {@code If-None-Match} holds it is
+     * answered with a {@code 304 (Not Modified)} after looking the version up only.
+     *
      * @param id the id of the category to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)}.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category,
+     * or with status {@code 304 (Not Modified)} if the category did not change, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<Category>> getCategory(@PathVariable("id") Long id) {
+    public Mono<ResponseEntity<Category>> getCategory(@PathVariable("id") Long id, ServerHttpRequest request) {
         LOG.debug("REST request to get Category : {}", id);
-        Mono<Category> category = categoryRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(category);
+        Mono<ResponseEntity<Category>> response = EntityTagUtil.hasIfNoneMatch(request)
+            ? categoryRepository
+                .findVersionById(id)
+                .flatMap(version -> {
+                    String entityTag = EntityTagUtil.entityTag(version);
+                    return EntityTagUtil.isNotModified(request, entityTag)
+                        ? Mono.just(EntityTagUtil.notModified(entityTag))
+                        : findCategory(id);
+                })
+            : findCategory(id);
+        return response.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    private Mono<ResponseEntity<Category>> findCategory(Long id) {
+        return categoryRepository
+            .findById(id)
+            .map(category -> ResponseEntity.ok().eTag(EntityTagUtil.entityTag(category.getVersion())).body(category));
     }
 
     /**
@@ -1,23 +1,32 @@
 package com.library.web.rest;
 
 import com.library.domain.Loan;
+import com.library.domain.criteria.LoanCriteria;
+import com.library.repository.Fieldset;
 import com.library.repository.LoanRepository;
+import com.library.repository.Keyset;
 import com.library.web.rest.errors.BadRequestAlertException;
+import com.library.web.util.FieldsetUtil;
+import com.library.web.util.KeysetPaginationUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -35,6 +44,15 @@ public class LoanResource {
 
     private static final String ENTITY_NAME = "loan";
 
+    private static final Set<String> FIELDS = Set.of("id", "loanDate", "returnDate", "book", "member", "bookId", "memberId");
+
+    private static final Map<String, Function<Loan, Object>> KEYSET_PROPERTIES = Map.of(
+        "id",
+        Loan::getId,
+        "loanDate",
+        Loan::getLoanDate
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -167,29 +185,76 @@ public class LoanResource {
     }
 
     /**
-     * {@code GET  /loans} : get all the loans.
+     * {@code GET  /loans} : get all the loans matching the criteria.
+     * <p>
+     * When a {@code cursor} or a {@code size} is given, a single keyset page is returned instead, and the link to the next
+     * page is provided in the {@code Link} header, and the number of matching loans in the {@code X-Total-Count} header.
+     * Otherwise the loans are streamed from a cursor into the JSON array as they are read, rather than collected first.
+     * <p>
+     * When {@code fields} is given, only these fields of the loans are read and returned, see {@link FieldsetUtil}.
      *
+     * @param criteria the criteria which the requested loans should match.
+     * @param request a {@link ServerHttpRequest} request.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param cursor the continuation token of the previous page.
+     * @param size the size of the page.
+     * @param sort the sort property and direction of the first page, e.g. {@code id,desc}.
+     * @param fields the fields of the loans to return, e.g. {@code loanDate,book}, or all the fields if null.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of loans in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Loan>> getAllLoans(@RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload) {
-        LOG.debug("REST request to get all Loans");
-        if (eagerload) {
-            return loanRepository.findAllWithEagerRelationships().collectList();
-        } else {
-            return loanRepository.findAll().collectList();
+    public Mono<ResponseEntity<Flux<Loan>>> getAllLoans(
+        LoanCriteria criteria,
+        ServerHttpRequest request,
+        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "sort", required = false) String sort,
+        @RequestParam(name = "fields", required = false) String fields
+    ) {
+        LOG.debug("REST request to get Loans by criteria: {}", criteria);
+        Fieldset fieldset = FieldsetUtil.resolveFieldset(request, fields, Loan.class, FIELDS, ENTITY_NAME);
+        if (cursor != null || size != null) {
+            Keyset keyset = KeysetPaginationUtil.resolveKeyset(cursor, size, sort, Loan.class, KEYSET_PROPERTIES.keySet(), ENTITY_NAME);
+            return loanRepository.findByCriteria(criteria, keyset, fieldset)
+                .collectList()
+                .zipWith(loanRepository.countByCriteria(criteria))
+                .map(loansWithCount ->
+                    KeysetPaginationUtil.createKeysetResponse(
+                        ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                        keyset,
+                        loansWithCount.getT1(),
+                        loansWithCount.getT2(),
+                        Loan::getId,
+                        KEYSET_PROPERTIES
+                    )
+                )
+                .map(KeysetPaginationUtil::toFluxResponse);
         }
+        return Mono.just(ResponseEntity.ok(loanRepository.streamByCriteria(criteria, fieldset)));
     }
 
     /**
-     * {@code GET  /loans} : get all the loans as a stream.
+     * {@code GET  /loans} : get all the loans matching the criteria as a stream.
+     * @param criteria the criteria which the requested loans should match.
      * @return the {@link Flux} of loans.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Loan> getAllLoansAsStream() {
-        LOG.debug("REST request to get all Loans as a stream");
-        return loanRepository.findAll();
+    public Flux<Loan> getAllLoansAsStream(LoanCriteria criteria) {
+        LOG.debug("REST request to get Loans by criteria as a stream: {}", criteria);
+        return loanRepository.streamByCriteria(criteria);
+    }
+
+    /**
+     * {@code GET  /loans/count} : count all the loans.
+     *
+     * @param criteria the criteria which the requested loans should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> countLoans(LoanCriteria criteria) {
+        LOG.debug("REST request to count Loans by criteria: {}", criteria);
+        return loanRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
     }
 
     /**
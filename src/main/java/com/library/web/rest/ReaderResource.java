@@ -1,23 +1,32 @@
 package com.library.web.rest;
 
 import com.library.domain.Reader;
+import com.library.domain.criteria.ReaderCriteria;
+import com.library.repository.Fieldset;
 import com.library.repository.ReaderRepository;
+import com.library.repository.Keyset;
 import com.library.web.rest.errors.BadRequestAlertException;
+import com.library.web.util.FieldsetUtil;
+import com.library.web.util.KeysetPaginationUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -35,6 +44,19 @@ public class ReaderResource {
 
     private static final String ENTITY_NAME = "reader";
 
+    private static final Set<String> FIELDS = Set.of("id", "firstName", "lastName", "email", "joinedDate");
+
+    private static final Map<String, Function<Reader, Object>> KEYSET_PROPERTIES = Map.of(
+        "id",
+        Reader::getId,
+        "firstName",
+        Reader::getFirstName,
+        "lastName",
+        Reader::getLastName,
+        "email",
+        Reader::getEmail
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -173,24 +195,74 @@ public class ReaderResource {
     }
 
     /**
-     * {@code GET  /readers} : get all the readers.
+     * {@code GET  /readers} : get all the readers matching the criteria.
+     * <p>
+     * When a {@code cursor} or a {@code size} is given, a single keyset page is returned instead, and the link to the next
+     * page is provided in the {@code Link} header, and the number of matching readers in the {@code X-Total-Count} header.
+     * Otherwise the readers are streamed from a cursor into the JSON array as they are read, rather than collected first.
+     * <p>
+     * When {@code fields} is given, only these fields of the readers are read and returned, see {@link FieldsetUtil}.
      *
+     * @param criteria the criteria which the requested readers should match.
+     * @param request a {@link ServerHttpRequest} request.
+     * @param cursor the continuation token of the previous page.
+     * @param size the size of the page.
+     * @param sort the sort property and direction of the first page, e.g. {@code id,desc}.
+     * @param fields the fields of the readers to return, e.g. {@code firstName,lastName}, or all the fields if null.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of readers in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Reader>> getAllReaders() {
-        LOG.debug("REST request to get all Readers");
-        return readerRepository.findAll().collectList();
+    public Mono<ResponseEntity<Flux<Reader>>> getAllReaders(
+        ReaderCriteria criteria,
+        ServerHttpRequest request,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "sort", required = false) String sort,
+        @RequestParam(name = "fields", required = false) String fields
+    ) {
+        LOG.debug("REST request to get Readers by criteria: {}", criteria);
+        Fieldset fieldset = FieldsetUtil.resolveFieldset(request, fields, Reader.class, FIELDS, ENTITY_NAME);
+        if (cursor != null || size != null) {
+            Keyset keyset = KeysetPaginationUtil.resolveKeyset(cursor, size, sort, Reader.class, KEYSET_PROPERTIES.keySet(), ENTITY_NAME);
+            return readerRepository.findByCriteria(criteria, keyset, fieldset)
+                .collectList()
+                .zipWith(readerRepository.countByCriteria(criteria))
+                .map(readersWithCount ->
+                    KeysetPaginationUtil.createKeysetResponse(
+                        ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                        keyset,
+                        readersWithCount.getT1(),
+                        readersWithCount.getT2(),
+                        Reader::getId,
+                        KEYSET_PROPERTIES
+                    )
+                )
+                .map(KeysetPaginationUtil::toFluxResponse);
+        }
+        return Mono.just(ResponseEntity.ok(readerRepository.streamByCriteria(criteria, fieldset)));
     }
 
     /**
-     * {@code GET  /readers} : get all the readers as a stream.
+     * {@code GET  /readers} : get all the readers matching the criteria as a stream.
+     * @param criteria the criteria which the requested readers should match.
      * @return the {@link Flux} of readers.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Reader> getAllReadersAsStream() {
-        LOG.debug("REST request to get all Readers as a stream");
-        return readerRepository.findAll();
+    public Flux<Reader> getAllReadersAsStream(ReaderCriteria criteria) {
+        LOG.debug("REST request to get Readers by criteria as a stream: {}", criteria);
+        return readerRepository.streamByCriteria(criteria);
+    }
+
+    /**
+     * {@code GET  /readers/count} : count all the readers.
+     *
+     * @param criteria the criteria which the requested readers should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> countReaders(ReaderCriteria criteria) {
+        LOG.debug("REST request to count Readers by criteria: {}", criteria);
+        return readerRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
     }
 
     /**
@@ -0,0 +1,66 @@
+package com.library.web.rest;
+
+import com.library.domain.Book;
+import com.library.service.search.BookSearchService;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.ForwardedHeaderUtils;
+import reactor.core.publisher.Mono;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * REST controller for the full-text search.
+ */
+@RestController
+@RequestMapping("/api/_search")
+public class SearchResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchResource.class);
+
+    private final BookSearchService bookSearchService;
+
+    public SearchResource(BookSearchService bookSearchService) {
+        this.bookSearchService = bookSearchService;
+    }
+
+    /**
+     * {@code GET  /_search/books?query=:query} : search the books by title, author name and category name.
+     * <p>
+     * Every word of the query must match, exactly, as a prefix, or with a typo. The books are ranked by relevance, the number
+     * of matching books is provided in the {@code X-Total-Count} header and the links to the other pages in the {@code Link}
+     * header.
+     *
+     * @param query the words to look for.
+     * @param request a {@link ServerHttpRequest} request.
+     * @param pageable the pagination information; its sort is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of books in body.
+     */
+    @GetMapping("/books")
+    public Mono<ResponseEntity<List<Book>>> searchBooks(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject ServerHttpRequest request,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search Books for query {}", query);
+        return bookSearchService
+            .search(query, pageable)
+            .map(page ->
+                ResponseEntity.ok()
+                    .headers(
+                        PaginationUtil.generatePaginationHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            page
+                        )
+                    )
+                    .body(page.getContent())
+            );
+    }
+}
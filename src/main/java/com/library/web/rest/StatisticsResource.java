@@ -0,0 +1,112 @@
+package com.library.web.rest;
+
+import com.library.domain.LoanStatistics;
+import com.library.repository.LoanStatisticsRepository;
+import com.library.security.AuthoritiesConstants;
+import com.library.web.rest.errors.BadRequestAlertException;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for the circulation statistics, see {@link LoanStatisticsRepository}.
+ */
+@RestController
+@RequestMapping("/api/stats")
+@Transactional
+public class StatisticsResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatisticsResource.class);
+
+    private static final String ENTITY_NAME = "statistics";
+
+    private static final int DEFAULT_MONTHS = 12;
+
+    private static final int MAX_MONTHS = 120;
+
+    private static final int MAX_BOOKS = 100;
+
+    private final LoanStatisticsRepository loanStatisticsRepository;
+
+    public StatisticsResource(LoanStatisticsRepository loanStatisticsRepository) {
+        this.loanStatisticsRepository = loanStatisticsRepository;
+    }
+
+    /**
+     * {@code GET  /stats/loans-by-category?from=:from&to=:to} : get the number of loans of each category, by month.
+     *
+     * @param from the first month, {@code yyyy-MM}, 11 months before the last one by default.
+     * @param to the last month, {@code yyyy-MM}, the current month by default.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the categories with loans by month in body, or with
+     * status {@code 400 (Bad Request)} if the months are reversed or span more than 120 months.
+     */
+    @GetMapping("/loans-by-category")
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<LoanStatistics.CategoryMonth>>> getLoansByCategory(
+        @RequestParam(name = "from", required = false) YearMonth from,
+        @RequestParam(name = "to", required = false) YearMonth to
+    ) {
+        LOG.debug("REST request to get the loans by category from {} to {}", from, to);
+        YearMonth lastMonth = to != null ? to : YearMonth.now();
+        YearMonth firstMonth = from != null ? from : lastMonth.minusMonths(DEFAULT_MONTHS - 1);
+        long months = ChronoUnit.MONTHS.between(firstMonth, lastMonth) + 1;
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new BadRequestAlertException("The months must span 1 to " + MAX_MONTHS + " months", ENTITY_NAME, "invalidmonths");
+        }
+        return loanStatisticsRepository.findLoansByCategory(firstMonth, lastMonth).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code GET  /stats/top-books?limit=:limit} : get the most borrowed books.
+     *
+     * @param limit the number of books, at most 100.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the books by descending number of loans in body, or
+     * with status {@code 400 (Bad Request)} if the limit is out of bounds.
+     */
+    @GetMapping("/top-books")
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<LoanStatistics.BookLoans>>> getMostBorrowedBooks(
+        @RequestParam(name = "limit", defaultValue = "10") int limit
+    ) {
+        LOG.debug("REST request to get the {} most borrowed books", limit);
+        if (limit < 1 || limit > MAX_BOOKS) {
+            throw new BadRequestAlertException("The limit must be between 1 and " + MAX_BOOKS, ENTITY_NAME, "invalidlimit");
+        }
+        return loanStatisticsRepository.findMostBorrowedBooks(limit).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code GET  /stats/active-readers} : get the number of readers with at least one loan not returned yet.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of active readers in body.
+     */
+    @GetMapping("/active-readers")
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<LoanStatistics.ActiveReaders>> getActiveReaders() {
+        LOG.debug("REST request to get the number of active readers");
+        return loanStatisticsRepository.countActiveReaders().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code POST  /stats/rebuild} : recount all the statistics from the loans.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<Void>> rebuildStatistics() {
+        LOG.debug("REST request to rebuild the statistics");
+        return loanStatisticsRepository.rebuild().then(Mono.fromCallable(() -> ResponseEntity.noContent().build()));
+    }
+}
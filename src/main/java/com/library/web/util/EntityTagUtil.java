@@ -0,0 +1,152 @@
+package com.library.web.util;
+
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for handling conditional requests with entity tags (ETags).
+ * <p>
+ * The tags are strong, derived from numbers which change with the resource, such as the version of an entity or the
+ * number of changes of a table, e.g. {@code "3"} or {@code "3-12-7"}. A {@code GET} whose {@code If-None-Match} holds the
+ * current tag is answered with a {@code 304 (Not Modified)}, following
+ * <a href="https://www.rfc-editor.org/rfc/rfc9110#section-13.1.2">RFC 9110</a>; an update whose {@code If-Match} does not
+ * hold the version of the entity any more is rejected with a {@code 412 (Precondition Failed)}.
+ */
+public final class EntityTagUtil {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final String ANY = "*";
+
+    private EntityTagUtil() {}
+
+    /**
+     * Returns the entity tag of a version.
+     *
+     * @param version the version.
+     * @return the quoted entity tag.
+     */
+    public static String entityTag(Long version) {
+        return '"' + String.valueOf(version) + '"';
+    }
+
+    /**
+     * Returns the entity tag of numbers of changes.
+     *
+     * @param changeCounts the numbers of changes.
+     * @return the quoted entity tag, the numbers separated by dashes.
+     */
+    public static String entityTag(List<Long> changeCounts) {
+        StringBuilder entityTag = new StringBuilder().append('"');
+        for (int i = 0; i < changeCounts.size(); i++) {
+            entityTag.append(i == 0 ? "" : "-").append(changeCounts.get(i));
+        }
+        return entityTag.append('"').toString();
+    }
+
+    /**
+     * Returns the entity tag of a version followed by numbers of changes, for an entity embedding other entities.
+     *
+     * @param version the version, first in the tag so that {@link #expectedVersion(String)} finds it.
+     * @param changeCounts the numbers of changes of the embedded entities.
+     * @return the quoted entity tag, the numbers separated by dashes.
+     */
+    public static String entityTag(Long version, List<Long> changeCounts) {
+        StringBuilder entityTag = new StringBuilder().append('"').append(version);
+        for (Long changeCount : changeCounts) {
+            entityTag.append('-').append(changeCount);
+        }
+        return entityTag.append('"').toString();
+    }
+
+    /**
+     * Whether the request has an {@code If-None-Match} header, so that the current entity tag is worth looking up first.
+     *
+     * @param request the request.
+     * @return true if the request has an {@code If-None-Match} header.
+     */
+    public static boolean hasIfNoneMatch(ServerHttpRequest request) {
+        return request.getHeaders().containsKey(HttpHeaders.IF_NONE_MATCH);
+    }
+
+    /**
+     * Whether the {@code If-None-Match} header of the request holds an entity tag, using the weak comparison.
+     *
+     * @param request the request.
+     * @param entityTag the current quoted entity tag.
+     * @return true if the client has the current representation.
+     */
+    public static boolean isNotModified(ServerHttpRequest request, String entityTag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String trimmed = candidate.trim();
+            if (ANY.equals(trimmed) || stripWeakPrefix(trimmed).equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a {@code 304 (Not Modified)} response.
+     *
+     * @param entityTag the current quoted entity tag.
+     * @param <T> the type of the body.
+     * @return the response, without body.
+     */
+    public static <T> ResponseEntity<T> notModified(String entityTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
+    }
+
+    /**
+     * Returns a response with an entity tag.
+     *
+     * @param response the response.
+     * @param entityTag the quoted entity tag.
+     * @param <T> the type of the body.
+     * @return a copy of the response, with the {@code ETag} header.
+     */
+    public static <T> ResponseEntity<T> withEntityTag(ResponseEntity<T> response, String entityTag) {
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).eTag(entityTag).body(response.getBody());
+    }
+
+    /**
+     * Returns the version an entity must still have for an update to be applied, according to its {@code If-Match} header.
+     *
+     * @param ifMatch the {@code If-Match} header, or null.
+     * @return the version, or null if the header is absent or {@code *}.
+     * @throws ResponseStatusException with status {@code 412 (Precondition Failed)} if the header cannot match, e.g. a weak tag.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String entityTag = ifMatch.trim();
+        if (entityTag.length() < 3 || entityTag.charAt(0) != '"' || entityTag.charAt(entityTag.length() - 1) != '"') {
+            throw preconditionFailed();
+        }
+        String value = entityTag.substring(1, entityTag.length() - 1);
+        int dash = value.indexOf('-');
+        try {
+            return Long.valueOf(dash < 0 ? value : value.substring(0, dash));
+        } catch (NumberFormatException e) {
+            throw preconditionFailed();
+        }
+    }
+
+    /**
+     * Returns the exception rejecting an update whose {@code If-Match} header does not hold the version of the entity.
+     *
+     * @return the exception, with status {@code 412 (Precondition Failed)}.
+     */
+    public static ResponseStatusException preconditionFailed() {
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "The entity was changed since it was read");
+    }
+
+    private static String stripWeakPrefix(String entityTag) {
+        return entityTag.startsWith(WEAK_PREFIX) ? entityTag.substring(WEAK_PREFIX.length()) : entityTag;
+    }
+}
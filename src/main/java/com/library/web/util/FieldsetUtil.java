@@ -0,0 +1,55 @@
+package com.library.web.util;
+
+import com.library.repository.Fieldset;
+import com.library.web.codec.SparseFieldset;
+import com.library.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * Utility class for handling sparse fieldsets, the {@code fields} query parameter of the list endpoints.
+ * <p>
+ * The parameter holds the comma separated JSON property names of the fields to return, e.g. {@code fields=title,status};
+ * the id is always returned. Only the columns of these fields are read, and only these fields are written.
+ */
+public final class FieldsetUtil {
+
+    private FieldsetUtil() {}
+
+    /**
+     * Resolves the sparse fieldset requested by the client, and records it on the request for the JSON encoder, see
+     * {@link SparseFieldset}.
+     *
+     * @param request the request.
+     * @param fields the requested fields, or null for all the fields.
+     * @param entityType the type of the entities of the response.
+     * @param allowedFields the fields the client may request.
+     * @param entityName the name of the entity, used for error reporting.
+     * @return the fieldset, {@link Fieldset#all()} if no fields are requested.
+     * @throws BadRequestAlertException if a field is unknown or not allowed.
+     */
+    public static Fieldset resolveFieldset(
+        ServerHttpRequest request,
+        String fields,
+        Class<?> entityType,
+        Collection<String> allowedFields,
+        String entityName
+    ) {
+        if (fields == null || fields.isBlank()) {
+            return Fieldset.all();
+        }
+        List<String> requested = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (!allowedFields.contains(trimmed)) {
+                throw new BadRequestAlertException("Selecting the field " + trimmed + " is not supported", entityName, "fieldsinvalid");
+            }
+            requested.add(trimmed);
+        }
+        Fieldset fieldset = Fieldset.of(requested);
+        request.getAttributes().put(SparseFieldset.ATTRIBUTE, new SparseFieldset(entityType, fieldset));
+        return fieldset;
+    }
+}
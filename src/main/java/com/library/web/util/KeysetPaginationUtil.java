@@ -0,0 +1,178 @@
+package com.library.web.util;
+
+import com.library.repository.Keyset;
+import com.library.web.rest.errors.BadRequestAlertException;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * The position of the next page is handed out as an opaque {@code cursor} query parameter in a {@code Link} header,
+ * following the <a href="https://datatracker.ietf.org/doc/html/rfc8288">Web Linking</a> specification.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Resolves the keyset page requested by the client.
+     *
+     * @param cursor the continuation token of the previous page, or null for the first page.
+     * @param size the requested page size, or null for the default size.
+     * @param sort the requested sort as {@code property[,direction]}, or null to sort by id; ignored when a cursor is given.
+     * @param entityType the type of the entity, which the sort value of a cursor must be a value of.
+     * @param allowedProperties the properties the client may sort on.
+     * @param entityName the name of the entity, used for error reporting.
+     * @return the keyset page.
+     * @throws BadRequestAlertException if the request is invalid.
+     */
+    public static Keyset resolveKeyset(
+        String cursor,
+        Integer size,
+        String sort,
+        Class<?> entityType,
+        Collection<String> allowedProperties,
+        String entityName
+    ) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Page size must be between 1 and " + MAX_PAGE_SIZE, entityName, "pagesizeinvalid");
+        }
+        Keyset keyset;
+        if (cursor != null) {
+            try {
+                keyset = Keyset.fromToken(cursor, pageSize);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+            }
+        } else {
+            keyset = parseSort(sort, pageSize, entityName);
+        }
+        if (!allowedProperties.contains(keyset.getProperty())) {
+            throw new BadRequestAlertException("Sorting on " + keyset.getProperty() + " is not supported", entityName, "sortinvalid");
+        }
+        if (!keyset.isFirst()) {
+            // the token is opaque but not signed, so its value is checked before it reaches a query
+            Field field = ReflectionUtils.findField(entityType, keyset.getProperty());
+            try {
+                keyset.getAfterValue(field != null ? field.getType() : String.class);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+            }
+        }
+        return keyset;
+    }
+
+    /**
+     * Builds the response of a keyset page from the rows fetched for it, which include one lookahead row if there is a next page.
+     *
+     * @param uriBuilder the request uri builder, used to build the {@code next} link.
+     * @param keyset the keyset page which was fetched.
+     * @param rows the fetched rows.
+     * @param idExtractor returns the id of a row.
+     * @param sortValueExtractors returns the value of each allowed sort property of a row.
+     * @param <T> the type of the rows.
+     * @return the response with the rows of the page in the body and the link to the next page in the headers.
+     */
+    public static <T> ResponseEntity<List<T>> createKeysetResponse(
+        UriComponentsBuilder uriBuilder,
+        Keyset keyset,
+        List<T> rows,
+        Function<T, Long> idExtractor,
+        Map<String, Function<T, Object>> sortValueExtractors
+    ) {
+        if (rows.size() <= keyset.getSize()) {
+            return ResponseEntity.ok().body(rows);
+        }
+        List<T> page = rows.subList(0, keyset.getSize());
+        T last = page.get(page.size() - 1);
+        Keyset next = keyset.after(String.valueOf(sortValueExtractors.get(keyset.getProperty()).apply(last)), idExtractor.apply(last));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, prepareLink(uriBuilder, next));
+        return ResponseEntity.ok().headers(headers).body(page);
+    }
+
+    /**
+     * Builds the response of a keyset page like {@link #createKeysetResponse(UriComponentsBuilder, Keyset, List, Function, Map)},
+     * and adds the number of rows matching the request over all pages in the {@code X-Total-Count} header.
+     *
+     * @param uriBuilder the request uri builder, used to build the {@code next} link.
+     * @param keyset the keyset page which was fetched.
+     * @param rows the fetched rows.
+     * @param totalCount the number of rows matching the request.
+     * @param idExtractor returns the id of a row.
+     * @param sortValueExtractors returns the value of each allowed sort property of a row.
+     * @param <T> the type of the rows.
+     * @return the response with the page in body.
+     */
+    public static <T> ResponseEntity<List<T>> createKeysetResponse(
+        UriComponentsBuilder uriBuilder,
+        Keyset keyset,
+        List<T> rows,
+        long totalCount,
+        Function<T, Long> idExtractor,
+        Map<String, Function<T, Object>> sortValueExtractors
+    ) {
+        ResponseEntity<List<T>> response = createKeysetResponse(uriBuilder, keyset, rows, idExtractor, sortValueExtractors);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.add(HEADER_X_TOTAL_COUNT, Long.toString(totalCount));
+        return ResponseEntity.ok().headers(headers).body(response.getBody());
+    }
+
+    /**
+     * Returns the response of a keyset page with its rows as a {@link Flux}, for the endpoints which stream their rows when
+     * they are not paginated.
+     *
+     * @param response the response of the keyset page.
+     * @param <T> the type of the rows.
+     * @return a copy of the response, with the rows of the page in body.
+     */
+    public static <T> ResponseEntity<Flux<T>> toFluxResponse(ResponseEntity<List<T>> response) {
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(Flux.fromIterable(response.getBody()));
+    }
+
+    private static Keyset parseSort(String sort, int pageSize, String entityName) {
+        if (sort == null || sort.isBlank()) {
+            return Keyset.first("id", Sort.Direction.ASC, pageSize);
+        }
+        String[] parts = sort.split(",");
+        if (parts.length > 2) {
+            throw new BadRequestAlertException("Only one sort property is supported", entityName, "sortinvalid");
+        }
+        Sort.Direction direction = parts.length == 2
+            ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(null)
+            : Sort.Direction.ASC;
+        if (direction == null) {
+            throw new BadRequestAlertException("Invalid sort direction", entityName, "sortinvalid");
+        }
+        return Keyset.first(parts[0].trim(), direction, pageSize);
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, Keyset next) {
+        String link = uriBuilder
+            .replaceQueryParam("sort")
+            .replaceQueryParam("cursor", next.toToken())
+            .replaceQueryParam("size", next.getSize())
+            .toUriString();
+        return String.format(HEADER_LINK_FORMAT, link, "next");
+    }
+}
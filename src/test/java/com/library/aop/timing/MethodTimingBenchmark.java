@@ -0,0 +1,93 @@
+package com.library.aop.timing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the cost per call of {@link MethodTimingInterceptor}, for a method returning a {@link Mono} of one element, a
+ * {@link Flux} of ten and a plain value, each call including its subscription: {@code disabled} calls the bean without proxy,
+ * as when method timing is disabled, {@code unsampled} through the proxy with a sample rate of 0, the cost of the calls left
+ * out of the sample, and {@code sampled} with a sample rate of 1, the cost of the timed calls.
+ * Not run by the test suite, start it with
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.library.aop.timing.MethodTimingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MethodTimingBenchmark {
+
+    @Param({ "disabled", "unsampled", "sampled" })
+    public String timing;
+
+    private Target target;
+
+    @Setup
+    public void setUp() {
+        if ("disabled".equals(timing)) {
+            target = new Target();
+            return;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(new Target());
+        proxyFactory.setProxyTargetClass(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        proxyFactory.addAdvice(new MethodTimingInterceptor(() -> meterRegistry, () -> "sampled".equals(timing) ? 1 : 0, false));
+        target = (Target) proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public Integer mono() {
+        return target.find(42).block();
+    }
+
+    @Benchmark
+    public Integer flux() {
+        return target.findAll(10).reduce(0, Integer::sum).block();
+    }
+
+    @Benchmark
+    public int value() {
+        return target.count(42);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MethodTimingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * A bean, proxied by subclassing as the services and REST controllers are.
+     */
+    public static class Target {
+
+        public Mono<Integer> find(int id) {
+            return Mono.just(id);
+        }
+
+        public Flux<Integer> findAll(int count) {
+            return Flux.range(0, count);
+        }
+
+        public int count(int id) {
+            return id + 1;
+        }
+    }
+}
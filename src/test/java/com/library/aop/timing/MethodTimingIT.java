@@ -0,0 +1,84 @@
+package com.library.aop.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.library.IntegrationTest;
+import com.library.domain.criteria.BookCriteria;
+import com.library.repository.BookRepository;
+import com.library.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the timing of the repositories, services and REST controllers by {@link MethodTimingInterceptor}.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_TIMEOUT)
+@WithMockUser
+class MethodTimingIT {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void repositoriesServicesAndResourcesAreTimed() {
+        assertThat(userService.getAuthorities().collectList().block()).isNotEmpty();
+        webTestClient.get().uri("/api/authors").exchange().expectStatus().isOk();
+
+        assertThat(timer("UserService", "getAuthorities").count()).isPositive();
+        assertThat(
+            meterRegistry
+                .get(MethodTimingInterceptor.ELEMENTS_METER_NAME)
+                .tag(MethodTimingInterceptor.CLASS_DIMENSION, "UserService")
+                .tag(MethodTimingInterceptor.METHOD_DIMENSION, "getAuthorities")
+                .summary()
+                .totalAmount()
+        ).isPositive();
+        // the response may be received before the server thread has gone past the end of the timed calls
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .ignoreExceptions()
+            .untilAsserted(() -> {
+                assertThat(timer("AuthorResource", "getAllAuthors").count()).isPositive();
+                assertThat(timer("AuthorRepository", "findByCriteria").count()).isPositive();
+            });
+    }
+
+    @Test
+    void repositoryFragmentsAreNotTimedTwice() {
+        bookRepository.findByCriteria(new BookCriteria()).collectList().block();
+
+        assertThat(timer("BookRepository", "findByCriteria").count()).isPositive();
+        assertThat(
+            meterRegistry
+                .find(MethodTimingInterceptor.METER_NAME)
+                .tag(MethodTimingInterceptor.CLASS_DIMENSION, "BookRepositoryInternalImpl")
+                .timers()
+        ).isEmpty();
+    }
+
+    private Timer timer(String className, String methodName) {
+        return meterRegistry
+            .get(MethodTimingInterceptor.METER_NAME)
+            .tag(MethodTimingInterceptor.CLASS_DIMENSION, className)
+            .tag(MethodTimingInterceptor.METHOD_DIMENSION, methodName)
+            .tag(MethodTimingInterceptor.OUTCOME_DIMENSION, MethodTimingInterceptor.SUCCESS)
+            .timer();
+    }
+}
@@ -0,0 +1,130 @@
+package com.library.aop.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for {@link MethodTimingInterceptor}.
+ */
+class MethodTimingInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void timesTheSubscriptionsOfAMono() {
+        Target target = proxy(1);
+
+        Mono<String> result = target.delayed(Duration.ofMillis(50));
+        assertThat(timer("delayed", MethodTimingInterceptor.SUCCESS, MethodTimingInterceptor.NO_EXCEPTION).count()).isZero();
+        result.block();
+        result.block();
+
+        Timer timer = timer("delayed", MethodTimingInterceptor.SUCCESS, MethodTimingInterceptor.NO_EXCEPTION);
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(50);
+        assertThat(elements("delayed").totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void countsTheElementsOfAFlux() {
+        Target target = proxy(1);
+
+        assertThat(target.range(5).collectList().block()).hasSize(5);
+
+        assertThat(timer("range", MethodTimingInterceptor.SUCCESS, MethodTimingInterceptor.NO_EXCEPTION).count()).isEqualTo(1);
+        assertThat(elements("range").totalAmount()).isEqualTo(5);
+    }
+
+    @Test
+    void recordsErrorsAndCancellations() {
+        Target target = proxy(1);
+
+        assertThatThrownBy(() -> target.failing().block()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(target::throwing).isInstanceOf(IllegalArgumentException.class);
+        assertThat(target.range(5).take(2).collectList().block()).hasSize(2);
+        target.delayed(Duration.ofMinutes(1)).subscribe().dispose();
+
+        assertThat(timer("failing", MethodTimingInterceptor.ERROR, "IllegalStateException").count()).isEqualTo(1);
+        assertThat(timer("throwing", MethodTimingInterceptor.ERROR, "IllegalArgumentException").count()).isEqualTo(1);
+        assertThat(timer("range", MethodTimingInterceptor.CANCELLED, MethodTimingInterceptor.NO_EXCEPTION).count()).isEqualTo(1);
+        assertThat(elements("range").totalAmount()).isEqualTo(2);
+        assertThat(timer("delayed", MethodTimingInterceptor.CANCELLED, MethodTimingInterceptor.NO_EXCEPTION).count()).isEqualTo(1);
+    }
+
+    @Test
+    void timesOtherMethodsUntilTheyReturn() {
+        Target target = proxy(1);
+
+        assertThat(target.length("four")).isEqualTo(4);
+
+        assertThat(timer("length", MethodTimingInterceptor.SUCCESS, MethodTimingInterceptor.NO_EXCEPTION).count()).isEqualTo(1);
+        assertThat(meterRegistry.find(MethodTimingInterceptor.ELEMENTS_METER_NAME).summaries()).isEmpty();
+    }
+
+    @Test
+    void callsLeftOutOfTheSampleAreNotTimed() {
+        Target target = proxy(0);
+
+        assertThat(target.range(5).collectList().block()).hasSize(5);
+        assertThat(target.length("four")).isEqualTo(4);
+
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+
+    private Target proxy(double sampleRate) {
+        ProxyFactory proxyFactory = new ProxyFactory(new Target());
+        proxyFactory.addAdvice(new MethodTimingInterceptor(() -> meterRegistry, () -> sampleRate, false));
+        return (Target) proxyFactory.getProxy();
+    }
+
+    private Timer timer(String method, String outcome, String exception) {
+        return meterRegistry
+            .get(MethodTimingInterceptor.METER_NAME)
+            .tag(MethodTimingInterceptor.CLASS_DIMENSION, "Target")
+            .tag(MethodTimingInterceptor.METHOD_DIMENSION, method)
+            .tag(MethodTimingInterceptor.OUTCOME_DIMENSION, outcome)
+            .tag(MethodTimingInterceptor.EXCEPTION_DIMENSION, exception)
+            .timer();
+    }
+
+    private DistributionSummary elements(String method) {
+        return meterRegistry
+            .get(MethodTimingInterceptor.ELEMENTS_METER_NAME)
+            .tag(MethodTimingInterceptor.CLASS_DIMENSION, "Target")
+            .tag(MethodTimingInterceptor.METHOD_DIMENSION, method)
+            .summary();
+    }
+
+    static class Target {
+
+        public Mono<String> delayed(Duration delay) {
+            return Mono.just("done").delayElement(delay);
+        }
+
+        public Flux<Integer> range(int count) {
+            return Flux.range(0, count);
+        }
+
+        public Mono<String> failing() {
+            return Mono.error(new IllegalStateException("failed"));
+        }
+
+        public Mono<String> throwing() {
+            throw new IllegalArgumentException("thrown");
+        }
+
+        public int length(String value) {
+            return value.length();
+        }
+    }
+}
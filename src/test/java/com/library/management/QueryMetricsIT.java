@@ -0,0 +1,74 @@
+package com.library.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+
+import com.library.IntegrationTest;
+import com.library.domain.criteria.BookCriteria;
+import com.library.repository.BookRepository;
+import com.library.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the instrumentation of the connection factory, and the {@link SlowQueriesEndpoint}.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_TIMEOUT)
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class QueryMetricsIT {
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void connectionFactoryIsInstrumentedAroundThePool() {
+        assertThat(connectionFactory).isInstanceOf(InstrumentedConnectionFactory.class);
+        assertThat(((Wrapped<?>) connectionFactory).unwrap()).isInstanceOf(ConnectionPool.class);
+        assertThat(meterRegistry.find("r2dbc.pool.acquired").gauge()).isNotNull();
+    }
+
+    @Test
+    void statementsAreTaggedWithTheRepositoryMethod() {
+        // a filter no other caller uses, so that the shape of the statement is only issued by this method
+        BookCriteria criteria = new BookCriteria();
+        criteria.copiesOwned().setSpecified(true);
+        bookRepository.findByCriteria(criteria).collectList().block();
+
+        Timer timer = meterRegistry
+            .get(QueryMetrics.QUERY_METER_NAME)
+            .tag(QueryMetrics.ORIGIN_DIMENSION, "BookRepository.findByCriteria")
+            .timer();
+        assertThat(timer.count()).isPositive();
+        assertThat(meterRegistry.get(QueryMetrics.ACQUIRE_METER_NAME).timer().count()).isPositive();
+
+        webTestClient
+            .get()
+            .uri("/management/slowqueries")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].origin")
+            .value(hasItem("BookRepository.findByCriteria"));
+    }
+}
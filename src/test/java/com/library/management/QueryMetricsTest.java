@@ -0,0 +1,114 @@
+package com.library.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.library.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import java.util.List;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Unit tests for {@link QueryMetrics} and {@link InstrumentedConnectionFactory}.
+ */
+class QueryMetricsTest {
+
+    private MeterRegistry meterRegistry;
+
+    private QueryMetrics queryMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queryMetrics = new QueryMetrics(meterRegistry, new ApplicationProperties());
+    }
+
+    @Test
+    void normalizesLiteralsAndRepeatedMarkers() {
+        String select = "SELECT e.id FROM book e WHERE e.title = 'O''Brien' AND e.id IN ($1, $2, $3) LIMIT 20";
+
+        assertThat(QueryMetrics.normalize(select)).isEqualTo("SELECT e.id FROM book e WHERE e.title = ? AND e.id IN ($?, ...) LIMIT ?");
+        assertThat(QueryMetrics.normalize("INSERT INTO t (a, b) VALUES ($1, :b1), ($2, :b2)")).isEqualTo(
+            "INSERT INTO t (a, b) VALUES ($?, :b?), ..."
+        );
+    }
+
+    @Test
+    void recordsStatementsWithTheirOrigin() {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        Result result = mock(Result.class);
+        ConnectionFactory pool = mock(ConnectionFactory.class);
+        when(pool.create()).thenAnswer(invocation -> Mono.just(connection));
+        when(connection.createStatement(any())).thenReturn(statement);
+        when(statement.execute()).thenAnswer(invocation -> Flux.just(result));
+        when(result.map(any(BiFunction.class))).thenAnswer(invocation -> Flux.just("a", "b", "c"));
+        InstrumentedConnectionFactory connectionFactory = new InstrumentedConnectionFactory(pool, queryMetrics);
+
+        List<?> rows = Mono.from(connectionFactory.create())
+            .flatMapMany(c -> Flux.from(c.createStatement("SELECT * FROM book WHERE id = $1").execute()))
+            .flatMap(r -> r.map((row, metadata) -> row))
+            .contextWrite(context -> context.put(QueryOriginInterceptor.CONTEXT_KEY, "BookRepository.findById"))
+            .collectList()
+            .block();
+
+        assertThat(rows).hasSize(3);
+        assertThat(meterRegistry.get(QueryMetrics.ACQUIRE_METER_NAME).timer().count()).isEqualTo(1);
+        Timer timer = meterRegistry
+            .get(QueryMetrics.QUERY_METER_NAME)
+            .tag(QueryMetrics.ORIGIN_DIMENSION, "BookRepository.findById")
+            .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(meterRegistry.get(QueryMetrics.QUERY_ROWS_METER_NAME).summary().totalAmount()).isEqualTo(3);
+        assertThat(queryMetrics.getSlowQueryLog().getSlowQueries())
+            .singleElement()
+            .satisfies(slowQuery -> {
+                assertThat(slowQuery.sql()).isEqualTo("SELECT * FROM book WHERE id = $?");
+                assertThat(slowQuery.origin()).isEqualTo("BookRepository.findById");
+                assertThat(slowQuery.rows()).isEqualTo(3);
+            });
+        assertThat(((Wrapped<?>) connectionFactory).unwrap()).isSameAs(pool);
+    }
+
+    @Test
+    void capsTheNumberOfShapesMetered() {
+        meterRegistry.config().meterFilter(QueryMetrics.maximumQueryTags());
+        queryMetrics = new QueryMetrics(meterRegistry, new ApplicationProperties());
+
+        for (int i = 0; i < QueryMetrics.MAX_SHAPES + 10; i++) {
+            // the same shape, with other literals
+            queryMetrics.recordQuery("SELECT * FROM t" + i + " WHERE id = 1", "unknown", 1000, 1);
+            queryMetrics.recordQuery("SELECT * FROM t" + i + " WHERE id = 2", "unknown", 1000, 1);
+        }
+
+        assertThat(meterRegistry.get(QueryMetrics.QUERY_METER_NAME).timers()).hasSize(QueryMetrics.MAX_SHAPES);
+        assertThat(meterRegistry.get(QueryMetrics.QUERY_METER_NAME).tag(QueryMetrics.QUERY_DIMENSION, queryTagOf(0)).timer().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void statementsWithoutRepositoryHaveAnUnknownOrigin() {
+        queryMetrics.recordQuery("SELECT 1", QueryOriginInterceptor.origin(Context.empty()), 1000, 1);
+
+        Timer timer = meterRegistry.get(QueryMetrics.QUERY_METER_NAME).tag(QueryMetrics.ORIGIN_DIMENSION, "unknown").timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    private static String queryTagOf(int table) {
+        return Integer.toHexString(QueryMetrics.normalize("SELECT * FROM t" + table + " WHERE id = 1").hashCode());
+    }
+}
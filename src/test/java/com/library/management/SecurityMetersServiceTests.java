@@ -13,6 +13,8 @@ class SecurityMetersServiceTests {
 
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
 
+    private static final String LOGIN_RATE_LIMITED_METER_EXPECTED_NAME = "security.authentication.rate-limited";
+
     private MeterRegistry meterRegistry;
 
     private SecurityMetersService securityMetersService;
@@ -67,4 +69,16 @@ class SecurityMetersServiceTests {
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
+
+    @Test
+    void testLoginRateLimitedCountersByKey() {
+        assertThat(meterRegistry.find(LOGIN_RATE_LIMITED_METER_EXPECTED_NAME).counters()).hasSize(2);
+
+        securityMetersService.trackLoginRateLimitedByAddress();
+        securityMetersService.trackLoginRateLimitedByUsername();
+        securityMetersService.trackLoginRateLimitedByUsername();
+
+        assertThat(meterRegistry.get(LOGIN_RATE_LIMITED_METER_EXPECTED_NAME).tag("key", "address").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(LOGIN_RATE_LIMITED_METER_EXPECTED_NAME).tag("key", "username").counter().count()).isEqualTo(2);
+    }
 }
@@ -0,0 +1,47 @@
+package com.library.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SlowQueryLog}.
+ */
+class SlowQueryLogTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void keepsTheSlowestShapesSlowestFirst() {
+        SlowQueryLog log = new SlowQueryLog(2);
+
+        log.record("a", "SELECT a", "A.find", 10 * MILLIS, 1);
+        log.record("b", "SELECT b", "B.find", 30 * MILLIS, 2);
+        log.record("c", "SELECT c", "C.find", 20 * MILLIS, 3);
+        log.record("d", "SELECT d", "D.find", 5 * MILLIS, 4);
+
+        assertThat(log.getSlowQueries()).extracting(SlowQueryLog.SlowQuery::query).containsExactly("b", "c");
+    }
+
+    @Test
+    void aggregatesTheExecutionsOfATrackedShape() {
+        SlowQueryLog log = new SlowQueryLog(2);
+
+        log.record("a", "SELECT a", "A.find", 10 * MILLIS, 1);
+        log.record("a", "SELECT a", "A.findAll", 30 * MILLIS, 7);
+        log.record("a", "SELECT a", "A.find", 20 * MILLIS, 1);
+
+        assertThat(log.getSlowQueries()).containsExactly(new SlowQueryLog.SlowQuery("a", "SELECT a", "A.findAll", 3, 30, 20, 7));
+    }
+
+    @Test
+    void clearForgetsTheShapes() {
+        SlowQueryLog log = new SlowQueryLog(1);
+        log.record("a", "SELECT a", "A.find", 10 * MILLIS, 1);
+
+        log.clear();
+        log.record("b", "SELECT b", "B.find", MILLIS, 1);
+
+        assertThat(log.getSlowQueries()).extracting(SlowQueryLog.SlowQuery::query).containsExactly("b");
+    }
+}
@@ -0,0 +1,109 @@
+package com.library.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.library.IntegrationTest;
+import com.library.domain.Book;
+import com.library.domain.criteria.BookCriteria;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Integration tests for {@link BookRepository#streamByCriteria(BookCriteria)} over a synthetic table of 200,000 books.
+ * <p>
+ * Only the PostgreSQL driver fetches from a server-side cursor, so these tests are skipped on other databases; run them with
+ * the {@code prod} profile. Filling the table takes longer than the default timeout of the tests.
+ */
+@IntegrationTest
+@Timeout(value = 1, unit = TimeUnit.MINUTES)
+class BookRepositoryStreamingIT {
+
+    private static final int ROWS = 200_000;
+
+    private static final int SAMPLE_EVERY = 25_000;
+
+    private static final long MAX_HEAP_GROWTH = 16L * 1024 * 1024;
+
+    private static final String TITLE_PREFIX = "streamed-";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void insertBooks() {
+        assumeTrue("PostgreSQL".equals(databaseClient.getConnectionFactory().getMetadata().getName()), "needs a server-side cursor");
+        databaseClient
+            .sql(
+                "INSERT INTO book (title, copies_owned, status) " +
+                "SELECT :prefix || n, n % 5, 'AVAILABLE' FROM generate_series(1, :rows) AS n"
+            )
+            .bind("prefix", TITLE_PREFIX)
+            .bind("rows", ROWS)
+            .then()
+            .block(Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void deleteBooks() {
+        databaseClient
+            .sql("DELETE FROM book WHERE title LIKE :pattern")
+            .bind("pattern", TITLE_PREFIX + "%")
+            .then()
+            .block(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void streamingKeepsHeapBounded() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeapAfterGc(memory);
+        long maxGrowth = 0;
+        long count = 0;
+
+        for (Book book : bookRepository.streamByCriteria(criteria()).toIterable(256)) {
+            assertThat(book.getTitle()).startsWith(TITLE_PREFIX);
+            if (++count % SAMPLE_EVERY == 0) {
+                maxGrowth = Math.max(maxGrowth, usedHeapAfterGc(memory) - baseline);
+            }
+        }
+
+        assertThat(count).isEqualTo(ROWS);
+        assertThat(maxGrowth).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    @Test
+    void cancellingTheStreamStopsTheQuery() {
+        assertThat(bookRepository.streamByCriteria(criteria()).take(10).count().block(Duration.ofSeconds(10))).isEqualTo(10);
+
+        Long running = databaseClient
+            .sql("SELECT COUNT(*) FROM pg_stat_activity WHERE state = 'active' AND query LIKE '%FROM book%' AND pid <> pg_backend_pid()")
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .block(Duration.ofSeconds(10));
+        assertThat(running).isZero();
+    }
+
+    private static BookCriteria criteria() {
+        BookCriteria criteria = new BookCriteria();
+        criteria.title().setContains(TITLE_PREFIX);
+        return criteria;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
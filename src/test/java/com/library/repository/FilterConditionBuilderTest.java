@@ -0,0 +1,103 @@
+package com.library.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.library.domain.enumeration.BookStatusEnum;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.LocalDateFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Unit tests for {@link FilterConditionBuilder}.
+ */
+class FilterConditionBuilderTest {
+
+    private static final Table TABLE = Table.aliased("book", EntityManager.ENTITY_ALIAS);
+
+    @Test
+    void noFilterBuildsNoCondition() {
+        FilterConditionBuilder builder = new FilterConditionBuilder();
+        builder.buildFilterConditionForField(null, TABLE.column("title"));
+
+        assertThat(builder.buildConditions()).isNull();
+        assertThat(builder.getShape()).isEmpty();
+    }
+
+    @Test
+    void valuesAreBindMarkersNotLiterals() {
+        FilterConditionBuilder builder = new FilterConditionBuilder();
+        builder.buildFilterConditionForField(new StringFilter().setEquals("O'Brien"), TABLE.column("title"));
+        builder.buildFilterConditionForField(
+            new LocalDateFilter().setGreaterThan(LocalDate.of(2000, 1, 1)),
+            TABLE.column("publication_date")
+        );
+
+        String sql = render(builder.buildConditions());
+
+        assertThat(sql).contains("e.title = :filter0").contains("e.publication_date > :filter1").doesNotContain("O'Brien");
+        assertThat(builder.getShape()).isEqualTo("title.equals;publication_date.greaterThan;");
+    }
+
+    @Test
+    void bindsEnumsByNameAndListsForIn() {
+        Filter<BookStatusEnum> status = new Filter<BookStatusEnum>().setIn(List.of(BookStatusEnum.AVAILABLE, BookStatusEnum.BORROWED));
+        FilterConditionBuilder builder = new FilterConditionBuilder();
+        builder.buildFilterConditionForField(status, TABLE.column("status"));
+        GenericExecuteSpec spec = mock(GenericExecuteSpec.class);
+        when(spec.bind(anyString(), ArgumentMatchers.<Object>any())).thenReturn(spec);
+
+        builder.bind(spec);
+
+        assertThat(render(builder.buildConditions())).contains("e.status IN (:filter0)");
+        verify(spec).bind("filter0", List.of("AVAILABLE", "BORROWED"));
+        verifyNoMoreInteractions(spec);
+    }
+
+    @Test
+    void emptyInMatchesNothing() {
+        FilterConditionBuilder builder = new FilterConditionBuilder();
+        builder.buildFilterConditionForField(new Filter<Long>().setIn(List.of()), TABLE.column("id"));
+
+        assertThat(render(builder.buildConditions())).contains("1 = 0");
+    }
+
+    @Test
+    void containsIsCaseInsensitiveAndEscapesWildcards() {
+        FilterConditionBuilder builder = new FilterConditionBuilder();
+        builder.buildFilterConditionForField(new StringFilter().setContains("100%_done"), TABLE.column("title"));
+        GenericExecuteSpec spec = mock(GenericExecuteSpec.class);
+        when(spec.bind(anyString(), ArgumentMatchers.<Object>any())).thenReturn(spec);
+
+        builder.bind(spec);
+
+        assertThat(render(builder.buildConditions())).contains("UPPER(e.title) LIKE :filter0");
+        verify(spec).bind("filter0", "%100\\%\\_DONE%");
+    }
+
+    @Test
+    void specifiedChecksNullity() {
+        FilterConditionBuilder builder = new FilterConditionBuilder();
+        builder.buildFilterConditionForField(new LocalDateFilter().setSpecified(false), TABLE.column("publication_date"));
+
+        assertThat(render(builder.buildConditions())).contains("e.publication_date IS NULL");
+        assertThat(builder.getShape()).isEqualTo("publication_date.specified=false;");
+    }
+
+    private static String render(Condition condition) {
+        return SqlRenderer.toString(Select.builder().select(TABLE.column("id")).from(TABLE).where(condition).build());
+    }
+}
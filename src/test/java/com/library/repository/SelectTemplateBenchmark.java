@@ -0,0 +1,113 @@
+package com.library.repository;
+
+import static org.mockito.Mockito.mock;
+
+import com.library.config.ApplicationProperties;
+import com.library.domain.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.r2dbc.query.UpdateMapper;
+import org.springframework.data.relational.core.dialect.RenderContextFactory;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Comparison;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Compares building the SQL of {@code BookRepository.findById} the legacy way, rendering the AST with the id inlined as a literal
+ * on every call, with serving the statement from the {@link EntityManager} select templates with a bind marker.
+ * <p>
+ * Not run by the test suite, start it with
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.library.repository.SelectTemplateBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectTemplateBenchmark {
+
+    private final Table entityTable = Table.aliased("book", EntityManager.ENTITY_ALIAS);
+    private final Table categoryTable = Table.aliased("category", "category");
+
+    private EntityManager entityManager;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        PostgresDialect dialect = PostgresDialect.INSTANCE;
+        MappingR2dbcConverter converter = new MappingR2dbcConverter(new R2dbcMappingContext());
+        DatabaseClient databaseClient = DatabaseClient.builder()
+            .connectionFactory(mock(ConnectionFactory.class))
+            .bindMarkers(dialect.getBindMarkersFactory())
+            .build();
+        SqlRenderer sqlRenderer = SqlRenderer.create(new RenderContextFactory(dialect).createRenderContext());
+        entityManager = new EntityManager(
+            sqlRenderer,
+            new UpdateMapper(dialect, converter),
+            new R2dbcEntityTemplate(databaseClient, dialect, converter),
+            new SimpleMeterRegistry(),
+            new ApplicationProperties()
+        );
+    }
+
+    @Benchmark
+    public String renderWithLiteral() {
+        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(Long.toString(++id)));
+        return entityManager.createSelect(createSelectFrom(), Book.class, null, whereClause);
+    }
+
+    @Benchmark
+    public String cachedTemplate() {
+        ++id;
+        return entityManager.getSelectTemplate(Book.class, "findById", () ->
+            entityManager.createSelect(
+                createSelectFrom(),
+                Book.class,
+                null,
+                Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"))
+            )
+        );
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
+        List<Expression> columns = BookSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        columns.addAll(CategorySqlHelper.getColumns(categoryTable, "category"));
+        return Select.builder()
+            .select(columns)
+            .from(entityTable)
+            .leftOuterJoin(categoryTable)
+            .on(Column.create("category_id", entityTable))
+            .equals(Column.create("id", categoryTable));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SelectTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,172 @@
+package com.library.repository;
+
+import com.library.config.ApplicationProperties;
+import com.library.config.CacheConfiguration;
+import com.library.domain.User;
+import com.library.repository.cache.NearCache;
+import com.library.security.DomainUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.r2dbc.query.UpdateMapper;
+import org.springframework.data.relational.core.dialect.RenderContextFactory;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Measures the throughput of the user lookup of an authentication, {@link DomainUserDetailsService#findByUsername(String)},
+ * against an in-memory H2 database of 1000 users, with the user cache disabled, as it was before, and enabled.
+ * <p>
+ * The password check is left out: it costs the same with and without the cache and would hide the difference.
+ * Not run by the test suite, start it with
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.library.repository.UserDetailsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    private static final int USERS = 1000;
+
+    @Param({ "false", "true" })
+    public boolean cached;
+
+    private ConnectionPool connectionPool;
+    private DomainUserDetailsService userDetailsService;
+
+    @Setup
+    public void setUp() {
+        connectionPool = new ConnectionPool(
+            ConnectionPoolConfiguration.builder(ConnectionFactories.get("r2dbc:h2:mem:///user-details-benchmark-" + cached))
+                .maxSize(8)
+                .build()
+        );
+        DatabaseClient db = DatabaseClient.builder()
+            .connectionFactory(connectionPool)
+            .bindMarkers(H2Dialect.INSTANCE.getBindMarkersFactory())
+            .build();
+        createUsers(db);
+
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        MappingR2dbcConverter converter = new MappingR2dbcConverter(
+            mappingContext,
+            R2dbcCustomConversions.of(H2Dialect.INSTANCE, List.of())
+        );
+        R2dbcEntityTemplate r2dbcEntityTemplate = new R2dbcEntityTemplate(db, H2Dialect.INSTANCE, converter);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        // a maximum size of 0 disables the cache, every lookup queries the database
+        applicationProperties.getUserCache().setMaximumSize(cached ? 2 * USERS : 0);
+        EntityManager entityManager = new EntityManager(
+            SqlRenderer.create(new RenderContextFactory(H2Dialect.INSTANCE).createRenderContext()),
+            new UpdateMapper(H2Dialect.INSTANCE, converter),
+            r2dbcEntityTemplate,
+            new SimpleMeterRegistry(),
+            applicationProperties
+        );
+        NearCache<String, User> userCache = new CacheConfiguration(applicationProperties, new SimpleMeterRegistry()).userCache();
+        UserRepositoryInternalImpl repository = new UserRepositoryInternalImpl(
+            db,
+            r2dbcEntityTemplate,
+            converter,
+            entityManager,
+            userCache
+        );
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+            UserRepository.class.getClassLoader(),
+            new Class<?>[] { UserRepository.class },
+            (proxy, method, args) -> method.invoke(repository, args)
+        );
+        userDetailsService = new DomainUserDetailsService(userRepository);
+    }
+
+    private static void createUsers(DatabaseClient db) {
+        db
+            .sql(
+                "CREATE TABLE jhi_user (id BIGINT AUTO_INCREMENT PRIMARY KEY, login VARCHAR(50) NOT NULL UNIQUE," +
+                " password_hash VARCHAR(60) NOT NULL, first_name VARCHAR(50), last_name VARCHAR(50), email VARCHAR(191) UNIQUE," +
+                " image_url VARCHAR(256), activated BOOLEAN NOT NULL, lang_key VARCHAR(10), activation_key VARCHAR(20)," +
+                " reset_key VARCHAR(20), created_by VARCHAR(50) NOT NULL, created_date TIMESTAMP, reset_date TIMESTAMP," +
+                " last_modified_by VARCHAR(50), last_modified_date TIMESTAMP)"
+            )
+            .then()
+            .then(
+                db
+                    .sql(
+                        "CREATE TABLE jhi_user_authority (user_id BIGINT NOT NULL, authority_name VARCHAR(50) NOT NULL," +
+                        " PRIMARY KEY (user_id, authority_name))"
+                    )
+                    .then()
+            )
+            .block();
+        for (int i = 0; i < USERS; i++) {
+            db
+                .sql(
+                    "INSERT INTO jhi_user (login, password_hash, email, activated, lang_key, created_by) VALUES" +
+                    " (:login, :password, :email, TRUE, 'en', 'system')"
+                )
+                .bind("login", "user-" + i)
+                .bind("password", "$2a$10$" + "x".repeat(53))
+                .bind("email", "user-" + i + "@localhost")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .flatMap(id ->
+                    db
+                        .sql("INSERT INTO jhi_user_authority (user_id, authority_name) VALUES (:id, 'ROLE_USER')")
+                        .bind("id", id)
+                        .then()
+                )
+                .block();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionPool.dispose();
+    }
+
+    @Benchmark
+    public UserDetails findByLogin() {
+        return userDetailsService.findByUsername("user-" + ThreadLocalRandom.current().nextInt(USERS)).block();
+    }
+
+    @Benchmark
+    public UserDetails findByEmail() {
+        return userDetailsService.findByUsername("user-" + ThreadLocalRandom.current().nextInt(USERS) + "@localhost").block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserDetailsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
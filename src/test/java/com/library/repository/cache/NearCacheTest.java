@@ -0,0 +1,185 @@
+package com.library.repository.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Unit tests for {@link NearCache}.
+ */
+class NearCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private NearCache<Long, List<String>> cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new NearCache<>("test", 2, Duration.ofSeconds(10), List::copyOf, meterRegistry, clock::get);
+    }
+
+    @Test
+    void loadsOnceThenHits() {
+        assertThat(cache.get(1L, this::load).block()).containsExactly("value 1");
+        assertThat(cache.get(1L, this::load).block()).containsExactly("value 1");
+        assertThat(cache.getIfPresent(1L)).containsExactly("value 1");
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentGetsShareOneLoad() {
+        Sinks.One<List<String>> load = Sinks.one();
+        Mono<List<String>> first = cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return load.asMono();
+        });
+        Mono<List<String>> second = cache.get(1L, this::load);
+        first.subscribe();
+        second.subscribe();
+        assertThat(cache.getIfPresent(1L)).isNull();
+
+        load.tryEmitValue(List.of("shared"));
+
+        assertThat(second.block()).containsExactly("shared");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void entriesExpire() {
+        cache.get(1L, this::load).block();
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+        cache.get(1L, this::load).block();
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void entriesExpireEarlierWhenTheirValueSaysSo() {
+        cache.expireAfterLoad(value -> value.contains("value 1") ? Duration.ofSeconds(2) : Duration.ofDays(1));
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.getIfPresent(2L)).containsExactly("value 2");
+
+        clock.addAndGet(Duration.ofSeconds(8).toNanos());
+
+        assertThat(cache.getIfPresent(2L)).isNull();
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+        cache.get(1L, this::load).block();
+
+        cache.get(3L, this::load).block();
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getIfPresent(1L)).isNotNull();
+        assertThat(cache.getIfPresent(2L)).isNull();
+        assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void valuesPutExpireAndAreEvictedLikeLoadedOnes() {
+        cache.put(1L, List.of("put 1"));
+        cache.get(2L, this::load).block();
+
+        assertThat(cache.get(1L, this::load).block()).containsExactly("put 1");
+        assertThat(loads).hasValue(1);
+
+        cache.put(3L, List.of("put 3"));
+        assertThat(cache.getIfPresent(2L)).isNull();
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.getIfPresent(3L)).isNull();
+    }
+
+    @Test
+    void emptyAndFailedLoadsAreNotCached() {
+        assertThat(cache.get(1L, id -> Mono.<List<String>>empty()).block()).isNull();
+        assertThatThrownBy(() -> cache.get(2L, id -> Mono.<List<String>>error(new IllegalStateException("down"))).block()).hasMessage(
+            "down"
+        );
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(1L, this::load).block()).containsExactly("value 1");
+    }
+
+    @Test
+    void invalidationDuringALoadIsNotUndone() {
+        Sinks.One<List<String>> load = Sinks.one();
+        Mono<List<String>> stale = cache.get(1L, id -> load.asMono());
+        stale.subscribe();
+
+        cache.invalidate(1L);
+        load.tryEmitValue(List.of("stale"));
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.get(1L, this::load).block()).containsExactly("value 1");
+    }
+
+    @Test
+    void invalidateIfRemovesMatchesAndLoadsInProgress() {
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+        cache.invalidateIf(value -> value.contains("value 1"));
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.getIfPresent(2L)).containsExactly("value 2");
+
+        Sinks.One<List<String>> load = Sinks.one();
+        cache.get(3L, id -> load.asMono()).subscribe();
+        cache.invalidateIf(value -> false);
+        load.tryEmitValue(List.of("stale"));
+
+        assertThat(cache.getIfPresent(3L)).isNull();
+        assertThat(cache.getIfPresent(2L)).containsExactly("value 2");
+    }
+
+    @Test
+    void returnsCopies() {
+        NearCache<Long, StringBuilder> mutables = new NearCache<>(
+            "mutables",
+            2,
+            Duration.ofSeconds(10),
+            value -> new StringBuilder(value),
+            meterRegistry
+        );
+        mutables.get(1L, id -> Mono.just(new StringBuilder("original"))).block().append(" changed");
+
+        assertThat(mutables.getIfPresent(1L)).hasToString("original");
+    }
+
+    private Mono<List<String>> load(Long id) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return List.of("value " + id);
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package com.library.repository.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.library.repository.routing.ReplicaRoutingConnectionFactory.Route;
+import com.library.repository.routing.ReplicaRoutingConnectionFactory.Selection;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for {@link ReplicaRoutingConnectionFactory} and {@link ReplicaAwareTransactionManager}, over in-memory H2
+ * databases standing for the primary and the replicas, each telling its name.
+ */
+class ReplicaRoutingConnectionFactoryTest {
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+
+    private ConnectionPool primary;
+    private ConnectionPool replica1;
+    private ConnectionPool replica2;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica1 = database("replica1");
+        replica2 = database("replica2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+
+    @Test
+    void routesByContext() {
+        DatabaseClient client = DatabaseClient.create(routing(Selection.ROUND_ROBIN, replica1));
+
+        assertThat(name(client, null)).isEqualTo("primary");
+        assertThat(name(client, Route.PRIMARY)).isEqualTo("primary");
+        assertThat(name(client, Route.REPLICA)).isEqualTo("replica1");
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicas() {
+        ConnectionFactory routing = routing(Selection.ROUND_ROBIN, replica1);
+        DatabaseClient client = DatabaseClient.create(routing);
+        ReplicaAwareTransactionManager transactionManager = new ReplicaAwareTransactionManager(routing);
+        DefaultTransactionDefinition readOnly = new DefaultTransactionDefinition();
+        readOnly.setReadOnly(true);
+        TransactionalOperator readOnlyOperator = TransactionalOperator.create(transactionManager, readOnly);
+        TransactionalOperator readWriteOperator = TransactionalOperator.create(transactionManager);
+
+        assertThat(name(client, readOnlyOperator, null)).isEqualTo("replica1");
+        assertThat(name(client, readOnlyOperator, Route.PRIMARY)).isEqualTo("primary");
+        assertThat(name(client, readWriteOperator, null)).isEqualTo("primary");
+    }
+
+    @Test
+    void roundRobinAlternatesReplicas() {
+        DatabaseClient client = DatabaseClient.create(routing(Selection.ROUND_ROBIN, replica1, replica2));
+
+        List<String> names = List.of(name(client, Route.REPLICA), name(client, Route.REPLICA), name(client, Route.REPLICA));
+
+        assertThat(names).containsExactly("replica1", "replica2", "replica1");
+    }
+
+    @Test
+    void leastPendingAvoidsBusyReplicas() {
+        DatabaseClient client = DatabaseClient.create(routing(Selection.LEAST_PENDING, replica1, replica2));
+        Connection busy = Mono.from(replica1.create()).block();
+        try {
+            for (int i = 0; i < 4; i++) {
+                assertThat(name(client, Route.REPLICA)).isEqualTo("replica2");
+            }
+        } finally {
+            Mono.from(busy.close()).block();
+        }
+    }
+
+    @Test
+    void ejectsFailingReplicas() {
+        ConnectionFactory broken = mock(ConnectionFactory.class);
+        when(broken.create()).thenAnswer(invocation -> Mono.error(new IllegalStateException("replica down")));
+        DatabaseClient client = DatabaseClient.create(
+            new ReplicaRoutingConnectionFactory(primary, List.of(broken, replica2), Selection.ROUND_ROBIN, Duration.ofMinutes(1))
+        );
+
+        List<String> names = List.of(name(client, Route.REPLICA), name(client, Route.REPLICA), name(client, Route.REPLICA));
+
+        assertThat(names).containsExactly("primary", "replica2", "replica2");
+        verify(broken, times(1)).create();
+    }
+
+    @Test
+    void usesPrimaryWhenAllReplicasAreEjected() {
+        ConnectionFactory broken = mock(ConnectionFactory.class);
+        when(broken.create()).thenAnswer(invocation -> Mono.error(new IllegalStateException("replica down")));
+        DatabaseClient client = DatabaseClient.create(
+            new ReplicaRoutingConnectionFactory(primary, List.of(broken), Selection.LEAST_PENDING, Duration.ofMinutes(1))
+        );
+
+        assertThat(name(client, Route.REPLICA)).isEqualTo("primary");
+        assertThat(name(client, Route.REPLICA)).isEqualTo("primary");
+        verify(broken, times(1)).create();
+    }
+
+    private ReplicaRoutingConnectionFactory routing(Selection selection, ConnectionFactory... replicas) {
+        return new ReplicaRoutingConnectionFactory(primary, List.of(replicas), selection, Duration.ofMinutes(1));
+    }
+
+    private static String name(DatabaseClient client, Route route) {
+        return query(client).contextWrite(context -> route != null ? ReplicaRoutingConnectionFactory.withRoute(context, route) : context).block();
+    }
+
+    private static String name(DatabaseClient client, TransactionalOperator operator, Route route) {
+        return query(client)
+            .as(operator::transactional)
+            .contextWrite(context -> route != null ? ReplicaRoutingConnectionFactory.withRoute(context, route) : context)
+            .block();
+    }
+
+    private static Mono<String> query(DatabaseClient client) {
+        return client.sql("SELECT name FROM marker").map(row -> row.get(0, String.class)).one();
+    }
+
+    private ConnectionPool database(String name) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///routing-" + name + ";DB_CLOSE_DELAY=-1");
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory).initialSize(0).maxSize(4).build());
+        pools.add(pool);
+        DatabaseClient client = DatabaseClient.create(pool);
+        client.sql("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(20))").then().block();
+        client.sql("DELETE FROM marker").then().block();
+        client.sql("INSERT INTO marker (name) VALUES (:name)").bind("name", name).then().block();
+        return pool;
+    }
+}
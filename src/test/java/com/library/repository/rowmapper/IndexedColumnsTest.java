@@ -0,0 +1,149 @@
+package com.library.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.library.domain.enumeration.BookStatusEnum;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Unit tests for {@link IndexedColumns}.
+ */
+class IndexedColumnsTest {
+
+    private static final int ID = 0;
+    private static final int STATUS = 1;
+    private static final int COPIES = 2;
+
+    private IndexedColumns columns;
+    private RowMetadata metadata;
+
+    @BeforeEach
+    void setUp() {
+        ColumnConverter converter = new ColumnConverter(
+            R2dbcCustomConversions.of(PostgresDialect.INSTANCE, List.of()),
+            new MappingR2dbcConverter(new R2dbcMappingContext())
+        );
+        columns = new IndexedColumns(converter).add("_id", Long.class).add("_status", BookStatusEnum.class).add("_copies", Long.class);
+        metadata = mock(RowMetadata.class);
+        List<ColumnMetadata> columnMetadatas = List.of(
+            column("OTHER_ID", Long.class),
+            column("E_ID", Long.class),
+            column("E_STATUS", String.class),
+            column("E_COPIES", Integer.class)
+        );
+        when(metadata.getColumnMetadatas()).thenAnswer(invocation -> columnMetadatas);
+    }
+
+    @Test
+    void readsByIndexWithoutNameLookups() {
+        Row row = row(1L, "BORROWED", 3);
+
+        IndexedColumns.Plan plan = columns.plan(row, "e");
+
+        assertThat(plan.<Long>get(row, ID)).isEqualTo(1L);
+        assertThat(plan.<BookStatusEnum>get(row, STATUS)).isEqualTo(BookStatusEnum.BORROWED);
+        assertThat(plan.<Long>get(row, COPIES)).isEqualTo(3L);
+        verify(row, never()).get(anyString(), ArgumentMatchers.<Class<?>>any());
+        verify(row, never()).get(anyString());
+    }
+
+    @Test
+    void readsNullValues() {
+        Row row = row(1L, null, null);
+
+        IndexedColumns.Plan plan = columns.plan(row, "e");
+
+        assertThat(plan.<BookStatusEnum>get(row, STATUS)).isNull();
+        assertThat(plan.<Long>get(row, COPIES)).isNull();
+    }
+
+    @Test
+    void resolvesColumnsOncePerMetadata() {
+        Row first = row(1L, "AVAILABLE", 1);
+        Row second = row(2L, "AVAILABLE", 1);
+
+        IndexedColumns.Plan plan = columns.plan(first, "e");
+
+        assertThat(columns.plan(second, "e")).isSameAs(plan);
+        verify(metadata, times(1)).getColumnMetadatas();
+    }
+
+    @Test
+    void keepsThePlansOfInterleavedResults() {
+        Row first = row(1L, "AVAILABLE", 1);
+        RowMetadata sameColumns = metadata(
+            column("OTHER_ID", Long.class),
+            column("E_ID", Long.class),
+            column("E_STATUS", String.class),
+            column("E_COPIES", Integer.class)
+        );
+        Row second = row(sameColumns, 2L, "AVAILABLE", 1);
+        RowMetadata otherColumns = metadata(
+            column("E_COPIES", Integer.class),
+            column("E_ID", Long.class),
+            column("E_STATUS", String.class)
+        );
+        Row other = mock(Row.class);
+        when(other.getMetadata()).thenReturn(otherColumns);
+        when(other.get(1, Long.class)).thenReturn(3L);
+
+        IndexedColumns.Plan plan = columns.plan(first, "e");
+        IndexedColumns.Plan otherPlan = columns.plan(other, "e");
+
+        assertThat(otherPlan).isNotSameAs(plan);
+        assertThat(otherPlan.<Long>get(other, ID)).isEqualTo(3L);
+        assertThat(columns.plan(second, "e")).isSameAs(plan);
+        assertThat(columns.plan(other, "e")).isSameAs(otherPlan);
+        assertThat(plan.<Long>get(second, ID)).isEqualTo(2L);
+    }
+
+    @Test
+    void failsOnMissingColumn() {
+        Row row = row(1L, "AVAILABLE", 1);
+
+        assertThatThrownBy(() -> columns.plan(row, "book")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("book_id");
+    }
+
+    private Row row(Long id, String status, Integer copies) {
+        return row(metadata, id, status, copies);
+    }
+
+    private static Row row(RowMetadata metadata, Long id, String status, Integer copies) {
+        Row row = mock(Row.class);
+        when(row.getMetadata()).thenReturn(metadata);
+        when(row.get(1, Long.class)).thenReturn(id);
+        when(row.get(2)).thenReturn(status);
+        when(row.get(3)).thenReturn(copies);
+        return row;
+    }
+
+    private static RowMetadata metadata(ColumnMetadata... columnMetadatas) {
+        RowMetadata metadata = mock(RowMetadata.class);
+        when(metadata.getColumnMetadatas()).thenAnswer(invocation -> List.of(columnMetadatas));
+        return metadata;
+    }
+
+    private static ColumnMetadata column(String name, Class<?> javaType) {
+        ColumnMetadata column = mock(ColumnMetadata.class);
+        when(column.getName()).thenReturn(name);
+        when(column.getJavaType()).thenAnswer(invocation -> javaType);
+        return column;
+    }
+}
@@ -0,0 +1,167 @@
+package com.library.repository.rowmapper;
+
+import com.library.domain.Book;
+import com.library.domain.enumeration.BookStatusEnum;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Compares mapping 1M book rows the legacy way, by name through {@link ColumnConverter#fromRow(Row, String, Class)}, with
+ * {@link BookRowMapper}, which reads by index through {@link IndexedColumns}.
+ * <p>
+ * The rows behave like the driver's: they are read by name or index, share one {@link RowMetadata}, and refuse to read the
+ * varchar status column as an enum, so the legacy path takes its exception fallback for it.
+ * Not run by the test suite, start it with
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.library.repository.rowmapper.RowMapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    private static final int DISTINCT_ROWS = 1024;
+
+    private ColumnConverter converter;
+    private BookRowMapper mapper;
+    private Row[] rows;
+
+    @Setup
+    public void setUp() {
+        converter = new ColumnConverter(
+            R2dbcCustomConversions.of(PostgresDialect.INSTANCE, List.of()),
+            new MappingR2dbcConverter(new R2dbcMappingContext())
+        );
+        mapper = new BookRowMapper(converter);
+        StubRowMetadata metadata = new StubRowMetadata(
+            List.of(
+                new StubColumnMetadata("e_id", Long.class),
+                new StubColumnMetadata("e_title", String.class),
+                new StubColumnMetadata("e_publication_date", LocalDate.class),
+                new StubColumnMetadata("e_copies_owned", Integer.class),
+                new StubColumnMetadata("e_status", String.class),
+                new StubColumnMetadata("e_category_id", Long.class),
+                new StubColumnMetadata("e_version", Long.class)
+            )
+        );
+        rows = new Row[DISTINCT_ROWS];
+        for (int i = 0; i < DISTINCT_ROWS; i++) {
+            rows[i] = new StubRow(
+                metadata,
+                new Object[] { (long) i, "Title " + i, LocalDate.ofEpochDay(i), i % 5, BookStatusEnum.values()[i % 3].name(), null, 0L }
+            );
+        }
+    }
+
+    @Benchmark
+    public void mapByName(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            Row row = rows[i & (DISTINCT_ROWS - 1)];
+            Book entity = new Book();
+            entity.setId(converter.fromRow(row, "e_id", Long.class));
+            entity.setTitle(converter.fromRow(row, "e_title", String.class));
+            entity.setPublicationDate(converter.fromRow(row, "e_publication_date", LocalDate.class));
+            entity.setCopiesOwned(converter.fromRow(row, "e_copies_owned", Integer.class));
+            entity.setStatus(converter.fromRow(row, "e_status", BookStatusEnum.class));
+            entity.setCategoryId(converter.fromRow(row, "e_category_id", Long.class));
+            entity.setVersion(converter.fromRow(row, "e_version", Long.class));
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    public void mapByIndex(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(mapper.apply(rows[i & (DISTINCT_ROWS - 1)], "e"));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private record StubColumnMetadata(String getName, Class<?> getJavaType) implements ColumnMetadata {
+        @Override
+        public Type getType() {
+            return new Type.InferredType() {
+                @Override
+                public Class<?> getJavaType() {
+                    return StubColumnMetadata.this.getJavaType;
+                }
+
+                @Override
+                public String getName() {
+                    return getJavaType.getSimpleName();
+                }
+            };
+        }
+    }
+
+    private record StubRowMetadata(List<StubColumnMetadata> getColumnMetadatas) implements RowMetadata {
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return getColumnMetadatas.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return getColumnMetadatas.get(indexOf(name));
+        }
+
+        int indexOf(String name) {
+            for (int i = 0; i < getColumnMetadatas.size(); i++) {
+                if (getColumnMetadatas.get(i).getName().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            throw new NoSuchElementException("Column " + name + " does not exist");
+        }
+    }
+
+    private record StubRow(StubRowMetadata getMetadata, Object[] values) implements Row {
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            Object value = values[index];
+            if (value == null || type == Object.class) {
+                return type.cast(value);
+            }
+            if (!type.isInstance(value)) {
+                throw new IllegalArgumentException("Cannot decode value of type " + value.getClass() + " to " + type);
+            }
+            return type.cast(value);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return get(getMetadata.indexOf(name), type);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.library.security;
+
+import static com.library.security.SecurityUtils.JWT_ALGORITHM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.SecureRandom;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+/**
+ * Unit tests for {@link CachingJwtDecoder}.
+ */
+class CachingJwtDecoderTest {
+
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    private SecretKey key;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ReactiveJwtDecoder delegate;
+
+    @BeforeEach
+    void setUp() {
+        key = randomKey(JWT_ALGORITHM);
+        meterRegistry = new SimpleMeterRegistry();
+        NimbusReactiveJwtDecoder nimbusDecoder = NimbusReactiveJwtDecoder.withSecretKey(key).macAlgorithm(JWT_ALGORITHM).build();
+        nimbusDecoder.setJwtValidator(new JwtTimestampValidator());
+        delegate = token -> {
+            decodes.incrementAndGet();
+            return nimbusDecoder.decode(token);
+        };
+    }
+
+    @Test
+    void verifiesEachTokenOnce() {
+        CachingJwtDecoder decoder = decoder(Clock.systemUTC());
+        String token = token(key, JWT_ALGORITHM, Instant.now().plusSeconds(60));
+
+        Jwt first = decoder.decode(token).block();
+        Jwt second = decoder.decode(token).block();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(second.getSubject()).isEqualTo("user");
+        assertThat(decodes).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tokensAreNotKeptPastTheirExpiry() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        CachingJwtDecoder decoder = decoder(Clock.fixed(expiresAt, Clock.systemUTC().getZone()));
+        String token = token(key, JWT_ALGORITHM, expiresAt);
+
+        decoder.decode(token).block();
+        decoder.decode(token).block();
+
+        assertThat(decodes).hasValue(2);
+    }
+
+    @Test
+    void failuresAreNotCachedAndKeepTheirType() {
+        CachingJwtDecoder decoder = decoder(Clock.systemUTC());
+        String expired = token(key, JWT_ALGORITHM, Instant.now().minus(Duration.ofHours(1)));
+
+        assertThatThrownBy(() -> decoder.decode(expired).block()).isInstanceOf(JwtValidationException.class);
+        assertThatThrownBy(() -> decoder.decode(expired).block()).isInstanceOf(JwtValidationException.class);
+        assertThat(decodes).hasValue(2);
+
+        String otherKey = token(randomKey(JWT_ALGORITHM), JWT_ALGORITHM, Instant.now().plusSeconds(60));
+        assertThatThrownBy(() -> decoder.decode(otherKey).block()).isInstanceOf(BadJwtException.class).hasCauseInstanceOf(
+            BadJWSException.class
+        );
+
+        String otherAlgorithm = token(randomKey(MacAlgorithm.HS256), MacAlgorithm.HS256, Instant.now().plusSeconds(60));
+        assertThatThrownBy(() -> decoder.decode(otherAlgorithm).block())
+            .isInstanceOf(BadJwtException.class)
+            .hasCauseInstanceOf(BadJOSEException.class)
+            .cause()
+            .isNotInstanceOf(BadJWSException.class);
+
+        assertThatThrownBy(() -> decoder.decode("not-a-token").block()).isInstanceOf(BadJwtException.class).hasCauseInstanceOf(
+            ParseException.class
+        );
+    }
+
+    private CachingJwtDecoder decoder(Clock clock) {
+        return new CachingJwtDecoder(delegate, 100, Duration.ofHours(1), clock, meterRegistry);
+    }
+
+    private static String token(SecretKey key, MacAlgorithm algorithm, Instant expiresAt) {
+        JwtClaimsSet claims = JwtClaimsSet.builder().subject("user").issuedAt(expiresAt.minusSeconds(3600)).expiresAt(expiresAt).build();
+        return new NimbusJwtEncoder(new ImmutableSecret<>(key))
+            .encode(JwtEncoderParameters.from(JwsHeader.with(algorithm).build(), claims))
+            .getTokenValue();
+    }
+
+    private static SecretKey randomKey(MacAlgorithm algorithm) {
+        byte[] bytes = new byte[64];
+        new SecureRandom().nextBytes(bytes);
+        return new SecretKeySpec(bytes, algorithm.getName());
+    }
+}
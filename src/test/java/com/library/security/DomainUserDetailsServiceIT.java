@@ -8,6 +8,7 @@ import com.library.config.Constants;
 import com.library.domain.User;
 import com.library.repository.UserRepository;
 import com.library.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Locale;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.AfterEach;
@@ -17,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 /**
  * Integrations tests for {@link DomainUserDetailsService}.
@@ -41,6 +43,9 @@ class DomainUserDetailsServiceIT {
     @Qualifier("userDetailsService")
     private ReactiveUserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     public User getUserOne() {
         User userOne = new User();
         userOne.setLogin(USER_ONE_LOGIN);
@@ -135,4 +140,48 @@ class DomainUserDetailsServiceIT {
             domainUserDetailsService.findByUsername(USER_THREE_LOGIN).block()
         );
     }
+
+    @Test
+    void assertThatRepeatedLookupsAreServedFromTheCache() {
+        domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        double hits = userCacheHits();
+
+        UserDetails userDetails = domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+
+        assertThat(userDetails.getUsername()).isEqualTo(USER_ONE_LOGIN);
+        assertThat(userCacheHits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void assertThatSavedChangesAreSeenByTheNextLookup() {
+        domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        domainUserDetailsService.findByUsername(USER_ONE_EMAIL).block();
+        User user = userRepository.findOneByLogin(USER_ONE_LOGIN).block();
+        user.setPassword(RandomStringUtils.insecure().nextAlphanumeric(60));
+        user.setEmail("test-user-one-changed@localhost");
+        userService.saveUser(user).block();
+
+        assertThat(domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block().getPassword()).isEqualTo(user.getPassword());
+        assertThat(domainUserDetailsService.findByUsername("test-user-one-changed@localhost").block().getUsername()).isEqualTo(
+            USER_ONE_LOGIN
+        );
+        assertThatExceptionOfType(UsernameNotFoundException.class).isThrownBy(() ->
+            domainUserDetailsService.findByUsername(USER_ONE_EMAIL).block()
+        );
+    }
+
+    @Test
+    void assertThatDeletedUsersAreNotFound() {
+        domainUserDetailsService.findByUsername(USER_TWO_LOGIN).block();
+
+        userService.deleteUser(USER_TWO_LOGIN).block();
+
+        assertThatExceptionOfType(UsernameNotFoundException.class).isThrownBy(() ->
+            domainUserDetailsService.findByUsername(USER_TWO_LOGIN).block()
+        );
+    }
+
+    private double userCacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", "user").tag("result", "hit").counter().count();
+    }
 }
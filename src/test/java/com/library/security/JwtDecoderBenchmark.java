@@ -0,0 +1,109 @@
+package com.library.security;
+
+import static com.library.security.SecurityUtils.JWT_ALGORITHM;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+
+/**
+ * Compares the throughput of decoding the tokens of 1000 clients, which send them over and over, with the
+ * {@link NimbusReactiveJwtDecoder} alone, parsing and verifying each token every time, and through the
+ * {@link CachingJwtDecoder}.
+ * <p>
+ * Not run by the test suite, start it with
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.library.security.JwtDecoderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    private static final int TOKENS = 1000;
+
+    private NimbusReactiveJwtDecoder nimbusDecoder;
+    private CachingJwtDecoder cachingDecoder;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        byte[] keyBytes = new byte[64];
+        new SecureRandom().nextBytes(keyBytes);
+        SecretKey key = new SecretKeySpec(keyBytes, JWT_ALGORITHM.getName());
+        nimbusDecoder = NimbusReactiveJwtDecoder.withSecretKey(key).macAlgorithm(JWT_ALGORITHM).build();
+        nimbusDecoder.setJwtValidator(new JwtTimestampValidator());
+        cachingDecoder = new CachingJwtDecoder(
+            nimbusDecoder,
+            2 * TOKENS,
+            Duration.ofHours(1),
+            Clock.systemUTC(),
+            new SimpleMeterRegistry()
+        );
+
+        NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        Instant now = Instant.now();
+        tokens = IntStream.range(0, TOKENS)
+            .mapToObj(i ->
+                JwtClaimsSet.builder()
+                    .subject("user-" + i)
+                    .issuedAt(now)
+                    .expiresAt(now.plus(Duration.ofDays(1)))
+                    .claim(SecurityUtils.AUTHORITIES_KEY, AuthoritiesConstants.USER)
+                    .build()
+            )
+            .map(claims -> encoder.encode(JwtEncoderParameters.from(JwsHeader.with(JWT_ALGORITHM).build(), claims)).getTokenValue())
+            .toList();
+    }
+
+    @Benchmark
+    public Jwt nimbus() {
+        return nimbusDecoder.decode(randomToken()).block();
+    }
+
+    @Benchmark
+    public Jwt cached() {
+        return cachingDecoder.decode(randomToken()).block();
+    }
+
+    private String randomToken() {
+        return tokens.get(ThreadLocalRandom.current().nextInt(TOKENS));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtDecoderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
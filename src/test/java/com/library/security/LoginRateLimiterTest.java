@@ -0,0 +1,164 @@
+package com.library.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LoginRateLimiter}.
+ */
+class LoginRateLimiterTest {
+
+    private static final int THREADS = 8;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void allowsTheCapacityThenRefillsSteadily() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, Duration.ofSeconds(30), 100, clock::get);
+
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isEqualTo(Duration.ofSeconds(10).toNanos());
+        assertThat(limiter.tryAcquire("other")).isZero();
+
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(limiter.tryAcquire("client")).isEqualTo(Duration.ofSeconds(6).toNanos());
+
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isPositive();
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedTheCapacity() throws Exception {
+        LoginRateLimiter limiter = new LoginRateLimiter(100, Duration.ofHours(1), 100, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 10_000; i++) {
+                if (limiter.tryAcquire("client") == 0) {
+                    allowed.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(allowed).hasValue(100);
+    }
+
+    @Test
+    void concurrentAttemptsFollowTheRefill() throws Exception {
+        LoginRateLimiter limiter = new LoginRateLimiter(10, Duration.ofSeconds(10), 100, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 10_000; i++) {
+                if (thread == 0 && i % 100 == 0) {
+                    clock.addAndGet(Duration.ofMillis(100).toNanos());
+                }
+                if (limiter.tryAcquire("client") == 0) {
+                    allowed.incrementAndGet();
+                }
+            }
+        });
+
+        // 10 at once, then one per second of the 10 seconds the clock moved
+        assertThat(allowed.get()).isBetween(10, 20);
+    }
+
+    @Test
+    void clientsStayBoundedUnderAFloodOfKeys() throws Exception {
+        LoginRateLimiter limiter = new LoginRateLimiter(5, Duration.ofMinutes(1), 1000, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 10_000; i++) {
+                if (limiter.tryAcquire("client-" + thread + "-" + i) == 0) {
+                    allowed.incrementAndGet();
+                }
+            }
+        });
+        limiter.tryAcquire("last");
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(1000);
+        // every new client got a bucket of its own
+        assertThat(allowed).hasValue(THREADS * 10_000);
+    }
+
+    @Test
+    void bucketsFullTheSoonestAreDroppedToMakeRoom() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, Duration.ofMinutes(1), 4, clock::get);
+        limiter.tryAcquire("attacked");
+        limiter.tryAcquire("attacked");
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+
+        assertThat(limiter.tryAcquire("new")).isZero();
+        assertThat(limiter.tryAcquire("new")).isZero();
+
+        assertThat(limiter.size()).isEqualTo(2);
+        assertThat(limiter.tryAcquire("attacked")).isPositive();
+        assertThat(limiter.tryAcquire("new")).isPositive();
+    }
+
+    @Test
+    void refilledBucketsAreDroppedOncePerRefillPeriod() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, Duration.ofMinutes(1), 100, clock::get);
+        limiter.tryAcquire("first");
+        limiter.tryAcquire("second");
+        limiter.tryAcquire("second");
+
+        clock.addAndGet(Duration.ofSeconds(45).toNanos());
+        limiter.tryAcquire("third");
+        assertThat(limiter.size()).isEqualTo(3);
+
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        limiter.tryAcquire("fourth");
+        // the first and the second refilled, the third has not yet
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    private void runConcurrently(ThrowingConsumer task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int index = thread;
+            futures.add(
+                executor.submit(() -> {
+                    start.await();
+                    task.accept(index);
+                    return null;
+                })
+            );
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingConsumer {
+        void accept(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.library.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for {@link PasswordHashing}.
+ */
+class PasswordHashingTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PasswordHashing passwordHashing;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties.PasswordHashing properties = new ApplicationProperties.PasswordHashing();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        properties.setStrength(4);
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashing = new PasswordHashing(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHashing.destroy();
+    }
+
+    @Test
+    void hashesAreTimed() {
+        String hash = Mono.fromCallable(() -> passwordHashing.getPasswordEncoder().encode("secret"))
+            .subscribeOn(passwordHashing.getScheduler())
+            .block();
+
+        assertThat(passwordHashing.getPasswordEncoder().matches("secret", hash)).isTrue();
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(meterRegistry.get(PasswordHashing.LATENCY_METER_NAME).tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PasswordHashing.LATENCY_METER_NAME).tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hashesAreRejectedOnceTheQueueIsFull() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        Mono.fromRunnable(() -> {
+            running.countDown();
+            awaitRelease();
+        })
+            .subscribeOn(passwordHashing.getScheduler())
+            .subscribe();
+        running.await();
+        Mono.fromRunnable(this::awaitRelease).subscribeOn(passwordHashing.getScheduler()).subscribe();
+
+        assertThat(meterRegistry.get(PasswordHashing.QUEUE_METER_NAME).gauge().value()).isEqualTo(1);
+        assertThatThrownBy(() -> Mono.just("secret").publishOn(passwordHashing.getScheduler()).block()).hasCauseInstanceOf(
+            PasswordHashingRejectedException.class
+        );
+        assertThat(meterRegistry.get(PasswordHashing.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void strengthIsRaisedToTheTargetLatency() {
+        assertThat(PasswordHashing.calibratedStrength(10, Duration.ofMillis(250), Duration.ofMillis(60))).isEqualTo(12);
+        assertThat(PasswordHashing.calibratedStrength(10, Duration.ofMillis(250), Duration.ofMillis(130))).isEqualTo(10);
+        assertThat(PasswordHashing.calibratedStrength(10, Duration.ofMillis(50), Duration.ofMillis(60))).isEqualTo(10);
+        assertThat(PasswordHashing.calibratedStrength(10, Duration.ofDays(365), Duration.ofMillis(60))).isEqualTo(31);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.domain.enumeration.BookStatusEnum;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+/**
+ * Unit tests for {@link BookImportParser}.
+ */
+class BookImportParserTest {
+
+    private BookImportParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new BookImportParser(new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void parsesCsvWithHeader() {
+        Flux<String> lines = Flux.just(
+            "id;title;publication_date;copies_owned;status;category;authors",
+            "1;Dune;1965-08-01;3;AVAILABLE;Science Fiction;Frank Herbert",
+            "",
+            "2;Good Omens;1990-05-01;1;BORROWED;;Terry Pratchett|Neil Gaiman"
+        );
+
+        List<BookImportParser.ParsedLine> parsed = parser.parse(lines, BookImportService.Format.CSV).collectList().block();
+
+        assertThat(parsed).hasSize(2);
+        assertThat(parsed.get(0).line()).isEqualTo(2);
+        assertThat(parsed.get(0).error()).isNull();
+        assertThat(parsed.get(0).row().getTitle()).isEqualTo("Dune");
+        assertThat(parsed.get(0).row().getPublicationDate()).isEqualTo(LocalDate.of(1965, 8, 1));
+        assertThat(parsed.get(0).row().getCopiesOwned()).isEqualTo(3);
+        assertThat(parsed.get(0).row().getStatus()).isEqualTo(BookStatusEnum.AVAILABLE);
+        assertThat(parsed.get(0).row().getCategory()).isEqualTo("Science Fiction");
+        assertThat(parsed.get(0).row().getAuthors()).containsExactly("Frank Herbert");
+        assertThat(parsed.get(1).line()).isEqualTo(4);
+        assertThat(parsed.get(1).row().getCategory()).isNull();
+        assertThat(parsed.get(1).row().getAuthors()).containsExactly("Terry Pratchett", "Neil Gaiman");
+    }
+
+    @Test
+    void rejectsInvalidCsvLines() {
+        Flux<String> lines = Flux.just("title;copiesOwned;status", "Dune;three;AVAILABLE", "Dune;3", "Dune;3;LOST");
+
+        List<String> errors = parser.parse(lines, BookImportService.Format.CSV).map(BookImportParser.ParsedLine::error).collectList().block();
+
+        assertThat(errors).containsExactly(
+            "Invalid value for copiesowned: three",
+            "Expected 3 fields but found 2",
+            "Invalid value for status: LOST"
+        );
+    }
+
+    @Test
+    void parsesNdjson() {
+        Flux<String> lines = Flux.just(
+            "{\"title\":\"Dune\",\"publicationDate\":\"1965-08-01\",\"copiesOwned\":3," +
+            "\"status\":\"AVAILABLE\",\"authors\":[\"Frank Herbert\"]}",
+            "{\"title\":"
+        );
+
+        List<BookImportParser.ParsedLine> parsed = parser.parse(lines, BookImportService.Format.NDJSON).collectList().block();
+
+        assertThat(parsed).hasSize(2);
+        assertThat(parsed.get(0).line()).isEqualTo(1);
+        assertThat(parsed.get(0).row().getTitle()).isEqualTo("Dune");
+        assertThat(parsed.get(0).row().getAuthors()).containsExactly("Frank Herbert");
+        assertThat(parsed.get(1).line()).isEqualTo(2);
+        assertThat(parsed.get(1).row()).isNull();
+        assertThat(parsed.get(1).error()).startsWith("Invalid JSON");
+    }
+
+    @Test
+    void emptyCsvHasNoRows() {
+        assertThat(parser.parse(Flux.empty(), BookImportService.Format.CSV).collectList().block()).isEmpty();
+    }
+}
@@ -0,0 +1,234 @@
+package com.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.library.IntegrationTest;
+import com.library.config.ApplicationProperties;
+import com.library.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailOutboxDispatcher}, sending to a {@link LocalSmtpServer}.
+ */
+@IntegrationTest
+class MailOutboxDispatcherIT {
+
+    private static final int BATCH_SIZE = 3;
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofMinutes(1);
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LocalSmtpServer smtpServer;
+
+    private MailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void initTest() throws IOException {
+        smtpServer = new LocalSmtpServer();
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(smtpServer.getPort());
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.setProperty("mail.smtp.connectiontimeout", "5000");
+        javaMailProperties.setProperty("mail.smtp.timeout", "5000");
+        javaMailSender.setJavaMailProperties(javaMailProperties);
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getMailOutbox().setBatchSize(BATCH_SIZE);
+        properties.getMailOutbox().setMaxAttempts(MAX_ATTEMPTS);
+        properties.getMailOutbox().setInitialBackoff(INITIAL_BACKOFF);
+        properties.getMailOutbox().setMaxBackoff(Duration.ofMinutes(10));
+        dispatcher = new MailOutboxDispatcher(mailOutboxRepository, javaMailSender, jHipsterProperties, properties, meterRegistry);
+        databaseClient.sql("DELETE FROM mail_outbox").then().block();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        smtpServer.close();
+        databaseClient.sql("DELETE FROM mail_outbox").then().block();
+    }
+
+    @Test
+    void sendsTheOutboxByBatchesOverOneConnectionEach() {
+        Flux.range(0, 7).concatMap(i -> mailService.sendEmail("reader" + i + "@example.com", "Subject " + i, "Content " + i, false, false))
+            .blockLast();
+
+        assertThat(dispatcher.dispatch().block()).isEqualTo(7);
+
+        assertThat(smtpServer.getConnections()).isEqualTo(3);
+        assertThat(smtpServer.getMessages()).hasSize(7);
+        assertThat(smtpServer.getMessages().get(0)).satisfies(message -> {
+            assertThat(message.from()).isEqualTo(jHipsterProperties.getMail().getFrom());
+            assertThat(message.recipients()).containsExactly("reader0@example.com");
+            assertThat(message.data()).contains("Subject: Subject 0").contains("Content 0");
+        });
+        assertThat(outboxSize()).isZero();
+        assertThat(meterRegistry.get(MailOutboxDispatcher.SENT_METER_NAME).counter().count()).isEqualTo(7);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.DELIVERY_METER_NAME).timer().count()).isEqualTo(7);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.BATCH_METER_NAME).timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.PENDING_METER_NAME).gauge().value()).isZero();
+        assertThat(meterRegistry.get(MailOutboxDispatcher.LAG_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void retriesTheEmailsRefusedWithBackoffThenGivesThemUp() {
+        smtpServer.refuseRecipient("unknown@example.com");
+        mailService.sendEmail("reader@example.com", "Subject", "Content", false, false).block();
+        mailService.sendEmail("unknown@example.com", "Subject", "Content", false, false).block();
+
+        Instant before = Instant.now();
+        assertThat(dispatcher.dispatch().block()).isEqualTo(1);
+
+        assertThat(smtpServer.getMessages()).extracting(message -> message.recipients().get(0)).containsExactly("reader@example.com");
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+        assertThat(outboxSize()).isEqualTo(1);
+        assertThat(attempts("unknown@example.com")).isEqualTo(1);
+        assertThat(nextAttemptAt("unknown@example.com")).isBetween(
+            before.plus(INITIAL_BACKOFF).minusSeconds(1),
+            Instant.now().plus(INITIAL_BACKOFF).plusSeconds(1)
+        );
+        assertThat(meterRegistry.get(MailOutboxDispatcher.ATTEMPT_FAILURES_METER_NAME).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.PENDING_METER_NAME).gauge().value()).isEqualTo(1);
+
+        // not due yet
+        assertThat(dispatcher.dispatch().block()).isZero();
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+
+        makeDue();
+        assertThat(dispatcher.dispatch().block()).isZero();
+
+        assertThat(attempts("unknown@example.com")).isEqualTo(MAX_ATTEMPTS);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.PENDING_METER_NAME).gauge().value()).isZero();
+        assertThat(meterRegistry.get(MailOutboxDispatcher.FAILED_METER_NAME).gauge().value()).isEqualTo(1);
+
+        // given up
+        makeDue();
+        assertThat(dispatcher.dispatch().block()).isZero();
+        assertThat(smtpServer.getConnections()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsTheOutboxWhileTheServerIsOutOfService() {
+        smtpServer.setOutOfService(true);
+        mailService.sendEmail("reader1@example.com", "Subject", "Content", false, false).block();
+        mailService.sendEmail("reader2@example.com", "Subject", "Content", false, true).block();
+        databaseClient
+            .sql("UPDATE mail_outbox SET created_at = :createdAt")
+            .bind("createdAt", LocalDateTime.ofInstant(Instant.now().minus(Duration.ofHours(1)), ZoneOffset.UTC))
+            .then()
+            .block();
+
+        assertThat(dispatcher.dispatch().block()).isZero();
+
+        assertThat(smtpServer.getMessages()).isEmpty();
+        assertThat(attempts("reader1@example.com")).isEqualTo(1);
+        assertThat(attempts("reader2@example.com")).isEqualTo(1);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.PENDING_METER_NAME).gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.LAG_METER_NAME).gauge().value()).isGreaterThanOrEqualTo(3600);
+
+        smtpServer.setOutOfService(false);
+        makeDue();
+        assertThat(dispatcher.dispatch().block()).isEqualTo(2);
+
+        assertThat(smtpServer.getMessages()).hasSize(2);
+        assertThat(outboxSize()).isZero();
+    }
+
+    @Test
+    void leavesTheEmailsClaimedByAnotherInstanceUntilTheirLeaseIsOver() {
+        mailService.sendEmail("reader@example.com", "Subject", "Content", false, false).block();
+        Instant now = Instant.now();
+        assertThat(mailOutboxRepository.claim("another-instance", now, now.plus(Duration.ofMinutes(5)), 10, 10).collectList().block())
+            .hasSize(1);
+
+        assertThat(dispatcher.dispatch().block()).isZero();
+        assertThat(smtpServer.getMessages()).isEmpty();
+
+        databaseClient
+            .sql("UPDATE mail_outbox SET claimed_until = :claimedUntil")
+            .bind("claimedUntil", LocalDateTime.ofInstant(now.minusSeconds(1), ZoneOffset.UTC))
+            .then()
+            .block();
+        assertThat(dispatcher.dispatch().block()).isEqualTo(1);
+        assertThat(smtpServer.getMessages()).hasSize(1);
+    }
+
+    @Test
+    void theScheduledDeliverySendsTheOutboxInTheBackground() {
+        mailService.sendEmail("reader@example.com", "Subject", "Content", false, false).block();
+
+        dispatcher.deliver();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> outboxSize() == 0);
+        assertThat(smtpServer.getMessages()).hasSize(1);
+    }
+
+    @Test
+    void doublesTheBackoffUpToItsMaximum() {
+        assertThat(dispatcher.backoff(1)).isEqualTo(INITIAL_BACKOFF);
+        assertThat(dispatcher.backoff(2)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(dispatcher.backoff(4)).isEqualTo(Duration.ofMinutes(8));
+        assertThat(dispatcher.backoff(5)).isEqualTo(Duration.ofMinutes(10));
+        assertThat(dispatcher.backoff(100)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    private void makeDue() {
+        databaseClient
+            .sql("UPDATE mail_outbox SET next_attempt_at = :now")
+            .bind("now", LocalDateTime.ofInstant(Instant.now().minusSeconds(1), ZoneOffset.UTC))
+            .then()
+            .block();
+    }
+
+    private long outboxSize() {
+        return databaseClient.sql("SELECT COUNT(*) FROM mail_outbox").map(row -> row.get(0, Long.class)).one().block();
+    }
+
+    private int attempts(String to) {
+        return databaseClient
+            .sql("SELECT attempts FROM mail_outbox WHERE recipient = :to")
+            .bind("to", to)
+            .map(row -> row.get(0, Integer.class))
+            .one()
+            .block();
+    }
+
+    private Instant nextAttemptAt(String to) {
+        return databaseClient
+            .sql("SELECT next_attempt_at FROM mail_outbox WHERE recipient = :to")
+            .bind("to", to)
+            .map(row -> row.get(0, LocalDateTime.class).toInstant(ZoneOffset.UTC))
+            .one()
+            .block();
+    }
+}
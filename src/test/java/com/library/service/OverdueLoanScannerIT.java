@@ -0,0 +1,213 @@
+package com.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.library.IntegrationTest;
+import com.library.config.ApplicationProperties;
+import com.library.domain.Book;
+import com.library.domain.JobCheckpoint;
+import com.library.domain.Loan;
+import com.library.domain.enumeration.BookStatusEnum;
+import com.library.repository.BookRepository;
+import com.library.repository.JobCheckpointRepository;
+import com.library.repository.LoanRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration tests for {@link OverdueLoanScanner}.
+ */
+@IntegrationTest
+class OverdueLoanScannerIT {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final List<OverdueLoansEvent> events = new CopyOnWriteArrayList<>();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ApplicationProperties properties = new ApplicationProperties();
+
+    private OverdueLoanScanner scanner;
+
+    private Book book;
+
+    private List<Loan> overdueLoans;
+
+    @BeforeEach
+    void initTest() {
+        properties.getOverdueScan().setLoanDays(21);
+        properties.getOverdueScan().setChunkSize(2);
+        properties.getOverdueScan().setConcurrency(3);
+        properties.getOverdueScan().setRetryBackoff(Duration.ofMillis(10));
+        scanner = scanner(event -> events.add((OverdueLoansEvent) event));
+        databaseClient.sql("DELETE FROM job_checkpoint").then().block();
+
+        book = bookRepository.save(new Book().title("Overdue").copiesOwned(10).status(BookStatusEnum.AVAILABLE)).block();
+        overdueLoans = Flux.range(0, 5)
+            .concatMap(i -> loanRepository.save(new Loan().loanDate(TODAY.minusDays(30 + i)).book(book)))
+            .collectList()
+            .block();
+        loanRepository.save(new Loan().loanDate(TODAY.minusDays(30)).returnDate(TODAY.minusDays(2)).book(book)).block();
+        loanRepository.save(new Loan().loanDate(TODAY.minusDays(21)).book(book)).block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        loanRepository.findByBook(book.getId()).concatMap(loanRepository::delete).blockLast();
+        bookRepository.deleteById(book.getId()).block();
+        databaseClient.sql("DELETE FROM job_checkpoint").then().block();
+    }
+
+    @Test
+    void reportsTheLoansNotReturnedInTime() {
+        OverdueLoanScanner.Run run = scanner.scan(TODAY).block();
+
+        assertThat(reportedIds()).containsExactlyInAnyOrderElementsOf(ids(overdueLoans));
+        assertThat(run.overdueLoans()).isGreaterThanOrEqualTo(overdueLoans.size());
+        assertThat(run.chunks()).isGreaterThan(1);
+        assertThat(checkpointRepository.findByJobName(OverdueLoanScanner.JOB_NAME).block()).satisfies(checkpoint -> {
+            assertThat(checkpoint.runDate()).isEqualTo(TODAY);
+            assertThat(checkpoint.completed()).isTrue();
+        });
+        assertThat(meterRegistry.get(OverdueLoanScanner.LOANS_METER_NAME).counter().count()).isEqualTo(run.overdueLoans());
+        assertThat(meterRegistry.get(OverdueLoanScanner.REMAINING_METER_NAME).gauge().value()).isZero();
+        assertThat(meterRegistry.get(OverdueLoanScanner.LAST_COMPLETION_METER_NAME).gauge().value()).isPositive();
+    }
+
+    @Test
+    void resumesFromTheCheckpointOfTheDay() {
+        long resumeFrom = overdueLoans.get(3).getId();
+        checkpointRepository.save(new JobCheckpoint(OverdueLoanScanner.JOB_NAME, TODAY, resumeFrom, false)).block();
+
+        OverdueLoanScanner.Run run = scanner.scan(TODAY).block();
+
+        assertThat(run.fromId()).isEqualTo(resumeFrom);
+        assertThat(reportedIds()).containsExactlyInAnyOrderElementsOf(ids(overdueLoans.subList(3, 5)));
+    }
+
+    @Test
+    void ignoresTheCheckpointOfAnotherDay() {
+        checkpointRepository
+            .save(new JobCheckpoint(OverdueLoanScanner.JOB_NAME, TODAY.minusDays(1), overdueLoans.get(3).getId(), false))
+            .block();
+
+        scanner.scan(TODAY).block();
+
+        assertThat(reportedIds()).containsExactlyInAnyOrderElementsOf(ids(overdueLoans));
+    }
+
+    @Test
+    void scansADayOnce() {
+        scanner.scan(TODAY).block();
+        events.clear();
+
+        OverdueLoanScanner.Run run = scanner.scan(TODAY).block();
+
+        assertThat(run.chunks()).isZero();
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void theScheduledRunFinishesTheRunInterruptedByARestart() {
+        // the run of the day was stopped after the first loans, and the application restarted the next day
+        long resumeFrom = overdueLoans.get(3).getId();
+        checkpointRepository.save(new JobCheckpoint(OverdueLoanScanner.JOB_NAME, TODAY, resumeFrom, false)).block();
+
+        scanner.scanOverdueLoans();
+
+        awaitCompletedRunOf(LocalDate.now());
+        assertThat(reportedIds(TODAY)).containsExactlyInAnyOrderElementsOf(ids(overdueLoans.subList(3, 5)));
+        // the loans of the day are overdue by now as well
+        assertThat(reportedIds(LocalDate.now())).containsAll(ids(overdueLoans));
+    }
+
+    @Test
+    void resumesTheInterruptedRunOnStartup() {
+        long resumeFrom = overdueLoans.get(3).getId();
+        checkpointRepository.save(new JobCheckpoint(OverdueLoanScanner.JOB_NAME, TODAY, resumeFrom, false)).block();
+
+        scanner.resumeInterruptedScan();
+
+        awaitCompletedRunOf(TODAY);
+        assertThat(reportedIds()).containsExactlyInAnyOrderElementsOf(ids(overdueLoans.subList(3, 5)));
+    }
+
+    @Test
+    void resumesAFailedRunFromItsCheckpoint() {
+        AtomicBoolean failed = new AtomicBoolean();
+        scanner = scanner(event -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Listener failure");
+            }
+            events.add((OverdueLoansEvent) event);
+        });
+
+        scanner.scanOverdueLoans();
+
+        awaitCompletedRunOf(LocalDate.now());
+        assertThat(failed).isTrue();
+        assertThat(reportedIds()).containsAll(ids(overdueLoans));
+    }
+
+    private OverdueLoanScanner scanner(ApplicationEventPublisher publisher) {
+        return new OverdueLoanScanner(loanRepository, checkpointRepository, publisher, properties, meterRegistry);
+    }
+
+    private void awaitCompletedRunOf(LocalDate day) {
+        await()
+            .atMost(Duration.ofSeconds(10))
+            .until(
+                () -> checkpointRepository.findByJobName(OverdueLoanScanner.JOB_NAME).block(),
+                checkpoint -> checkpoint != null && checkpoint.runDate().equals(day) && checkpoint.completed()
+            );
+    }
+
+    private Set<Long> reportedIds(LocalDate day) {
+        return reportedIds(events.stream().filter(event -> event.day().equals(day)).toList());
+    }
+
+    private Set<Long> reportedIds() {
+        return reportedIds(events);
+    }
+
+    private Set<Long> reportedIds(List<OverdueLoansEvent> events) {
+        return events
+            .stream()
+            .flatMap(event -> event.loans().stream())
+            .filter(loan -> book.getId().equals(loan.getBookId()))
+            .map(Loan::getId)
+            .collect(Collectors.toSet());
+    }
+
+    private static Set<Long> ids(List<Loan> loans) {
+        return loans.stream().map(Loan::getId).collect(Collectors.toSet());
+    }
+}
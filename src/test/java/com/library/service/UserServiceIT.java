@@ -5,7 +5,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.library.IntegrationTest;
 import com.library.config.Constants;
 import com.library.domain.User;
+import com.library.management.QueryMetrics;
 import com.library.repository.UserRepository;
+import com.library.security.AuthoritiesConstants;
+import com.library.service.dto.AdminUserDTO;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -17,6 +20,9 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -43,10 +49,17 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private QueryMetrics queryMetrics;
+
     private User user;
 
     @BeforeEach
     public void init() {
+        // the users of the other tests and the seeded ones, so the pages only have the users of the test
+        userRepository.deleteAllUserAuthorities().block();
+        userRepository.deleteAll().block();
+
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.insecure().nextAlphanumeric(60));
@@ -170,4 +183,65 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId()).blockOptional();
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    void assertThatGetAllManagedUsersPagesAndSortsInDatabase() {
+        insertUsers(0, 12);
+        userRepository.saveUserAuthority(userRepository.findOneByLogin("user-00010").block().getId(), AuthoritiesConstants.ADMIN).block();
+
+        List<AdminUserDTO> page = userService
+            .getAllManagedUsers(PageRequest.of(1, 5, Sort.by(Sort.Direction.DESC, "login")))
+            .collectList()
+            .block();
+
+        assertThat(page).extracting(AdminUserDTO::getLogin).containsExactly("user-00006", "user-00005", "user-00004", "user-00003", "user-00002");
+
+        page = userService.getAllManagedUsers(PageRequest.of(0, 3, Sort.by("login"))).collectList().block();
+        assertThat(page).extracting(AdminUserDTO::getLogin).containsExactly("user-00000", "user-00001", "user-00002");
+
+        AdminUserDTO withAuthority = userService
+            .getAllManagedUsers(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "login")))
+            .blockFirst();
+        assertThat(withAuthority.getLogin()).isEqualTo("user-00011");
+        assertThat(
+            userService.getAllManagedUsers(PageRequest.of(1, 1, Sort.by(Sort.Direction.DESC, "login"))).blockFirst().getAuthorities()
+        ).containsExactly(AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void assertThatGetAllManagedUsersOnlyReadsThePage() {
+        insertUsers(0, 1000);
+        queryMetrics.getSlowQueryLog().clear();
+
+        List<AdminUserDTO> page = userService.getAllManagedUsers(PageRequest.of(2, 10, Sort.by("login"))).collectList().block();
+
+        assertThat(page).extracting(AdminUserDTO::getLogin).startsWith("user-00020").hasSize(10);
+        // the slow query log keeps every shape until it is full, so it has the statement of the page
+        assertThat(queryMetrics.getSlowQueryLog().getSlowQueries())
+            .filteredOn(slowQuery -> slowQuery.origin().equals("UserRepository.findAllWithAuthorities"))
+            .filteredOn(slowQuery -> !slowQuery.sql().contains("jhi_user_authority"))
+            .singleElement()
+            .satisfies(slowQuery -> {
+                // H2 limits the rows with FETCH FIRST, PostgreSQL with LIMIT
+                assertThat(slowQuery.sql()).contains("OFFSET ?").containsAnyOf("LIMIT ?", "FETCH FIRST ? ROWS ONLY");
+                assertThat(slowQuery.rows()).isEqualTo(10);
+            });
+    }
+
+    private void insertUsers(int from, int to) {
+        userRepository
+            .saveAll(
+                Flux.range(from, to - from).map(i -> {
+                    User newUser = new User();
+                    newUser.setLogin(String.format("user-%05d", i));
+                    newUser.setPassword(RandomStringUtils.insecure().nextAlphanumeric(60));
+                    newUser.setActivated(true);
+                    newUser.setEmail(String.format("user-%05d@localhost", i));
+                    newUser.setLangKey(DEFAULT_LANGKEY);
+                    newUser.setCreatedBy(Constants.SYSTEM);
+                    return newUser;
+                })
+            )
+            .blockLast();
+    }
 }
@@ -0,0 +1,93 @@
+package com.library.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SearchIndex} and {@link TextAnalyzer}.
+ */
+class SearchIndexTest {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex(2.0, 1.5, 1.0);
+        index.put(1, "Germinal", "Émile Zola", "Naturalisme");
+        index.put(2, "L'Assommoir", "Émile Zola", "Naturalisme");
+        index.put(3, "Les Misérables", "Victor Hugo", "Romantisme");
+        index.put(4, "Zola et le naturalisme", "Henri Mitterand", "Essais");
+        index.put(5, "Straße der Ölsardinen", "Bjørn Nørgaard", null);
+    }
+
+    @Test
+    void tokenizesAndFoldsDiacritics() {
+        assertThat(TextAnalyzer.tokenize("L'Assommoir, Émile ZOLA (1877)")).containsExactly("l", "assommoir", "emile", "zola", "1877");
+        assertThat(TextAnalyzer.tokenize("Straße Bjørn Œuvre")).containsExactly("strasse", "bjorn", "oeuvre");
+    }
+
+    @Test
+    void matchesAllTermsInAnyField() {
+        assertThat(index.search("emile zola germinal", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("miserables HUGO", 0, 10).ids()).containsExactly(3L);
+        assertThat(index.search("zola hugo", 0, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void ranksTitleMatchesFirst() {
+        SearchIndex.Hits hits = index.search("naturalisme", 0, 10);
+
+        assertThat(hits.ids()).containsExactly(4L, 1L, 2L);
+        assertThat(hits.total()).isEqualTo(3);
+    }
+
+    @Test
+    void matchesPrefixes() {
+        assertThat(index.search("germ", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("mis", 0, 10).ids()).containsExactly(3L);
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertThat(index.search("germnial", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("miserbales", 0, 10).ids()).containsExactly(3L);
+        assertThat(index.search("strase bjorn", 0, 10).ids()).containsExactly(5L);
+        assertThat(index.search("zloa", 0, 10).ids()).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(index.search("hgo", 0, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void ranksExactMatchesBeforeInexactOnes() {
+        index.put(6, "Germinale", null, null);
+
+        assertThat(index.search("germinal", 0, 10).ids()).containsExactly(1L, 6L);
+    }
+
+    @Test
+    void paginates() {
+        assertThat(index.search("naturalisme", 1, 1)).isEqualTo(new SearchIndex.Hits(List.of(1L), 3));
+        assertThat(index.search("naturalisme", 3, 1)).isEqualTo(new SearchIndex.Hits(List.of(), 3));
+    }
+
+    @Test
+    void updatesAndRemovesDocuments() {
+        index.put(1, "Nana", "Émile Zola", "Naturalisme");
+        index.remove(2);
+
+        assertThat(index.search("germinal", 0, 10).ids()).isEmpty();
+        assertThat(index.search("nana zola", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("assommoir", 0, 10).ids()).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void computesBoundedDistances() {
+        assertThat(TextAnalyzer.distance("zola", "zloa", 2)).isEqualTo(1);
+        assertThat(TextAnalyzer.distance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(TextAnalyzer.distance("kitten", "sitting", 1)).isEqualTo(2);
+        assertThat(TextAnalyzer.distance("abc", "abcdef", 2)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,205 @@
+package com.library.web.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.domain.Book;
+import com.library.domain.enumeration.BookStatusEnum;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares the ways of writing the JSON array of a list endpoint over a table of 500k books, in an in-memory H2 database:
+ * {@code list} collects the rows and encodes the list, as the endpoints did, {@code flux} hands the rows to the default encoder,
+ * one buffer per book, and {@code streaming} hands them to {@link StreamingJsonArrayEncoder}.
+ * <p>
+ * The score is the time to the last byte. The time to the first byte, the memory a request holds and the number of buffers
+ * handed to the server, each a write, are printed at the end of each trial. The memory is the peak growth of the old
+ * generation over its level after a GC before the request, which is where what the request holds on to ends up, unlike the
+ * short-lived garbage of the young generation; it depends on when the collector runs, so compare orders of magnitude rather
+ * than exact figures.
+ * Not run by the test suite, start it with
+ * {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.library.web.codec.JsonArrayEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class JsonArrayEncodingBenchmark {
+
+    private static final int ROWS = 500_000;
+
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private static final ResolvableType BOOK_TYPE = ResolvableType.forClass(Book.class);
+
+    private static final ResolvableType BOOK_LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, Book.class);
+
+    @Param({ "list", "flux", "streaming" })
+    public String encoding;
+
+    private ConnectionPool connectionPool;
+    private DatabaseClient db;
+    private Jackson2JsonEncoder encoder;
+    private final DataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private List<MemoryPoolMXBean> oldGenerationPools;
+    private long oldGenerationBaseline;
+
+    private boolean measuring;
+    private final List<Long> timesToFirstByte = new ArrayList<>();
+    private final List<Long> heldMemories = new ArrayList<>();
+    private long buffers;
+
+    @Setup
+    public void setUp() {
+        connectionPool = new ConnectionPool(
+            ConnectionPoolConfiguration.builder(ConnectionFactories.get("r2dbc:h2:mem:///json-array-encoding-benchmark-" + encoding))
+                .maxSize(2)
+                .build()
+        );
+        db = DatabaseClient.builder().connectionFactory(connectionPool).bindMarkers(H2Dialect.INSTANCE.getBindMarkersFactory()).build();
+        db
+            .sql(
+                "CREATE TABLE book (id BIGINT PRIMARY KEY, title VARCHAR(255) NOT NULL, publication_date DATE," +
+                " copies_owned INT NOT NULL, status VARCHAR(255) NOT NULL, version BIGINT NOT NULL)"
+            )
+            .then()
+            .then(
+                db
+                    .sql(
+                        "INSERT INTO book SELECT x, 'Title of the book ' || x, DATEADD(DAY, MOD(x, 20000), DATE '1970-01-01')," +
+                        " MOD(x, 5), CASE MOD(x, 3) WHEN 0 THEN 'AVAILABLE' WHEN 1 THEN 'BORROWED' ELSE 'UNAVAILABLE' END, 0" +
+                        " FROM SYSTEM_RANGE(1, " +
+                        ROWS +
+                        ")"
+                    )
+                    .then()
+            )
+            .block();
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        encoder = "streaming".equals(encoding)
+            ? new StreamingJsonArrayEncoder(objectMapper, FLUSH_THRESHOLD)
+            : new Jackson2JsonEncoder(objectMapper);
+        oldGenerationPools = ManagementFactory.getMemoryPoolMXBeans()
+            .stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && (pool.getName().contains("Old") || pool.getName().contains("Tenured")))
+            .toList();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration(IterationParams iterationParams) {
+        measuring = iterationParams.getType() == IterationType.MEASUREMENT;
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPeakOldGeneration() {
+        System.gc();
+        oldGenerationPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        oldGenerationBaseline = oldGenerationPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionPool.dispose();
+        System.out.printf(
+            "%n%s: time to first byte %d ms (median), memory held %d MB (median), %d MB (max), %d buffers written%n",
+            encoding,
+            median(timesToFirstByte) / 1_000_000,
+            median(heldMemories) / (1024 * 1024),
+            heldMemories.stream().mapToLong(Long::longValue).max().orElse(0) / (1024 * 1024),
+            buffers
+        );
+    }
+
+    @Benchmark
+    public long encode() {
+        long start = System.nanoTime();
+        AtomicLong firstByte = new AtomicLong();
+        AtomicLong bufferCount = new AtomicLong();
+        Flux<DataBuffer> body = "list".equals(encoding)
+            ? encoder.encode(books().collectList(), bufferFactory, BOOK_LIST_TYPE, MediaType.APPLICATION_JSON, Map.of())
+            : encoder.encode(books(), bufferFactory, BOOK_TYPE, MediaType.APPLICATION_JSON, Map.of());
+        long bytes = body
+            .map(buffer -> {
+                firstByte.compareAndSet(0, System.nanoTime());
+                bufferCount.incrementAndGet();
+                long count = buffer.readableByteCount();
+                DataBufferUtils.release(buffer);
+                return count;
+            })
+            .reduce(0L, Long::sum)
+            .block();
+        if (measuring) {
+            buffers = bufferCount.get();
+            timesToFirstByte.add(firstByte.get() - start);
+            heldMemories.add(oldGenerationPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() - oldGenerationBaseline);
+        }
+        return bytes;
+    }
+
+    private Flux<Book> books() {
+        return db
+            .sql("SELECT id, title, publication_date, copies_owned, status, version FROM book ORDER BY id")
+            .map(row ->
+                new Book()
+                    .id(row.get("id", Long.class))
+                    .title(row.get("title", String.class))
+                    .publicationDate(row.get("publication_date", LocalDate.class))
+                    .copiesOwned(row.get("copies_owned", Integer.class))
+                    .status(BookStatusEnum.valueOf(row.get("status", String.class)))
+                    .version(row.get("version", Long.class))
+            )
+            .all();
+    }
+
+    private static long median(List<Long> values) {
+        return values.isEmpty() ? 0 : values.stream().sorted().toList().get(values.size() / 2);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonArrayEncodingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,124 @@
+package com.library.web.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.repository.Fieldset;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for {@link StreamingJsonArrayEncoder}.
+ */
+class StreamingJsonArrayEncoderTest {
+
+    private static final ResolvableType ITEM_TYPE = ResolvableType.forClass(Item.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TrackingBufferFactory bufferFactory = new TrackingBufferFactory();
+
+    private final StreamingJsonArrayEncoder encoder = new StreamingJsonArrayEncoder(objectMapper, 64);
+
+    @Test
+    void writesTheArrayInBuffersOfAtLeastTheThreshold() throws Exception {
+        List<Item> items = IntStream.range(0, 20).mapToObj(i -> new Item(i, "item " + i)).toList();
+
+        List<String> chunks = encode(Flux.fromIterable(items), MediaType.APPLICATION_JSON);
+
+        assertThat(chunks).hasSizeGreaterThan(2);
+        assertThat(chunks.subList(0, chunks.size() - 1)).allSatisfy(chunk -> assertThat(chunk.length()).isGreaterThanOrEqualTo(64));
+        assertThat(String.join("", chunks)).isEqualTo(objectMapper.writeValueAsString(items));
+    }
+
+    @Test
+    void writesAnEmptyArray() {
+        assertThat(encode(Flux.empty(), MediaType.APPLICATION_JSON)).containsExactly("[]");
+    }
+
+    @Test
+    void singleValuesAndStreamingTypesAreEncodedAsByDefault() {
+        assertThat(encode(Mono.just(new Item(1, "one")), MediaType.APPLICATION_JSON)).containsExactly("{\"id\":1,\"name\":\"one\"}");
+        assertThat(String.join("", encode(Flux.just(new Item(1, "one"), new Item(2, "two")), MediaType.APPLICATION_NDJSON))).isEqualTo(
+            "{\"id\":1,\"name\":\"one\"}\n{\"id\":2,\"name\":\"two\"}\n"
+        );
+    }
+
+    @Test
+    void releasesTheBufferBeingFilledOnError() {
+        Flux<Item> failing = Flux.just(new Item(1, "one")).concatWith(Mono.error(new IllegalStateException("cursor closed")));
+
+        assertThatThrownBy(() -> encoder.encode(failing, bufferFactory, ITEM_TYPE, MediaType.APPLICATION_JSON, Map.of()).blockLast())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("cursor closed");
+
+        assertThat(bufferFactory.allocated).isNotEmpty().allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isZero());
+    }
+
+    @Test
+    void writesTheSparseFieldsetOfTheHints() {
+        StreamingJsonArrayEncoder sparseEncoder = new StreamingJsonArrayEncoder(
+            new ObjectMapper().registerModule(new SparseFieldsetModule(Item.class)),
+            64
+        );
+        Map<String, Object> hints = Map.of(SparseFieldset.ATTRIBUTE, new SparseFieldset(Item.class, Fieldset.of(List.of("id"))));
+
+        assertThat(String.join("", encode(sparseEncoder, Flux.just(new Item(1, "one"), new Item(2, "two")), hints))).isEqualTo(
+            "[{\"id\":1},{\"id\":2}]"
+        );
+        assertThat(encode(sparseEncoder, Mono.just(new Item(1, "one")), hints)).containsExactly("{\"id\":1}");
+        assertThat(encode(sparseEncoder, Mono.just(new Item(1, "one")), Map.of())).containsExactly("{\"id\":1,\"name\":\"one\"}");
+    }
+
+    private List<String> encode(Publisher<?> input, MediaType mediaType) {
+        return encode(encoder, input, mediaType, Map.of());
+    }
+
+    private List<String> encode(StreamingJsonArrayEncoder encoder, Publisher<?> input, Map<String, Object> hints) {
+        return encode(encoder, input, MediaType.APPLICATION_JSON, hints);
+    }
+
+    private List<String> encode(StreamingJsonArrayEncoder encoder, Publisher<?> input, MediaType mediaType, Map<String, Object> hints) {
+        return encoder
+            .encode(input, bufferFactory, ITEM_TYPE, mediaType, hints)
+            .map(buffer -> {
+                String chunk = buffer.toString(StandardCharsets.UTF_8);
+                DataBufferUtils.release(buffer);
+                return chunk;
+            })
+            .collectList()
+            .block();
+    }
+
+    record Item(int id, String name) {}
+
+    private static final class TrackingBufferFactory extends NettyDataBufferFactory {
+
+        private final List<NettyDataBuffer> allocated = new ArrayList<>();
+
+        TrackingBufferFactory() {
+            super(UnpooledByteBufAllocator.DEFAULT);
+        }
+
+        @Override
+        public NettyDataBuffer allocateBuffer(int initialCapacity) {
+            NettyDataBuffer buffer = super.allocateBuffer(initialCapacity);
+            allocated.add(buffer);
+            return buffer;
+        }
+    }
+}
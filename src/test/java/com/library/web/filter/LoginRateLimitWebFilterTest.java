@@ -0,0 +1,152 @@
+package com.library.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.library.management.SecurityMetersService;
+import com.library.security.LoginRateLimitedException;
+import com.library.security.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.PayloadTooLargeException;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Unit tests for {@link LoginRateLimitWebFilter}.
+ */
+class LoginRateLimitWebFilterTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.0.0.1", 40000);
+    private static final InetSocketAddress OTHER_CLIENT = new InetSocketAddress("10.0.0.2", 40000);
+
+    private final List<String> bodies = new ArrayList<>();
+
+    private final WebFilterChain chain = exchange ->
+        DataBufferUtils.join(exchange.getRequest().getBody())
+            .map(body -> {
+                String text = body.toString(StandardCharsets.UTF_8);
+                DataBufferUtils.release(body);
+                return text;
+            })
+            .defaultIfEmpty("")
+            .doOnNext(bodies::add)
+            .then();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SecurityMetersService securityMetersService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        securityMetersService = new SecurityMetersService(meterRegistry);
+    }
+
+    @Test
+    void limitsEachAddress() {
+        LoginRateLimitWebFilter filter = new LoginRateLimitWebFilter(limiter(2), null, securityMetersService);
+
+        filter.filter(login("admin", CLIENT), chain).block();
+        filter.filter(login("user", CLIENT), chain).block();
+        MockServerWebExchange rejected = login("other", CLIENT);
+        assertThatThrownBy(() -> filter.filter(rejected, chain).block()).isInstanceOf(LoginRateLimitedException.class);
+        filter.filter(login("other", OTHER_CLIENT), chain).block();
+
+        assertThat(bodies).hasSize(3);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(rateLimited("address")).isEqualTo(1);
+    }
+
+    @Test
+    void limitsEachUsernameAndPassesTheBodyOn() {
+        LoginRateLimitWebFilter filter = new LoginRateLimitWebFilter(null, limiter(1), securityMetersService);
+
+        filter.filter(login("admin", CLIENT), chain).block();
+        assertThatThrownBy(() -> filter.filter(login("Admin", OTHER_CLIENT), chain).block()).isInstanceOf(
+            LoginRateLimitedException.class
+        );
+        filter.filter(login("user", CLIENT), chain).block();
+
+        assertThat(bodies).containsExactly(loginBody("admin"), loginBody("user"));
+        assertThat(rateLimited("username")).isEqualTo(1);
+    }
+
+    @Test
+    void limitsPasswordResetsByEmail() {
+        LoginRateLimitWebFilter filter = new LoginRateLimitWebFilter(null, limiter(1), securityMetersService);
+
+        filter.filter(resetPassword("user@example.com"), chain).block();
+        assertThatThrownBy(() -> filter.filter(resetPassword(" USER@example.com"), chain).block()).isInstanceOf(
+            LoginRateLimitedException.class
+        );
+
+        assertThat(bodies).containsExactly("user@example.com");
+    }
+
+    @Test
+    void otherRequestsAndUnreadableLoginsAreNotLimited() {
+        LoginRateLimitWebFilter filter = new LoginRateLimitWebFilter(limiter(1), limiter(1), securityMetersService);
+
+        for (int i = 0; i < 3; i++) {
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/authenticate").remoteAddress(CLIENT)), chain).block();
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/api/books").remoteAddress(CLIENT)), chain).block();
+        }
+        LoginRateLimitWebFilter usernameOnly = new LoginRateLimitWebFilter(null, limiter(1), securityMetersService);
+        for (int i = 0; i < 3; i++) {
+            usernameOnly.filter(post("/api/authenticate", "{\"password\":\"secret\"}", CLIENT), chain).block();
+            usernameOnly.filter(post("/api/authenticate", "not json", CLIENT), chain).block();
+        }
+
+        assertThat(bodies).hasSize(12);
+    }
+
+    @Test
+    void rejectsTooLargeBodiesWithoutReadingThemWhole() {
+        LoginRateLimitWebFilter filter = new LoginRateLimitWebFilter(null, limiter(1), securityMetersService);
+        String body = loginBody("admin" + "x".repeat(LoginRateLimitWebFilter.MAX_BODY_SIZE));
+
+        assertThatThrownBy(() -> filter.filter(post("/api/authenticate", body, CLIENT), chain).block()).isInstanceOf(
+            PayloadTooLargeException.class
+        );
+        filter.filter(login("admin", CLIENT), chain).block();
+
+        assertThat(bodies).containsExactly(loginBody("admin"));
+    }
+
+    private double rateLimited(String key) {
+        return meterRegistry.get(SecurityMetersService.LOGIN_RATE_LIMITED_METER_NAME).tag("key", key).counter().count();
+    }
+
+    private static LoginRateLimiter limiter(int capacity) {
+        return new LoginRateLimiter(capacity, Duration.ofSeconds(30L * capacity), 100);
+    }
+
+    private static MockServerWebExchange login(String username, InetSocketAddress client) {
+        return post("/api/authenticate", loginBody(username), client);
+    }
+
+    private static String loginBody(String username) {
+        return "{\"password\":\"secret\",\"rememberMe\":{\"nested\":[1]},\"username\":\"" + username + "\"}";
+    }
+
+    private static MockServerWebExchange resetPassword(String email) {
+        return post("/api/account/reset-password/init", email, CLIENT);
+    }
+
+    private static MockServerWebExchange post(String path, String body, InetSocketAddress client) {
+        return MockServerWebExchange.from(
+            MockServerHttpRequest.post(path).remoteAddress(client).contentType(MediaType.APPLICATION_JSON).body(body)
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package com.library.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.library.repository.routing.ReplicaRoutingConnectionFactory;
+import com.library.repository.routing.ReplicaRoutingConnectionFactory.Route;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for {@link ReadRoutingWebFilter}.
+ */
+class ReadRoutingWebFilterTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.0.0.1", 40000);
+    private static final InetSocketAddress OTHER_CLIENT = new InetSocketAddress("10.0.0.2", 40000);
+
+    private final List<Route> routes = new ArrayList<>();
+
+    private final WebFilterChain chain = exchange ->
+        Mono.deferContextual(context -> {
+            routes.add(ReplicaRoutingConnectionFactory.getRoute(context));
+            return Mono.empty();
+        });
+
+    @Test
+    void readsUseReplicasAndWritesThePrimary() {
+        ReadRoutingWebFilter filter = new ReadRoutingWebFilter(Duration.ofMinutes(1), List.of("/api/activate"));
+
+        filter.filter(exchange(MockServerHttpRequest.get("/api/books"), CLIENT), chain).block();
+        filter.filter(exchange(MockServerHttpRequest.head("/api/books"), CLIENT), chain).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/api/activate?key=abc"), CLIENT), chain).block();
+        filter.filter(exchange(MockServerHttpRequest.post("/api/books"), CLIENT), chain).block();
+
+        assertThat(routes).containsExactly(Route.REPLICA, Route.REPLICA, Route.PRIMARY, Route.PRIMARY);
+    }
+
+    @Test
+    void readsOfAWritingClientStickToThePrimary() {
+        ReadRoutingWebFilter filter = new ReadRoutingWebFilter(Duration.ofMinutes(1), List.of());
+
+        filter.filter(exchange(MockServerHttpRequest.put("/api/books/1"), CLIENT), chain).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/api/books/1"), CLIENT), chain).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/api/books/1"), OTHER_CLIENT), chain).block();
+
+        assertThat(routes).containsExactly(Route.PRIMARY, Route.PRIMARY, Route.REPLICA);
+    }
+
+    @Test
+    void stickinessExpires() throws InterruptedException {
+        ReadRoutingWebFilter filter = new ReadRoutingWebFilter(Duration.ofMillis(50), List.of());
+
+        filter.filter(exchange(MockServerHttpRequest.delete("/api/books/1"), CLIENT), chain).block();
+        Thread.sleep(100);
+        filter.filter(exchange(MockServerHttpRequest.get("/api/books/1"), CLIENT), chain).block();
+
+        assertThat(routes).containsExactly(Route.PRIMARY, Route.REPLICA);
+    }
+
+    @Test
+    void theOldestWritesAreDroppedWhenTheClientsAreTooMany() {
+        AtomicLong clock = new AtomicLong();
+        ReadRoutingWebFilter filter = new ReadRoutingWebFilter(Duration.ofMinutes(1), List.of(), 100, clock::get);
+
+        for (int i = 0; i < 1000; i++) {
+            clock.addAndGet(1000);
+            filter.filter(exchange(MockServerHttpRequest.post("/api/books"), client(i)), chain).block();
+        }
+        routes.clear();
+        filter.filter(exchange(MockServerHttpRequest.get("/api/books"), client(999)), chain).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/api/books"), client(0)), chain).block();
+
+        assertThat(filter.size()).isLessThanOrEqualTo(100);
+        assertThat(routes).containsExactly(Route.PRIMARY, Route.REPLICA);
+    }
+
+    @Test
+    void expiredWritesAreDroppedOncePerStickyWindow() {
+        AtomicLong clock = new AtomicLong();
+        ReadRoutingWebFilter filter = new ReadRoutingWebFilter(Duration.ofNanos(1000), List.of(), 100, clock::get);
+
+        filter.filter(exchange(MockServerHttpRequest.post("/api/books"), CLIENT), chain).block();
+        clock.addAndGet(1000);
+        filter.filter(exchange(MockServerHttpRequest.post("/api/books"), OTHER_CLIENT), chain).block();
+
+        assertThat(filter.size()).isEqualTo(1);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, InetSocketAddress remoteAddress) {
+        return MockServerWebExchange.from(request.remoteAddress(remoteAddress));
+    }
+
+    private static InetSocketAddress client(int number) {
+        return InetSocketAddress.createUnresolved("client-" + number, 40000);
+    }
+}
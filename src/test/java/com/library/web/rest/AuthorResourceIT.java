@@ -20,6 +20,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -239,6 +241,27 @@ class AuthorResourceIT {
             .value(hasItem(DEFAULT_LAST_NAME));
     }
 
+    @Test
+    void getAllAuthorsWithSparseFieldset() {
+        // Initialize the database
+        insertedAuthor = authorRepository.save(author).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&fields=lastName")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(author.getId().intValue()))
+            .jsonPath("$.[*].lastName")
+            .value(hasItem(DEFAULT_LAST_NAME))
+            .jsonPath("$.[*].firstName")
+            .isEmpty();
+    }
+
     @Test
     void getAuthor() {
         // Initialize the database
@@ -470,6 +493,61 @@ class AuthorResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    void getAuthorNotModified() {
+        // Initialize the database
+        insertedAuthor = authorRepository.save(author).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, author.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + insertedAuthor.getVersion() + "\"")
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, author.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + (insertedAuthor.getVersion() + 1) + "\"")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"" + insertedAuthor.getVersion() + "\"");
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, Long.MAX_VALUE)
+            .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+            .exchange()
+            .expectStatus()
+            .isNotFound();
+    }
+
+    @Test
+    void patchAuthorWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedAuthor = authorRepository.save(author).block();
+        String entityTag = "\"" + insertedAuthor.getVersion() + "\"";
+        authorRepository.save(authorRepository.findById(author.getId()).block().firstName("CCCCCCCCCC")).block();
+
+        Author partialUpdatedAuthor = new Author();
+        partialUpdatedAuthor.setId(author.getId());
+        partialUpdatedAuthor.lastName(UPDATED_LAST_NAME);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, author.getId())
+            .header(HttpHeaders.IF_MATCH, entityTag)
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(om.writeValueAsBytes(partialUpdatedAuthor))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(getPersistedAuthor(author).getLastName()).isEqualTo(DEFAULT_LAST_NAME);
+    }
+
     @Test
     void deleteAuthor() {
         // Initialize the database
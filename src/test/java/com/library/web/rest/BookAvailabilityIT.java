@@ -0,0 +1,208 @@
+package com.library.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.library.IntegrationTest;
+import com.library.domain.Book;
+import com.library.domain.BookAvailability;
+import com.library.domain.Loan;
+import com.library.domain.enumeration.BookStatusEnum;
+import com.library.repository.BookRepository;
+import com.library.repository.LoanRepository;
+import com.library.service.BookAvailabilityService;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Integration tests for the availability of the books, maintained by {@link LoanRepository} and served by {@link BookResource}.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser
+class BookAvailabilityIT {
+
+    private static final String AVAILABILITY_API_URL = "/api/books/availability?ids={ids}";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookAvailabilityService bookAvailabilityService;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Book book;
+
+    private Book otherBook;
+
+    @BeforeEach
+    void initTest() {
+        book = bookRepository.save(createBook("Available", 3)).block();
+        otherBook = bookRepository.save(createBook("Other", 1)).block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        loanRepository
+            .findByBook(book.getId())
+            .concatWith(loanRepository.findByBook(otherBook.getId()))
+            .concatMap(loanRepository::delete)
+            .blockLast();
+        bookRepository.deleteById(book.getId()).block();
+        bookRepository.deleteById(otherBook.getId()).block();
+    }
+
+    @Test
+    void loansAreCountedUntilReturned() {
+        Loan first = createLoan(book);
+        createLoan(book);
+        assertThat(availability(book)).isEqualTo(new BookAvailability(book.getId(), 3, 2, 1));
+
+        Loan returned = new Loan();
+        returned.setId(first.getId());
+        returned.setReturnDate(LocalDate.now());
+        webTestClient
+            .patch()
+            .uri("/api/loans/{id}", first.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(returned)
+            .exchange()
+            .expectStatus()
+            .isOk();
+        assertThat(availability(book)).isEqualTo(new BookAvailability(book.getId(), 3, 1, 2));
+
+        webTestClient.delete().uri("/api/loans/{id}", first.getId()).exchange().expectStatus().isNoContent();
+        assertThat(availability(book).copiesOnLoan()).isEqualTo(1);
+    }
+
+    @Test
+    void movingALoanToAnotherBookMovesTheCount() {
+        Loan loan = createLoan(book);
+
+        webTestClient
+            .put()
+            .uri("/api/loans/{id}", loan.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("id", loan.getId(), "loanDate", loan.getLoanDate().toString(), "book", Map.of("id", otherBook.getId())))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        assertThat(availabilities(book.getId() + "," + otherBook.getId())).containsExactly(
+            new BookAvailability(book.getId(), 3, 0, 3),
+            new BookAvailability(otherBook.getId(), 1, 1, 0)
+        );
+    }
+
+    @Test
+    void concurrentLoansAreAllCounted() {
+        availability(book);
+
+        Flux.range(0, 8)
+            .flatMap(i ->
+                loanRepository
+                    .save(new Loan().loanDate(LocalDate.now()).book(book))
+                    .as(transactionalOperator::transactional)
+                    .subscribeOn(Schedulers.parallel())
+            )
+            .blockLast();
+
+        assertThat(availability(book).copiesOnLoan()).isEqualTo(8);
+    }
+
+    @Test
+    void unknownBooksAreLeftOut() {
+        assertThat(availabilities(otherBook.getId() + ",-1," + book.getId()))
+            .extracting(BookAvailability::bookId)
+            .containsExactly(otherBook.getId(), book.getId());
+    }
+
+    @Test
+    void tooManyIdsAreRejected() {
+        String ids = String.join(",", Collections.nCopies(1001, "1"));
+
+        webTestClient.get().uri(AVAILABILITY_API_URL, ids).exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void reconciliationRepairsDrift() {
+        createLoan(book);
+        // a loan written behind the application's back
+        databaseClient
+            .sql("INSERT INTO loan (loan_date, book_id) VALUES (:loanDate, :bookId)")
+            .bind("loanDate", LocalDate.now())
+            .bind("bookId", book.getId())
+            .then()
+            .block();
+        assertThat(availability(book).copiesOnLoan()).isEqualTo(1);
+
+        List<BookAvailability.Drift> drifts = bookAvailabilityService.reconcileReactively().block();
+
+        assertThat(drifts).contains(new BookAvailability.Drift(book.getId(), 1, 2));
+        assertThat(availability(book).copiesOnLoan()).isEqualTo(2);
+        assertThat(bookAvailabilityService.reconcileReactively().block())
+            .extracting(BookAvailability.Drift::bookId)
+            .doesNotContain(book.getId());
+    }
+
+    private static Book createBook(String title, int copies) {
+        return new Book().title(title).publicationDate(LocalDate.of(2000, 1, 1)).copiesOwned(copies).status(BookStatusEnum.AVAILABLE);
+    }
+
+    private Loan createLoan(Book loaned) {
+        return webTestClient
+            .post()
+            .uri("/api/loans")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("loanDate", LocalDate.now().toString(), "book", Map.of("id", loaned.getId())))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Loan.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private BookAvailability availability(Book book) {
+        List<BookAvailability> availabilities = availabilities(book.getId().toString());
+        assertThat(availabilities).hasSize(1);
+        return availabilities.get(0);
+    }
+
+    private List<BookAvailability> availabilities(String ids) {
+        return webTestClient
+            .get()
+            .uri(AVAILABILITY_API_URL, ids)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(new ParameterizedTypeReference<List<BookAvailability>>() {})
+            .returnResult()
+            .getResponseBody();
+    }
+}
@@ -3,16 +3,27 @@ package com.library.web.rest;
 import static com.library.domain.BookAsserts.*;
 import static com.library.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.IntegrationTest;
+import com.library.domain.Author;
 import com.library.domain.Book;
+import com.library.domain.Category;
 import com.library.domain.enumeration.BookStatusEnum;
+import com.library.repository.AuthorRepository;
 import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
 import com.library.repository.EntityManager;
+import com.library.repository.Keyset;
+import com.library.service.dto.BookImportEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -27,6 +38,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -65,6 +80,18 @@ class BookResourceIT {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
     @Mock
     private BookRepository bookRepositoryMock;
 
@@ -290,6 +317,323 @@ class BookResourceIT {
             .value(hasItem(DEFAULT_STATUS.toString()));
     }
 
+    @Test
+    void getAllBooksWithKeysetPagination() {
+        // Initialize the database
+        Book first = bookRepository.save(createEntity().title("AAAAAAAAAA")).block();
+        Book second = bookRepository.save(createEntity().title("AAAAAAAAAB")).block();
+        Book third = bookRepository.save(createEntity().title("AAAAAAAAAC")).block();
+
+        // Get the first page, sorted by title
+        String link = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&sort=title,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .jsonPath("$.[0].id")
+            .isEqualTo(first.getId().intValue())
+            .jsonPath("$.[1].id")
+            .isEqualTo(second.getId().intValue())
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst(HttpHeaders.LINK);
+
+        assertThat(link).contains("rel=\"next\"");
+        String next = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+
+        // Follow the link to the last page
+        webTestClient
+            .get()
+            .uri(next)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(HttpHeaders.LINK)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isEqualTo(third.getId().intValue());
+
+        bookRepository.deleteById(first.getId()).block();
+        bookRepository.deleteById(second.getId()).block();
+        bookRepository.deleteById(third.getId()).block();
+    }
+
+    @Test
+    void getAllBooksByCriteria() {
+        // Initialize the database
+        Book matching = bookRepository.save(createEntity().publicationDate(LocalDate.of(2010, 1, 1))).block();
+        Book tooOld = bookRepository.save(createEntity().publicationDate(LocalDate.of(1990, 1, 1))).block();
+        Book borrowed = bookRepository.save(createEntity().publicationDate(LocalDate.of(2010, 1, 1)).status(UPDATED_STATUS)).block();
+        String criteria = "status.equals=" + DEFAULT_STATUS + "&publicationDate.greaterThan=2000-01-01";
+        String ids = matching.getId() + "," + tooOld.getId() + "," + borrowed.getId();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?" + criteria)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(matching.getId().intValue()))
+            .jsonPath("$.[*].id")
+            .value(not(hasItem(tooOld.getId().intValue())))
+            .jsonPath("$.[*].id")
+            .value(not(hasItem(borrowed.getId().intValue())));
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/count?" + criteria + "&id.in=" + ids)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Long.class)
+            .isEqualTo(1L);
+
+        bookRepository.deleteById(matching.getId()).block();
+        bookRepository.deleteById(tooOld.getId()).block();
+        bookRepository.deleteById(borrowed.getId()).block();
+    }
+
+    @Test
+    void getAllBooksByCriteriaWithKeysetPagination() {
+        // Initialize the database
+        Book first = bookRepository.save(createEntity().title("Filtered A")).block();
+        Book second = bookRepository.save(createEntity().title("Filtered B")).block();
+        Book other = bookRepository.save(createEntity().title("Other")).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&sort=title,asc&title.contains=filtered")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "2")
+            .expectHeader()
+            .value(HttpHeaders.LINK, link -> assertThat(link).contains("title.contains=filtered"))
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isEqualTo(first.getId().intValue());
+
+        bookRepository.deleteById(first.getId()).block();
+        bookRepository.deleteById(second.getId()).block();
+        bookRepository.deleteById(other.getId()).block();
+    }
+
+    @Test
+    void getAllBooksWithInvalidKeysetSort() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&sort=publicationDate,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllBooksWithTamperedKeysetCursor() {
+        String cursor = Keyset.first("copiesOwned", Sort.Direction.ASC, 2).after("many", 1L).toToken();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&cursor=" + cursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.cursorinvalid");
+    }
+
+    @Test
+    void getAllBooksWithSparseFieldset() {
+        // Initialize the database
+        Category category = categoryRepository.save(new Category().name("Sparse category")).block();
+        insertedBook = bookRepository.save(book.category(category)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?fields=title,status&id.equals=" + insertedBook.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].id")
+            .isEqualTo(insertedBook.getId().intValue())
+            .jsonPath("$.[0].title")
+            .isEqualTo(DEFAULT_TITLE)
+            .jsonPath("$.[0].status")
+            .isEqualTo(DEFAULT_STATUS.toString())
+            .jsonPath("$.[0].copiesOwned")
+            .doesNotExist()
+            .jsonPath("$.[0].category")
+            .doesNotExist()
+            .jsonPath("$.[0].authors")
+            .doesNotExist();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?fields=category&id.equals=" + insertedBook.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].category.name")
+            .isEqualTo("Sparse category")
+            .jsonPath("$.[0].title")
+            .doesNotExist();
+
+        bookRepository.delete(insertedBook).block();
+        insertedBook = null;
+        categoryRepository.deleteById(category.getId()).block();
+    }
+
+    @Test
+    void getAllBooksWithSparseFieldsetAndKeysetPagination() {
+        // Initialize the database
+        Book first = bookRepository.save(createEntity().title("Sparse A")).block();
+        Book second = bookRepository.save(createEntity().title("Sparse B")).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&sort=copiesOwned,asc&fields=title&title.contains=sparse")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .value(HttpHeaders.LINK, link -> assertThat(link).contains("rel=\"next\"").contains("fields=title"))
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].title")
+            .value(title -> assertThat(title).asString().startsWith("Sparse"))
+            .jsonPath("$.[0].copiesOwned")
+            .doesNotExist();
+
+        bookRepository.deleteById(first.getId()).block();
+        bookRepository.deleteById(second.getId()).block();
+    }
+
+    @Test
+    void getAllBooksWithInvalidFieldset() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?fields=title,password")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void importBooksFromCsv() {
+        // Initialize the database
+        Category category = categoryRepository.save(new Category().name("Imported category")).block();
+        Author author = authorRepository.save(new Author().firstName("Imported").lastName("Author")).block();
+        String csv = String.join(
+            "\n",
+            "id;title;publication_date;copies_owned;status;category;authors",
+            "1;Imported A;2001-02-03;2;AVAILABLE;Imported category;Imported Author",
+            "2;Imported B;2001-02-03;1;BORROWED;Imported category;Unknown Author",
+            "3;Imported C;2001-02-03;-1;AVAILABLE;;",
+            "4;Imported D;;1;AVAILABLE;;Imported Author|Imported Author"
+        );
+
+        List<BookImportEvent> events = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(csv)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(BookImportEvent.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertThat(events).extracting(BookImportEvent::getType, BookImportEvent::getLine).containsExactly(
+            tuple(BookImportEvent.Type.ERROR, 3L),
+            tuple(BookImportEvent.Type.ERROR, 4L),
+            tuple(BookImportEvent.Type.PROGRESS, null),
+            tuple(BookImportEvent.Type.COMPLETED, null)
+        );
+        assertThat(events.get(0).getMessage()).isEqualTo("Unknown author: Unknown Author");
+        assertThat(events.get(1).getMessage()).contains("copiesOwned");
+        BookImportEvent completed = events.get(3);
+        assertThat(List.of(completed.getProcessed(), completed.getImported(), completed.getFailed())).containsExactly(4L, 2L, 2L);
+
+        List<Book> imported = bookRepository
+            .findAllWithEagerRelationships()
+            .filter(b -> b.getTitle().startsWith("Imported"))
+            .sort((a, b) -> a.getTitle().compareTo(b.getTitle()))
+            .collectList()
+            .block();
+        assertThat(imported).extracting(Book::getTitle).containsExactly("Imported A", "Imported D");
+        assertThat(imported.get(0).getCategoryId()).isEqualTo(category.getId());
+        assertThat(imported.get(0).getPublicationDate()).isEqualTo(LocalDate.of(2001, 2, 3));
+        assertThat(imported.get(0).getAuthors()).extracting(Author::getId).containsExactly(author.getId());
+        assertThat(imported.get(1).getAuthors()).extracting(Author::getId).containsExactly(author.getId());
+
+        deleteEntities(em);
+        authorRepository.deleteById(author.getId()).block();
+        categoryRepository.deleteById(category.getId()).block();
+    }
+
+    @Test
+    void importBooksFromNdjson() {
+        String ndjson = String.join(
+            "\n",
+            "{\"title\":\"Imported NDJSON\",\"copiesOwned\":1,\"status\":\"AVAILABLE\"}",
+            "not json",
+            "{\"title\":\"Imported NDJSON\",\"copiesOwned\":2,\"status\":\"AVAILABLE\"}"
+        );
+
+        List<BookImportEvent> events = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(ndjson)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(BookImportEvent.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertThat(events).extracting(BookImportEvent::getType).containsExactly(
+            BookImportEvent.Type.ERROR,
+            BookImportEvent.Type.PROGRESS,
+            BookImportEvent.Type.COMPLETED
+        );
+        assertThat(events.get(0).getLine()).isEqualTo(2L);
+        assertThat(events.get(2).getImported()).isEqualTo(2L);
+        assertThat(bookRepository.findAll().filter(b -> b.getTitle().equals("Imported NDJSON")).count().block()).isEqualTo(2L);
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllBooksWithEagerRelationshipsIsEnabled() {
         when(bookRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(Flux.empty());
@@ -335,6 +679,76 @@ class BookResourceIT {
             .value(is(DEFAULT_STATUS.toString()));
     }
 
+    @Test
+    void getBookWithEagerRelationshipsLoadsAuthors() {
+        Author first = authorRepository.save(AuthorResourceIT.createEntity()).block();
+        Author second = authorRepository.save(AuthorResourceIT.createEntity()).block();
+        insertedBook = bookRepository.save(book.addAuthor(first).addAuthor(second)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, insertedBook.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.authors.length()")
+            .isEqualTo(2)
+            .jsonPath("$.authors[*].id")
+            .value(containsInAnyOrder(first.getId().intValue(), second.getId().intValue()));
+
+        List<Book> books = bookRepository.findAllWithEagerRelationships().collectList().block();
+        assertThat(books)
+            .filteredOn(insertedBook::equals)
+            .singleElement()
+            .satisfies(loaded -> assertThat(loaded.getAuthors()).containsExactlyInAnyOrder(first, second));
+
+        em.deleteAll("rel_book__author").block();
+        authorRepository.deleteAll(List.of(first, second)).block();
+    }
+
+    @Test
+    void getBookNotModifiedUntilAnEmbeddedAuthorChanges() {
+        Author author = authorRepository.save(AuthorResourceIT.createEntity()).block();
+        insertedBook = bookRepository.save(book.addAuthor(author)).block();
+
+        String entityTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, insertedBook.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Book.class)
+            .getResponseHeaders()
+            .getETag();
+        assertThat(entityTag).startsWith("\"" + insertedBook.getVersion() + "-");
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, insertedBook.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+
+        authorRepository.save(authorRepository.findById(author.getId()).block().lastName("Renamed")).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, insertedBook.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.authors[0].lastName")
+            .isEqualTo("Renamed");
+
+        em.deleteAll("rel_book__author").block();
+        authorRepository.delete(author).block();
+    }
+
     @Test
     void getNonExistingBook() {
         // Get the book
@@ -372,6 +786,95 @@ class BookResourceIT {
         assertPersistedBookToMatchAllProperties(updatedBook);
     }
 
+    @Test
+    void putBookWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.save(book).block();
+        String entityTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, insertedBook.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Book.class)
+            .getResponseHeaders()
+            .getETag();
+
+        Book updatedBook = bookRepository.findById(book.getId()).block();
+        updatedBook.title(UPDATED_TITLE);
+        String updatedEntityTag = webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedBook.getId())
+            .header(HttpHeaders.IF_MATCH, entityTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(updatedBook))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Book.class)
+            .getResponseHeaders()
+            .getETag();
+        assertThat(updatedEntityTag).isNotEqualTo(entityTag);
+
+        // The tag the update was made from is stale now
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedBook.getId())
+            .header(HttpHeaders.IF_MATCH, entityTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(updatedBook.copiesOwned(UPDATED_COPIES_OWNED)))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(getPersistedBook(book).getCopiesOwned()).isEqualTo(DEFAULT_COPIES_OWNED);
+    }
+
+    @Test
+    void updateBookAuthorsOnlyWritesChangedLinks() {
+        Author kept = authorRepository.save(AuthorResourceIT.createEntity()).block();
+        Author removed = authorRepository.save(AuthorResourceIT.createEntity()).block();
+        Author added = authorRepository.save(AuthorResourceIT.createEntity()).block();
+        insertedBook = bookRepository.save(book.addAuthor(kept).addAuthor(removed)).block();
+
+        double selects = linkTableStatements("select");
+        double deletes = linkTableStatements("delete");
+        double inserts = linkTableStatements("insert");
+
+        // Saving without changes only reads the links
+        bookRepository.save(insertedBook).block();
+        assertThat(linkTableStatements("select")).isEqualTo(selects + 1);
+        assertThat(linkTableStatements("delete")).isEqualTo(deletes);
+        assertThat(linkTableStatements("insert")).isEqualTo(inserts);
+
+        // Replacing one author deletes and inserts only that link
+        insertedBook.removeAuthor(removed).addAuthor(added);
+        bookRepository.save(insertedBook).block();
+        assertThat(linkTableStatements("select")).isEqualTo(selects + 2);
+        assertThat(linkTableStatements("delete")).isEqualTo(deletes + 1);
+        assertThat(linkTableStatements("insert")).isEqualTo(inserts + 1);
+
+        List<Long> authorIds = databaseClient
+            .sql("SELECT author_id FROM rel_book__author WHERE book_id = :bookId")
+            .bind("bookId", insertedBook.getId())
+            .map(row -> row.get("author_id", Long.class))
+            .all()
+            .collectList()
+            .block();
+        assertThat(authorIds).containsExactlyInAnyOrder(kept.getId(), added.getId());
+
+        em.deleteAll("rel_book__author").block();
+        authorRepository.deleteAll(List.of(kept, removed, added)).block();
+    }
+
+    private double linkTableStatements(String operation) {
+        Counter counter = meterRegistry
+            .find(EntityManager.LINK_TABLE_STATEMENTS_METER_NAME)
+            .tag("table", "rel_book__author")
+            .tag("operation", operation)
+            .counter();
+        return counter != null ? counter.count() : 0;
+    }
+
     @Test
     void putNonExistingBook() throws Exception {
         long databaseSizeBeforeUpdate = getRepositoryCount();
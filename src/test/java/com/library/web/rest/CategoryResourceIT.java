@@ -20,6 +20,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -443,6 +445,146 @@ class CategoryResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    void getCategoryNotModified() {
+        // Initialize the database
+        insertedCategory = categoryRepository.save(category).block();
+
+        String entityTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, category.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"0\"")
+            .returnResult(Category.class)
+            .getResponseHeaders()
+            .getETag();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, category.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .exchange()
+            .expectStatus()
+            .isNotModified()
+            .expectBody()
+            .isEmpty();
+
+        categoryRepository.save(categoryRepository.findById(category.getId()).block().name(UPDATED_NAME)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, category.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"1\"")
+            .expectBody()
+            .jsonPath("$.name")
+            .value(is(UPDATED_NAME));
+    }
+
+    @Test
+    void getAllCategoriesNotModified() {
+        // Initialize the database
+        insertedCategory = categoryRepository.save(category).block();
+
+        String entityTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=5")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Category.class)
+            .getResponseHeaders()
+            .getETag();
+        assertThat(entityTag).isNotNull();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=5")
+            .accept(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+
+        categoryRepository.save(createUpdatedEntity()).block();
+
+        String changedEntityTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=5")
+            .accept(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists("X-Total-Count")
+            .returnResult(Category.class)
+            .getResponseHeaders()
+            .getETag();
+        assertThat(changedEntityTag).isNotEqualTo(entityTag);
+    }
+
+    @Test
+    void putCategoryWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedCategory = categoryRepository.save(category).block();
+        String entityTag = "\"" + insertedCategory.getVersion() + "\"";
+        categoryRepository.save(categoryRepository.findById(category.getId()).block().name("CCCCCCCCCC")).block();
+
+        Category updatedCategory = new Category().name(UPDATED_NAME);
+        updatedCategory.setId(category.getId());
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, category.getId())
+            .header(HttpHeaders.IF_MATCH, entityTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(updatedCategory))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(getPersistedCategory(category).getName()).isEqualTo("CCCCCCCCCC");
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, category.getId())
+            .header(HttpHeaders.IF_MATCH, "\"1\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(updatedCategory))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"2\"");
+        assertThat(getPersistedCategory(category).getName()).isEqualTo(UPDATED_NAME);
+    }
+
+    @Test
+    void putCategoryWithStaleVersion() throws Exception {
+        // Initialize the database
+        insertedCategory = categoryRepository.save(category).block();
+        Category staleCategory = categoryRepository.findById(category.getId()).block();
+        categoryRepository.save(categoryRepository.findById(category.getId()).block().name("CCCCCCCCCC")).block();
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, category.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(staleCategory.name(UPDATED_NAME)))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+        assertThat(getPersistedCategory(category).getName()).isEqualTo("CCCCCCCCCC");
+    }
+
     @Test
     void deleteCategory() {
         // Initialize the database
@@ -230,6 +230,29 @@ class LoanResourceIT {
             .value(hasItem(DEFAULT_RETURN_DATE.toString()));
     }
 
+    @Test
+    void getAllLoansWithSparseFieldset() {
+        // Initialize the database
+        insertedLoan = loanRepository.save(loan).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&fields=loanDate")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(loan.getId().intValue()))
+            .jsonPath("$.[*].loanDate")
+            .value(hasItem(DEFAULT_LOAN_DATE.toString()))
+            .jsonPath("$.[*].returnDate")
+            .isEmpty()
+            .jsonPath("$.[*].book")
+            .isEmpty();
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllLoansWithEagerRelationshipsIsEnabled() {
         when(loanRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(Flux.empty());
@@ -271,6 +271,29 @@ class ReaderResourceIT {
             .value(hasItem(DEFAULT_JOINED_DATE.toString()));
     }
 
+    @Test
+    void getAllReadersWithSparseFieldset() {
+        // Initialize the database
+        insertedReader = readerRepository.save(reader).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&fields=email")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(reader.getId().intValue()))
+            .jsonPath("$.[*].email")
+            .value(hasItem(DEFAULT_EMAIL))
+            .jsonPath("$.[*].firstName")
+            .isEmpty()
+            .jsonPath("$.[*].joinedDate")
+            .isEmpty();
+    }
+
     @Test
     void getReader() {
         // Initialize the database
@@ -0,0 +1,134 @@
+package com.library.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.library.IntegrationTest;
+import com.library.domain.Author;
+import com.library.domain.Book;
+import com.library.domain.Category;
+import com.library.domain.enumeration.BookStatusEnum;
+import com.library.repository.AuthorRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the caches of the categories and authors, with the book queries reading them from the caches.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.reference-cache.skip-joins=true")
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser
+class ReferenceCacheIT {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Category category;
+
+    private Author author;
+
+    private Book book;
+
+    @BeforeEach
+    void initTest() {
+        category = categoryRepository.save(new Category().name("Cached " + UUID.randomUUID())).block();
+        author = authorRepository.save(new Author().firstName("Cached").lastName("Author")).block();
+        Book newBook = new Book().title("Cached book").copiesOwned(1).status(BookStatusEnum.AVAILABLE).category(category);
+        newBook.addAuthor(author);
+        book = bookRepository.save(newBook).block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteById(book.getId()).block();
+        authorRepository.deleteById(author.getId()).block();
+        categoryRepository.deleteById(category.getId()).block();
+    }
+
+    @Test
+    void booksReadTheirCategoryAndAuthorsFromTheCaches() {
+        double categoryHits = hits("category");
+
+        getBook().jsonPath("$.category.name").isEqualTo(category.getName()).jsonPath("$.authors[0].lastName").isEqualTo("Author");
+        getBook().jsonPath("$.category.name").isEqualTo(category.getName());
+
+        assertThat(hits("category")).isGreaterThan(categoryHits);
+    }
+
+    @Test
+    void savesInvalidateTheCaches() {
+        getBook().jsonPath("$.category.name").isEqualTo(category.getName());
+        String renamed = "Renamed " + UUID.randomUUID();
+
+        webTestClient
+            .put()
+            .uri("/api/categories/{id}", category.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("id", category.getId(), "name", renamed))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        getBook().jsonPath("$.category.name").isEqualTo(renamed);
+        webTestClient.get().uri("/api/categories/{id}", category.getId()).exchange().expectBody().jsonPath("$.name").isEqualTo(renamed);
+    }
+
+    @Test
+    void cachedEntitiesAreNotSharedWithCallers() {
+        categoryRepository.findById(category.getId()).block().setName("Changed in memory");
+
+        assertThat(categoryRepository.findById(category.getId()).block().getName()).isEqualTo(category.getName());
+    }
+
+    @Test
+    void booksWithoutCategoryHaveNone() {
+        Book uncategorized = bookRepository
+            .save(new Book().title("Uncategorized").copiesOwned(1).status(BookStatusEnum.AVAILABLE))
+            .block();
+        try {
+            webTestClient
+                .get()
+                .uri("/api/books/{id}", uncategorized.getId())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.category")
+                .doesNotExist();
+        } finally {
+            bookRepository.deleteById(uncategorized.getId()).block();
+        }
+    }
+
+    private WebTestClient.BodyContentSpec getBook() {
+        return webTestClient.get().uri("/api/books/{id}", book.getId()).exchange().expectStatus().isOk().expectBody();
+    }
+
+    private double hits(String cache) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", "hit").counter().count();
+    }
+}
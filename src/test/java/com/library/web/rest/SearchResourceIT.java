@@ -0,0 +1,188 @@
+package com.library.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.library.IntegrationTest;
+import com.library.domain.Author;
+import com.library.domain.Book;
+import com.library.domain.Category;
+import com.library.domain.enumeration.BookStatusEnum;
+import com.library.repository.AuthorRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.service.search.BookSearchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link SearchResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser
+class SearchResourceIT {
+
+    private static final String BOOKS_SEARCH_URL = "/api/_search/books";
+
+    private static final Duration INDEX_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Author author;
+
+    private Category category;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        await().atMost(INDEX_TIMEOUT).until(bookSearchService::isReady);
+        author = authorRepository.save(new Author().firstName("Émile").lastName("Zolaquist")).block();
+        category = categoryRepository.save(new Category().name("Naturalismus")).block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookIds.forEach(id -> bookRepository.deleteById(id).block());
+        authorRepository.delete(author).block();
+        categoryRepository.delete(category).block();
+    }
+
+    @Test
+    void searchFindsBooksCreatedThroughTheApi() {
+        Book germinal = createBook("Germinalesque");
+        createBook("L'Assommoiresque");
+
+        await().atMost(INDEX_TIMEOUT).untilAsserted(() -> assertThat(titles("emile germinalesque")).containsExactly("Germinalesque"));
+        assertThat(titles("zolaquist")).containsExactlyInAnyOrder("Germinalesque", "L'Assommoiresque");
+        assertThat(titles("germinalesqeu")).containsExactly("Germinalesque");
+        assertThat(titles("naturalis assommoir")).containsExactly("L'Assommoiresque");
+
+        List<Book> found = webTestClient
+            .get()
+            .uri(BOOKS_SEARCH_URL + "?query={query}", "zolaquist germinalesque")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Book.class)
+            .returnResult()
+            .getResponseBody();
+        assertThat(found).singleElement().satisfies(book -> {
+            assertThat(book.getId()).isEqualTo(germinal.getId());
+            assertThat(book.getAuthors()).extracting(Author::getLastName).containsExactly("Zolaquist");
+        });
+        assertThat(meterRegistry.get(BookSearchService.SEARCH_METER_NAME).timer().count()).isPositive();
+    }
+
+    @Test
+    void searchPaginatesByRelevance() {
+        createBook("Zolaquist Zolaquist");
+        createBook("Zolaquist Chronicles");
+        createBook("Chronicles");
+
+        await().atMost(INDEX_TIMEOUT).untilAsserted(() -> assertThat(titles("zolaquist")).hasSize(3));
+        webTestClient
+            .get()
+            .uri(BOOKS_SEARCH_URL + "?query={query}&page=0&size=2", "zolaquist")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "3")
+            .expectHeader()
+            .exists("Link")
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .jsonPath("$[0].title")
+            .isEqualTo("Zolaquist Zolaquist");
+    }
+
+    @Test
+    void searchForgetsUpdatedAndDeletedBooks() {
+        Book book = createBook("Thérèse Raquinesque");
+        await()
+            .atMost(INDEX_TIMEOUT)
+            .untilAsserted(() -> assertThat(titles("therese raquinesque")).containsExactly("Thérèse Raquinesque"));
+
+        book.setTitle("Nanaesque");
+        webTestClient
+            .put()
+            .uri("/api/books/{id}", book.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(book)
+            .exchange()
+            .expectStatus()
+            .isOk();
+        await().atMost(INDEX_TIMEOUT).untilAsserted(() -> assertThat(titles("nanaesque")).containsExactly("Nanaesque"));
+        assertThat(titles("raquinesque")).isEmpty();
+
+        webTestClient.delete().uri("/api/books/{id}", book.getId()).exchange().expectStatus().isNoContent();
+        bookIds.remove(book.getId());
+        await().atMost(INDEX_TIMEOUT).untilAsserted(() -> assertThat(titles("zolaquist")).isEmpty());
+    }
+
+    private Book createBook(String title) {
+        Book book = new Book().title(title).publicationDate(LocalDate.of(1885, 3, 2)).copiesOwned(1).status(BookStatusEnum.AVAILABLE);
+        book.setCategory(category);
+        book.setCategoryId(category.getId());
+        book.addAuthor(author);
+        Book created = webTestClient
+            .post()
+            .uri("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(book)
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Book.class)
+            .returnResult()
+            .getResponseBody();
+        bookIds.add(created.getId());
+        return created;
+    }
+
+    private List<String> titles(String query) {
+        return webTestClient
+            .get()
+            .uri(BOOKS_SEARCH_URL + "?query={query}", query)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(new ParameterizedTypeReference<List<Book>>() {})
+            .returnResult()
+            .getResponseBody()
+            .stream()
+            .map(Book::getTitle)
+            .toList();
+    }
+}
@@ -0,0 +1,228 @@
+package com.library.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.library.IntegrationTest;
+import com.library.domain.Book;
+import com.library.domain.Category;
+import com.library.domain.Loan;
+import com.library.domain.LoanStatistics;
+import com.library.domain.Reader;
+import com.library.domain.enumeration.BookStatusEnum;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.repository.LoanRepository;
+import com.library.repository.ReaderRepository;
+import com.library.security.AuthoritiesConstants;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration tests for the {@link StatisticsResource} REST controller, and the maintenance of the statistics by the loans.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser
+class StatisticsResourceIT {
+
+    private static final YearMonth MARCH = YearMonth.of(2001, 3);
+
+    private static final YearMonth APRIL = YearMonth.of(2001, 4);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReaderRepository readerRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Category category;
+
+    private Book book;
+
+    private Book otherBook;
+
+    private Reader reader;
+
+    @BeforeEach
+    void initTest() {
+        String suffix = UUID.randomUUID().toString();
+        category = categoryRepository.save(new Category().name("Statistics " + suffix)).block();
+        book = bookRepository.save(createBook("Most borrowed")).block();
+        otherBook = bookRepository.save(createBook("Less borrowed")).block();
+        reader = readerRepository
+            .save(new Reader().firstName("Stat").lastName("Reader").email(suffix + "@localhost").joinedDate(LocalDate.of(2000, 1, 1)))
+            .block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        Flux.concat(loanRepository.findByBook(book.getId()), loanRepository.findByBook(otherBook.getId()))
+            .concatMap(loanRepository::delete)
+            .blockLast();
+        bookRepository.deleteById(book.getId()).block();
+        bookRepository.deleteById(otherBook.getId()).block();
+        readerRepository.deleteById(reader.getId()).block();
+        categoryRepository.deleteById(category.getId()).block();
+    }
+
+    @Test
+    void loansAreCountedByCategoryAndMonth() {
+        Loan first = createLoan(book, MARCH.atDay(2), null);
+        createLoan(otherBook, MARCH.atDay(20), null);
+        assertThat(loansOfCategory()).containsExactly(new LoanStatistics.CategoryMonth(category.getId(), category.getName(), MARCH, 2));
+
+        first.setLoanDate(APRIL.atDay(1));
+        loanRepository.save(first).block();
+        assertThat(loansOfCategory()).containsExactly(
+            new LoanStatistics.CategoryMonth(category.getId(), category.getName(), MARCH, 1),
+            new LoanStatistics.CategoryMonth(category.getId(), category.getName(), APRIL, 1)
+        );
+
+        loanRepository.delete(first).block();
+        assertThat(loansOfCategory()).containsExactly(new LoanStatistics.CategoryMonth(category.getId(), category.getName(), MARCH, 1));
+    }
+
+    @Test
+    void mostBorrowedBooksComeFirst() {
+        createLoan(book, MARCH.atDay(1), MARCH.atDay(5));
+        createLoan(book, MARCH.atDay(6), MARCH.atDay(9));
+        createLoan(book, MARCH.atDay(10), null);
+        createLoan(otherBook, MARCH.atDay(1), null);
+
+        List<LoanStatistics.BookLoans> topBooks = topBooks();
+
+        assertThat(topBooks).contains(
+            new LoanStatistics.BookLoans(book.getId(), book.getTitle(), 3),
+            new LoanStatistics.BookLoans(otherBook.getId(), otherBook.getTitle(), 1)
+        );
+        assertThat(topBooks.indexOf(new LoanStatistics.BookLoans(book.getId(), book.getTitle(), 3))).isLessThan(
+            topBooks.indexOf(new LoanStatistics.BookLoans(otherBook.getId(), otherBook.getTitle(), 1))
+        );
+        assertThat(topBooks).isSortedAccordingTo((a, b) -> Long.compare(b.loans(), a.loans()));
+    }
+
+    @Test
+    void readersAreActiveWhileTheyHaveALoan() {
+        long activeReaders = activeReaders();
+
+        Loan first = createLoan(book, MARCH.atDay(1), null);
+        assertThat(activeReaders()).isEqualTo(activeReaders + 1);
+        Loan second = createLoan(otherBook, MARCH.atDay(2), null);
+        assertThat(activeReaders()).isEqualTo(activeReaders + 1);
+
+        first.setReturnDate(MARCH.atDay(10));
+        loanRepository.save(first).block();
+        assertThat(activeReaders()).isEqualTo(activeReaders + 1);
+        loanRepository.delete(second).block();
+        assertThat(activeReaders()).isEqualTo(activeReaders);
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void rebuildRecountsFromTheLoans() {
+        createLoan(book, MARCH.atDay(1), null);
+        createLoan(book, MARCH.atDay(2), null);
+        databaseClient
+            .sql("UPDATE stats_book_loans SET loan_count = 1000 WHERE book_id = :id")
+            .bind("id", book.getId())
+            .then()
+            .block();
+        databaseClient
+            .sql("DELETE FROM stats_category_month_loans WHERE category_id = :id")
+            .bind("id", category.getId())
+            .then()
+            .block();
+
+        webTestClient.post().uri("/api/stats/rebuild").exchange().expectStatus().isNoContent();
+
+        assertThat(topBooks()).contains(new LoanStatistics.BookLoans(book.getId(), book.getTitle(), 2));
+        assertThat(loansOfCategory()).containsExactly(new LoanStatistics.CategoryMonth(category.getId(), category.getName(), MARCH, 2));
+    }
+
+    @Test
+    void rebuildIsForAdmins() {
+        webTestClient.post().uri("/api/stats/rebuild").exchange().expectStatus().isForbidden();
+    }
+
+    @Test
+    void boundsAreChecked() {
+        webTestClient.get().uri("/api/stats/top-books?limit=0").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/stats/top-books?limit=101").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/stats/loans-by-category?from=2001-04&to=2001-03").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/stats/loans-by-category?from=1990-01&to=2001-03").exchange().expectStatus().isBadRequest();
+    }
+
+    private Book createBook(String title) {
+        Book newBook = new Book().title(title + " " + UUID.randomUUID()).copiesOwned(5).status(BookStatusEnum.AVAILABLE);
+        newBook.setCategory(category);
+        return newBook;
+    }
+
+    private Loan createLoan(Book loanBook, LocalDate loanDate, LocalDate returnDate) {
+        return loanRepository.save(new Loan().loanDate(loanDate).returnDate(returnDate).book(loanBook).member(reader)).block();
+    }
+
+    private List<LoanStatistics.CategoryMonth> loansOfCategory() {
+        return webTestClient
+            .get()
+            .uri("/api/stats/loans-by-category?from={from}&to={to}", MARCH, APRIL)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(new ParameterizedTypeReference<List<LoanStatistics.CategoryMonth>>() {})
+            .returnResult()
+            .getResponseBody()
+            .stream()
+            .filter(categoryMonth -> category.getId().equals(categoryMonth.categoryId()))
+            .toList();
+    }
+
+    private List<LoanStatistics.BookLoans> topBooks() {
+        return webTestClient
+            .get()
+            .uri("/api/stats/top-books?limit=100")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(new ParameterizedTypeReference<List<LoanStatistics.BookLoans>>() {})
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private long activeReaders() {
+        return webTestClient
+            .get()
+            .uri("/api/stats/active-readers")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(LoanStatistics.ActiveReaders.class)
+            .returnResult()
+            .getResponseBody()
+            .activeReaders();
+    }
+}
@@ -158,6 +158,23 @@ class ExceptionTranslatorIT {
             .isEqualTo("test response status");
     }
 
+    @Test
+    void testPasswordHashingRejected() {
+        webTestClient
+            .get()
+            .uri("/api/exception-translator-test/password-hashing-rejected")
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.http.503")
+            .jsonPath("$.title")
+            .isEqualTo("Too many passwords being checked, try again later");
+    }
+
     @Test
     void testInternalServerError() {
         webTestClient
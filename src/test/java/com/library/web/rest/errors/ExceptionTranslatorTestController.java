@@ -1,5 +1,6 @@
 package com.library.web.rest.errors;
 
+import com.library.security.PasswordHashingRejectedException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.dao.ConcurrencyFailureException;
@@ -7,6 +8,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/exception-translator-test")
@@ -47,6 +50,11 @@ public class ExceptionTranslatorTestController {
         throw new TestResponseStatusException();
     }
 
+    @GetMapping("/password-hashing-rejected")
+    public Mono<Void> passwordHashingRejected() {
+        return Mono.error(Exceptions.failWithRejected(new PasswordHashingRejectedException()));
+    }
+
     @GetMapping("/internal-server-error")
     public void internalServerError() {
         throw new RuntimeException();
@@ -0,0 +1,75 @@
+package com.library.web.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Unit tests for {@link EntityTagUtil}.
+ */
+class EntityTagUtilTest {
+
+    @Test
+    void entityTags() {
+        assertThat(EntityTagUtil.entityTag(3L)).isEqualTo("\"3\"");
+        assertThat(EntityTagUtil.entityTag(List.of(3L, 12L, 7L))).isEqualTo("\"3-12-7\"");
+        assertThat(EntityTagUtil.entityTag(3L, List.of(12L, 7L))).isEqualTo("\"3-12-7\"");
+    }
+
+    @Test
+    void ifNoneMatchUsesTheWeakComparison() {
+        assertThat(EntityTagUtil.isNotModified(ifNoneMatch("\"3\""), "\"3\"")).isTrue();
+        assertThat(EntityTagUtil.isNotModified(ifNoneMatch("W/\"3\""), "\"3\"")).isTrue();
+        assertThat(EntityTagUtil.isNotModified(ifNoneMatch("\"1\", \"3\""), "\"3\"")).isTrue();
+        assertThat(EntityTagUtil.isNotModified(ifNoneMatch("*"), "\"3\"")).isTrue();
+        assertThat(EntityTagUtil.isNotModified(ifNoneMatch("\"2\""), "\"3\"")).isFalse();
+        assertThat(EntityTagUtil.isNotModified(MockServerHttpRequest.get("/").build(), "\"3\"")).isFalse();
+        assertThat(EntityTagUtil.hasIfNoneMatch(MockServerHttpRequest.get("/").build())).isFalse();
+    }
+
+    @Test
+    void notModifiedAndTaggedResponses() {
+        ResponseEntity<String> notModified = EntityTagUtil.notModified("\"3\"");
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getHeaders().getETag()).isEqualTo("\"3\"");
+        assertThat(notModified.getBody()).isNull();
+
+        ResponseEntity<String> tagged = EntityTagUtil.withEntityTag(
+            ResponseEntity.ok().header(HttpHeaders.LINK, "<next>").body("body"),
+            "\"3-12-7\""
+        );
+        assertThat(tagged.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(tagged.getHeaders().getETag()).isEqualTo("\"3-12-7\"");
+        assertThat(tagged.getHeaders().getFirst(HttpHeaders.LINK)).isEqualTo("<next>");
+        assertThat(tagged.getBody()).isEqualTo("body");
+    }
+
+    @Test
+    void expectedVersionIsTheFirstNumberOfTheTag() {
+        assertThat(EntityTagUtil.expectedVersion(null)).isNull();
+        assertThat(EntityTagUtil.expectedVersion("*")).isNull();
+        assertThat(EntityTagUtil.expectedVersion("\"3\"")).isEqualTo(3L);
+        assertThat(EntityTagUtil.expectedVersion(" \"3-12-7\" ")).isEqualTo(3L);
+    }
+
+    @Test
+    void expectedVersionRejectsTagsWhichCannotMatch() {
+        for (String ifMatch : List.of("W/\"3\"", "3", "\"\"", "\"three\"")) {
+            assertThatThrownBy(() -> EntityTagUtil.expectedVersion(ifMatch))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+
+    private static MockServerHttpRequest ifNoneMatch(String value) {
+        return MockServerHttpRequest.get("/").header(HttpHeaders.IF_NONE_MATCH, value).build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.web.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.library.domain.Book;
+import com.library.repository.Fieldset;
+import com.library.web.codec.SparseFieldset;
+import com.library.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * Unit tests for {@link FieldsetUtil}.
+ */
+class FieldsetUtilTest {
+
+    private static final Set<String> FIELDS = Set.of("id", "title", "status");
+
+    @Test
+    void noFieldsSelectsAllTheFields() {
+        ServerHttpRequest request = MockServerWebExchange.from(MockServerHttpRequest.get("/")).getRequest();
+
+        assertThat(FieldsetUtil.resolveFieldset(request, null, Book.class, FIELDS, "book").isAll()).isTrue();
+        assertThat(FieldsetUtil.resolveFieldset(request, " ", Book.class, FIELDS, "book").isAll()).isTrue();
+        assertThat(request.getAttributes()).doesNotContainKey(SparseFieldset.ATTRIBUTE);
+    }
+
+    @Test
+    void fieldsAreRecordedOnTheRequestWithTheId() {
+        ServerHttpRequest request = MockServerWebExchange.from(MockServerHttpRequest.get("/")).getRequest();
+
+        Fieldset fieldset = FieldsetUtil.resolveFieldset(request, "status, title", Book.class, FIELDS, "book");
+
+        assertThat(fieldset.getFields()).containsExactly("id", "status", "title");
+        assertThat(fieldset.includes("copiesOwned")).isFalse();
+        assertThat(fieldset.getShape()).isEqualTo("id,status,title");
+        assertThat(fieldset.with("copiesOwned").getFields()).containsExactly("copiesOwned", "id", "status", "title");
+        assertThat(request.getAttributes()).containsEntry(SparseFieldset.ATTRIBUTE, new SparseFieldset(Book.class, fieldset));
+    }
+
+    @Test
+    void unknownFieldsAreRejected() {
+        ServerHttpRequest request = MockServerWebExchange.from(MockServerHttpRequest.get("/")).getRequest();
+
+        assertThatThrownBy(() -> FieldsetUtil.resolveFieldset(request, "title,password", Book.class, FIELDS, "book"))
+            .isInstanceOf(BadRequestAlertException.class)
+            .extracting("errorKey")
+            .isEqualTo("fieldsinvalid");
+        assertThat(FieldsetUtil.resolveFieldset(request, "title", Book.class, List.of("title"), "book").getFields()).containsExactly(
+            "id",
+            "title"
+        );
+    }
+}
@@ -0,0 +1,124 @@
+package com.library.web.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.library.domain.Book;
+import com.library.repository.Keyset;
+import com.library.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Unit tests for {@link KeysetPaginationUtil}.
+ */
+class KeysetPaginationUtilTest {
+
+    private static final Map<String, Function<Book, Object>> PROPERTIES = Map.of("id", Book::getId, "title", Book::getTitle);
+
+    @Test
+    void resolveFirstPageFromSort() {
+        Keyset keyset = KeysetPaginationUtil.resolveKeyset(null, 5, "title,desc", Book.class, PROPERTIES.keySet(), "book");
+
+        assertThat(keyset).isEqualTo(Keyset.first("title", Sort.Direction.DESC, 5));
+        assertThat(keyset.isFirst()).isTrue();
+    }
+
+    @Test
+    void resolveFirstPageDefaultsToIdAscending() {
+        Keyset keyset = KeysetPaginationUtil.resolveKeyset(null, null, null, Book.class, PROPERTIES.keySet(), "book");
+
+        assertThat(keyset).isEqualTo(Keyset.first("id", Sort.Direction.ASC, KeysetPaginationUtil.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        Keyset keyset = Keyset.first("title", Sort.Direction.ASC, 10).after("Dune, part 1 & 2 = 100%", 42L);
+
+        Keyset resolved = KeysetPaginationUtil.resolveKeyset(keyset.toToken(), 10, "id,desc", Book.class, PROPERTIES.keySet(), "book");
+
+        assertThat(resolved).isEqualTo(keyset);
+    }
+
+    @Test
+    void rejectsUnknownSortProperty() {
+        assertThatThrownBy(() ->
+            KeysetPaginationUtil.resolveKeyset(null, 5, "publicationDate", Book.class, PROPERTIES.keySet(), "book")
+        ).isInstanceOf(BadRequestAlertException.class);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() ->
+            KeysetPaginationUtil.resolveKeyset("not-a-cursor", 5, null, Book.class, Set.of("id"), "book")
+        ).isInstanceOf(BadRequestAlertException.class);
+    }
+
+    @Test
+    void rejectsCursorWhoseValueIsNotOfThePropertyType() {
+        Map<String, Function<Book, Object>> properties = Map.of("copiesOwned", Book::getCopiesOwned, "status", Book::getStatus);
+        String copiesOwned = Keyset.first("copiesOwned", Sort.Direction.ASC, 10).after("many", 42L).toToken();
+        String status = Keyset.first("status", Sort.Direction.ASC, 10).after("LOST", 42L).toToken();
+
+        assertThatThrownBy(() -> KeysetPaginationUtil.resolveKeyset(copiesOwned, 10, null, Book.class, properties.keySet(), "book"))
+            .isInstanceOf(BadRequestAlertException.class)
+            .hasFieldOrPropertyWithValue("errorKey", "cursorinvalid");
+        assertThatThrownBy(() -> KeysetPaginationUtil.resolveKeyset(status, 10, null, Book.class, properties.keySet(), "book"))
+            .isInstanceOf(BadRequestAlertException.class)
+            .hasFieldOrPropertyWithValue("errorKey", "cursorinvalid");
+    }
+
+    @Test
+    void rejectsInvalidPageSize() {
+        assertThatThrownBy(() -> KeysetPaginationUtil.resolveKeyset(null, 0, null, Book.class, Set.of("id"), "book")).isInstanceOf(
+            BadRequestAlertException.class
+        );
+        assertThatThrownBy(() ->
+            KeysetPaginationUtil.resolveKeyset(null, KeysetPaginationUtil.MAX_PAGE_SIZE + 1, null, Book.class, Set.of("id"), "book")
+        ).isInstanceOf(BadRequestAlertException.class);
+    }
+
+    @Test
+    void lastPageHasNoLink() {
+        Keyset keyset = Keyset.first("id", Sort.Direction.ASC, 2);
+        List<Book> rows = List.of(new Book().id(1L), new Book().id(2L));
+
+        ResponseEntity<List<Book>> response = KeysetPaginationUtil.createKeysetResponse(
+            UriComponentsBuilder.fromUriString("http://localhost/api/books?size=2"),
+            keyset,
+            rows,
+            Book::getId,
+            PROPERTIES
+        );
+
+        assertThat(response.getBody()).containsExactlyElementsOf(rows);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.LINK)).isFalse();
+    }
+
+    @Test
+    void lookaheadRowIsDroppedAndLinked() {
+        Keyset keyset = Keyset.first("title", Sort.Direction.ASC, 2);
+        List<Book> rows = List.of(new Book().id(7L).title("a"), new Book().id(3L).title("b"), new Book().id(5L).title("c"));
+
+        ResponseEntity<List<Book>> response = KeysetPaginationUtil.createKeysetResponse(
+            UriComponentsBuilder.fromUriString("http://localhost/api/books?size=2&sort=title,asc"),
+            keyset,
+            rows,
+            Book::getId,
+            PROPERTIES
+        );
+
+        assertThat(response.getBody()).containsExactlyElementsOf(rows.subList(0, 2));
+        String expectedCursor = keyset.after("b", 3L).toToken();
+        assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).isEqualTo(
+            "<http://localhost/api/books?cursor=" + expectedCursor + "&size=2>; rel=\"next\""
+        );
+    }
+}